@@ -0,0 +1,24 @@
+package md2docx.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 基准测试入口, 支持 JMH 的全部命令行参数, 并默认启用 GC profiler 输出分配速率
+ * <p>
+ * 例: java -jar benchmarks/target/benchmarks.jar MarkdownBenchmark -p size=1KB,1MB
+ *
+ * @author ludangxin
+ * @since 2026/10/17
+ */
+public class BenchmarkRunner {
+    public static void main(String[] args) throws Exception {
+        final Options options = new OptionsBuilder().parent(new CommandLineOptions(args))
+                                                    .addProfiler(GCProfiler.class)
+                                                    .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,72 @@
+package md2docx.benchmark;
+
+import md2docx.CompiledTemplate;
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.docx4j.wml.Styles;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 空白文档: 每次 {@code WordprocessingMLPackage.createPackage()} 与从预先编译的空白模板拷贝(Docs.builder() 的做法)
+ * <p>
+ * 转换时一定会访问正文和样式, 两种方式都计入样式的获取。
+ *
+ * @author ludangxin
+ * @since 2026/10/17
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class BlankPackageBenchmark {
+    private CompiledTemplate blank;
+
+    @Setup
+    public void setup() throws Exception {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        WordprocessingMLPackage.createPackage()
+                               .save(outputStream);
+        blank = CompiledTemplate.compile(outputStream.toByteArray());
+    }
+
+    @Benchmark
+    public Styles createPackage() throws Exception {
+        return WordprocessingMLPackage.createPackage()
+                                      .getMainDocumentPart()
+                                      .getStyleDefinitionsPart()
+                                      .getJaxbElement();
+    }
+
+    @Benchmark
+    public Styles cloneBlank() {
+        return blank.newPackage()
+                    .getMainDocumentPart()
+                    .getStyleDefinitionsPart()
+                    .getJaxbElement();
+    }
+
+    @Benchmark
+    public void createPackageAndSave() throws Exception {
+        WordprocessingMLPackage.createPackage()
+                               .save(SyntheticDocuments.nullOutputStream());
+    }
+
+    @Benchmark
+    public void cloneBlankAndSave() throws Exception {
+        blank.newPackage()
+             .save(SyntheticDocuments.nullOutputStream());
+    }
+}
@@ -0,0 +1,138 @@
+package md2docx.benchmark;
+
+import com.deepoove.poi.config.Configure;
+import md2docx.CompiledTemplate;
+import md2docx.Docs;
+import md2docx.Markdowns;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DocBuilder 各个 buildWord 重载的端到端耗时
+ * <p>
+ * size 为 html/markdown 内容的大小, 模板正文固定为 64KB。
+ * 默认只跑到 1MB, 更大的输入通过 -p size=10MB,50MB 指定。
+ *
+ * @author ludangxin
+ * @since 2026/10/17
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class BuildWordBenchmark {
+    @Param({"1KB", "64KB", "1MB"})
+    public String size;
+
+    private String markdown;
+
+    private String html;
+
+    private CompiledTemplate template;
+
+    private Map<String, Object> textData;
+
+    private Map<String, Object> htmlData;
+
+    private Map<String, Object> mixedData;
+
+    private File outputFile;
+
+    @Setup
+    public void setup() throws Exception {
+        markdown = SyntheticDocuments.markdown(size);
+        html = SyntheticDocuments.html(size);
+        template = SyntheticDocuments.compiledTemplate("64KB");
+        textData = SyntheticDocuments.textData();
+        htmlData = SyntheticDocuments.htmlData(size);
+        mixedData = SyntheticDocuments.mixedData(size);
+        outputFile = File.createTempFile("md2docx-benchmark", ".docx");
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(outputFile.toPath());
+    }
+
+    /**
+     * markdown → html → xhtml 导入
+     */
+    @Benchmark
+    public void markdownViaHtml() {
+        Docs.builder()
+            .buildWord(Markdowns.builder(markdown)
+                                .buildHtmlContent(), SyntheticDocuments.nullOutputStream());
+    }
+
+    /**
+     * markdown 语法树直接转换
+     */
+    @Benchmark
+    public void markdownDirect() {
+        Docs.builder()
+            .buildWord(Markdowns.builder(markdown), SyntheticDocuments.nullOutputStream());
+    }
+
+    @Benchmark
+    public void htmlToOutputStream() {
+        Docs.builder()
+            .buildWord(html, SyntheticDocuments.nullOutputStream());
+    }
+
+    @Benchmark
+    public void htmlToFile() {
+        Docs.builder()
+            .buildWord(html, outputFile);
+    }
+
+    @Benchmark
+    public void templateTextToOutputStream() {
+        Docs.builder(template)
+            .buildWord(textData, SyntheticDocuments.nullOutputStream());
+    }
+
+    /**
+     * 与 templateTextToOutputStream 对比: 指定 poi-tl 配置后普通占位符交给 poi-tl 渲染, 不走 zip 直接改写
+     */
+    @Benchmark
+    public void templateTextWithPoiTlToOutputStream() {
+        Docs.builder(template)
+            .templateEngineConfigure(Configure.createDefault())
+            .buildWord(textData, SyntheticDocuments.nullOutputStream());
+    }
+
+    @Benchmark
+    public void templateHtmlToOutputStream() {
+        Docs.builder(template)
+            .buildWord(htmlData, SyntheticDocuments.nullOutputStream());
+    }
+
+    @Benchmark
+    public void templateMixedToOutputStream() {
+        Docs.builder(template)
+            .buildWord(mixedData, SyntheticDocuments.nullOutputStream());
+    }
+
+    @Benchmark
+    public void templateMixedToFile() {
+        Docs.builder(template)
+            .buildWord(mixedData, outputFile);
+    }
+}
@@ -0,0 +1,97 @@
+package md2docx.benchmark;
+
+import md2docx.CompiledTemplate;
+import md2docx.Docs;
+import md2docx.Markdowns;
+import md2docx.OutputCompression;
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.docx4j.openpackaging.parts.WordprocessingML.BinaryPartAbstractImage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 输出压缩配置: 保存耗时与文件大小的取舍
+ * <p>
+ * 模板包含一张约 200KB 的 jpeg 图片, markdown 转换结果加入模板副本后只计入保存的耗时;
+ * 每种配置的输出大小在 setup 时记录一次日志, 与耗时结果对照。
+ *
+ * @author ludangxin
+ * @since 2026/10/17
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class CompressionBenchmark {
+    private static final Logger log = LoggerFactory.getLogger(CompressionBenchmark.class);
+
+    @Param({"64KB", "1MB"})
+    public String size;
+
+    @Param({"STORE", "FAST", "DEFAULT", "MAX", "MAX_STORE_MEDIA"})
+    public String profile;
+
+    private WordprocessingMLPackage wordMLPackage;
+
+    private OutputCompression compression;
+
+    @Setup
+    public void setup() throws Exception {
+        final CompiledTemplate template = CompiledTemplate.compile(templateWithImage());
+        wordMLPackage = template.newPackage();
+        wordMLPackage.getMainDocumentPart()
+                     .getContent()
+                     .addAll(Docs.builder(template)
+                                 .buildWordML(Markdowns.builder(SyntheticDocuments.markdown(size))));
+        compression = "MAX_STORE_MEDIA".equals(profile) ? OutputCompression.builder(OutputCompression.Level.MAX)
+                                                                           .storeCompressedMedia()
+                                                                           .build() : OutputCompression.builder(OutputCompression.Level.valueOf(profile))
+                                                                                                       .build();
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        compression.save(wordMLPackage, outputStream);
+        log.info("{} {}: {} bytes", size, profile, outputStream.size());
+    }
+
+    @Benchmark
+    public void save() throws Exception {
+        compression.save(wordMLPackage, SyntheticDocuments.nullOutputStream());
+    }
+
+    private static byte[] templateWithImage() throws Exception {
+        final BufferedImage image = new BufferedImage(512, 512, BufferedImage.TYPE_INT_RGB);
+        final Random random = new Random(42);
+        for (int x = 0; x < image.getWidth(); x++) {
+            for (int y = 0; y < image.getHeight(); y++) {
+                image.setRGB(x, y, random.nextInt(0xFFFFFF));
+            }
+        }
+        final ByteArrayOutputStream imageOutputStream = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpeg", imageOutputStream);
+
+        final WordprocessingMLPackage wordMLPackage = WordprocessingMLPackage.createPackage();
+        BinaryPartAbstractImage.createImagePart(wordMLPackage, imageOutputStream.toByteArray());
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        wordMLPackage.save(outputStream);
+        return outputStream.toByteArray();
+    }
+}
@@ -0,0 +1,80 @@
+package md2docx.benchmark;
+
+import md2docx.DocUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * html 判断: 单次扫描与原正则实现对比
+ * <p>
+ * adversarial 为大量未闭合的 '&lt;', 正则会严重回溯(8KB 约 1s), 大小只到 8KB; 单次扫描的耗时随大小线性增长。
+ *
+ * @author ludangxin
+ * @since 2026/10/17
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class HtmlDetectionBenchmark {
+    @Param({"1KB", "2KB", "4KB", "8KB"})
+    public String size;
+
+    @Param({"text", "html", "adversarial"})
+    public String kind;
+
+    private String value;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final int targetSize = SyntheticDocuments.parseSize(size);
+        final String unit;
+        switch (kind) {
+            case "html":
+                unit = "<p>德玛西亚</p>";
+                break;
+            case "adversarial":
+                unit = "< a";
+                break;
+            default:
+                unit = "德玛西亚皇子, 光盾家族的继承人. ";
+        }
+
+        final StringBuilder sb = new StringBuilder(targetSize + unit.length());
+        while (sb.length() < targetSize) {
+            sb.append(unit);
+        }
+        value = sb.toString();
+    }
+
+    @Benchmark
+    public boolean isHtml() {
+        return DocUtils.isHtml(value);
+    }
+
+    /**
+     * 原 DocUtils.isHtml 的正则实现
+     */
+    @Benchmark
+    public boolean isHtmlByRegex() {
+        final String trimmed = value.trim();
+        if (trimmed.isEmpty()) {
+            return false;
+        }
+        return trimmed.matches("(?s).*<\\s*[^>]+\\s*[/]?\\s*>.*") || trimmed.matches("(?si).*(<html>|<body>|<head>|<p>|<div>|<h\\d+>).*");
+    }
+}
@@ -0,0 +1,64 @@
+package md2docx.benchmark;
+
+import org.docx4j.convert.in.xhtml.FormattingOption;
+import org.docx4j.convert.in.xhtml.XHTMLImporterImpl;
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * XHTMLImporterImpl.convert
+ * <p>
+ * 默认只跑到 1MB, 更大的输入通过 -p size=10MB,50MB 指定。
+ *
+ * @author ludangxin
+ * @since 2026/10/17
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class HtmlImportBenchmark {
+    @Param({"1KB", "64KB", "1MB"})
+    public String size;
+
+    private String xhtml;
+
+    private XHTMLImporterImpl importer;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        xhtml = SyntheticDocuments.xhtml(size);
+    }
+
+    /**
+     * 导入器和文档绑定, 每次调用使用新的文档
+     */
+    @Setup(Level.Invocation)
+    public void newImporter() throws Exception {
+        importer = new XHTMLImporterImpl(WordprocessingMLPackage.createPackage());
+        importer.setParagraphFormatting(FormattingOption.CLASS_PLUS_OTHER);
+        importer.setRunFormatting(FormattingOption.CLASS_PLUS_OTHER);
+        importer.setTableFormatting(FormattingOption.CLASS_PLUS_OTHER);
+    }
+
+    @Benchmark
+    public List<Object> convert() throws Exception {
+        return importer.convert(xhtml, null);
+    }
+}
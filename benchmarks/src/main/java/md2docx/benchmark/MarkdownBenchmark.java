@@ -0,0 +1,86 @@
+package md2docx.benchmark;
+
+import com.vladsch.flexmark.util.ast.Document;
+import md2docx.DocUtils;
+import md2docx.MarkdownEngine;
+import md2docx.Markdowns;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * markdown 解析、html 渲染以及 html 规范化(wrapperHtml/addHtmlStyles)
+ *
+ * @author ludangxin
+ * @since 2026/10/17
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class MarkdownBenchmark {
+    private static final String GLOBAL_CSS = "table{border-collapse:collapse;border-spacing:0;width:100%;margin:1em 0;background-color:transparent;}table th{background-color:#f7f7f7;border:1px solid #ddd;padding:8px 12px;text-align:left}table td{border:1px solid #ddd;padding:8px 12px}";
+
+    @Param({"1KB", "64KB", "1MB", "10MB", "50MB"})
+    public String size;
+
+    private MarkdownEngine engine;
+
+    private String markdown;
+
+    private Document document;
+
+    private String html;
+
+    @Setup
+    public void setup() {
+        engine = MarkdownEngine.getDefault();
+        markdown = SyntheticDocuments.markdown(size);
+        document = engine.parse(markdown);
+        html = engine.render(document);
+    }
+
+    @Benchmark
+    public Document parse() {
+        return engine.parse(markdown);
+    }
+
+    @Benchmark
+    public String renderHtml() {
+        return engine.render(document);
+    }
+
+    /**
+     * Markdowns.MarkdownBuilder#buildHtmlContent: 解析 + 渲染 + jsoup 规范化
+     */
+    @Benchmark
+    public String buildHtmlContent() {
+        return Markdowns.builder(markdown)
+                        .buildHtmlContent();
+    }
+
+    /**
+     * wrapperHtml 的 jsoup 规范化
+     */
+    @Benchmark
+    public String wrapperHtml() {
+        return DocUtils.toXhtml(html);
+    }
+
+    @Benchmark
+    public String addHtmlStyles() {
+        return DocUtils.addHtmlStyles(html, GLOBAL_CSS);
+    }
+}
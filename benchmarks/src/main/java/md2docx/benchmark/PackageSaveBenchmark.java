@@ -0,0 +1,51 @@
+package md2docx.benchmark;
+
+import md2docx.Docs;
+import md2docx.Markdowns;
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 文档保存(JAXB 序列化 + zip 压缩)
+ *
+ * @author ludangxin
+ * @since 2026/10/17
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class PackageSaveBenchmark {
+    @Param({"1KB", "64KB", "1MB", "10MB"})
+    public String size;
+
+    private WordprocessingMLPackage wordMLPackage;
+
+    @Setup
+    public void setup() throws Exception {
+        wordMLPackage = WordprocessingMLPackage.createPackage();
+        wordMLPackage.getMainDocumentPart()
+                     .getContent()
+                     .addAll(Docs.builder()
+                                 .buildWordML(Markdowns.builder(SyntheticDocuments.markdown(size))));
+    }
+
+    @Benchmark
+    public void save() throws Exception {
+        wordMLPackage.save(SyntheticDocuments.nullOutputStream());
+    }
+}
@@ -0,0 +1,88 @@
+package md2docx.benchmark;
+
+import md2docx.CompiledTemplate;
+import md2docx.DocUtils;
+import md2docx.PlaceHolderIndex;
+import md2docx.TextPlaceHolderRenderer;
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 占位符匹配: 单个占位符匹配、正文占位符索引扫描、普通占位符直接替换
+ *
+ * @author ludangxin
+ * @since 2026/10/17
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class PlaceHolderBenchmark {
+    @Param({"1KB", "64KB", "1MB"})
+    public String size;
+
+    private CompiledTemplate template;
+
+    private List<Object> content;
+
+    private Map<String, Object> data;
+
+    private WordprocessingMLPackage wordMLPackage;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        template = SyntheticDocuments.compiledTemplate(size);
+        content = template.newPackage()
+                          .getMainDocumentPart()
+                          .getContent();
+        data = SyntheticDocuments.textData();
+    }
+
+    /**
+     * 替换会修改文档, 每次调用使用新的副本
+     */
+    @Setup(Level.Invocation)
+    public void newPackage() {
+        wordMLPackage = template.newPackage();
+    }
+
+    @Benchmark
+    public void matchPlaceHolder(Blackhole blackhole) {
+        for (Object o : content) {
+            final String text = DocUtils.extractText(o);
+            for (String key : data.keySet()) {
+                blackhole.consume(DocUtils.matchPlaceHolder(text, key, SyntheticDocuments.PLACEHOLDER_PREFIX, SyntheticDocuments.PLACEHOLDER_SUFFIX));
+            }
+        }
+    }
+
+    @Benchmark
+    public PlaceHolderIndex scanIndex() {
+        return PlaceHolderIndex.scan(content, SyntheticDocuments.PLACEHOLDER_PREFIX, SyntheticDocuments.PLACEHOLDER_SUFFIX);
+    }
+
+    @Benchmark
+    public WordprocessingMLPackage renderText() {
+        final TextPlaceHolderRenderer renderer = TextPlaceHolderRenderer.scan(wordMLPackage, SyntheticDocuments.PLACEHOLDER_PREFIX, SyntheticDocuments.PLACEHOLDER_SUFFIX);
+        renderer.render(data);
+        return wordMLPackage;
+    }
+}
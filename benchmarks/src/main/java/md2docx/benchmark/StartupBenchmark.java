@@ -0,0 +1,74 @@
+package md2docx.benchmark;
+
+import md2docx.Docs;
+import md2docx.Markdowns;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 冷启动: 每个 fork 是一个新的 JVM, 只测量其中第一次调用的耗时
+ * <p>
+ * 对比 AppCDS 的收益时, 先用同一个 jar 生成归档, 再分别在有无归档的情况下运行:
+ * <pre>
+ * java -XX:ArchiveClassesAtExit=md2docx.jsa -cp benchmarks/target/benchmarks.jar md2docx.WarmUp
+ * java -jar benchmarks/target/benchmarks.jar StartupBenchmark
+ * java -jar benchmarks/target/benchmarks.jar StartupBenchmark -jvmArgsAppend -XX:SharedArchiveFile=md2docx.jsa
+ * </pre>
+ *
+ * @author ludangxin
+ * @since 2026/10/17
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(value = 5, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class StartupBenchmark {
+    private final String markdown = SyntheticDocuments.markdown("1KB");
+
+    /**
+     * 新 JVM 中的第一次转换(markdown 含表格, 同时经过 xhtml 导入)
+     */
+    @Benchmark
+    public void firstBuildWord() {
+        Docs.builder()
+            .buildWord(Markdowns.builder(markdown + "\n<p>德玛西亚</p>\n"), SyntheticDocuments.nullOutputStream());
+    }
+
+    /**
+     * 预热本身的耗时
+     */
+    @Benchmark
+    public long warmUp() {
+        return Docs.warmUp();
+    }
+
+    /**
+     * 预热之后的第一次转换, 预热在 setup 中完成, 不计入耗时
+     */
+    @Benchmark
+    public void firstBuildWordAfterWarmUp(WarmedUp warmedUp) {
+        Docs.builder()
+            .buildWord(Markdowns.builder(markdown + "\n<p>德玛西亚</p>\n"), SyntheticDocuments.nullOutputStream());
+    }
+
+    @State(Scope.Benchmark)
+    public static class WarmedUp {
+        @Setup(Level.Trial)
+        public void setup() {
+            Docs.warmUp();
+        }
+    }
+}
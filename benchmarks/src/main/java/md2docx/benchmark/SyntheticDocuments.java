@@ -0,0 +1,156 @@
+package md2docx.benchmark;
+
+import md2docx.CompiledTemplate;
+import md2docx.DocUtils;
+import md2docx.MarkdownEngine;
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.docx4j.openpackaging.parts.WordprocessingML.MainDocumentPart;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 基准测试使用的合成文档
+ * <p>
+ * 按目标大小(如 1KB、64KB、1MB、10MB、50MB)重复拼接包含标题、段落、列表、表格、引用、代码块的 markdown 片段,
+ * 相同大小的输入内容固定, 保证多次运行之间可比较。
+ *
+ * @author ludangxin
+ * @since 2026/10/17
+ */
+public final class SyntheticDocuments {
+    public static final String PLACEHOLDER_PREFIX = "{{";
+
+    public static final String PLACEHOLDER_SUFFIX = "}}";
+
+    private static final String MARKDOWN_BLOCK = "## 嘉文四世 %d\n\n" + "> 德玛西亚\n\n" + "**给我找些更强的敌人！** 德玛西亚皇子, *光盾家族* 的继承人, 详情见 [英雄联盟](https://lol.qq.com/) 与 `champion.jarvan`。\n\n" + "- 上单\n" + "- 打野\n" + "  - 中路\n\n" + "1. 龙枪破防\n" + "2. 黄金圣盾\n" + "3. 天崩地裂\n\n" + "| 技能 | 冷却 | 消耗 |\n" + "| --- | :---: | ---: |\n" + "| 龙枪破防 | 10 | 45 |\n" + "| 天崩地裂 | 120 | 100 |\n\n" + "```java\n" + "public static void main(String[] args) {\n" + "    System.out.println(\"德玛西亚\");\n" + "}\n" + "```\n\n" + "---\n\n";
+
+    private SyntheticDocuments() {
+    }
+
+    /**
+     * 解析大小描述, 支持 B/KB/MB 后缀
+     */
+    public static int parseSize(String size) {
+        final String value = size.trim()
+                                 .toUpperCase(Locale.ROOT);
+        if (value.endsWith("MB")) {
+            return Integer.parseInt(value.substring(0, value.length() - 2)) * 1024 * 1024;
+        }
+        if (value.endsWith("KB")) {
+            return Integer.parseInt(value.substring(0, value.length() - 2)) * 1024;
+        }
+        if (value.endsWith("B")) {
+            return Integer.parseInt(value.substring(0, value.length() - 1));
+        }
+        return Integer.parseInt(value);
+    }
+
+    /**
+     * 生成不小于目标大小(按字符数)的 markdown
+     */
+    public static String markdown(String size) {
+        final int targetSize = parseSize(size);
+        final StringBuilder sb = new StringBuilder(targetSize + MARKDOWN_BLOCK.length() * 2);
+
+        for (int i = 0; sb.length() < targetSize; i++) {
+            sb.append(String.format(MARKDOWN_BLOCK, i));
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * 生成与 markdown 内容对应的 html 片段
+     */
+    public static String html(String size) {
+        final MarkdownEngine engine = MarkdownEngine.getDefault();
+        return engine.render(engine.parse(markdown(size)));
+    }
+
+    /**
+     * 生成 xhtml 文档(可以直接交给 XHTMLImporterImpl)
+     */
+    public static String xhtml(String size) {
+        return DocUtils.toXhtml(html(size));
+    }
+
+    /**
+     * 生成带占位符的模板: 正文中每 8 个段落包含 1 个普通占位符, 末尾包含 1 个独占一段的 html 占位符
+     *
+     * @param size 模板正文的大致大小
+     * @return docx 内容
+     */
+    public static byte[] template(String size) throws Exception {
+        final int targetSize = parseSize(size);
+        final WordprocessingMLPackage wordMLPackage = WordprocessingMLPackage.createPackage();
+        final MainDocumentPart mainDocumentPart = wordMLPackage.getMainDocumentPart();
+
+        int length = 0;
+        for (int i = 0; length < targetSize; i++) {
+            final String text = i % 8 == 0 ? "英雄名称: " + placeHolder("user" + (i / 8 % 16)) : "德玛西亚皇子, 光盾家族的继承人, 第 " + i + " 段";
+            mainDocumentPart.addParagraphOfText(text);
+            length += text.length();
+        }
+        mainDocumentPart.addParagraphOfText(placeHolder("description"));
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        wordMLPackage.save(outputStream);
+        return outputStream.toByteArray();
+    }
+
+    public static CompiledTemplate compiledTemplate(String size) throws Exception {
+        return CompiledTemplate.compile(template(size));
+    }
+
+    /**
+     * 模板的普通占位符数据
+     */
+    public static Map<String, Object> textData() {
+        final Map<String, Object> data = new HashMap<>();
+        for (int i = 0; i < 16; i++) {
+            data.put("user" + i, "嘉文四世" + i);
+        }
+        return data;
+    }
+
+    /**
+     * 模板的 html 占位符数据
+     */
+    public static Map<String, Object> htmlData(String htmlSize) {
+        final Map<String, Object> data = new HashMap<>();
+        data.put("description", html(htmlSize));
+        return data;
+    }
+
+    /**
+     * 模板的普通/html 混合占位符数据
+     */
+    public static Map<String, Object> mixedData(String htmlSize) {
+        final Map<String, Object> data = textData();
+        data.putAll(htmlData(htmlSize));
+        return data;
+    }
+
+    public static String placeHolder(String key) {
+        return PLACEHOLDER_PREFIX + key + PLACEHOLDER_SUFFIX;
+    }
+
+    /**
+     * 丢弃写入内容的输出流, 用于排除磁盘 IO 的影响
+     */
+    public static OutputStream nullOutputStream() {
+        return new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+            }
+        };
+    }
+}
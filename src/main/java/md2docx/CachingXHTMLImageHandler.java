@@ -0,0 +1,67 @@
+package md2docx;
+
+import lombok.extern.slf4j.Slf4j;
+import org.docx4j.convert.in.xhtml.XHTMLImageHandlerDefault;
+import org.docx4j.convert.in.xhtml.XHTMLImporterImpl;
+import org.docx4j.convert.in.xhtml.renderer.Docx4jUserAgent;
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.docx4j.openpackaging.parts.WordprocessingML.BinaryPartAbstractImage;
+import org.docx4j.wml.P;
+import org.w3c.dom.Element;
+
+/**
+ * 使用 {@link DocumentImages} 的 xhtml 图片处理
+ * <p>
+ * 图片部件从文档级的去重表中获取后放入默认处理器的部件缓存, 再交给默认处理器计算尺寸、生成图片,
+ * 默认处理器的缩放规则保持不变。图片读取失败时按默认处理器原有逻辑处理。
+ *
+ * @author ludangxin
+ * @since 2026/10/17
+ */
+@Slf4j
+class CachingXHTMLImageHandler extends XHTMLImageHandlerDefault {
+    /**
+     * 默认处理器按 src 查找部件缓存, 以内容摘要作为 src 让不同地址的相同图片共享部件
+     */
+    private static final String SRC_PREFIX = "md2docx-image:";
+
+    private final DocumentImages documentImages;
+
+    private final String staticResourceBaseUri;
+
+    CachingXHTMLImageHandler(XHTMLImporterImpl importer, DocumentImages documentImages, String staticResourceBaseUri) {
+        super(importer);
+        this.documentImages = documentImages;
+        this.staticResourceBaseUri = staticResourceBaseUri;
+    }
+
+    @Override
+    public void addImage(Docx4jUserAgent docx4jUserAgent, WordprocessingMLPackage wordMLPackage, P p, Element e, Long cx, Long cy) {
+        final String src = e.getAttribute("src");
+        if (src == null || src.isEmpty() || wordMLPackage != documentImages.getPackage()) {
+            super.addImage(docx4jUserAgent, wordMLPackage, p, e, cx, cy);
+            return;
+        }
+
+        final BinaryPartAbstractImage imagePart;
+        try {
+            imagePart = documentImages.getImagePart(src, staticResourceBaseUri);
+        }
+        catch (Exception ex) {
+            log.warn("failed to load html image: {}", src, ex);
+            super.addImage(docx4jUserAgent, wordMLPackage, p, e, cx, cy);
+            return;
+        }
+
+        final String key = SRC_PREFIX + imagePart.getPartName()
+                                                 .getName();
+        imagePartCache.put(key, imagePart);
+        e.setAttribute("src", key);
+        try {
+            super.addImage(docx4jUserAgent, wordMLPackage, p, e, cx, cy);
+        }
+        finally {
+            e.setAttribute("src", src);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package md2docx;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一次转换的取消状态与期限
+ * <p>
+ * 取消是协作式的: 转换在各阶段之间以及长循环(占位符替换、markdown 顶层块、表格行等)中调用 {@link #check()},
+ * 已取消或超过期限时抛出 {@link CancellationException}, 转换线程不会被中断。
+ * 可以在多个线程中同时检查(大文档分段并行渲染)。
+ *
+ * @author ludangxin
+ * @since 2026/10/17
+ */
+final class Cancellation {
+    /**
+     * 不会取消、没有期限
+     */
+    static final Cancellation NONE = new Cancellation(0);
+
+    private final long deadlineNanos;
+
+    private final long timeoutNanos;
+
+    private volatile boolean cancelled;
+
+    private Cancellation(long timeoutNanos) {
+        this.timeoutNanos = timeoutNanos;
+        this.deadlineNanos = System.nanoTime() + timeoutNanos;
+    }
+
+    /**
+     * @param timeoutNanos 从现在开始的期限, 不大于0时没有期限
+     */
+    static Cancellation start(long timeoutNanos) {
+        return new Cancellation(timeoutNanos);
+    }
+
+    /**
+     * 期限到达时以 {@link DeadlineExceededException} 结束 future, future 结束(完成、取消、超时)后取消本次转换
+     */
+    void bind(CompletableFuture<?> future) {
+        if (this == NONE) {
+            throw new IllegalStateException("can not bind a future to Cancellation.NONE");
+        }
+
+        final ScheduledFuture<?> timeout = timeoutNanos > 0 ? Timer.SCHEDULER.schedule(() -> future.completeExceptionally(this.deadlineExceeded()), timeoutNanos, TimeUnit.NANOSECONDS) : null;
+        future.whenComplete((result, e) -> {
+            cancelled = true;
+            if (timeout != null) {
+                timeout.cancel(false);
+            }
+        });
+    }
+
+    /**
+     * 剩余时间(毫秒), 没有期限时返回 {@link Long#MAX_VALUE}
+     */
+    long remainingMillis() {
+        if (timeoutNanos <= 0) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime()));
+    }
+
+    /**
+     * 检查点: 已取消或超过期限时抛出异常
+     */
+    void check() {
+        if (this == NONE) {
+            return;
+        }
+        if (timeoutNanos > 0 && System.nanoTime() - deadlineNanos >= 0) {
+            throw this.deadlineExceeded();
+        }
+        if (cancelled) {
+            throw new CancellationException("conversion cancelled");
+        }
+    }
+
+    private DeadlineExceededException deadlineExceeded() {
+        return new DeadlineExceededException("conversion deadline of " + TimeUnit.NANOSECONDS.toMillis(timeoutNanos) + "ms exceeded");
+    }
+
+    /**
+     * 在异常的 cause 链中查找取消异常(转换过程中的异常可能被包装为 RuntimeException)
+     *
+     * @return 取消异常, 没有时返回 null
+     */
+    static CancellationException findCancellation(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof CancellationException) {
+                return (CancellationException) cause;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 期限计时的守护线程, 首次使用时创建
+     */
+    private static final class Timer {
+        private static final ScheduledThreadPoolExecutor SCHEDULER = newScheduler();
+
+        private static ScheduledThreadPoolExecutor newScheduler() {
+            final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+                final Thread thread = new Thread(r, "md2docx-deadline");
+                thread.setDaemon(true);
+                return thread;
+            });
+            // 转换在期限之前完成时取消计时任务, 立即从队列中移除
+            scheduler.setRemoveOnCancelPolicy(true);
+            return scheduler;
+        }
+    }
+}
@@ -0,0 +1,808 @@
+package md2docx;
+
+import lombok.extern.slf4j.Slf4j;
+import org.docx4j.XmlUtils;
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.docx4j.openpackaging.parts.WordprocessingML.StyleDefinitionsPart;
+import org.docx4j.openpackaging.parts.relationships.Namespaces;
+import org.docx4j.sharedtypes.STOnOff;
+import org.docx4j.wml.BooleanDefaultTrue;
+import org.docx4j.wml.CTTblLook;
+import org.docx4j.wml.CTTblPrBase;
+import org.docx4j.wml.P;
+import org.docx4j.wml.R;
+import org.docx4j.wml.Style;
+import org.docx4j.wml.Tbl;
+import org.docx4j.wml.TblPr;
+import org.docx4j.wml.TblWidth;
+import org.docx4j.wml.Tc;
+import org.docx4j.wml.TcPr;
+import org.docx4j.wml.Tr;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Element;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * 预编译的全局 css
+ * <p>
+ * 把 globalCss 中的表格规则(table/th/td)编译为一个 Word 表格样式, 每个文档只写入一次样式定义。
+ * html 片段不再注入 css, xhtml 导入器也不再为每个单元格计算并写入边框、底色和边距,
+ * 导入后的表格只引用该样式, document.xml 中不再重复这些格式。
+ * css 中存在无法编译的选择器或属性时 {@link #isCompiled()} 为 false, 调用方仍把 css 注入 html。
+ *
+ * @author ludangxin
+ * @since 2026/10/17
+ */
+@Slf4j
+final class CompiledCss {
+    static final String TABLE_STYLE_ID = "GlobalCssTable";
+
+    private static final String TABLE_STYLE_NAME = "Global Css Table";
+
+    private static final int MAX_CACHE_SIZE = 64;
+
+    /**
+     * 按 css 文本缓存的编译结果, 超过上限时淘汰最久未使用的
+     */
+    private static final Map<String, CompiledCss> CACHE = new LinkedHashMap<String, CompiledCss>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CompiledCss> eldest) {
+            return size() > MAX_CACHE_SIZE;
+        }
+    };
+
+    /**
+     * style 中的 width 声明, 不包括 min-width、max-width
+     */
+    private static final Pattern STYLE_WIDTH = Pattern.compile("(?i)(^|;)\\s*width\\s*:");
+
+    private static final Set<String> TABLE_ELEMENTS = new HashSet<>(Arrays.asList("table", "thead", "tbody", "tfoot", "tr"));
+
+    private static final Map<String, String> NAMED_COLORS = new HashMap<>();
+
+    private static final Map<String, String> BORDER_STYLES = new HashMap<>();
+
+    static {
+        NAMED_COLORS.put("black", "000000");
+        NAMED_COLORS.put("white", "FFFFFF");
+        NAMED_COLORS.put("gray", "808080");
+        NAMED_COLORS.put("grey", "808080");
+        NAMED_COLORS.put("silver", "C0C0C0");
+        NAMED_COLORS.put("red", "FF0000");
+        NAMED_COLORS.put("green", "008000");
+        NAMED_COLORS.put("blue", "0000FF");
+
+        BORDER_STYLES.put("solid", "single");
+        BORDER_STYLES.put("dashed", "dashed");
+        BORDER_STYLES.put("dotted", "dotted");
+        BORDER_STYLES.put("double", "double");
+        BORDER_STYLES.put("none", "none");
+        BORDER_STYLES.put("hidden", "none");
+    }
+
+    private final boolean compiled;
+
+    private final String styleXml;
+
+    /**
+     * 表格宽度 [类型, 值], 如 [pct, 5000]
+     */
+    private final String[] tableWidth;
+
+    private final boolean styleCellSpacing;
+
+    private final boolean styleTableBorders;
+
+    private final boolean styleTableShading;
+
+    private final boolean styleCellBorders;
+
+    private final boolean styleCellMargins;
+
+    private final boolean styleCellShading;
+
+    private final boolean styleHeaderRow;
+
+    private CompiledCss(Builder builder) {
+        this.compiled = builder != null;
+        this.styleXml = builder == null ? null : builder.styleXml();
+        this.tableWidth = builder == null ? null : builder.tableWidth;
+        this.styleCellSpacing = builder != null && builder.cellSpacing != null;
+        this.styleTableBorders = builder != null && (builder.tableBorder != null || builder.cellBorder != null);
+        this.styleTableShading = builder != null && builder.tableShading != null;
+        this.styleCellBorders = builder != null && (builder.cellBorder != null || builder.headerBorder != null);
+        this.styleCellMargins = builder != null && (builder.cellMargins != null || builder.headerMargins != null);
+        this.styleCellShading = builder != null && (builder.cellShading != null || builder.headerShading != null);
+        this.styleHeaderRow = builder != null && builder.hasHeaderStyle();
+    }
+
+    /**
+     * 编译 css, 相同的 css 全局只编译一次
+     */
+    static CompiledCss compile(String css) {
+        synchronized (CACHE) {
+            CompiledCss compiledCss = CACHE.get(css);
+            if (compiledCss == null) {
+                compiledCss = new CompiledCss(Builder.parse(css));
+                CACHE.put(css, compiledCss);
+            }
+            return compiledCss;
+        }
+    }
+
+    /**
+     * 是否已编译为 Word 样式
+     */
+    boolean isCompiled() {
+        return compiled;
+    }
+
+    /**
+     * 把样式定义写入文档, 文档中已存在同名样式时不重复写入
+     */
+    void install(WordprocessingMLPackage wordMLPackage) {
+        if (!compiled) {
+            return;
+        }
+
+        final StyleDefinitionsPart styleDefinitionsPart = wordMLPackage.getMainDocumentPart()
+                                                                       .getStyleDefinitionsPart();
+        if (styleDefinitionsPart.getStyleById(TABLE_STYLE_ID) != null) {
+            return;
+        }
+
+        try {
+            styleDefinitionsPart.getJaxbElement()
+                                .getStyle()
+                                .add((Style) XmlUtils.unmarshalString(styleXml));
+        }
+        catch (Exception e) {
+            log.error("failed to create global css table style", e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * 导入后的表格引用编译好的样式, 并移除由样式提供的单元格格式
+     *
+     * @param content 导入的正文内容
+     */
+    void apply(List<Object> content) {
+        if (!compiled) {
+            return;
+        }
+
+        this.applyTables(content, null);
+    }
+
+    /**
+     * 同 {@link #apply(List)}, css 设置了表格宽度时保留 html 中作者指定的列宽
+     * <p>
+     * 导入器对作者指定和按内容计算的列宽输出相同的 tcW, 只能从 html 判断:
+     * 单元格或 col 带有 width 属性或 style width 的表格保留导入器的列宽, 其余表格的列宽交给 Word 按表格宽度重新分配。
+     *
+     * @param content 导入的正文内容
+     * @param html    导入的 html
+     */
+    void apply(List<Object> content, String html) {
+        if (!compiled) {
+            return;
+        }
+
+        // 大多数 html 不指定宽度, 不用再解析一次
+        if (tableWidth == null || !html.toLowerCase(Locale.ROOT)
+                                       .contains("width")) {
+            this.applyTables(content, null);
+            return;
+        }
+
+        final List<Boolean> authorWidths = new ArrayList<>();
+        for (Element table : Jsoup.parse(html)
+                                  .select("table")) {
+            authorWidths.add(hasAuthorWidth(table));
+        }
+        if (authorWidths.size() != countTables(content)) {
+            // 导入器跳过了部分表格时无法一一对应, 有作者列宽就全部保留
+            final boolean keep = authorWidths.contains(Boolean.TRUE);
+            authorWidths.replaceAll(authorWidth -> keep);
+        }
+        this.applyTables(content, authorWidths.iterator());
+    }
+
+    /**
+     * @param authorWidths 按文档顺序每个表格是否保留列宽, 为 null 时都不保留
+     */
+    private void applyTables(List<Object> content, Iterator<Boolean> authorWidths) {
+        for (Object o : content) {
+            final Object unwrapped = XmlUtils.unwrap(o);
+            if (unwrapped instanceof Tbl) {
+                this.applyTable((Tbl) unwrapped, authorWidths);
+            }
+        }
+    }
+
+    private void applyTable(Tbl tbl, Iterator<Boolean> authorWidths) {
+        // 先取本表格的标记, 嵌套表格在单元格中按文档顺序随后处理
+        final boolean keepCellWidth = authorWidths != null && authorWidths.hasNext() && authorWidths.next();
+        TblPr tblPr = tbl.getTblPr();
+        if (tblPr == null) {
+            tblPr = new TblPr();
+            tbl.setTblPr(tblPr);
+        }
+
+        final CTTblPrBase.TblStyle tblStyle = new CTTblPrBase.TblStyle();
+        tblStyle.setVal(TABLE_STYLE_ID);
+        tblPr.setTblStyle(tblStyle);
+        if (tableWidth != null) {
+            final TblWidth tblW = new TblWidth();
+            tblW.setType(tableWidth[0]);
+            tblW.setW(new BigInteger(tableWidth[1]));
+            tblPr.setTblW(tblW);
+        }
+        if (styleCellSpacing) {
+            tblPr.setTblCellSpacing(null);
+        }
+        if (styleTableBorders) {
+            tblPr.setTblBorders(null);
+        }
+        if (styleTableShading) {
+            tblPr.setShd(null);
+        }
+
+        boolean firstRow = true;
+        for (Object rowObj : tbl.getContent()) {
+            final Object row = XmlUtils.unwrap(rowObj);
+            if (!(row instanceof Tr)) {
+                continue;
+            }
+
+            if (firstRow && styleHeaderRow) {
+                // th 的样式作用于首行; 导入器把 th 渲染为粗体, 以此判断首行是否为表头
+                final boolean header = isHeaderRow((Tr) row);
+                final CTTblLook tblLook = new CTTblLook();
+                tblLook.setFirstRow(header ? STOnOff.ONE : STOnOff.ZERO);
+                tblLook.setVal(header ? "0020" : "0000");
+                tblPr.setTblLook(tblLook);
+            }
+            firstRow = false;
+
+            for (Object cellObj : ((Tr) row).getContent()) {
+                final Object cell = XmlUtils.unwrap(cellObj);
+                if (cell instanceof Tc) {
+                    this.applyCell((Tc) cell, keepCellWidth, authorWidths);
+                }
+            }
+        }
+    }
+
+    private void applyCell(Tc tc, boolean keepCellWidth, Iterator<Boolean> authorWidths) {
+        final TcPr tcPr = tc.getTcPr();
+        if (tcPr != null) {
+            if (tableWidth != null && !keepCellWidth && tcPr.getTcW() != null) {
+                // 导入器按未设置宽度时的内容计算列宽, 交给 Word 按表格宽度重新分配
+                final TblWidth tcW = new TblWidth();
+                tcW.setType(TblWidth.TYPE_AUTO);
+                tcW.setW(BigInteger.ZERO);
+                tcPr.setTcW(tcW);
+            }
+            if (styleCellBorders) {
+                tcPr.setTcBorders(null);
+            }
+            if (styleCellMargins) {
+                tcPr.setTcMar(null);
+            }
+            if (styleCellShading) {
+                tcPr.setShd(null);
+            }
+        }
+
+        // 嵌套表格
+        this.applyTables(tc.getContent(), authorWidths);
+    }
+
+    /**
+     * 表格自身(不含嵌套表格)的单元格或 col 是否指定了宽度
+     */
+    private static boolean hasAuthorWidth(Element table) {
+        for (Element element : table.select("td, th, col")) {
+            if (element.parent() != null && element.parent()
+                                                   .closest("table") == table
+                && (element.hasAttr("width") || STYLE_WIDTH.matcher(element.attr("style"))
+                                                          .find())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int countTables(List<Object> content) {
+        int count = 0;
+        for (Object o : content) {
+            final Object unwrapped = XmlUtils.unwrap(o);
+            if (!(unwrapped instanceof Tbl)) {
+                continue;
+            }
+
+            count++;
+            for (Object rowObj : ((Tbl) unwrapped).getContent()) {
+                final Object row = XmlUtils.unwrap(rowObj);
+                if (!(row instanceof Tr)) {
+                    continue;
+                }
+                for (Object cellObj : ((Tr) row).getContent()) {
+                    final Object cell = XmlUtils.unwrap(cellObj);
+                    if (cell instanceof Tc) {
+                        count += countTables(((Tc) cell).getContent());
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    private static boolean isHeaderRow(Tr tr) {
+        boolean hasRun = false;
+        for (Object cellObj : tr.getContent()) {
+            final Object cell = XmlUtils.unwrap(cellObj);
+            if (!(cell instanceof Tc)) {
+                continue;
+            }
+
+            for (Object pObj : ((Tc) cell).getContent()) {
+                final Object p = XmlUtils.unwrap(pObj);
+                if (!(p instanceof P)) {
+                    continue;
+                }
+
+                for (Object rObj : ((P) p).getContent()) {
+                    final Object r = XmlUtils.unwrap(rObj);
+                    if (!(r instanceof R)) {
+                        continue;
+                    }
+
+                    final BooleanDefaultTrue bold = ((R) r).getRPr() == null ? null : ((R) r).getRPr()
+                                                                                         .getB();
+                    if (bold == null || !bold.isVal()) {
+                        return false;
+                    }
+                    hasRun = true;
+                }
+            }
+        }
+        return hasRun;
+    }
+
+    private static final class Declaration {
+        private final String element;
+
+        private final int specificity;
+
+        private final int order;
+
+        private final String name;
+
+        private final String value;
+
+        private Declaration(String element, int specificity, int order, String name, String value) {
+            this.element = element;
+            this.specificity = specificity;
+            this.order = order;
+            this.name = name;
+            this.value = value;
+        }
+    }
+
+    /**
+     * css 解析与样式生成
+     */
+    private static final class Builder {
+        private String cellSpacing;
+
+        private String[] tableWidth;
+
+        private String tableBorder;
+
+        private String tableShading;
+
+        private String cellBorder;
+
+        private String cellShading;
+
+        private String[] cellMargins;
+
+        private String headerBorder;
+
+        private String headerShading;
+
+        private String[] headerMargins;
+
+        /**
+         * 解析 css, 不能编译时返回 null
+         */
+        private static Builder parse(String css) {
+            try {
+                final Map<String, Map<String, String>> rules = cascade(css);
+                if (rules == null) {
+                    return null;
+                }
+
+                final Builder builder = new Builder();
+                final Map<String, String> th = rules.get("th");
+                final Map<String, String> td = rules.get("td");
+                if (!builder.table(rules.get("table")) || !builder.cell(td, false) || !builder.cell(th, true)) {
+                    return null;
+                }
+
+                // th 与 td 相同的格式不需要写入首行条件格式
+                if (builder.headerBorder != null && builder.headerBorder.equals(builder.cellBorder)) {
+                    builder.headerBorder = null;
+                }
+                if (builder.headerShading != null && builder.headerShading.equals(builder.cellShading)) {
+                    builder.headerShading = null;
+                }
+                if (builder.headerMargins != null && Arrays.equals(builder.headerMargins, builder.cellMargins)) {
+                    builder.headerMargins = null;
+                }
+                return builder;
+            }
+            catch (RuntimeException e) {
+                log.debug("global css can not be compiled to word styles: {}", css, e);
+                return null;
+            }
+        }
+
+        /**
+         * 按选择器优先级(类型选择器数量)和出现顺序合并 table/th/td 的属性
+         */
+        private static Map<String, Map<String, String>> cascade(String css) {
+            final String source = css.replaceAll("(?s)/\\*.*?\\*/", "");
+            final List<Declaration> declarations = new ArrayList<>();
+            int start = 0;
+            while (start < source.length()) {
+                final int open = source.indexOf('{', start);
+                if (open < 0) {
+                    if (!source.substring(start)
+                               .trim()
+                               .isEmpty()) {
+                        return null;
+                    }
+                    break;
+                }
+                final int close = source.indexOf('}', open);
+                final String selectorText = source.substring(start, open);
+                final String body = close < 0 ? "" : source.substring(open + 1, close);
+                if (close < 0 || body.indexOf('{') >= 0 || selectorText.indexOf('@') >= 0) {
+                    return null;
+                }
+
+                for (String selector : selectorText.split(",")) {
+                    final String[] elements = selector.trim()
+                                                      .toLowerCase(Locale.ROOT)
+                                                      .split("\\s+");
+                    final String element = elements[elements.length - 1];
+                    if (!"table".equals(element) && !"th".equals(element) && !"td".equals(element)) {
+                        return null;
+                    }
+                    for (int i = 0; i < elements.length - 1; i++) {
+                        if (!TABLE_ELEMENTS.contains(elements[i])) {
+                            return null;
+                        }
+                    }
+
+                    for (String declaration : body.split(";")) {
+                        if (declaration.trim()
+                                       .isEmpty()) {
+                            continue;
+                        }
+                        final int colon = declaration.indexOf(':');
+                        if (colon < 0) {
+                            return null;
+                        }
+                        final String name = declaration.substring(0, colon)
+                                                       .trim()
+                                                       .toLowerCase(Locale.ROOT);
+                        final String value = declaration.substring(colon + 1)
+                                                        .replace("!important", "")
+                                                        .trim()
+                                                        .toLowerCase(Locale.ROOT);
+                        declarations.add(new Declaration(element, elements.length, declarations.size(), name, value));
+                    }
+                }
+                start = close + 1;
+            }
+
+            declarations.sort(Comparator.comparingInt((Declaration declaration) -> declaration.specificity)
+                                        .thenComparingInt(declaration -> declaration.order));
+            final Map<String, Map<String, String>> rules = new HashMap<>();
+            for (Declaration declaration : declarations) {
+                rules.computeIfAbsent(declaration.element, k -> new LinkedHashMap<>())
+                     .put(declaration.name, declaration.value);
+            }
+            return rules;
+        }
+
+        private boolean table(Map<String, String> properties) {
+            if (properties == null) {
+                return true;
+            }
+
+            String borderSpacing = null;
+            boolean collapse = false;
+            for (Map.Entry<String, String> property : properties.entrySet()) {
+                final String value = property.getValue();
+                switch (property.getKey()) {
+                    case "border-collapse":
+                        collapse = "collapse".equals(value);
+                        break;
+                    case "border-spacing":
+                        borderSpacing = String.valueOf(twips(value.split("\\s+")[0]));
+                        break;
+                    case "width":
+                        if (value.endsWith("%")) {
+                            tableWidth = new String[]{"pct", String.valueOf(Math.round(Double.parseDouble(value.substring(0, value.length() - 1)) * 50))};
+                        }
+                        else if (!"auto".equals(value)) {
+                            tableWidth = new String[]{"dxa", String.valueOf(twips(value))};
+                        }
+                        break;
+                    case "background-color":
+                        tableShading = color(value);
+                        break;
+                    case "border":
+                        tableBorder = border(value);
+                        break;
+                    case "margin":
+                    case "margin-top":
+                    case "margin-bottom":
+                    case "margin-left":
+                    case "margin-right":
+                        // xhtml 导入器不处理表格外边距
+                        break;
+                    default:
+                        return false;
+                }
+            }
+
+            cellSpacing = collapse ? "0" : borderSpacing;
+            return true;
+        }
+
+        private boolean cell(Map<String, String> properties, boolean header) {
+            if (properties == null) {
+                return true;
+            }
+
+            for (Map.Entry<String, String> property : properties.entrySet()) {
+                final String value = property.getValue();
+                switch (property.getKey()) {
+                    case "border":
+                        if (header) {
+                            headerBorder = border(value);
+                        }
+                        else {
+                            cellBorder = border(value);
+                        }
+                        break;
+                    case "background-color":
+                        if (header) {
+                            headerShading = color(value);
+                        }
+                        else {
+                            cellShading = color(value);
+                        }
+                        break;
+                    case "padding":
+                        if (header) {
+                            headerMargins = margins(value);
+                        }
+                        else {
+                            cellMargins = margins(value);
+                        }
+                        break;
+                    case "text-align":
+                        // 导入器默认左对齐, 其他对齐方式需要写入段落, 无法由表格样式提供
+                        if (!"left".equals(value) && !"start".equals(value)) {
+                            return false;
+                        }
+                        break;
+                    default:
+                        return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean hasHeaderStyle() {
+            return headerBorder != null || headerShading != null || headerMargins != null;
+        }
+
+        private String styleXml() {
+            final StringBuilder xml = new StringBuilder();
+            xml.append("<w:style xmlns:w=\"")
+               .append(Namespaces.NS_WORD12)
+               .append("\" w:type=\"table\" w:customStyle=\"1\" w:styleId=\"")
+               .append(TABLE_STYLE_ID)
+               .append("\"><w:name w:val=\"")
+               .append(TABLE_STYLE_NAME)
+               .append("\"/><w:tblPr>");
+            if (cellSpacing != null) {
+                xml.append("<w:tblCellSpacing w:w=\"")
+                   .append(cellSpacing)
+                   .append("\" w:type=\"dxa\"/>");
+            }
+            if (tableBorder != null || cellBorder != null) {
+                final String outer = tableBorder != null ? tableBorder : cellBorder;
+                final String inner = cellBorder != null ? cellBorder : "w:val=\"none\"";
+                xml.append("<w:tblBorders>");
+                appendBorders(xml, outer, "top", "left", "bottom", "right");
+                appendBorders(xml, inner, "insideH", "insideV");
+                xml.append("</w:tblBorders>");
+            }
+            appendShading(xml, tableShading);
+            if (cellMargins != null) {
+                xml.append("<w:tblCellMar>");
+                appendMargins(xml, cellMargins);
+                xml.append("</w:tblCellMar>");
+            }
+            xml.append("</w:tblPr>");
+            if (cellShading != null) {
+                xml.append("<w:tcPr>");
+                appendShading(xml, cellShading);
+                xml.append("</w:tcPr>");
+            }
+            if (this.hasHeaderStyle()) {
+                xml.append("<w:tblStylePr w:type=\"firstRow\"><w:tcPr>");
+                if (headerBorder != null) {
+                    xml.append("<w:tcBorders>");
+                    appendBorders(xml, headerBorder, "top", "left", "bottom", "right");
+                    xml.append("</w:tcBorders>");
+                }
+                appendShading(xml, headerShading);
+                if (headerMargins != null) {
+                    xml.append("<w:tcMar>");
+                    appendMargins(xml, headerMargins);
+                    xml.append("</w:tcMar>");
+                }
+                xml.append("</w:tcPr></w:tblStylePr>");
+            }
+            return xml.append("</w:style>")
+                      .toString();
+        }
+
+        private static void appendBorders(StringBuilder xml, String border, String... sides) {
+            for (String side : sides) {
+                xml.append("<w:")
+                   .append(side)
+                   .append(' ')
+                   .append(border)
+                   .append("/>");
+            }
+        }
+
+        private static void appendShading(StringBuilder xml, String color) {
+            if (color != null) {
+                xml.append("<w:shd w:val=\"clear\" w:color=\"auto\" w:fill=\"")
+                   .append(color)
+                   .append("\"/>");
+            }
+        }
+
+        private static void appendMargins(StringBuilder xml, String[] margins) {
+            final String[] sides = {"top", "left", "bottom", "right"};
+            for (int i = 0; i < sides.length; i++) {
+                xml.append("<w:")
+                   .append(sides[i])
+                   .append(" w:w=\"")
+                   .append(margins[i])
+                   .append("\" w:type=\"dxa\"/>");
+            }
+        }
+
+        /**
+         * css border 简写转为 Word 边框属性
+         */
+        private static String border(String value) {
+            double widthPx = 3;
+            String style = "none";
+            String color = "auto";
+            for (String token : value.split("\\s+")) {
+                if (BORDER_STYLES.containsKey(token)) {
+                    style = BORDER_STYLES.get(token);
+                }
+                else if ("thin".equals(token)) {
+                    widthPx = 1;
+                }
+                else if ("medium".equals(token)) {
+                    widthPx = 3;
+                }
+                else if ("thick".equals(token)) {
+                    widthPx = 5;
+                }
+                else if (Character.isDigit(token.charAt(0)) || token.charAt(0) == '.') {
+                    widthPx = twips(token) / 15D;
+                }
+                else {
+                    color = color(token);
+                }
+            }
+
+            if ("none".equals(style) || widthPx <= 0) {
+                return "w:val=\"none\"";
+            }
+            // 1px = 0.75pt, 边框宽度单位为 1/8 磅
+            final long size = Math.max(2, Math.round(widthPx * 6));
+            return "w:val=\"" + style + "\" w:sz=\"" + size + "\" w:space=\"0\" w:color=\"" + (color == null ? "auto" : color) + "\"";
+        }
+
+        /**
+         * css padding 简写转为 [上, 左, 下, 右] 缇
+         */
+        private static String[] margins(String value) {
+            final String[] values = value.split("\\s+");
+            final long top = twips(values[0]);
+            final long right = values.length > 1 ? twips(values[1]) : top;
+            final long bottom = values.length > 2 ? twips(values[2]) : top;
+            final long left = values.length > 3 ? twips(values[3]) : right;
+            return new String[]{String.valueOf(top), String.valueOf(left), String.valueOf(bottom), String.valueOf(right)};
+        }
+
+        /**
+         * 颜色转为 16 进制, transparent 返回 null
+         */
+        private static String color(String value) {
+            if ("transparent".equals(value)) {
+                return null;
+            }
+            if (value.startsWith("#") && value.length() == 4) {
+                final StringBuilder sb = new StringBuilder(6);
+                for (int i = 1; i < 4; i++) {
+                    sb.append(value.charAt(i))
+                      .append(value.charAt(i));
+                }
+                return hex(sb.toString());
+            }
+            if (value.startsWith("#") && value.length() == 7) {
+                return hex(value.substring(1));
+            }
+            final String named = NAMED_COLORS.get(value);
+            if (named == null) {
+                throw new IllegalArgumentException("unsupported color: " + value);
+            }
+            return named;
+        }
+
+        private static String hex(String value) {
+            Integer.parseInt(value, 16);
+            return value.toUpperCase(Locale.ROOT);
+        }
+
+        /**
+         * 长度转为缇(1px = 15 缇, 1pt = 20 缇)
+         */
+        private static long twips(String value) {
+            if ("0".equals(value)) {
+                return 0;
+            }
+            if (value.endsWith("px")) {
+                return Math.round(Double.parseDouble(value.substring(0, value.length() - 2)) * 15);
+            }
+            if (value.endsWith("pt")) {
+                return Math.round(Double.parseDouble(value.substring(0, value.length() - 2)) * 20);
+            }
+            throw new IllegalArgumentException("unsupported length: " + value);
+        }
+    }
+}
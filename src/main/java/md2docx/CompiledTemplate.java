@@ -0,0 +1,410 @@
+package md2docx;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.commons.compress.utils.SeekableInMemoryByteChannel;
+import org.docx4j.openpackaging.exceptions.Docx4JException;
+import org.docx4j.openpackaging.exceptions.Docx4JRuntimeException;
+import org.docx4j.openpackaging.io3.Load3;
+import org.docx4j.openpackaging.io3.stores.ZipPartStore;
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.docx4j.openpackaging.parts.Part;
+import org.docx4j.openpackaging.parts.PartName;
+import org.docx4j.openpackaging.parts.WordprocessingML.FooterPart;
+import org.docx4j.openpackaging.parts.WordprocessingML.HeaderPart;
+import org.docx4j.openpackaging.parts.WordprocessingML.MainDocumentPart;
+import org.docx4j.openpackaging.parts.WordprocessingML.StyleDefinitionsPart;
+import org.docx4j.wml.Document;
+import org.docx4j.wml.Styles;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 预编译的 docx 模板
+ * <p>
+ * 模板内容只读取、解压一次并常驻内存, 每次渲染通过 {@link #newPackage()} 获取一份私有的文档副本,
+ * 副本共享只读的解压结果, 各个 part 在首次访问时才会反序列化;
+ * 每次都会用到的正文和样式只解析一次, 副本从解析结果逐字段拷贝。
+ *
+ * @author ludangxin
+ * @since 2026/10/17
+ */
+@Slf4j
+public final class CompiledTemplate {
+    private final String name;
+
+    private final byte[] content;
+
+    private final long lastModified;
+
+    private final ZipPartStore partStore;
+
+    private final long retainedSize;
+
+    /**
+     * 正文占位符索引 <前缀\0后缀, 索引>
+     */
+    private final ConcurrentMap<String, PlaceHolderIndex> placeHolderIndexes = new ConcurrentHashMap<>();
+
+    /**
+     * 普通占位符的 zip 渲染器 <前缀\0后缀, 渲染器>
+     */
+    private final ConcurrentMap<String, ZipPlaceHolderRenderer> zipPlaceHolderRenderers = new ConcurrentHashMap<>();
+
+    /**
+     * 解析好的正文和样式, 只用于拷贝, 不能修改
+     */
+    private volatile Prototype prototype;
+
+    private volatile ZipFile rawZip;
+
+    private static volatile CompiledTemplate blank;
+
+    private CompiledTemplate(String name, byte[] content, long lastModified) {
+        this.name = name;
+        this.content = content;
+        this.lastModified = lastModified;
+
+        try {
+            this.partStore = new ZipPartStore(new ByteArrayInputStream(content));
+            this.retainedSize = content.length + unzippedSize(content);
+        }
+        catch (Docx4JException | IOException e) {
+            log.error("failed to compile word template: {}", name, e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static CompiledTemplate compile(File file) {
+        if (file == null || !file.exists()) {
+            throw new IllegalArgumentException("template file not found: " + file);
+        }
+
+        try {
+            return new CompiledTemplate(file.getAbsolutePath(), Files.readAllBytes(file.toPath()), file.lastModified());
+        }
+        catch (IOException e) {
+            log.error("failed to read word template: {}", file, e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static CompiledTemplate compile(String filePath) {
+        return compile(new File(filePath));
+    }
+
+    public static CompiledTemplate compile(InputStream inputStream) {
+        if (inputStream == null) {
+            throw new NullPointerException("template input stream can not be null");
+        }
+
+        // 流由调用方打开, 也由调用方关闭
+        try (InputStream in = DocUtils.nonClosing(inputStream)) {
+            return compile(DocUtils.readAllBytes(in));
+        }
+        catch (IOException e) {
+            log.error("failed to read word template", e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static CompiledTemplate compile(byte[] content) {
+        return new CompiledTemplate(null, content, -1L);
+    }
+
+    /**
+     * 获取一份私有的文档副本, 调用方可以任意修改
+     */
+    public WordprocessingMLPackage newPackage() {
+        final WordprocessingMLPackage wordMLPackage = this.loadPackage();
+        // 正文和样式每次渲染都会用到, 从解析好的原型逐字段拷贝, 不再重新解析 xml
+        final Prototype prototype = this.getPrototype();
+        final MainDocumentPart mainDocumentPart = wordMLPackage.getMainDocumentPart();
+        mainDocumentPart.setJaxbElement(JaxbCopier.copy(prototype.document));
+        if (prototype.styles != null) {
+            mainDocumentPart.getStyleDefinitionsPart()
+                            .setJaxbElement(JaxbCopier.copy(prototype.styles));
+        }
+        return wordMLPackage;
+    }
+
+    private WordprocessingMLPackage loadPackage() {
+        try {
+            // docx4j 保存时会把 source part store 作为输出目标, 每个副本使用独立的 part store 视图
+            return (WordprocessingMLPackage) new Load3(new SharedZipPartStore(this)).get();
+        }
+        catch (Docx4JException e) {
+            log.error("failed to load word template: {}", name, e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    private Prototype getPrototype() {
+        Prototype result = prototype;
+        if (result == null) {
+            synchronized (this) {
+                result = prototype;
+                if (result == null) {
+                    final MainDocumentPart mainDocumentPart = this.loadPackage()
+                                                                  .getMainDocumentPart();
+                    final StyleDefinitionsPart styleDefinitionsPart = mainDocumentPart.getStyleDefinitionsPart();
+                    result = new Prototype(mainDocumentPart.getJaxbElement(), styleDefinitionsPart == null ? null : styleDefinitionsPart.getJaxbElement());
+                    prototype = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 以当前模板为基础生成空白模板: 保留样式、编号、页面设置和页眉页脚等, 清空正文内容
+     */
+    public CompiledTemplate toBlank() {
+        final WordprocessingMLPackage wordMLPackage = this.newPackage();
+        wordMLPackage.getMainDocumentPart()
+                     .getContent()
+                     .clear();
+
+        try {
+            final DocUtils.ByteArrayBuffer buffer = new DocUtils.ByteArrayBuffer();
+            wordMLPackage.save(buffer);
+            return new CompiledTemplate(name, buffer.toByteArray(), -1L);
+        }
+        catch (Docx4JException e) {
+            log.error("failed to create blank word template: {}", name, e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * {@link Docs#builder()} 使用的空白模板, 默认为 docx4j 新建的空白文档, 首次使用时创建
+     *
+     * @see DocsGlobalConfig#registerBaseTemplate(CompiledTemplate)
+     */
+    static CompiledTemplate blank() {
+        CompiledTemplate result = blank;
+        if (result == null) {
+            synchronized (CompiledTemplate.class) {
+                result = blank;
+                if (result == null) {
+                    try {
+                        final DocUtils.ByteArrayBuffer buffer = new DocUtils.ByteArrayBuffer();
+                        WordprocessingMLPackage.createPackage()
+                                               .save(buffer);
+                        result = new CompiledTemplate(null, buffer.toByteArray(), -1L);
+                    }
+                    catch (Docx4JException e) {
+                        log.error("failed to create blank word template", e);
+                        throw new RuntimeException(e);
+                    }
+                    blank = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param template 空白模板, 为 null 时恢复为 docx4j 新建的空白文档
+     */
+    static synchronized void setBlank(CompiledTemplate template) {
+        blank = template;
+    }
+
+    /**
+     * 以流的形式读取模板原始内容(供 poi-tl 使用)
+     */
+    public InputStream openStream() {
+        return new ByteArrayInputStream(content);
+    }
+
+    /**
+     * 获取模板正文的占位符索引, 同一组前后缀只扫描一次
+     *
+     * @param pre     占位符前缀（如"{{"）
+     * @param suf     占位符后缀（如"}}"）
+     * @param content 由 {@link #newPackage()} 得到的尚未修改的正文内容
+     * @return 占位符索引
+     */
+    public PlaceHolderIndex getPlaceHolderIndex(String pre, String suf, List<Object> content) {
+        return placeHolderIndexes.computeIfAbsent(pre + '\0' + suf, key -> PlaceHolderIndex.scan(content, pre, suf));
+    }
+
+    /**
+     * 获取按 zip 条目直接改写的普通占位符渲染器, 同一组前后缀只分析一次
+     *
+     * @param pre 占位符前缀（如"{{"）
+     * @param suf 占位符后缀（如"}}"）
+     * @return 渲染器
+     */
+    ZipPlaceHolderRenderer getZipPlaceHolderRenderer(String pre, String suf) {
+        return zipPlaceHolderRenderers.computeIfAbsent(pre + '\0' + suf, key -> ZipPlaceHolderRenderer.prepare(this, this.getTextPartNames(), pre, suf));
+    }
+
+    /**
+     * 正文、页眉、页脚的 zip 条目名
+     */
+    private Set<String> getTextPartNames() {
+        final Set<String> names = new HashSet<>();
+        for (Part part : this.loadPackage()
+                             .getParts()
+                             .getParts()
+                             .values()) {
+            if (part instanceof MainDocumentPart || part instanceof HeaderPart || part instanceof FooterPart) {
+                names.add(part.getPartName()
+                              .getName()
+                              .substring(1));
+            }
+        }
+        return names;
+    }
+
+    /**
+     * 判断模板文件在编译之后是否被修改过
+     *
+     * @param file 模板文件
+     * @return true: 已修改, 需要重新编译
+     */
+    public boolean isModified(File file) {
+        return lastModified < 0 || file.lastModified() != lastModified || file.length() != content.length;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int size() {
+        return content.length;
+    }
+
+    /**
+     * 估算的常驻内存大小(字节): 模板原始内容加上解压后的全部 part, 不含首次渲染后解析的正文、样式和占位符索引
+     */
+    public long retainedSize() {
+        return retainedSize;
+    }
+
+    /**
+     * zip 条目解压后的大小之和, part store 按这个大小常驻内存
+     */
+    private static long unzippedSize(byte[] content) throws IOException {
+        long size = 0;
+        try (ZipFile zip = new ZipFile(new SeekableInMemoryByteChannel(content))) {
+            for (ZipArchiveEntry entry : Collections.list(zip.getEntries())) {
+                size += Math.max(entry.getSize(), 0);
+            }
+        }
+        return size;
+    }
+
+    private static final class Prototype {
+        private final Document document;
+
+        private final Styles styles;
+
+        private Prototype(Document document, Styles styles) {
+            this.document = document;
+            this.styles = styles;
+        }
+    }
+
+    /**
+     * 模板原始 zip 的条目索引, 用于保存时直接拷贝未修改 part 的压缩数据, 首次保存时解析
+     */
+    ZipFile getRawZip() throws IOException {
+        ZipFile result = rawZip;
+        if (result == null) {
+            synchronized (this) {
+                result = rawZip;
+                if (result == null) {
+                    // 读取时按条目定位并在 channel 上同步, 多个副本可以同时拷贝
+                    result = new ZipFile(new SeekableInMemoryByteChannel(content));
+                    rawZip = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 共享模板解压结果的 part store, 读取委托给模板的 part store, 写入(保存)状态只属于当前文档
+     * <p>
+     * 保存时未修改的 part 直接复制模板 zip 中的压缩数据, 见 {@link CompressingZipPartStore}。
+     */
+    private static final class SharedZipPartStore extends CompressingZipPartStore {
+        private final ZipPartStore delegate;
+
+        /**
+         * 当前文档中改过名的 part <新名称, 模板中的条目名>, 值为 null 表示该名称已被改走
+         */
+        private final Map<String, String> renamedParts = new HashMap<>();
+
+        private SharedZipPartStore(CompiledTemplate template) {
+            super(template);
+            this.delegate = template.partStore;
+        }
+
+        @Override
+        String templateEntryName(String partName) {
+            return renamedParts.containsKey(partName) ? renamedParts.get(partName) : partName;
+        }
+
+        @Override
+        public boolean partExists(String partName) {
+            final String entryName = this.templateEntryName(partName);
+            return entryName != null && delegate.partExists(entryName);
+        }
+
+        @Override
+        public InputStream loadPart(String partName) throws Docx4JException {
+            final String entryName = this.templateEntryName(partName);
+            return entryName == null ? null : delegate.loadPart(entryName);
+        }
+
+        @Override
+        public long getPartSize(String partName) throws Docx4JException {
+            final String entryName = this.templateEntryName(partName);
+            return entryName == null ? -1 : delegate.getPartSize(entryName);
+        }
+
+        @Override
+        public ByteArray getByteArray(String partName) throws Docx4JException {
+            final String entryName = this.templateEntryName(partName);
+            return entryName == null ? null : delegate.getByteArray(entryName);
+        }
+
+        /**
+         * 尚未加载的 part 改名时由 docx4j 调用({@code Part.rename}), 模板内容共享且只读, 只在当前文档中记录新旧名称的对应关系
+         */
+        @Override
+        public void rename(PartName oldName, PartName newName) {
+            final String oldPartName = oldName.getName()
+                                              .substring(1);
+            final String entryName = this.templateEntryName(oldPartName);
+            if (entryName == null || !delegate.partExists(entryName)) {
+                throw new Docx4JRuntimeException("part '" + oldPartName + "' not found");
+            }
+            renamedParts.put(oldPartName, null);
+            renamedParts.put(newName.getName()
+                                    .substring(1), entryName);
+        }
+
+        @Override
+        public void dispose() {
+            // 模板内容由所有副本共享, 不释放
+        }
+    }
+}
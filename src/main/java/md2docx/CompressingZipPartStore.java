@@ -0,0 +1,271 @@
+package md2docx;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.docx4j.XmlUtils;
+import org.docx4j.openpackaging.contenttype.ContentTypeManager;
+import org.docx4j.openpackaging.exceptions.Docx4JException;
+import org.docx4j.openpackaging.io3.Save;
+import org.docx4j.openpackaging.io3.stores.PartStore;
+import org.docx4j.openpackaging.io3.stores.ZipPartStore;
+import org.docx4j.openpackaging.packages.OpcPackage;
+import org.docx4j.openpackaging.parts.CustomXmlDataStoragePart;
+import org.docx4j.openpackaging.parts.JaxbXmlPart;
+import org.docx4j.openpackaging.parts.Part;
+import org.docx4j.openpackaging.parts.WordprocessingML.BinaryPart;
+import org.docx4j.openpackaging.parts.WordprocessingML.EmbeddedPackagePart;
+import org.docx4j.openpackaging.parts.WordprocessingML.ImagePngPart;
+import org.docx4j.openpackaging.parts.WordprocessingML.OleObjectBinaryPart;
+import org.docx4j.openpackaging.parts.XmlPart;
+
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+
+/**
+ * 按 {@link OutputCompression} 写出 zip 的 part store, 作为 docx4j 保存文档时的目标
+ * <p>
+ * 写出逻辑与 docx4j 的 {@link ZipPartStore} 一致, 区别在于每个 part 按内容类型使用各自的压缩级别;
+ * 文档来自 {@link CompiledTemplate} 时, 未修改的 part(未反序列化的 xml part、未加载的二进制 part)
+ * 在级别允许时直接复制模板 zip 中的压缩数据, 不再解压后重新压缩。
+ *
+ * @author ludangxin
+ * @since 2026/10/17
+ */
+class CompressingZipPartStore extends ZipPartStore {
+    /**
+     * 未修改 part 的来源模板, 为 null 时所有 part 都重新压缩
+     */
+    private final CompiledTemplate template;
+
+    private OutputCompression compression = OutputCompression.DEFAULT;
+
+    private PartStore sourcePartStore;
+
+    private ZipArchiveOutputStream zos;
+
+    CompressingZipPartStore(CompiledTemplate template) {
+        this.template = template;
+    }
+
+    /**
+     * part 在模板 zip 中的条目名, 文档中改过名的 part 与保存时的条目名不同
+     *
+     * @return 条目名, 模板中没有对应条目时返回 null
+     */
+    String templateEntryName(String partName) {
+        return partName;
+    }
+
+    /**
+     * 按压缩配置保存文档, 与 docx4j 一致, 保存结束时关闭输出流
+     *
+     * @param opcPackage   文档
+     * @param outputStream 输出流
+     * @param compression  压缩配置, 为 null 时使用 {@link OutputCompression#DEFAULT}
+     */
+    static void save(OpcPackage opcPackage, OutputStream outputStream, OutputCompression compression) throws Docx4JException {
+        final PartStore partStore = opcPackage.getSourcePartStore();
+        final CompressingZipPartStore targetPartStore = partStore instanceof CompressingZipPartStore ? (CompressingZipPartStore) partStore : new CompressingZipPartStore(null);
+        targetPartStore.compression = compression == null ? OutputCompression.DEFAULT : compression;
+        new Save(opcPackage, targetPartStore).save(outputStream);
+    }
+
+    @Override
+    public void setSourcePartStore(PartStore sourcePartStore) {
+        this.sourcePartStore = sourcePartStore;
+        super.setSourcePartStore(sourcePartStore);
+    }
+
+    @Override
+    public void setOutputStream(OutputStream outputStream) {
+        this.zos = new ZipArchiveOutputStream(outputStream);
+    }
+
+    @Override
+    public void saveContentTypes(ContentTypeManager ctm) throws Docx4JException {
+        try {
+            this.writeEntry("[Content_Types].xml", compression.getLevel(), ctm::marshal);
+        }
+        catch (Exception e) {
+            throw new Docx4JException("Error marshalling Content_Types", e);
+        }
+    }
+
+    /**
+     * docx4j 的 PartStore 接口以原始类型声明参数, 覆盖时不能写成 JaxbXmlPart&lt;?&gt;
+     */
+    @Override
+    @SuppressWarnings("rawtypes")
+    public void saveJaxbXmlPart(JaxbXmlPart part) throws Docx4JException {
+        final String name = entryName(part);
+        final OutputCompression.Level level = compression.levelOf(part.getContentType());
+        try {
+            if (part.isUnmarshalled()) {
+                this.writeEntry(name, level, part::marshal);
+            }
+            else if (!this.copyRaw(name, level)) {
+                this.writeEntry(name, level, out -> this.copySource(name, out));
+            }
+        }
+        catch (Exception e) {
+            throw new Docx4JException("Error marshalling JaxbXmlPart " + part.getPartName(), e);
+        }
+    }
+
+    @Override
+    public void saveCustomXmlDataStoragePart(CustomXmlDataStoragePart part) throws Docx4JException {
+        try {
+            this.writeEntry(entryName(part), compression.levelOf(part.getContentType()), out -> part.getData()
+                                                                                                  .writeDocument(out));
+        }
+        catch (Exception e) {
+            throw new Docx4JException("Error marshalling CustomXmlDataStoragePart " + part.getPartName(), e);
+        }
+    }
+
+    @Override
+    public void saveXmlPart(XmlPart part) throws Docx4JException {
+        try {
+            this.writeEntry(entryName(part), compression.levelOf(part.getContentType()), out -> XmlUtils.getTransformerFactory()
+                                                                                                      .newTransformer()
+                                                                                                      .transform(new DOMSource(part.getDocument()), new StreamResult(out)));
+        }
+        catch (Exception e) {
+            throw new Docx4JException("Error marshalling XmlPart " + part.getPartName(), e);
+        }
+    }
+
+    @Override
+    public void saveBinaryPart(Part part) throws Docx4JException {
+        final String name = entryName(part);
+        final BinaryPart binaryPart = (BinaryPart) part;
+        final OutputCompression.Level override = compression.overrideOf(part.getContentType());
+        try {
+            if (!binaryPart.isLoaded() && this.copyRaw(name, override == null ? compression.getLevel() : override)) {
+                return;
+            }
+
+            final OutputCompression.Level level = levelOf(compression, part);
+            if (binaryPart.isLoaded()) {
+                final byte[] bytes = binaryPart.getBytes();
+                this.writeEntry(name, level, out -> out.write(bytes));
+            }
+            else {
+                this.writeEntry(name, level, out -> this.copySource(name, out));
+            }
+        }
+        catch (Exception e) {
+            throw new Docx4JException("Failed to put binary part", e);
+        }
+    }
+
+    /**
+     * part 使用的压缩级别: 按内容类型单独指定的级别优先;
+     * 与 docx4j 一致, ole 对象、嵌入的文档和 png 图片本身已压缩, 默认不再压缩
+     */
+    static OutputCompression.Level levelOf(OutputCompression compression, Part part) {
+        final OutputCompression.Level override = compression.overrideOf(part.getContentType());
+        if (override != null) {
+            return override;
+        }
+        return part instanceof OleObjectBinaryPart || part instanceof EmbeddedPackagePart || part instanceof ImagePngPart ? OutputCompression.Level.STORE : compression.getLevel();
+    }
+
+    @Override
+    public void finishSave() throws Docx4JException {
+        try {
+            zos.close();
+        }
+        catch (IOException e) {
+            throw new Docx4JException("Error closing zip file", e);
+        }
+    }
+
+    /**
+     * 写出一个条目; STORE 需要预先知道大小和 crc, 内容先写入缓冲区
+     */
+    private void writeEntry(String name, OutputCompression.Level level, EntryWriter entryWriter) throws Exception {
+        final ZipArchiveEntry entry = new ZipArchiveEntry(name);
+        if (level == OutputCompression.Level.STORE) {
+            final DocUtils.ByteArrayBuffer buffer = new DocUtils.ByteArrayBuffer();
+            entryWriter.write(buffer);
+            final byte[] bytes = buffer.toByteArray();
+            final CRC32 crc = new CRC32();
+            crc.update(bytes);
+            entry.setMethod(ZipArchiveEntry.STORED);
+            entry.setSize(bytes.length);
+            entry.setCompressedSize(bytes.length);
+            entry.setCrc(crc.getValue());
+            zos.putArchiveEntry(entry);
+            zos.write(bytes);
+        }
+        else {
+            zos.setLevel(level.getDeflateLevel());
+            zos.putArchiveEntry(entry);
+            entryWriter.write(zos);
+        }
+        zos.closeArchiveEntry();
+    }
+
+    /**
+     * 把模板 zip 中同名条目的压缩数据原样写入
+     *
+     * @return false: 不是来自模板的文档、模板中没有该条目或压缩级别不接受模板中的压缩方式
+     */
+    private boolean copyRaw(String name, OutputCompression.Level level) throws IOException {
+        if (template == null) {
+            return false;
+        }
+
+        // 改过名的 part 由 copySource 按新名称写出
+        if (!name.equals(this.templateEntryName(name))) {
+            return false;
+        }
+
+        final ZipFile rawZip = template.getRawZip();
+        final ZipArchiveEntry entry = rawZip.getEntry(name);
+        if (entry == null || !level.acceptsRaw(entry.getMethod() == ZipArchiveEntry.STORED)) {
+            return false;
+        }
+
+        try (InputStream in = rawZip.getRawInputStream(entry)) {
+            zos.addRawArchiveEntry(entry, in);
+        }
+        return true;
+    }
+
+    /**
+     * 未修改且不能直接复制的 part, 从来源 part store 读取解压后的内容
+     */
+    private void copySource(String name, OutputStream outputStream) throws Docx4JException, IOException {
+        if (sourcePartStore == null) {
+            throw new Docx4JException("part store has changed, and sourcePartStore not set");
+        }
+
+        try (InputStream in = sourcePartStore.loadPart(name)) {
+            if (in == null) {
+                throw new IOException("part '" + name + "' not found");
+            }
+            final byte[] bytes = new byte[8192];
+            int read;
+            while ((read = in.read(bytes)) > 0) {
+                outputStream.write(bytes, 0, read);
+            }
+        }
+    }
+
+    private static String entryName(Part part) {
+        final String name = part.getPartName()
+                                .getName();
+        return name.startsWith("/") ? name.substring(1) : name;
+    }
+
+    private interface EntryWriter {
+        void write(OutputStream outputStream) throws Exception;
+    }
+}
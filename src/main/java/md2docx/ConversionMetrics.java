@@ -0,0 +1,78 @@
+package md2docx;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一次转换的汇总指标
+ *
+ * @author ludangxin
+ * @since 2026/10/17
+ */
+public final class ConversionMetrics {
+    private final String operation;
+
+    private final boolean success;
+
+    private final long durationNanos;
+
+    private final long allocatedBytes;
+
+    private final List<StageMetrics> stages;
+
+    ConversionMetrics(String operation, boolean success, long durationNanos, long allocatedBytes, List<StageMetrics> stages) {
+        this.operation = operation;
+        this.success = success;
+        this.durationNanos = durationNanos;
+        this.allocatedBytes = allocatedBytes;
+        this.stages = Collections.unmodifiableList(stages);
+    }
+
+    /**
+     * 转换入口, 如 buildWord、buildHtmlContent
+     */
+    public String getOperation() {
+        return operation;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    public long getDurationMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(durationNanos);
+    }
+
+    /**
+     * 整个转换过程中当前线程分配的内存, JVM 不支持时为 -1
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * 各阶段指标, 按首次执行的顺序排列
+     */
+    public List<StageMetrics> getStages() {
+        return stages;
+    }
+
+    public StageMetrics getStage(DocStage stage) {
+        for (StageMetrics stageMetrics : stages) {
+            if (stageMetrics.getStage() == stage) {
+                return stageMetrics;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return operation + "{success=" + success + ", durationNanos=" + durationNanos + ", allocatedBytes=" + allocatedBytes + ", stages=" + stages + '}';
+    }
+}
@@ -0,0 +1,17 @@
+package md2docx;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * 转换超过 {@link Docs.DocBuilder#deadline(long, java.util.concurrent.TimeUnit)} 设置的期限
+ *
+ * @author ludangxin
+ * @since 2026/10/17
+ */
+public class DeadlineExceededException extends CancellationException {
+    private static final long serialVersionUID = 1L;
+
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+}
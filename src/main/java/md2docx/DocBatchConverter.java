@@ -0,0 +1,354 @@
+package md2docx;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * markdown 批量转换 docx
+ * <p>
+ * 每个任务使用独立的 {@link Docs.DocBuilder}(即独立的文档), markdown 引擎在线程间共享,
+ * 单个任务失败不影响其他任务。同时执行的任务数不超过 parallelism,
+ * 因此也可以传入虚拟线程等不限制线程数的 executor。
+ *
+ * @author ludangxin
+ * @since 2026/10/17
+ */
+@Slf4j
+public class DocBatchConverter {
+    private final Executor executor;
+
+    private final int parallelism;
+
+    private final MarkdownEngine engine;
+
+    private final Supplier<Docs.DocBuilder> docBuilderSupplier;
+
+    private DocBatchConverter(Builder builder) {
+        this.executor = builder.executor;
+        this.parallelism = builder.parallelism;
+        this.engine = builder.engine;
+        this.docBuilderSupplier = builder.docBuilderSupplier;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * markdown 文件转换为 docx 文件, 文件不存在或无法读取时任务失败
+     */
+    public static Job job(File markdownFile, File outputFile) {
+        return new Job(markdownFile.getPath(), () -> {
+            try {
+                return new String(Files.readAllBytes(markdownFile.toPath()), Charset.defaultCharset());
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, outputFile, null);
+    }
+
+    /**
+     * markdown 内容转换为 docx 文件
+     */
+    public static Job job(String name, String markdownContent, File outputFile) {
+        return new Job(name, () -> markdownContent, outputFile, null);
+    }
+
+    /**
+     * markdown 内容转换后写入输出流, 输出流是否关闭由 {@link Docs.DocBuilder#autoCloseStream(boolean)} 决定
+     */
+    public static Job job(String name, String markdownContent, OutputStream outputStream) {
+        return new Job(name, () -> markdownContent, null, outputStream);
+    }
+
+    /**
+     * 批量转换, 阻塞直到所有任务结束
+     *
+     * @param jobs 转换任务
+     * @return 转换结果
+     */
+    public BatchResult convert(Collection<Job> jobs) {
+        final long start = System.nanoTime();
+        final ExecutorService defaultExecutor = executor == null ? Executors.newFixedThreadPool(parallelism, new WorkerThreadFactory()) : null;
+        final Executor jobExecutor = executor == null ? defaultExecutor : executor;
+        final Semaphore permits = new Semaphore(parallelism);
+        final List<CompletableFuture<JobResult>> futures = new ArrayList<>(jobs.size());
+
+        try {
+            for (Job job : jobs) {
+                // 限制同时执行(以及排队)的任务数, 避免一次性提交全部任务
+                permits.acquire();
+                try {
+                    futures.add(CompletableFuture.supplyAsync(() -> {
+                        try {
+                            return this.convert(job);
+                        }
+                        finally {
+                            permits.release();
+                        }
+                    }, jobExecutor));
+                }
+                catch (RejectedExecutionException e) {
+                    permits.release();
+                    futures.add(CompletableFuture.completedFuture(JobResult.failure(job.name, e, 0)));
+                }
+            }
+
+            final List<JobResult> results = new ArrayList<>(futures.size());
+            for (CompletableFuture<JobResult> future : futures) {
+                results.add(future.join());
+            }
+
+            return new BatchResult(results, System.nanoTime() - start);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread()
+                  .interrupt();
+            log.error("batch conversion interrupted", e);
+            throw new RuntimeException(e);
+        }
+        finally {
+            if (defaultExecutor != null) {
+                defaultExecutor.shutdown();
+            }
+        }
+    }
+
+    private JobResult convert(Job job) {
+        final long start = System.nanoTime();
+
+        try {
+            final Markdowns.MarkdownBuilder markdown = Markdowns.builder(job.contentSupplier.get())
+                                                                .engine(engine);
+            final Docs.DocBuilder docBuilder = docBuilderSupplier.get();
+
+            if (job.outputFile != null) {
+                docBuilder.buildWord(markdown, job.outputFile);
+            }
+            else {
+                docBuilder.buildWord(markdown, job.outputStream);
+            }
+
+            return JobResult.success(job.name, System.nanoTime() - start);
+        }
+        catch (Throwable e) {
+            // Error(如 OOM、栈溢出)同样只记为该任务失败, 不影响其他任务的结果
+            log.error("failed to convert markdown: {}", job.name, e);
+            return JobResult.failure(job.name, e, System.nanoTime() - start);
+        }
+    }
+
+    public static class Builder {
+        private Executor executor;
+
+        private int parallelism = Runtime.getRuntime()
+                                         .availableProcessors();
+
+        private MarkdownEngine engine = MarkdownEngine.getDefault();
+
+        private Supplier<Docs.DocBuilder> docBuilderSupplier = Docs::builder;
+
+        private Builder() {
+        }
+
+        /**
+         * 执行任务的 executor, 由调用方负责关闭; 不设置时每次转换使用 parallelism 个线程的线程池
+         */
+        public Builder executor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * 同时执行的最大任务数
+         */
+        public Builder parallelism(int parallelism) {
+            if (parallelism < 1) {
+                throw new IllegalArgumentException("parallelism must be greater than 0");
+            }
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * markdown 引擎, 所有任务共享
+         */
+        public Builder engine(MarkdownEngine engine) {
+            this.engine = engine;
+            return this;
+        }
+
+        /**
+         * 每个任务调用一次, 返回新的 DocBuilder(可以指定模板、样式等配置)
+         */
+        public Builder docBuilder(Supplier<Docs.DocBuilder> docBuilderSupplier) {
+            this.docBuilderSupplier = docBuilderSupplier;
+            return this;
+        }
+
+        public DocBatchConverter build() {
+            return new DocBatchConverter(this);
+        }
+    }
+
+    public static final class Job {
+        private final String name;
+
+        private final Supplier<String> contentSupplier;
+
+        private final File outputFile;
+
+        private final OutputStream outputStream;
+
+        private Job(String name, Supplier<String> contentSupplier, File outputFile, OutputStream outputStream) {
+            this.name = name;
+            this.contentSupplier = contentSupplier;
+            this.outputFile = outputFile;
+            this.outputStream = outputStream;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    public static final class JobResult {
+        private final String name;
+
+        private final Throwable error;
+
+        private final long elapsedNanos;
+
+        private JobResult(String name, Throwable error, long elapsedNanos) {
+            this.name = name;
+            this.error = error;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        private static JobResult success(String name, long elapsedNanos) {
+            return new JobResult(name, null, elapsedNanos);
+        }
+
+        private static JobResult failure(String name, Throwable error, long elapsedNanos) {
+            return new JobResult(name, error, elapsedNanos);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isSuccess() {
+            return error == null;
+        }
+
+        public Throwable getError() {
+            return error;
+        }
+
+        public long getElapsedMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        }
+    }
+
+    public static final class BatchResult {
+        private final List<JobResult> results;
+
+        private final long elapsedNanos;
+
+        private final int succeeded;
+
+        private BatchResult(List<JobResult> results, long elapsedNanos) {
+            this.results = Collections.unmodifiableList(results);
+            this.elapsedNanos = elapsedNanos;
+
+            int succeeded = 0;
+            for (JobResult result : results) {
+                if (result.isSuccess()) {
+                    succeeded++;
+                }
+            }
+            this.succeeded = succeeded;
+        }
+
+        /**
+         * 所有任务的结果, 与提交顺序一致
+         */
+        public List<JobResult> getResults() {
+            return results;
+        }
+
+        public List<JobResult> getFailures() {
+            final List<JobResult> failures = new ArrayList<>();
+            for (JobResult result : results) {
+                if (!result.isSuccess()) {
+                    failures.add(result);
+                }
+            }
+            return failures;
+        }
+
+        public int getTotal() {
+            return results.size();
+        }
+
+        public int getSucceeded() {
+            return succeeded;
+        }
+
+        public int getFailed() {
+            return results.size() - succeeded;
+        }
+
+        public long getElapsedMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        }
+
+        /**
+         * 吞吐量: 每秒完成的任务数
+         */
+        public double getThroughput() {
+            return elapsedNanos == 0 ? 0 : results.size() * 1_000_000_000D / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("total: %d, succeeded: %d, failed: %d, elapsed: %dms, throughput: %.2f docs/s", this.getTotal(), succeeded, this.getFailed(), this.getElapsedMillis(), this.getThroughput());
+        }
+    }
+
+    private static final class WorkerThreadFactory implements ThreadFactory {
+        private static final AtomicInteger POOL_NUMBER = new AtomicInteger();
+
+        private final int poolNumber = POOL_NUMBER.incrementAndGet();
+
+        private final AtomicInteger threadNumber = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            final Thread thread = new Thread(r, "md2docx-batch-" + poolNumber + "-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
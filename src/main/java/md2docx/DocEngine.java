@@ -0,0 +1,470 @@
+package md2docx;
+
+import com.deepoove.poi.config.Configure;
+import lombok.extern.slf4j.Slf4j;
+import org.docx4j.convert.in.xhtml.FormattingOption;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+/**
+ * 文档转换引擎
+ * <p>
+ * 只保存转换配置(css、格式化选项、占位符语法、poi-tl 配置、markdown 引擎等), 构建后不可变且线程安全,
+ * 可以在启动时构建一次后被多个线程共享。
+ * 每次 render 都会创建独立的 {@link Docs.DocBuilder} 会话, 文档、xhtml 导入器等状态只属于本次渲染。
+ * 字体映射是例外: docx4j 只支持全局的字体映射, 见 {@link Builder#fontMapping(String, String)}。
+ *
+ * @author ludangxin
+ * @since 2026/10/17
+ */
+@Slf4j
+public final class DocEngine {
+    private final FormattingOption paragraphFormatting;
+
+    private final FormattingOption runFormatting;
+
+    private final FormattingOption tableFormatting;
+
+    private final boolean useHtmlDefaultStyle;
+
+    private final String staticResourceBaseUri;
+
+    private final String placeHolderPrefix;
+
+    private final String placeHolderSuffix;
+
+    private final Configure templateEngineConfigure;
+
+    private final Configure defaultTemplateEngineConfigure;
+
+    private final String globalCss;
+
+    private final String htmlContentProcessorId;
+
+    private final BiFunction<String, String, String> htmlContentProcessor;
+
+    private final boolean autoCloseStream;
+
+    private final MarkdownEngine markdownEngine;
+
+    private final Map<String, String> fontMappings;
+
+    private final DocMetricsListener metricsListener;
+
+    private final ImageCache imageCache;
+
+    private final int imagePrefetchParallelism;
+
+    private final long imagePrefetchTimeoutMillis;
+
+    private final Executor imagePrefetchExecutor;
+
+    private final int largeDocumentChunkSize;
+
+    private final int largeDocumentParallelism;
+
+    private final Executor largeDocumentExecutor;
+
+    private final boolean streamingOutput;
+
+    private final FragmentCache fragmentCache;
+
+    private final OutputCompression outputCompression;
+
+    private final long deadlineNanos;
+
+    private DocEngine(Builder builder) {
+        this.paragraphFormatting = builder.paragraphFormatting;
+        this.runFormatting = builder.runFormatting;
+        this.tableFormatting = builder.tableFormatting;
+        this.useHtmlDefaultStyle = builder.useHtmlDefaultStyle;
+        this.staticResourceBaseUri = builder.staticResourceBaseUri;
+        this.placeHolderPrefix = builder.placeHolderPrefix;
+        this.placeHolderSuffix = builder.placeHolderSuffix;
+        this.templateEngineConfigure = builder.templateEngineConfigure;
+        // 默认 poi-tl 配置只构建一次
+        this.defaultTemplateEngineConfigure = Configure.builder()
+                                                       .buildGramer(placeHolderPrefix, placeHolderSuffix)
+                                                       .build();
+        this.globalCss = builder.globalCss;
+        this.htmlContentProcessorId = builder.htmlContentProcessorId;
+        this.htmlContentProcessor = builder.htmlContentProcessor;
+        this.autoCloseStream = builder.autoCloseStream;
+        this.markdownEngine = builder.markdownEngine;
+        this.fontMappings = Collections.unmodifiableMap(new LinkedHashMap<>(builder.fontMappings));
+        this.metricsListener = builder.metricsListener;
+        this.imageCache = builder.imageCache;
+        this.imagePrefetchParallelism = builder.imagePrefetchParallelism;
+        this.imagePrefetchTimeoutMillis = builder.imagePrefetchTimeoutMillis;
+        this.imagePrefetchExecutor = builder.imagePrefetchExecutor;
+        this.largeDocumentChunkSize = builder.largeDocumentChunkSize;
+        this.largeDocumentParallelism = builder.largeDocumentParallelism;
+        this.largeDocumentExecutor = builder.largeDocumentExecutor;
+        this.streamingOutput = builder.streamingOutput;
+        this.fragmentCache = builder.fragmentCache;
+        this.outputCompression = builder.outputCompression;
+        this.deadlineNanos = builder.deadlineNanos;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 创建空白文档的渲染会话
+     */
+    public Docs.DocBuilder newSession() {
+        return this.configure(Docs.builder());
+    }
+
+    /**
+     * 创建模板文档的渲染会话
+     */
+    public Docs.DocBuilder newSession(CompiledTemplate template) {
+        return this.configure(Docs.builder(template));
+    }
+
+    /**
+     * 创建模板文档的渲染会话, 模板通过 {@link TemplateRegistry} 缓存
+     */
+    public Docs.DocBuilder newSession(File templateFile) {
+        return this.configure(Docs.builder(templateFile));
+    }
+
+    public void renderHtml(String html, File outputFile) {
+        this.newSession()
+            .buildWord(html, outputFile);
+    }
+
+    public void renderHtml(String html, OutputStream outputStream) {
+        this.newSession()
+            .buildWord(html, outputStream);
+    }
+
+    public void renderMarkdown(String markdownContent, File outputFile) {
+        // 解析耗时由渲染会话统计, markdown 不再单独设置监听器
+        this.newSession()
+            .buildWord(Markdowns.builder(markdownContent)
+                                 .engine(markdownEngine), outputFile);
+    }
+
+    public void renderMarkdown(String markdownContent, OutputStream outputStream) {
+        // 解析耗时由渲染会话统计, markdown 不再单独设置监听器
+        this.newSession()
+            .buildWord(Markdowns.builder(markdownContent)
+                                 .engine(markdownEngine), outputStream);
+    }
+
+    public void render(CompiledTemplate template, Map<String, Object> placeHolderData, File outputFile) {
+        this.newSession(template)
+            .buildWord(placeHolderData, outputFile);
+    }
+
+    public void render(CompiledTemplate template, Map<String, Object> placeHolderData, OutputStream outputStream) {
+        this.newSession(template)
+            .buildWord(placeHolderData, outputStream);
+    }
+
+    public void render(File templateFile, Map<String, Object> placeHolderData, File outputFile) {
+        this.newSession(templateFile)
+            .buildWord(placeHolderData, outputFile);
+    }
+
+    public void render(File templateFile, Map<String, Object> placeHolderData, OutputStream outputStream) {
+        this.newSession(templateFile)
+            .buildWord(placeHolderData, outputStream);
+    }
+
+    /**
+     * 使用引擎的 markdown 配置解析内容
+     */
+    public Markdowns.MarkdownBuilder markdown(String markdownContent) {
+        return Markdowns.builder(markdownContent)
+                        .engine(markdownEngine)
+                        .metricsListener(metricsListener);
+    }
+
+    public MarkdownEngine getMarkdownEngine() {
+        return markdownEngine;
+    }
+
+    /**
+     * 构建引擎时注册的字体映射, 作用于整个进程而不只是本引擎, 见 {@link Builder#fontMapping(String, String)}
+     */
+    public Map<String, String> getFontMappings() {
+        return fontMappings;
+    }
+
+    private Docs.DocBuilder configure(Docs.DocBuilder docBuilder) {
+        docBuilder.paragraphFormatting(paragraphFormatting)
+                  .runFormatting(runFormatting)
+                  .tableFormatting(tableFormatting)
+                  .useHtmlDefaultStyle(useHtmlDefaultStyle)
+                  .staticResourceBaseUri(staticResourceBaseUri)
+                  .placeHolderPreSuffix(placeHolderPrefix, placeHolderSuffix)
+                  .templateEngineConfigure(templateEngineConfigure)
+                  .globalCss(globalCss)
+                  .htmlContentProcessor(htmlContentProcessorId, htmlContentProcessor)
+                  .autoCloseStream(autoCloseStream)
+                  .metricsListener(metricsListener)
+                  .imageCache(imageCache)
+                  .imagePrefetch(imagePrefetchParallelism, imagePrefetchTimeoutMillis, TimeUnit.MILLISECONDS)
+                  .imagePrefetchExecutor(imagePrefetchExecutor)
+                  .largeDocument(largeDocumentChunkSize, largeDocumentParallelism)
+                  .largeDocumentExecutor(largeDocumentExecutor)
+                  .streamingOutput(streamingOutput)
+                  .fragmentCache(fragmentCache)
+                  .outputCompression(outputCompression)
+                  .deadline(deadlineNanos, TimeUnit.NANOSECONDS);
+        return docBuilder.defaultTemplateEngineConfigure(defaultTemplateEngineConfigure);
+    }
+
+    public static class Builder {
+        private FormattingOption paragraphFormatting;
+
+        private FormattingOption runFormatting;
+
+        private FormattingOption tableFormatting;
+
+        private boolean useHtmlDefaultStyle = true;
+
+        private String staticResourceBaseUri;
+
+        private String placeHolderPrefix = "{{";
+
+        private String placeHolderSuffix = "}}";
+
+        private Configure templateEngineConfigure;
+
+        private String globalCss = Docs.DEFAULT_GLOBAL_CSS;
+
+        private String htmlContentProcessorId;
+
+        private BiFunction<String, String, String> htmlContentProcessor;
+
+        private boolean autoCloseStream = true;
+
+        private MarkdownEngine markdownEngine = MarkdownEngine.getDefault();
+
+        private final Map<String, String> fontMappings = new LinkedHashMap<>();
+
+        private DocMetricsListener metricsListener = DocMetricsListener.NOOP;
+
+        private ImageCache imageCache = ImageCache.getDefault();
+
+        private int imagePrefetchParallelism = 4;
+
+        private long imagePrefetchTimeoutMillis = 30_000;
+
+        private Executor imagePrefetchExecutor;
+
+        private int largeDocumentChunkSize;
+
+        private int largeDocumentParallelism;
+
+        private Executor largeDocumentExecutor;
+
+        private boolean streamingOutput;
+
+        private FragmentCache fragmentCache;
+
+        private OutputCompression outputCompression = OutputCompression.DEFAULT;
+
+        private long deadlineNanos;
+
+        private Builder() {
+        }
+
+        public Builder paragraphFormatting(FormattingOption paragraphFormatting) {
+            this.paragraphFormatting = paragraphFormatting;
+            return this;
+        }
+
+        public Builder runFormatting(FormattingOption runFormatting) {
+            this.runFormatting = runFormatting;
+            return this;
+        }
+
+        public Builder tableFormatting(FormattingOption tableFormatting) {
+            this.tableFormatting = tableFormatting;
+            return this;
+        }
+
+        public Builder useHtmlDefaultStyle(boolean useHtmlDefaultStyle) {
+            this.useHtmlDefaultStyle = useHtmlDefaultStyle;
+            return this;
+        }
+
+        public Builder staticResourceBaseUri(String staticResourceBaseUri) {
+            this.staticResourceBaseUri = staticResourceBaseUri;
+            return this;
+        }
+
+        public Builder placeHolderPreSuffix(String placeHolderPrefix, String placeHolderSuffix) {
+            this.placeHolderPrefix = placeHolderPrefix;
+            this.placeHolderSuffix = placeHolderSuffix;
+            return this;
+        }
+
+        /**
+         * poi-tl 配置, 在所有渲染之间共享
+         */
+        public Builder templateEngineConfigure(Configure templateEngineConfigure) {
+            this.templateEngineConfigure = templateEngineConfigure;
+            return this;
+        }
+
+        public Builder globalCss(String globalCss) {
+            this.globalCss = globalCss;
+            return this;
+        }
+
+        /**
+         * html 内容处理器, 会被多个线程同时调用, 需要保证线程安全; 设置后不使用 html 片段缓存
+         */
+        public Builder htmlContentProcessor(BiFunction<String, String, String> htmlContentProcessor) {
+            return this.htmlContentProcessor(null, htmlContentProcessor);
+        }
+
+        /**
+         * 带标识的 html 内容处理器, 会被多个线程同时调用, 需要保证线程安全
+         *
+         * @see Docs.DocBuilder#htmlContentProcessor(String, BiFunction)
+         */
+        public Builder htmlContentProcessor(String processorId, BiFunction<String, String, String> htmlContentProcessor) {
+            this.htmlContentProcessorId = processorId;
+            this.htmlContentProcessor = htmlContentProcessor;
+            return this;
+        }
+
+        public Builder autoCloseStream(boolean autoCloseStream) {
+            this.autoCloseStream = autoCloseStream;
+            return this;
+        }
+
+        public Builder markdownEngine(MarkdownEngine markdownEngine) {
+            this.markdownEngine = markdownEngine;
+            return this;
+        }
+
+        /**
+         * css font-family 与 doc 字体名的映射, 构建引擎时注册到全局配置 {@link DocsGlobalConfig}
+         * <p>
+         * 注意: docx4j 的 xhtml 导入器只有一张静态的字体映射表(并按 css 文本缓存解析结果), 没有按导入器或按次转换的扩展点,
+         * 因此这里的映射无法只作用于本引擎, 会同时影响其他引擎和 {@link Docs#builder()}。
+         * 不同引擎需要不同字体时, 应使用不同的 css font-family 名称; 与已注册的映射冲突时构建引擎会输出警告。
+         */
+        public Builder fontMapping(String cssFontFamily, String docFontName) {
+            this.fontMappings.put(cssFontFamily, docFontName);
+            return this;
+        }
+
+        /**
+         * 转换指标监听器, 所有渲染共享, 需要保证线程安全, 如 {@link InMemoryDocMetricsListener}
+         */
+        public Builder metricsListener(DocMetricsListener metricsListener) {
+            this.metricsListener = metricsListener;
+            return this;
+        }
+
+        /**
+         * 图片缓存, 所有渲染共享, 默认使用全局缓存 {@link ImageCache#getDefault()}
+         */
+        public Builder imageCache(ImageCache imageCache) {
+            this.imageCache = imageCache;
+            return this;
+        }
+
+        /**
+         * 转换前并行读取文档引用的图片, parallelism 小于2时不预读
+         */
+        public Builder imagePrefetch(int parallelism, long timeout, TimeUnit unit) {
+            this.imagePrefetchParallelism = parallelism;
+            this.imagePrefetchTimeoutMillis = unit.toMillis(timeout);
+            return this;
+        }
+
+        /**
+         * 执行图片预读的 executor, 所有渲染共享, 由调用方负责关闭
+         */
+        public Builder imagePrefetchExecutor(Executor imagePrefetchExecutor) {
+            this.imagePrefetchExecutor = imagePrefetchExecutor;
+            return this;
+        }
+
+        /**
+         * 大文档模式: markdown 超过 chunkSize 个字符时分段并行渲染, chunkSize 不大于0时不分段
+         */
+        public Builder largeDocument(int chunkSize, int parallelism) {
+            this.largeDocumentChunkSize = chunkSize;
+            this.largeDocumentParallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * 执行大文档分段渲染的 executor, 所有渲染共享, 由调用方负责关闭
+         */
+        public Builder largeDocumentExecutor(Executor largeDocumentExecutor) {
+            this.largeDocumentExecutor = largeDocumentExecutor;
+            return this;
+        }
+
+        /**
+         * markdown 逐段转换并流式写出正文, 内存中不保留完整正文
+         */
+        public Builder streamingOutput(boolean streamingOutput) {
+            this.streamingOutput = streamingOutput;
+            return this;
+        }
+
+        /**
+         * html 片段缓存, 所有渲染共享, 默认不缓存
+         */
+        public Builder fragmentCache(FragmentCache fragmentCache) {
+            this.fragmentCache = fragmentCache;
+            return this;
+        }
+
+        /**
+         * 输出文档的 zip 压缩配置, 所有渲染共享, 默认 {@link OutputCompression#DEFAULT}
+         *
+         * @see Docs.DocBuilder#outputCompression(OutputCompression)
+         */
+        public Builder outputCompression(OutputCompression outputCompression) {
+            this.outputCompression = outputCompression == null ? OutputCompression.DEFAULT : outputCompression;
+            return this;
+        }
+
+        /**
+         * 会话异步转换({@code newSession().buildWordAsync})的默认期限, 会话中可以再次设置覆盖。
+         * render 系列方法在调用线程上同步执行, 没有期限
+         *
+         * @param timeout 期限, 不大于0时没有期限(默认)
+         * @param unit    时间单位
+         * @see Docs.DocBuilder#deadline(long, TimeUnit)
+         */
+        public Builder deadline(long timeout, TimeUnit unit) {
+            this.deadlineNanos = unit.toNanos(timeout);
+            return this;
+        }
+
+        public DocEngine build() {
+            for (Map.Entry<String, String> entry : fontMappings.entrySet()) {
+                final String registered = DocsGlobalConfig.getFontMapping(entry.getKey());
+                if (registered != null && !registered.equals(entry.getValue())) {
+                    log.warn("font mapping is global, css font-family '{}' now maps to '{}' instead of '{}' for all engines", entry.getKey(), entry.getValue(), registered);
+                }
+                DocsGlobalConfig.registerFontMapping(entry.getKey(), entry.getValue());
+            }
+
+            return new DocEngine(this);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package md2docx;
+
+/**
+ * 转换指标监听器
+ * <p>
+ * 每次转换结束时, 先按阶段回调 {@link #onStage(StageMetrics)}, 再回调一次 {@link #onConversion(ConversionMetrics)}。
+ * 回调在执行转换的线程中同步执行, 同一个监听器可能被多个线程同时调用, 实现需要保证线程安全并尽量轻量。
+ *
+ * @author ludangxin
+ * @since 2026/10/17
+ */
+public interface DocMetricsListener {
+    /**
+     * 不做任何处理的监听器(默认)
+     */
+    DocMetricsListener NOOP = new DocMetricsListener() {
+    };
+
+    /**
+     * 单个阶段的指标, 同一次转换中同一阶段多次执行时合并为一条
+     *
+     * @param stageMetrics 阶段指标
+     */
+    default void onStage(StageMetrics stageMetrics) {
+    }
+
+    /**
+     * 一次转换的汇总指标
+     *
+     * @param conversionMetrics 转换指标
+     */
+    default void onConversion(ConversionMetrics conversionMetrics) {
+    }
+}
@@ -0,0 +1,59 @@
+package md2docx;
+
+/**
+ * 转换阶段
+ *
+ * @author ludangxin
+ * @since 2026/10/17
+ */
+public enum DocStage {
+    /**
+     * markdown 解析
+     */
+    MARKDOWN_PARSE,
+
+    /**
+     * markdown 渲染为 html
+     */
+    HTML_RENDER,
+
+    /**
+     * jsoup 规范化 html(转为 xhtml)
+     */
+    HTML_NORMALIZE,
+
+    /**
+     * 注入全局 css
+     */
+    CSS_INJECTION,
+
+    /**
+     * 并行预读图片
+     */
+    IMAGE_PREFETCH,
+
+    /**
+     * xhtml 导入为 WordprocessingML
+     */
+    XHTML_IMPORT,
+
+    /**
+     * markdown 语法树直接转换为 WordprocessingML
+     */
+    MARKDOWN_TO_WORDML,
+
+    /**
+     * 占位符查找与替换(不包含 html 的转换)
+     */
+    PLACEHOLDER_REPLACE,
+
+    /**
+     * poi-tl 模板渲染
+     */
+    TEMPLATE_RENDER,
+
+    /**
+     * 文档序列化并写入 zip
+     */
+    PACKAGE_SAVE
+}
@@ -10,19 +10,28 @@ import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.jsoup.nodes.Entities;
 
-import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.regex.PatternSyntaxException;
 
 /**
  * doc util
@@ -38,6 +47,9 @@ public class DocUtils {
     // 时间戳格式（精确到毫秒）
     private static final SimpleDateFormat TIME_FORMAT = new SimpleDateFormat("yyyyMMddHHmmssSSS");
 
+    // 占位符正则缓存 <前缀\0后缀, 正则>
+    private static final ConcurrentMap<String, Pattern> PLACEHOLDER_PATTERNS = new ConcurrentHashMap<>();
+
     public static String extractText(Object o) {
         StringBuilder sb = new StringBuilder();
 
@@ -69,25 +81,37 @@ public class DocUtils {
         return sb.toString();
     }
 
+    /**
+     * 判断内容是否包含 html 标签
+     * <p>
+     * 与原正则 {@code <\s*[^>]+\s*[/]?\s*>} 等价: 存在一个 '<', 其后紧跟至少一个非 '>' 字符, 再遇到 '>'。
+     * 只扫描一遍, 不分配内存, 最坏情况也是线性时间(正则在大量未闭合的 '<' 时会严重回溯)。
+     * 常见根标签/块级标签(如 &lt;p&gt;)也满足该条件, 不需要单独判断。
+     */
     public static boolean isHtml(Object content) {
         if (!(content instanceof String)) {
             return false;
         }
-        String contentStr = (String) content;
 
-        // 2. 空字符串（trim后）直接返回false
-        String trimmed = contentStr.trim();
-        if (trimmed.isEmpty()) {
-            return false;
+        final String contentStr = (String) content;
+        // 当前未闭合的最早的 '<' 的位置
+        int tagStart = -1;
+        for (int i = 0, length = contentStr.length(); i < length; i++) {
+            final char c = contentStr.charAt(i);
+            if (c == '<') {
+                if (tagStart < 0) {
+                    tagStart = i;
+                }
+            }
+            else if (c == '>') {
+                if (tagStart >= 0 && i > tagStart + 1) {
+                    return true;
+                }
+                tagStart = -1;
+            }
         }
 
-        // 规则1：匹配任意HTML标签（包括含换行符的情况）
-        boolean hasTags = trimmed.matches("(?s).*<\\s*[^>]+\\s*[/]?\\s*>.*");
-
-        // 规则2：匹配常见HTML根标签或块级标签（不区分大小写，支持换行符）
-        boolean hasHtmlRootTags = trimmed.matches("(?si).*(<html>|<body>|<head>|<p>|<div>|<h\\d+>).*");
-
-        return hasTags || hasHtmlRootTags;
+        return false;
     }
 
     /**
@@ -106,30 +130,46 @@ public class DocUtils {
             return false;
         }
 
-        try {
-            // 1. 对前缀和后缀进行正则转义（处理特殊字符，如$、{、[等）
-            String escapedPre = Pattern.quote(pre);
-            String escapedSuf = Pattern.quote(suf);
-
-            // 2. 动态生成正则表达式：^前缀\s*(.+?)\s*后缀$
-            // 解释：^和$锚定整个字符串；\s*匹配key前后的空格；(.+?)捕获key
-            String regex = "^" + escapedPre + "\\s*(.+?)\\s*" + escapedSuf + "$";
-            Pattern pattern = Pattern.compile(regex);
-
-            // 3. 匹配并提取key
-            Matcher matcher = pattern.matcher(templateStr.trim());
-            if (matcher.matches()) {
-                String keyInTemplate = matcher.group(1); // 提取捕获的key
-                return keyInTemplate.equals(dataKey.trim()); // 比较key
-            }
-        } catch (PatternSyntaxException e) {
-            // 正则语法错误（如pre/suf为空，但已在输入校验中过滤）
-            e.printStackTrace();
+        String keyInTemplate = extractPlaceHolderKey(templateStr, placeHolderPattern(pre, suf));
+        return keyInTemplate != null && keyInTemplate.equals(dataKey.trim());
+    }
+
+    /**
+     * 获取前缀(pre)和后缀(suf)对应的占位符正则，同一组前后缀只编译一次
+     *
+     * @param pre 动态前缀（如"{{"）
+     * @param suf 动态后缀（如"}}"）
+     * @return 形如 ^前缀\s*(.+?)\s*后缀$ 的正则
+     */
+    public static Pattern placeHolderPattern(String pre, String suf) {
+        return PLACEHOLDER_PATTERNS.computeIfAbsent(pre + '\0' + suf, key -> {
+            // 对前缀和后缀进行正则转义（处理特殊字符，如$、{、[等）
+            // ^和$锚定整个字符串；\s*匹配key前后的空格；(.+?)捕获key
+            return Pattern.compile("^" + Pattern.quote(pre) + "\\s*(.+?)\\s*" + Pattern.quote(suf) + "$");
+        });
+    }
+
+    /**
+     * 提取模板字符串中的占位符 key
+     *
+     * @param templateStr 模板中提取的字符串（如"{{aaa}}"）
+     * @param pattern     {@link #placeHolderPattern(String, String)} 生成的正则
+     * @return 占位符 key（如"aaa"），不是占位符时返回null
+     */
+    public static String extractPlaceHolderKey(String templateStr, Pattern pattern) {
+        if (templateStr == null) {
+            return null;
         }
 
-        return false;
+        Matcher matcher = pattern.matcher(templateStr.trim());
+        return matcher.matches() ? matcher.group(1) : null;
     }
 
+    /**
+     * 创建临时 docx 文件, 由调用方负责删除(如 {@link #writeAndDeleteFile(File, OutputStream)})
+     * <p>
+     * 不使用 deleteOnExit: 长期运行的 JVM 中每个临时文件都会在退出钩子中留下一条记录, 直到退出才释放。
+     */
     public static File createTempDocFile() {
         Path tempFile = null;
         try {
@@ -137,36 +177,110 @@ public class DocUtils {
         } catch (IOException e) {
             throw new RuntimeException("create temp doc file error", e);
         }
-        File file = tempFile.toFile();
-        // 标记临时文件在JVM退出时删除（即使发生异常也会删除）
-        file.deleteOnExit();
 
-        return file;
+        return tempFile.toFile();
     }
 
     /**
-     * 读取文件内容并写入输出流，自动关闭所有资源
+     * 读取文件内容写入输出流, 完成后(包括失败时)立即删除文件, 不关闭输出流
      * @param file 待读取的文件
      * @param outputStream 目标输出流
      */
     public static void writeAndDeleteFile(File file, OutputStream outputStream) {
-        try (BufferedInputStream reader = new BufferedInputStream(Files.newInputStream(file.toPath())))
-        {
-            byte[] buffer = new byte[1024];
-            int bytesRead;
-            while ((bytesRead = reader.read(buffer)) != -1) {
-                outputStream.write(buffer, 0, bytesRead);
-            }
+        try {
+            writeAndDeleteFile(file, Channels.newChannel(outputStream));
             outputStream.flush();
-        } catch (Exception e) {
+        }
+        catch (IOException e) {
+            log.error("failed to build word file", e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * 读取文件内容写入 channel, 完成后(包括失败时)立即删除文件, 不关闭 channel
+     * <p>
+     * 使用 {@link FileChannel#transferTo(long, long, WritableByteChannel)}, 目标为文件或 socket 时由操作系统直接复制, 不经过 java 堆。
+     * @param file 待读取的文件
+     * @param channel 目标 channel
+     */
+    public static void writeAndDeleteFile(File file, WritableByteChannel channel) {
+        try (FileChannel fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            final long size = fileChannel.size();
+            long position = 0;
+            while (position < size) {
+                position += fileChannel.transferTo(position, size - position, channel);
+            }
+        }
+        catch (IOException e) {
             log.error("failed to build word file", e);
+            throw new RuntimeException(e);
         }
         finally {
             try {
                 Files.deleteIfExists(file.toPath());
             }
-            catch (IOException ignored) {
+            catch (IOException e) {
+                log.warn("failed to delete temp file: {}", file, e);
+            }
+        }
+    }
+
+    /**
+     * 包装输出流, close 时只 flush 不关闭
+     * <p>
+     * docx4j 保存文档后总会关闭输出流, 流是否关闭需要由 autoCloseStream 决定时使用。
+     */
+    static OutputStream nonClosing(OutputStream outputStream) {
+        return new FilterOutputStream(outputStream) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
             }
+
+            @Override
+            public void close() throws IOException {
+                out.flush();
+            }
+        };
+    }
+
+    /**
+     * 包装输入流, close 时不关闭调用方传入的流
+     */
+    static InputStream nonClosing(InputStream inputStream) {
+        return new FilterInputStream(inputStream) {
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    /**
+     * 读取输入流的全部内容(不关闭流)
+     * @param inputStream 输入流
+     * @return 流中的全部字节
+     */
+    public static byte[] readAllBytes(InputStream inputStream) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(inputStream.available(), 8192));
+        byte[] buffer = new byte[8192];
+        int bytesRead;
+        while ((bytesRead = inputStream.read(buffer)) != -1) {
+            out.write(buffer, 0, bytesRead);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 可以直接读取已写入内容的字节数组输出流, 读取时不复制数组
+     */
+    static final class ByteArrayBuffer extends ByteArrayOutputStream {
+        ByteArrayBuffer() {
+            super(8192);
+        }
+
+        InputStream toInputStream() {
+            return new ByteArrayInputStream(buf, 0, count);
         }
     }
 
@@ -203,6 +317,21 @@ public class DocUtils {
         return fileName.toString();
     }
 
+    /**
+     * html 转为 xhtml(遵循 xml 语法, 不格式化输出)
+     */
+    public static String toXhtml(String html) {
+        Document doc = Jsoup.parse(html);
+        doc.outputSettings()
+           // 内容输出时遵循XML语法规则
+           .syntax(org.jsoup.nodes.Document.OutputSettings.Syntax.xml)
+           // 内容转义时遵循xhtml规范
+           .escapeMode(Entities.EscapeMode.xhtml)
+           // 禁用格式化输出
+           .prettyPrint(false);
+        return doc.html();
+    }
+
       public static String addHtmlStyles(String html, String newStyles) {
         Document doc = Jsoup.parse(html);
         doc.outputSettings()
@@ -2,24 +2,38 @@ package md2docx;
 
 import com.deepoove.poi.XWPFTemplate;
 import com.deepoove.poi.config.Configure;
-import lombok.SneakyThrows;
+import com.vladsch.flexmark.util.ast.Node;
 import lombok.extern.slf4j.Slf4j;
 import org.docx4j.convert.in.xhtml.FormattingOption;
 import org.docx4j.convert.in.xhtml.XHTMLImporterImpl;
+import org.docx4j.model.structure.SectionWrapper;
 import org.docx4j.openpackaging.exceptions.Docx4JException;
 import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
 import org.docx4j.openpackaging.parts.WordprocessingML.MainDocumentPart;
+import org.docx4j.openpackaging.parts.WordprocessingML.StyleDefinitionsPart;
+import org.docx4j.relationships.Relationship;
 import org.docx4j.wml.Body;
+import org.docx4j.wml.Style;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BiFunction;
 
 /**
@@ -30,31 +44,60 @@ import java.util.function.BiFunction;
  */
 @Slf4j
 public class Docs {
-    @SneakyThrows
+    /**
+     * 默认的 globalCss, markdown 直接转换时表格使用与之一致的内置格式
+     */
+    static final String DEFAULT_GLOBAL_CSS = "table{border-collapse:collapse;border-spacing:0;width:100%;margin:1em 0;background-color:transparent;}table th{background-color:#f7f7f7;border:1px solid #ddd;padding:8px 12px;text-align:left}table td{border:1px solid #ddd;padding:8px 12px}";
+
+    /**
+     * 文档 zip 写出的缓冲区大小
+     */
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * 流式写出时每段 markdown 的字符数
+     */
+    private static final int STREAMING_CHUNK_SIZE = 64 * 1024;
+
+    /**
+     * 基于空白文档构建, 空白文档只创建一次, 每次从中拷贝一份副本
+     *
+     * @see DocsGlobalConfig#registerBaseTemplate(CompiledTemplate)
+     */
     public static DocBuilder builder() {
-        return new DocBuilder().wordMLPackage(WordprocessingMLPackage.createPackage());
+        return new DocBuilder().wordMLPackage(CompiledTemplate.blank()
+                                                              .newPackage());
     }
 
-    @SneakyThrows
     public static DocBuilder builder(File file) {
-        return new DocBuilder().templateInputStream(Files.newInputStream(file.toPath()))
-                               .wordMLPackage(WordprocessingMLPackage.load(file));
+        return builder(TemplateRegistry.getDefault()
+                                       .get(file));
     }
 
-    @SneakyThrows
     public static DocBuilder builder(InputStream inputStream) {
-        return new DocBuilder().templateInputStream(inputStream)
-                               .wordMLPackage(WordprocessingMLPackage.load(inputStream));
+        return builder(CompiledTemplate.compile(inputStream));
     }
 
-    @SneakyThrows
     public static DocBuilder builder(String filePath) {
-        return new DocBuilder().templateInputStream(Files.newInputStream(new File(filePath).toPath()))
-                               .wordMLPackage(WordprocessingMLPackage.load(new File(filePath)));
+        return builder(new File(filePath));
+    }
+
+    /**
+     * 预热: 初始化 JAXB 上下文、本机字体、xhtml 导入器和 poi-tl, 避免第一次转换的冷启动耗时, 只执行一次
+     *
+     * @return 预热耗时(毫秒), 已经预热过时返回0
+     * @see WarmUp
+     */
+    public static long warmUp() {
+        return WarmUp.run();
+    }
+
+    public static DocBuilder builder(CompiledTemplate template) {
+        return new DocBuilder().template(template);
     }
 
     public static class DocBuilder {
-        private InputStream templateInputStream;
+        private CompiledTemplate template;
 
         private WordprocessingMLPackage wordMLPackage;
 
@@ -72,19 +115,81 @@ public class Docs {
 
         private Configure templateEngineConfigure;
 
+        /**
+         * 按占位符语法构建的默认 poi-tl 配置, 不影响普通占位符的直接替换
+         */
+        private Configure defaultTemplateEngineConfigure;
+
         private boolean useHtmlDefaultStyle = true;
 
         private boolean autoCloseStream = true;
 
-        private String globalCss = "table{border-collapse:collapse;border-spacing:0;width:100%;margin:1em 0;background-color:transparent;}table th{background-color:#f7f7f7;border:1px solid #ddd;padding:8px 12px;text-align:left}table td{border:1px solid #ddd;padding:8px 12px}";
+        private String globalCss = DEFAULT_GLOBAL_CSS;
 
         /**
          * <String, String, String>: htmlContent htmlKey resultHtmlContent
          */
         private BiFunction<String, String, String> htmlContentProcessor;
 
-        private DocBuilder templateInputStream(InputStream templateInputStream) {
-            this.templateInputStream = templateInputStream;
+        /**
+         * htmlContentProcessor 的标识, 作为 html 片段缓存 key 的一部分; 为 null 时不缓存经过处理器的 html
+         */
+        private String htmlContentProcessorId;
+
+        /**
+         * 编译为 Word 样式的 globalCss, 首次导入 html 时编译
+         */
+        private CompiledCss compiledCss;
+
+        private boolean globalCssApplied;
+
+        private MetricsRecorder metrics = MetricsRecorder.NOOP;
+
+        private ImageCache imageCache = ImageCache.getDefault();
+
+        /**
+         * 文档内的图片部件, 相同内容的图片共享一个部件
+         */
+        private DocumentImages documentImages;
+
+        private int imagePrefetchParallelism = 4;
+
+        private long imagePrefetchTimeoutMillis = 30_000;
+
+        private Executor imagePrefetchExecutor;
+
+        /**
+         * 大文档分段渲染的每段字符数, 不大于0时不分段
+         */
+        private int largeDocumentChunkSize;
+
+        private int largeDocumentParallelism;
+
+        private Executor largeDocumentExecutor;
+
+        private boolean streamingOutput;
+
+        private OutputCompression outputCompression = OutputCompression.DEFAULT;
+
+        /**
+         * 异步转换的期限(纳秒), 不大于0时没有期限
+         */
+        private long deadlineNanos;
+
+        /**
+         * 当前转换的取消状态, 同步转换不会取消; 由执行器线程写入, 需对其它线程可见
+         */
+        private volatile Cancellation cancellation = Cancellation.NONE;
+
+        private FragmentCache fragmentCache;
+
+        /**
+         * 模板样式与页面宽度的摘要, 作为片段缓存 key 的一部分, 见 {@link #getPackageFingerprint()}
+         */
+        private String packageFingerprint;
+
+        private DocBuilder template(CompiledTemplate template) {
+            this.template = template;
             return this;
         }
 
@@ -93,6 +198,16 @@ public class Docs {
             return this;
         }
 
+        /**
+         * 模板的文档副本在第一次使用时才创建, 直接改写 zip 的普通占位符渲染不需要副本
+         */
+        private WordprocessingMLPackage getWordMLPackage() {
+            if (wordMLPackage == null) {
+                wordMLPackage = template.newPackage();
+            }
+            return wordMLPackage;
+        }
+
         public DocBuilder importer(XHTMLImporterImpl importer) {
             this.importer = importer;
             return this;
@@ -125,6 +240,7 @@ public class Docs {
 
         public DocBuilder placeHolderPreSuffix(String placeHolderPrefix, String placeHolderSuffix) {
             this.placeHolderPreSuffix = new String[]{placeHolderPrefix, placeHolderSuffix};
+            this.defaultTemplateEngineConfigure = null;
             return this;
         }
 
@@ -140,16 +256,142 @@ public class Docs {
 
         public DocBuilder globalCss(String globalCss) {
             this.globalCss = globalCss;
+            this.compiledCss = null;
+            this.globalCssApplied = false;
             return this;
         }
 
+        /**
+         * html 内容处理器, 处理结果无法判断是否相同, 设置后不使用 {@link #fragmentCache(FragmentCache)}
+         */
         public DocBuilder htmlContentProcessor(BiFunction<String, String, String> htmlContentProcessor) {
+            return this.htmlContentProcessor(null, htmlContentProcessor);
+        }
+
+        /**
+         * 带标识的 html 内容处理器: 标识相同的处理器对相同的 html 和占位符名称必须返回相同的结果,
+         * html 片段缓存按标识区分处理结果
+         *
+         * @param processorId          处理器标识, 处理逻辑变化时需要使用新的标识; 为 null 时不缓存
+         * @param htmlContentProcessor html 内容处理器
+         */
+        public DocBuilder htmlContentProcessor(String processorId, BiFunction<String, String, String> htmlContentProcessor) {
+            this.htmlContentProcessorId = htmlContentProcessor == null ? null : processorId;
             this.htmlContentProcessor = htmlContentProcessor;
             return this;
         }
 
+        /**
+         * 转换指标监听器, 每次转换结束时回调各阶段的耗时、输入输出大小、元素数量和内存分配
+         */
+        public DocBuilder metricsListener(DocMetricsListener metricsListener) {
+            this.metrics = MetricsRecorder.of(metricsListener);
+            return this;
+        }
+
+        /**
+         * 图片缓存, 默认使用全局缓存 {@link ImageCache#getDefault()}, 为null时不缓存(同一文档内仍会去重)
+         */
+        public DocBuilder imageCache(ImageCache imageCache) {
+            this.imageCache = imageCache;
+            this.documentImages = null;
+            return this;
+        }
+
+        /**
+         * 转换前并行读取文档引用的图片
+         *
+         * @param parallelism 最大并发读取数, 小于2时不预读, 默认4
+         * @param timeout     等待读取的最长时间, 超时未读取的图片在转换时按顺序读取, 默认30秒
+         * @param unit        时间单位
+         */
+        public DocBuilder imagePrefetch(int parallelism, long timeout, TimeUnit unit) {
+            this.imagePrefetchParallelism = parallelism;
+            this.imagePrefetchTimeoutMillis = unit.toMillis(timeout);
+            return this;
+        }
+
+        /**
+         * 执行图片预读的 executor, 由调用方负责关闭; 不设置时使用内置的守护线程池
+         */
+        public DocBuilder imagePrefetchExecutor(Executor imagePrefetchExecutor) {
+            this.imagePrefetchExecutor = imagePrefetchExecutor;
+            return this;
+        }
+
+        /**
+         * 大文档模式: markdown 超过 chunkSize 个字符时按顶层块分段, 各段并行渲染后按顺序拼接
+         * <p>
+         * 转换指标只在调用线程上记录, 其他线程上的 html 导入等阶段计入 {@link DocStage#MARKDOWN_TO_WORDML} 的耗时
+         *
+         * @param chunkSize   每段的字符数, 不大于0时不分段(默认)
+         * @param parallelism 最大并发渲染数, 调用线程也参与渲染, 小于2时不分段
+         */
+        public DocBuilder largeDocument(int chunkSize, int parallelism) {
+            this.largeDocumentChunkSize = chunkSize;
+            this.largeDocumentParallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * 执行大文档分段渲染的 executor, 由调用方负责关闭; 不设置时使用 {@link java.util.concurrent.ForkJoinPool#commonPool()}
+         */
+        public DocBuilder largeDocumentExecutor(Executor largeDocumentExecutor) {
+            this.largeDocumentExecutor = largeDocumentExecutor;
+            return this;
+        }
+
+        /**
+         * 流式写出: markdown 按顶层块逐段转换, 每段直接序列化写入 word/document.xml, 内存中不保留完整正文。
+         * 只对 markdown 转换为文件或输出流生效, 每段的字符数与 {@link #largeDocument(int, int)} 相同, 未设置时为 64K
+         */
+        public DocBuilder streamingOutput(boolean streamingOutput) {
+            this.streamingOutput = streamingOutput;
+            return this;
+        }
+
+        /**
+         * 输出文档的 zip 压缩配置, 默认 {@link OutputCompression#DEFAULT}。
+         * 按 zip 条目直接改写普通占位符时, 未改写的条目保持模板原样; 交给 poi-tl 渲染的模板由 poi-tl 压缩, 不受此配置影响
+         */
+        public DocBuilder outputCompression(OutputCompression outputCompression) {
+            this.outputCompression = outputCompression == null ? OutputCompression.DEFAULT : outputCompression;
+            return this;
+        }
+
+        /**
+         * 异步转换({@code buildWordAsync})的期限, 从提交时开始计时。
+         * 到达期限时返回的 future 立即以 {@link DeadlineExceededException} 结束, 转换在下一个检查点停止
+         *
+         * @param timeout 期限, 不大于0时没有期限(默认)
+         * @param unit    时间单位
+         */
+        public DocBuilder deadline(long timeout, TimeUnit unit) {
+            this.deadlineNanos = unit.toNanos(timeout);
+            return this;
+        }
+
+        /**
+         * html 片段缓存: markdown 中内嵌的 html 块和 html 占位符的值按内容和转换配置缓存导入结果, 再次转换相同的 html 时直接复制, 不再经过 xhtml 导入。
+         * 默认不缓存; 使用自定义 {@link #importer(XHTMLImporterImpl)} 或未指定标识的 htmlContentProcessor 时不生效
+         */
+        public DocBuilder fragmentCache(FragmentCache fragmentCache) {
+            this.fragmentCache = fragmentCache;
+            return this;
+        }
+
         public List<Object> buildWordML(String html) {
-            return this.buildWordML(html, null);
+            metrics.enter("buildWordML");
+            try {
+                return this.buildWordML(html, null);
+            }
+            catch (RuntimeException e) {
+                metrics.fail();
+                throw e;
+            }
+            finally {
+                metrics.exit();
+            }
         }
 
         public void buildWord(String html, String outputFile) {
@@ -157,102 +399,295 @@ public class Docs {
         }
 
         public void buildWord(String html, File outputFile) {
-            try {
+            this.buildWord(() -> {
                 this.getMainContent()
                     .addAll(this.buildWordML(html));
-                wordMLPackage.save(outputFile);
-            }
-            catch (Exception e) {
-                log.error("failed to build word file", e);
-                throw new RuntimeException(e);
-            }
+                this.save(outputFile);
+            }, null);
         }
 
         public void buildWord(String html, OutputStream outputStream) {
-            try {
+            this.buildWord(() -> {
                 this.getMainContent()
                     .addAll(this.buildWordML(html));
-                wordMLPackage.save(outputStream);
+                this.save(outputStream);
+            }, outputStream);
+        }
+
+        /**
+         * 文档直接写入 channel, autoCloseStream 为 true 时写入后关闭 channel
+         */
+        public void buildWord(String html, WritableByteChannel channel) {
+            this.buildWord(html, Channels.newOutputStream(channel));
+        }
+
+        /**
+         * markdown 直接转换为 WordprocessingML, 不经过 html
+         * <p>
+         * 自定义的 globalCss 无法编译为 Word 表格样式(或为空)时, 仍经 html 导入以保证 css 生效。
+         * html 块以及含有内联 html 标签的顶层段落、标题经 html 导入; 列表和引用中的内联 html 标签(&lt;br&gt; 除外)被忽略, 只保留文本
+         *
+         * @param markdown markdown
+         * @return 正文内容
+         */
+        public List<Object> buildWordML(Markdowns.MarkdownBuilder markdown) {
+            if (!this.isMarkdownCssSupported()) {
+                return this.buildWordML(markdown.buildHtmlContent());
             }
-            catch (Exception e) {
-                log.error("failed to build word file", e);
-                throw new RuntimeException(e);
+
+            metrics.enter("buildWordML");
+            try {
+                final Node document = this.parse(markdown);
+                this.prefetchImages(ImagePrefetcher.collect(document));
+                final MarkdownDocxRenderer renderer = this.newMarkdownRenderer(markdown);
+                final MetricsRecorder.Span span = metrics.start(DocStage.MARKDOWN_TO_WORDML);
+                final List<Object> wordML;
+                if (largeDocumentChunkSize > 0 && document.getTextLength() > largeDocumentChunkSize) {
+                    wordML = renderer.render(document, largeDocumentChunkSize, largeDocumentParallelism, largeDocumentExecutor);
+                }
+                else {
+                    wordML = renderer.render(document);
+                }
+                span.end(document.getTextLength(), 0, wordML.size());
+                return wordML;
+            }
+            catch (RuntimeException e) {
+                metrics.fail();
+                throw e;
             }
             finally {
-                try {
-                    if (autoCloseStream) {
-                        outputStream.close();
+                metrics.exit();
+            }
+        }
+
+        public void buildWord(Markdowns.MarkdownBuilder markdown, String outputFile) {
+            this.buildWord(markdown, new File(outputFile));
+        }
+
+        public void buildWord(Markdowns.MarkdownBuilder markdown, File outputFile) {
+            this.buildWord(() -> {
+                if (streamingOutput) {
+                    try (OutputStream outputStream = Files.newOutputStream(outputFile.toPath())) {
+                        this.saveStreaming(markdown, outputStream);
                     }
                 }
-                catch (IOException ignored) {
+                else {
+                    this.getMainContent()
+                        .addAll(this.buildWordML(markdown));
+                    this.save(outputFile);
                 }
-            }
+            }, null);
+        }
+
+        public void buildWord(Markdowns.MarkdownBuilder markdown, OutputStream outputStream) {
+            this.buildWord(() -> {
+                if (streamingOutput) {
+                    this.saveStreaming(markdown, outputStream);
+                }
+                else {
+                    this.getMainContent()
+                        .addAll(this.buildWordML(markdown));
+                    this.save(outputStream);
+                }
+            }, outputStream);
+        }
+
+        /**
+         * 文档直接写入 channel, autoCloseStream 为 true 时写入后关闭 channel
+         */
+        public void buildWord(Markdowns.MarkdownBuilder markdown, WritableByteChannel channel) {
+            this.buildWord(markdown, Channels.newOutputStream(channel));
         }
 
         public void buildWord(Map<String, Object> placeHolderData, OutputStream outputStream) {
-            try {
+            this.buildWord(() -> {
+                // 每个值只判断一次是否为html, 结果在本次渲染中共享
+                final Set<String> htmlKeys = this.getHtmlKeys(placeHolderData);
+                final int placeHolderDataType = this.checkPlaceHolderDataType(placeHolderData, htmlKeys);
+
+                // 替换模板中的普通占位符, 输出流由外层关闭
+                if (placeHolderDataType == 1) {
+                    this.checkTemplate();
+                    this.renderTemplate(placeHolderData, outputStream);
+                }
+
+                // 替换模板中包含的html
+                if (placeHolderDataType == 2) {
+                    this.replaceHtmlPlaceHolder(placeHolderData, htmlKeys, outputStream);
+                }
+
+                // 替换普通/html占位符
+                if (placeHolderDataType == 3) {
+                    this.doReplaceMixedPlaceHolder(placeHolderData, htmlKeys, outputStream);
+                }
+            }, outputStream);
+        }
+
+        /**
+         * 文档直接写入 channel, autoCloseStream 为 true 时写入后关闭 channel
+         */
+        public void buildWord(Map<String, Object> placeHolderData, WritableByteChannel channel) {
+            this.buildWord(placeHolderData, Channels.newOutputStream(channel));
+        }
+
+        public void buildWord(Map<String, Object> placeHolderData, File outputFile) {
+            this.buildWord(() -> {
+                // 每个值只判断一次是否为html, 结果在本次渲染中共享
+                final Set<String> htmlKeys = this.getHtmlKeys(placeHolderData);
+                final int placeHolderDataType = this.checkPlaceHolderDataType(placeHolderData, htmlKeys);
+
                 // 替换模板中的普通占位符
-                if (this.checkPlaceHolderDataType(placeHolderData) == 1) {
-                    this.replacePlaceHolder(placeHolderData, outputStream);
+                if (placeHolderDataType == 1) {
+                    this.replacePlaceHolder(placeHolderData, outputFile);
                 }
 
                 // 替换模板中包含的html
-                if (this.checkPlaceHolderDataType(placeHolderData) == 2) {
-                    this.replaceHtmlPlaceHolder(placeHolderData, outputStream);
+                if (placeHolderDataType == 2) {
+                    this.replaceHtmlPlaceHolder(placeHolderData, htmlKeys, outputFile);
                 }
 
                 // 替换普通/html占位符
-                if (this.checkPlaceHolderDataType(placeHolderData) == 3) {
-                    final File tempDocFile = DocUtils.createTempDocFile();
-                    this.replaceHtmlPlaceHolder(placeHolderData, tempDocFile);
-                    this.replacePlaceHolder(placeHolderData, tempDocFile, tempDocFile);
-                    DocUtils.writeAndDeleteFile(tempDocFile, outputStream);
+                if (placeHolderDataType == 3) {
+                    this.replaceMixedPlaceHolder(placeHolderData, htmlKeys, outputFile);
                 }
+            }, null);
+        }
+
+        /**
+         * 执行一次 buildWord: 记录指标, 失败时统一包装为 RuntimeException(取消原样抛出), autoCloseStream 为 true 时最后关闭输出流
+         *
+         * @param conversion   转换并写出文档
+         * @param outputStream 输出流, 写入文件时为 null
+         */
+        private void buildWord(Conversion conversion, OutputStream outputStream) {
+            metrics.enter("buildWord");
+            try {
+                conversion.run();
+            }
+            catch (CancellationException e) {
+                metrics.fail();
+                throw e;
             }
             catch (Exception e) {
+                metrics.fail();
                 log.error("failed to build word file", e);
                 throw new RuntimeException(e);
             }
             finally {
                 try {
-                    if (autoCloseStream) {
+                    if (autoCloseStream && outputStream != null) {
                         outputStream.close();
                     }
                 }
                 catch (IOException ignored) {
                 }
+                metrics.exit();
             }
         }
 
-        public void buildWord(Map<String, Object> placeHolderData, File outputFile) {
-            // 替换模板中的普通占位符
-            if (this.checkPlaceHolderDataType(placeHolderData) == 1) {
-                this.replacePlaceHolder(placeHolderData, outputFile);
-            }
+        /**
+         * 在 executor 中转换 html 并写入输出流, 见 {@link #buildWordAsync(Markdowns.MarkdownBuilder, OutputStream, Executor)}
+         */
+        public CompletableFuture<Void> buildWordAsync(String html, OutputStream outputStream, Executor executor) {
+            return this.runAsync(() -> this.buildWord(html, outputStream), executor);
+        }
 
-            // 替换模板中包含的html
-            if (this.checkPlaceHolderDataType(placeHolderData) > 1) {
-                this.replaceHtmlPlaceHolder(placeHolderData, outputFile);
-            }
+        public CompletableFuture<Void> buildWordAsync(String html, File outputFile, Executor executor) {
+            return this.runAsync(() -> this.buildWord(html, outputFile), executor);
+        }
+
+        /**
+         * 在 executor 中转换 markdown 并写入输出流
+         * <p>
+         * 取消返回的 future 或超过 {@link #deadline(long, TimeUnit)} 时, future 立即结束,
+         * 转换在下一个检查点(各阶段之间、逐个 html 占位符、markdown 顶层块和表格行)停止; markdown 解析和单个 html 片段的导入不可中断。
+         * builder 同一时间只能执行一个转换。
+         *
+         * @param markdown     markdown
+         * @param outputStream 输出流, 是否关闭由 autoCloseStream 决定; 取消后可能已写入部分内容
+         * @param executor     执行转换的 executor, 由调用方负责关闭
+         * @return 转换结果, 取消或超时后 get/join 抛出 {@link CancellationException}/{@link DeadlineExceededException}
+         */
+        public CompletableFuture<Void> buildWordAsync(Markdowns.MarkdownBuilder markdown, OutputStream outputStream, Executor executor) {
+            return this.runAsync(() -> this.buildWord(markdown, outputStream), executor);
+        }
 
-            // 追加替换普通占位符
-            if (this.checkPlaceHolderDataType(placeHolderData) == 3) {
-                this.replacePlaceHolder(placeHolderData, outputFile, outputFile);
+        public CompletableFuture<Void> buildWordAsync(Markdowns.MarkdownBuilder markdown, File outputFile, Executor executor) {
+            return this.runAsync(() -> this.buildWord(markdown, outputFile), executor);
+        }
+
+        public CompletableFuture<Void> buildWordAsync(Map<String, Object> placeHolderData, OutputStream outputStream, Executor executor) {
+            return this.runAsync(() -> this.buildWord(placeHolderData, outputStream), executor);
+        }
+
+        public CompletableFuture<Void> buildWordAsync(Map<String, Object> placeHolderData, File outputFile, Executor executor) {
+            return this.runAsync(() -> this.buildWord(placeHolderData, outputFile), executor);
+        }
+
+        private CompletableFuture<Void> runAsync(Runnable conversion, Executor executor) {
+            final CompletableFuture<Void> future = new CompletableFuture<>();
+            final Cancellation cancellation = Cancellation.start(deadlineNanos);
+            cancellation.bind(future);
+            try {
+                executor.execute(() -> {
+                    // 排队期间已取消或超时
+                    if (future.isDone()) {
+                        return;
+                    }
+
+                    this.cancellation = cancellation;
+                    try {
+                        conversion.run();
+                        future.complete(null);
+                    }
+                    catch (Throwable e) {
+                        final CancellationException cancellationException = Cancellation.findCancellation(e);
+                        future.completeExceptionally(cancellationException == null ? e : cancellationException);
+                    }
+                    finally {
+                        this.cancellation = Cancellation.NONE;
+                    }
+                });
             }
+            catch (RejectedExecutionException e) {
+                future.completeExceptionally(e);
+            }
+            return future;
         }
 
         private List<Object> buildWordML(String html, String htmlKey) {
             final XHTMLImporterImpl importer = this.getImporterOrDefault();
             try {
+                cancellation.check();
+                final CompiledCss compiledCss = this.getCompiledCss();
                 if (globalCss != null && !globalCss.isEmpty()) {
-                    html = DocUtils.addHtmlStyles(html, globalCss);
+                    final MetricsRecorder.Span span = metrics.start(DocStage.CSS_INJECTION);
+                    final int length = html.length();
+                    // 全局 css 已编译为 Word 样式时只规范化 html, 不再注入 css
+                    html = compiledCss != null && compiledCss.isCompiled() ? DocUtils.toXhtml(html) : DocUtils.addHtmlStyles(html, globalCss);
+                    span.end(length, html.length(), 0);
                 }
 
                 if (htmlContentProcessor != null) {
                     html = htmlContentProcessor.apply(html, htmlKey);
                 }
 
-                return importer.convert(html, staticResourceBaseUri);
+                // 自定义的 importer 不使用文档的图片部件, 预读的图片用不上
+                if (this.importer == null) {
+                    this.prefetchImages(ImagePrefetcher.collect(html));
+                }
+
+                cancellation.check();
+                final MetricsRecorder.Span span = metrics.start(DocStage.XHTML_IMPORT);
+                final List<Object> wordML = importer.convert(html, staticResourceBaseUri);
+                if (compiledCss != null) {
+                    compiledCss.apply(wordML, html);
+                }
+                span.end(html.length(), 0, wordML.size());
+                return wordML;
+            }
+            catch (CancellationException e) {
+                throw e;
             }
             catch (Exception e) {
                 log.error("failed to convert HTML to XHTML", e);
@@ -260,158 +695,384 @@ public class Docs {
             }
         }
 
-        private void replaceHtmlPlaceHolder(Map<String, Object> placeHolderData, File outputFile) {
-            this.doReplaceHtmlPlaceHolder(placeHolderData);
-
-            try {
-                // 替换html
-                wordMLPackage.save(outputFile);
-            }
-            catch (Docx4JException e) {
-                log.error("failed to build word file", e);
-                throw new RuntimeException(e);
-            }
+        private void replaceHtmlPlaceHolder(Map<String, Object> placeHolderData, Set<String> htmlKeys, File outputFile) throws Docx4JException {
+            // 替换html
+            this.doReplaceHtmlPlaceHolder(placeHolderData, htmlKeys);
+            this.save(outputFile);
         }
 
-        private void replaceHtmlPlaceHolder(Map<String, Object> placeHolderData, OutputStream outputStream) {
-            this.doReplaceHtmlPlaceHolder(placeHolderData);
+        /**
+         * 替换html占位符并写入输出流, 不关闭输出流(由 {@link #buildWord(Conversion, OutputStream)} 关闭)
+         */
+        private void replaceHtmlPlaceHolder(Map<String, Object> placeHolderData, Set<String> htmlKeys, OutputStream outputStream) throws Docx4JException {
+            // 替换html
+            this.doReplaceHtmlPlaceHolder(placeHolderData, htmlKeys);
+            this.save(outputStream);
+        }
 
-            try {
-                // 替换html
-                wordMLPackage.save(outputStream);
-            }
-            catch (Docx4JException e) {
-                log.error("failed to build word file", e);
-                throw new RuntimeException(e);
+        private void doReplaceHtmlPlaceHolder(Map<String, Object> placeHolderData, Set<String> htmlKeys) {
+            final List<Object> mainContent = this.getMainContent();
+            if (fragmentCache != null) {
+                this.getPackageFingerprint();
             }
-            finally {
-                try {
-                    if (autoCloseStream) {
-                        outputStream.close();
-                    }
-                }
-                catch (IOException ignored) {
+            MetricsRecorder.Span span = metrics.start(DocStage.PLACEHOLDER_REPLACE);
+            final PlaceHolderIndex placeHolderIndex = this.getPlaceHolderIndex(mainContent);
+            span.end(0, 0, placeHolderIndex.getEntries()
+                                           .size());
+            final Map<Integer, List<Object>> wordFragments = new HashMap<>();
+
+            // 数据 key 去掉首尾空白后与模板中的 key 比较, 见 DocUtils.matchPlaceHolder
+            final Map<String, String> htmlDataKeys = new HashMap<>();
+            for (String htmlKey : htmlKeys) {
+                final String key = htmlKey.trim();
+                if (!key.isEmpty()) {
+                    htmlDataKeys.putIfAbsent(key, htmlKey);
                 }
             }
-        }
 
-        private void doReplaceHtmlPlaceHolder(Map<String, Object> placeHolderData) {
-            final List<Object> mainContent = this.getMainContent();
-            List<Object> newContent = new ArrayList<>();
-
-            for (Object p : mainContent) {
-                String text = DocUtils.extractText(p);
+            for (PlaceHolderIndex.Entry entry : placeHolderIndex.getEntries()) {
+                cancellation.check();
+                final String dataKey = htmlDataKeys.get(entry.getKey());
+                if (dataKey != null) {
+                    wordFragments.put(entry.getPosition(), this.buildCachedWordML((String) placeHolderData.get(dataKey), dataKey, false));
+                }
+            }
 
-                Optional<String> matchedKey = placeHolderData.keySet()
-                                                             .stream()
-                                                             .filter(key -> DocUtils.matchPlaceHolder(text, key, placeHolderPreSuffix[0], placeHolderPreSuffix[1]))
-                                                             .findFirst();
+            if (wordFragments.isEmpty()) {
+                return;
+            }
 
-                if (matchedKey.isPresent()) {
-                    String key = matchedKey.get();
-                    Object value = placeHolderData.get(key);
+            span = metrics.start(DocStage.PLACEHOLDER_REPLACE);
+            List<Object> newContent = new ArrayList<>(mainContent.size());
+            for (int i = 0; i < mainContent.size(); i++) {
+                final List<Object> wordFragment = wordFragments.get(i);
 
-                    if (DocUtils.isHtml(value)) {
-                        final List<Object> wordFragment = this.buildWordML((String) value, key);
-                        newContent.addAll(wordFragment);
-                    }
-                    else {
-                        newContent.add(p);
-                    }
+                if (wordFragment != null) {
+                    newContent.addAll(wordFragment);
                 }
                 else {
-                    newContent.add(p);
+                    newContent.add(mainContent.get(i));
                 }
             }
 
             // 替换模板内容
             mainContent.clear();
             mainContent.addAll(newContent);
+            span.end();
         }
 
-        private void replacePlaceHolder(Map<String, Object> data, File templateFile, File outputFile) {
-            final Configure templateEngineConfigure = this.getTemplateEngineConfigureOrDefault();
-            try (XWPFTemplate template = XWPFTemplate.compile(templateFile, templateEngineConfigure)) {
-                template.render(data)
-                        .writeToFile(outputFile.getAbsolutePath());
+        private PlaceHolderIndex getPlaceHolderIndex(List<Object> mainContent) {
+            PlaceHolderIndex placeHolderIndex = null;
+
+            // 模板正文的索引在多次渲染之间复用
+            if (template != null) {
+                placeHolderIndex = template.getPlaceHolderIndex(placeHolderPreSuffix[0], placeHolderPreSuffix[1], mainContent);
             }
-            catch (IOException e) {
-                log.error("failed to replace template word placeholder", e);
-                throw new RuntimeException(e);
+
+            if (placeHolderIndex == null || !placeHolderIndex.isValidFor(mainContent)) {
+                placeHolderIndex = PlaceHolderIndex.scan(mainContent, placeHolderPreSuffix[0], placeHolderPreSuffix[1]);
             }
+
+            return placeHolderIndex;
         }
 
-        public void replacePlaceHolder(Map<String, Object> data, File outputFile) {
-            final Configure templateEngineConfigure = this.getTemplateEngineConfigureOrDefault();
+        private void replaceMixedPlaceHolder(Map<String, Object> placeHolderData, Set<String> htmlKeys, File outputFile) throws Docx4JException, IOException {
+            try (OutputStream outputStream = Files.newOutputStream(outputFile.toPath())) {
+                this.doReplaceMixedPlaceHolder(placeHolderData, htmlKeys, outputStream);
+            }
+        }
 
-            if (templateInputStream == null) {
-                throw new NullPointerException("template file can not be null");
+        private void doReplaceMixedPlaceHolder(Map<String, Object> placeHolderData, Set<String> htmlKeys, OutputStream outputStream) throws Docx4JException, IOException {
+            // 替换html
+            this.doReplaceHtmlPlaceHolder(placeHolderData, htmlKeys);
+
+            MetricsRecorder.Span span = metrics.start(DocStage.PLACEHOLDER_REPLACE);
+            final TextPlaceHolderRenderer textRenderer = TextPlaceHolderRenderer.scan(this.getWordMLPackage(), placeHolderPreSuffix[0], placeHolderPreSuffix[1]);
+            span.end();
+            if (templateEngineConfigure == null && textRenderer.supports(placeHolderData)) {
+                // 在同一棵文档树中替换普通占位符, 只序列化一次
+                span = metrics.start(DocStage.PLACEHOLDER_REPLACE);
+                textRenderer.render(placeHolderData);
+                span.end();
+                this.save(outputStream);
+                return;
             }
 
-            XWPFTemplate template = XWPFTemplate.compile(templateInputStream, templateEngineConfigure);
-            try {
-                template.render(data)
-                        .writeToFile(outputFile.getAbsolutePath());
+            // 包含 poi-tl 特殊标签或数据时, 交给 poi-tl 继续替换普通占位符; 中间结果只在内存中读取一次, 不压缩
+            final DocUtils.ByteArrayBuffer htmlReplacedOutputStream = new DocUtils.ByteArrayBuffer();
+            this.save(htmlReplacedOutputStream, OutputCompression.STORE);
+            this.renderTemplate(htmlReplacedOutputStream.toInputStream(), placeHolderData, outputStream);
+        }
+
+        public void replacePlaceHolder(Map<String, Object> data, File outputFile) {
+            this.checkTemplate();
+
+            metrics.enter("replacePlaceHolder");
+            try (OutputStream outputStream = Files.newOutputStream(outputFile.toPath())) {
+                this.renderTemplate(data, outputStream);
             }
             catch (IOException e) {
+                metrics.fail();
                 log.error("failed to replace template word placeholder", e);
                 throw new RuntimeException(e);
             }
+            catch (RuntimeException e) {
+                metrics.fail();
+                throw e;
+            }
+            finally {
+                metrics.exit();
+            }
         }
 
         public void replacePlaceHolder(Map<String, Object> data, String outputFileAbsolutePath) {
-            final Configure templateEngineConfigure = this.getTemplateEngineConfigureOrDefault();
+            this.replacePlaceHolder(data, new File(outputFileAbsolutePath));
+        }
 
-            if (templateInputStream == null) {
-                throw new NullPointerException("template file can not be null");
-            }
+        public void replacePlaceHolder(Map<String, Object> data, OutputStream outputStream) {
+            this.checkTemplate();
 
-            XWPFTemplate template = XWPFTemplate.compile(templateInputStream, templateEngineConfigure);
+            metrics.enter("replacePlaceHolder");
             try {
-                template.render(data)
-                        .writeToFile(outputFileAbsolutePath);
+                this.renderTemplate(data, outputStream);
             }
             catch (IOException e) {
+                metrics.fail();
                 log.error("failed to replace template word placeholder", e);
                 throw new RuntimeException(e);
             }
+            catch (RuntimeException e) {
+                metrics.fail();
+                throw e;
+            }
+            finally {
+                try {
+                    if (autoCloseStream) {
+                        outputStream.close();
+                    }
+                }
+                catch (IOException ignored) {
+                }
+                metrics.exit();
+            }
         }
 
-        public void replacePlaceHolder(Map<String, Object> data, OutputStream outputStream) {
-            final Configure templateEngineConfigure = this.getTemplateEngineConfigureOrDefault();
+        /**
+         * 文档直接写入 channel, autoCloseStream 为 true 时写入后关闭 channel
+         */
+        public void replacePlaceHolder(Map<String, Object> data, WritableByteChannel channel) {
+            this.replacePlaceHolder(data, Channels.newOutputStream(channel));
+        }
 
-            if (templateInputStream == null) {
-                throw new NullPointerException("template file can not be null");
+        /**
+         * 渲染模板中的普通占位符并写入输出流, 不关闭输出流
+         * <p>
+         * 模板和数据都只包含普通文本时直接改写 zip 中的正文、页眉和页脚, 其余条目原样复制; 否则交给 poi-tl 渲染
+         */
+        private void renderTemplate(Map<String, Object> data, OutputStream outputStream) throws IOException {
+            cancellation.check();
+            if (templateEngineConfigure == null) {
+                final ZipPlaceHolderRenderer zipRenderer = template.getZipPlaceHolderRenderer(placeHolderPreSuffix[0], placeHolderPreSuffix[1]);
+                if (zipRenderer.supports(data)) {
+                    final MetricsRecorder.Span span = metrics.start(DocStage.TEMPLATE_RENDER);
+                    final OutputStream countingOutputStream = metrics.counting(outputStream);
+                    zipRenderer.render(data, countingOutputStream, outputCompression.getLevel());
+                    span.end(0, MetricsRecorder.countOf(countingOutputStream), data.size());
+                    return;
+                }
             }
 
-            try {
-                XWPFTemplate template = XWPFTemplate.compile(templateInputStream, templateEngineConfigure);
-                final XWPFTemplate render = template.render(data);
-                render.write(outputStream);
+            this.renderTemplate(this.template.openStream(), data, outputStream);
+        }
+
+        /**
+         * poi-tl 渲染模板并写入输出流, 不关闭输出流
+         */
+        private void renderTemplate(InputStream templateInputStream, Map<String, Object> data, OutputStream outputStream) throws IOException {
+            cancellation.check();
+            final MetricsRecorder.Span span = metrics.start(DocStage.TEMPLATE_RENDER);
+            final OutputStream countingOutputStream = metrics.counting(outputStream);
+            try (XWPFTemplate template = XWPFTemplate.compile(templateInputStream, this.getTemplateEngineConfigureOrDefault())) {
+                template.render(data)
+                        .write(countingOutputStream);
+            }
+            span.end(0, MetricsRecorder.countOf(countingOutputStream), data.size());
+        }
+
+        private Node parse(Markdowns.MarkdownBuilder markdown) {
+            if (markdown.isDocumentParsed()) {
+                return markdown.buildDocument();
+            }
+
+            cancellation.check();
+            final MetricsRecorder.Span span = metrics.start(DocStage.MARKDOWN_PARSE);
+            final Node document = markdown.buildDocument();
+            span.end(document.getTextLength(), 0, Markdowns.MarkdownBuilder.countChildren(document));
+            return document;
+        }
+
+        private void save(File outputFile) throws Docx4JException {
+            cancellation.check();
+            final MetricsRecorder.Span span = metrics.start(DocStage.PACKAGE_SAVE);
+            try (OutputStream outputStream = Files.newOutputStream(outputFile.toPath())) {
+                CompressingZipPartStore.save(this.getWordMLPackage(), new BufferedOutputStream(outputStream, OUTPUT_BUFFER_SIZE), outputCompression);
             }
             catch (IOException e) {
-                log.error("failed to replace template word placeholder", e);
-                throw new RuntimeException(e);
+                throw new Docx4JException("failed to save " + outputFile, e);
             }
-            finally {
+            span.end(0, metrics.isEnabled() ? outputFile.length() : 0, 0);
+        }
+
+        private void save(OutputStream outputStream) throws Docx4JException {
+            this.save(outputStream, outputCompression);
+        }
+
+        private void save(OutputStream outputStream, OutputCompression compression) throws Docx4JException {
+            cancellation.check();
+            final MetricsRecorder.Span span = metrics.start(DocStage.PACKAGE_SAVE);
+            final OutputStream countingOutputStream = metrics.counting(outputStream);
+            // docx4j 保存后会关闭输出流, 是否关闭由 autoCloseStream 决定
+            CompressingZipPartStore.save(this.getWordMLPackage(), new BufferedOutputStream(DocUtils.nonClosing(countingOutputStream), OUTPUT_BUFFER_SIZE), compression);
+            span.end(0, MetricsRecorder.countOf(countingOutputStream), 0);
+        }
+
+        /**
+         * markdown 逐段转换并流式写出, 转换结果不加入正文
+         */
+        private void saveStreaming(Markdowns.MarkdownBuilder markdown, OutputStream outputStream) throws Exception {
+            if (!this.isMarkdownCssSupported()) {
+                this.getMainContent()
+                    .addAll(this.buildWordML(markdown));
+                this.save(outputStream);
+                return;
+            }
+
+            final Node document = this.parse(markdown);
+            this.prefetchImages(ImagePrefetcher.collect(document));
+            final MarkdownDocxRenderer renderer = this.newMarkdownRenderer(markdown);
+            // 全局样式等文档级设置在写出之前完成
+            this.getMainContent();
+
+            final MetricsRecorder.Span span = metrics.start(DocStage.MARKDOWN_TO_WORDML);
+            final OutputStream countingOutputStream = metrics.counting(outputStream);
+            final StreamingDocumentWriter writer = new StreamingDocumentWriter(this.getWordMLPackage(), new BufferedOutputStream(DocUtils.nonClosing(countingOutputStream), OUTPUT_BUFFER_SIZE), outputCompression);
+            for (Node[] chunk : MarkdownDocxRenderer.chunks(document, largeDocumentChunkSize > 0 ? largeDocumentChunkSize : STREAMING_CHUNK_SIZE)) {
+                cancellation.check();
+                writer.write(renderer.render(document, chunk));
+            }
+            final int elements = writer.finish();
+            span.end(document.getTextLength(), MetricsRecorder.countOf(countingOutputStream), elements);
+        }
+
+        private MarkdownDocxRenderer newMarkdownRenderer(Markdowns.MarkdownBuilder markdown) {
+            if (fragmentCache != null) {
+                this.getPackageFingerprint();
+            }
+            // markdown 中内嵌的 html 块仍使用 xhtml 导入
+            return new MarkdownDocxRenderer(this.getWordMLPackage(), staticResourceBaseUri, this.getDocumentImages(), html -> this.buildCachedWordML(html, null, true))
+                .tableCss(DEFAULT_GLOBAL_CSS.equals(globalCss) ? null : this.getCompiledCss())
+                .markdownEngine(markdown.getEngineOrDefault())
+                .cancellation(cancellation);
+        }
+
+        /**
+         * 直接渲染的表格能否体现 globalCss: 默认 css 由内置格式实现, 自定义 css 需能编译为 Word 表格样式
+         */
+        private boolean isMarkdownCssSupported() {
+            if (DEFAULT_GLOBAL_CSS.equals(globalCss)) {
+                return true;
+            }
+            final CompiledCss css = this.getCompiledCss();
+            return css != null && css.isCompiled();
+        }
+
+        /**
+         * 启用片段缓存时优先复制缓存的导入结果, 未命中时导入并缓存
+         *
+         * @param toXhtml 导入前是否需要规范化为 xhtml, 命中缓存时可以省去
+         */
+        private List<Object> buildCachedWordML(String html, String htmlKey, boolean toXhtml) {
+            // 处理器没有标识时无法判断两次处理的结果是否相同
+            if (fragmentCache == null || this.importer != null || (htmlContentProcessor != null && htmlContentProcessorId == null)) {
+                return this.buildWordML(toXhtml ? DocUtils.toXhtml(html) : html, htmlKey);
+            }
+
+            final MainDocumentPart mainDocumentPart = this.getWordMLPackage()
+                                                          .getMainDocumentPart();
+            final String key = this.getFragmentCacheKey(html, htmlKey);
+            final FragmentCache.Fragment fragment = fragmentCache.get(key);
+            if (fragment != null) {
+                // 编译后的全局 css 样式需要先写入文档
+                this.getCompiledCss();
                 try {
-                    if (autoCloseStream) {
-                        outputStream.close();
+                    return fragment.copyTo(this.getDocumentImages());
+                }
+                catch (Exception e) {
+                    log.warn("failed to copy cached html fragment, fallback to import", e);
+                }
+            }
+
+            final Set<String> relationshipIds = new HashSet<>();
+            for (Relationship relationship : mainDocumentPart.getRelationshipsPart()
+                                                             .getRelationships()
+                                                             .getRelationship()) {
+                relationshipIds.add(relationship.getId());
+            }
+            final List<Object> wordML = this.buildWordML(toXhtml ? DocUtils.toXhtml(html) : html, htmlKey);
+            final FragmentCache.Fragment created = FragmentCache.Fragment.of(wordML, mainDocumentPart, relationshipIds);
+            if (created != null) {
+                fragmentCache.put(key, created);
+            }
+            return wordML;
+        }
+
+        /**
+         * 片段缓存的 key: html 与影响 xhtml 导入结果的配置
+         */
+        private String getFragmentCacheKey(String html, String htmlKey) {
+            final String processor = htmlContentProcessor == null ? null : htmlContentProcessorId;
+            // 只有 htmlContentProcessor 会用到占位符名称, 其余情况下不同占位符中相同的 html 共享缓存
+            return FragmentCache.key(html, processor == null ? null : htmlKey, globalCss, String.valueOf(useHtmlDefaultStyle), String.valueOf(paragraphFormatting), String.valueOf(runFormatting), String.valueOf(tableFormatting), staticResourceBaseUri, processor, String.valueOf(DocsGlobalConfig.getFontMappingVersion()), this.getPackageFingerprint());
+        }
+
+        /**
+         * 模板样式与页面宽度的摘要, 在转换激活新的样式之前计算一次
+         */
+        private String getPackageFingerprint() {
+            if (packageFingerprint == null) {
+                final StringBuilder sb = new StringBuilder();
+                final StyleDefinitionsPart stylesPart = this.getWordMLPackage()
+                                                            .getMainDocumentPart()
+                                                            .getStyleDefinitionsPart();
+                if (stylesPart != null) {
+                    for (Style style : stylesPart.getJaxbElement()
+                                                 .getStyle()) {
+                        sb.append(style.getStyleId())
+                          .append(',');
                     }
                 }
-                catch (IOException ignored) {
+                final List<SectionWrapper> sections = this.getWordMLPackage()
+                                                          .getDocumentModel()
+                                                          .getSections();
+                if (sections != null && !sections.isEmpty()) {
+                    sb.append(sections.get(sections.size() - 1)
+                                      .getPageDimensions()
+                                      .getWritableWidthTwips());
                 }
+                packageFingerprint = sb.toString();
             }
+            return packageFingerprint;
         }
 
         private XHTMLImporterImpl getImporterOrDefault() {
             XHTMLImporterImpl importerResult;
             if (importer == null) {
                 if (paragraphFormatting != null || runFormatting != null || tableFormatting != null) {
-                    XHTMLImporterImpl importer = new XHTMLImporterImpl(wordMLPackage);
+                    XHTMLImporterImpl importer = new XHTMLImporterImpl(this.getWordMLPackage());
                     importer.setParagraphFormatting(paragraphFormatting == null ? FormattingOption.CLASS_PLUS_OTHER : paragraphFormatting);
                     importer.setRunFormatting(runFormatting == null ? FormattingOption.CLASS_PLUS_OTHER : runFormatting);
                     importer.setTableFormatting(tableFormatting == null ? FormattingOption.CLASS_PLUS_OTHER : tableFormatting);
+                    importer.setXHTMLImageHandler(new CachingXHTMLImageHandler(importer, this.getDocumentImages(), staticResourceBaseUri));
 
                     importerResult = importer;
                 }
@@ -435,14 +1096,25 @@ public class Docs {
             }
         }
 
+        /**
+         * 使用预先构建好的默认 poi-tl 配置(占位符语法需与 placeHolderPreSuffix 一致)
+         */
+        DocBuilder defaultTemplateEngineConfigure(Configure defaultTemplateEngineConfigure) {
+            this.defaultTemplateEngineConfigure = defaultTemplateEngineConfigure;
+            return this;
+        }
+
         private Configure defaultTemplateEngineConfigure() {
-            return Configure.builder()
-                            .buildGramer(placeHolderPreSuffix[0], placeHolderPreSuffix[1])
-                            .build();
+            if (defaultTemplateEngineConfigure == null) {
+                defaultTemplateEngineConfigure = Configure.builder()
+                                                          .buildGramer(placeHolderPreSuffix[0], placeHolderPreSuffix[1])
+                                                          .build();
+            }
+            return defaultTemplateEngineConfigure;
         }
 
         private XHTMLImporterImpl defaultImporter() {
-            XHTMLImporterImpl importer = new XHTMLImporterImpl(wordMLPackage);
+            XHTMLImporterImpl importer = new XHTMLImporterImpl(this.getWordMLPackage());
             if (useHtmlDefaultStyle) {
                 importer.setParagraphFormatting(FormattingOption.CLASS_PLUS_OTHER);
                 importer.setRunFormatting(FormattingOption.CLASS_PLUS_OTHER);
@@ -453,15 +1125,55 @@ public class Docs {
                 importer.setRunFormatting(FormattingOption.CLASS_TO_STYLE_ONLY);
                 importer.setTableFormatting(FormattingOption.CLASS_TO_STYLE_ONLY);
             }
+            importer.setXHTMLImageHandler(new CachingXHTMLImageHandler(importer, this.getDocumentImages(), staticResourceBaseUri));
 
             return importer;
         }
 
+        private void prefetchImages(Set<String> srcs) {
+            if (srcs.isEmpty()) {
+                return;
+            }
+
+            cancellation.check();
+            final MetricsRecorder.Span span = metrics.start(DocStage.IMAGE_PREFETCH);
+            // 等待预读的时间不超过转换的剩余期限
+            this.getDocumentImages()
+                .prefetch(srcs, staticResourceBaseUri, imagePrefetchParallelism, Math.min(imagePrefetchTimeoutMillis, cancellation.remainingMillis()), imagePrefetchExecutor);
+            span.end(0, 0, srcs.size());
+        }
+
+        private DocumentImages getDocumentImages() {
+            if (documentImages == null) {
+                documentImages = new DocumentImages(this.getWordMLPackage(), imageCache);
+            }
+            return documentImages;
+        }
+
+        /**
+         * 编译全局 css 并把样式写入文档, 每个 builder 只执行一次
+         *
+         * @return 未设置全局 css 时返回 null
+         */
+        private CompiledCss getCompiledCss() {
+            if (globalCss == null || globalCss.isEmpty()) {
+                return null;
+            }
+
+            if (compiledCss == null) {
+                compiledCss = CompiledCss.compile(globalCss);
+                compiledCss.install(this.getWordMLPackage());
+            }
+            return compiledCss;
+        }
+
         private List<Object> getMainContent() {
-            MainDocumentPart mainDocumentPart = wordMLPackage.getMainDocumentPart();
-            if (globalCss != null && !globalCss.isEmpty()) {
+            MainDocumentPart mainDocumentPart = this.getWordMLPackage()
+                                                    .getMainDocumentPart();
+            if (!globalCssApplied && globalCss != null && !globalCss.isEmpty()) {
                 mainDocumentPart.getStyleDefinitionsPart()
                                 .setCss(globalCss);
+                globalCssApplied = true;
             }
             Body body = mainDocumentPart.getJaxbElement()
                                         .getBody();
@@ -469,24 +1181,41 @@ public class Docs {
         }
 
         /**
-         * 判断占位符数据类型
+         * 值为html的占位符key
          *
          * @param placeHolderData 占位符数据
-         * @return 1: 数据不包含html 2: 数据全是html 3: 都包含
+         * @return html key
          */
-        private int checkPlaceHolderDataType(Map<String, Object> placeHolderData) {
-            boolean hasHtmlValFlag = false;
-            boolean hasCommonValFlag = false;
+        private Set<String> getHtmlKeys(Map<String, Object> placeHolderData) {
+            final Set<String> htmlKeys = new HashSet<>();
 
-            for (Object value : placeHolderData.values()) {
-                if (DocUtils.isHtml(value)) {
-                    hasHtmlValFlag = true;
-                }
-                else {
-                    hasCommonValFlag = true;
+            for (Map.Entry<String, Object> entry : placeHolderData.entrySet()) {
+                cancellation.check();
+                if (DocUtils.isHtml(entry.getValue())) {
+                    htmlKeys.add(entry.getKey());
                 }
             }
 
+            return htmlKeys;
+        }
+
+        /**
+         * 判断占位符数据类型
+         *
+         * @param placeHolderData 占位符数据
+         * @param htmlKeys        值为html的占位符key
+         * @return 1: 数据不包含html 2: 数据全是html 3: 都包含
+         */
+        private void checkTemplate() {
+            if (template == null) {
+                throw new NullPointerException("template file can not be null");
+            }
+        }
+
+        private int checkPlaceHolderDataType(Map<String, Object> placeHolderData, Set<String> htmlKeys) {
+            final boolean hasHtmlValFlag = !htmlKeys.isEmpty();
+            final boolean hasCommonValFlag = htmlKeys.size() < placeHolderData.size();
+
             if (!hasHtmlValFlag && hasCommonValFlag) {
                 return 1;
             }
@@ -498,4 +1227,12 @@ public class Docs {
             return 3;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 一次转换并写出文档, 可以抛出受检异常
+     */
+    @FunctionalInterface
+    private interface Conversion {
+        void run() throws Exception;
+    }
+}
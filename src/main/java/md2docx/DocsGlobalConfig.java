@@ -13,6 +13,8 @@ import java.net.URI;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 全局（static）配置与注册点。
@@ -20,6 +22,48 @@ import java.util.Map;
 @Slf4j
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public final class DocsGlobalConfig {
+    /**
+     * 字体映射的修改次数, 作为 html 片段缓存 key 的一部分
+     */
+    private static final AtomicLong FONT_MAPPING_VERSION = new AtomicLong();
+
+    /**
+     * 已注册的 css font-family -> doc 字体名
+     */
+    private static final Map<String, String> FONT_MAPPINGS = new ConcurrentHashMap<>();
+
+    static long getFontMappingVersion() {
+        return FONT_MAPPING_VERSION.get();
+    }
+
+    /**
+     * 通过 {@link #registerFontMapping(String, String)} 注册的 doc 字体名
+     *
+     * @return 未注册时返回 null
+     */
+    static String getFontMapping(String cssFontFamily) {
+        return FONT_MAPPINGS.get(cssFontFamily);
+    }
+
+    /**
+     * 注册 {@link Docs#builder()} 使用的基础模板: 新文档沿用模板中的样式、编号、页面设置和页眉页脚, 不保留模板的正文内容
+     *
+     * @param template 基础模板, 为 null 时恢复为 docx4j 默认的空白文档
+     */
+    public static void registerBaseTemplate(CompiledTemplate template) {
+        CompiledTemplate.setBlank(template == null ? null : template.toBlank());
+    }
+
+    /**
+     * 注册 {@link Docs#builder()} 使用的基础模板
+     *
+     * @param templateFile 模板文件
+     * @see #registerBaseTemplate(CompiledTemplate)
+     */
+    public static void registerBaseTemplate(File templateFile) {
+        registerBaseTemplate(CompiledTemplate.compile(templateFile));
+    }
+
     /**
      * 注册本地字体和css font-family的映射关系
      *
@@ -87,6 +131,8 @@ public final class DocsGlobalConfig {
             rfonts.setCs(docFontName);
             rfonts.setEastAsia(docFontName);
             XHTMLImporterImpl.addFontMapping(cssFontFamily, rfonts);
+            FONT_MAPPINGS.put(cssFontFamily, docFontName);
+            FONT_MAPPING_VERSION.incrementAndGet();
         } catch (Throwable t) {
             log.warn("failed to call XHTMLImporterImpl.addFontMapping for cssFont={}, docFont={}",
                     cssFontFamily, docFontName, t);
@@ -0,0 +1,201 @@
+package md2docx;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.xmlgraphics.image.loader.ImageInfo;
+import org.docx4j.openpackaging.contenttype.ContentTypeManager;
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.docx4j.openpackaging.parts.Part;
+import org.docx4j.openpackaging.parts.WordprocessingML.BinaryPartAbstractImage;
+import org.docx4j.openpackaging.parts.relationships.RelationshipsPart;
+
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 一个文档内的图片部件
+ * <p>
+ * 内容相同的图片只生成一个 {@link BinaryPartAbstractImage} 和一条关系, 多处引用共享同一个部件。
+ * 图片字节、尺寸和类型来自 {@link ImageCache}, 已识别过的图片直接创建部件, 不再经过 docx4j 的临时文件和图片解码。
+ * 与文档一样不是线程安全的。
+ *
+ * @author ludangxin
+ * @since 2026/10/17
+ */
+@Slf4j
+final class DocumentImages {
+    /**
+     * 图片部件的 imageInfo 字段
+     * <p>
+     * docx4j 把 getImageInfo/setImageInfo 标记为废弃且没有替代的 API, 但 xhtml 导入器和 createImageInline 仍从部件读取该字段,
+     * 复用识别结果只能直接读写字段。字段不可访问时(如 docx4j 作为命名模块加载)为 null, 每张图片都由 docx4j 解码。
+     */
+    private static final Field IMAGE_INFO = imageInfoField();
+
+    private final WordprocessingMLPackage wordMLPackage;
+
+    private final ImageCache imageCache;
+
+    /**
+     * <内容摘要, 图片部件>
+     */
+    private final Map<String, BinaryPartAbstractImage> imageParts = new HashMap<>();
+
+    /**
+     * <基础路径 + 图片地址, 预读的图片>
+     */
+    private final Map<String, ImageCache.Image> prefetched = new HashMap<>();
+
+    /**
+     * 已经尝试过预读的图片, 读取失败的图片不重复预读
+     */
+    private final Set<String> prefetchRequested = new HashSet<>();
+
+    /**
+     * 图片 docPr id, 同一文档内不能重复; 分段并行渲染时由多个线程分配
+     */
+    private final AtomicInteger drawingId = new AtomicInteger(10000);
+
+    /**
+     * @param wordMLPackage 目标文档
+     * @param imageCache    图片缓存, 为null时每次都读取图片, 只在文档内去重
+     */
+    DocumentImages(WordprocessingMLPackage wordMLPackage, ImageCache imageCache) {
+        this.wordMLPackage = wordMLPackage;
+        this.imageCache = imageCache == null ? new ImageCache(1, 1) : imageCache;
+    }
+
+    WordprocessingMLPackage getPackage() {
+        return wordMLPackage;
+    }
+
+    /**
+     * 分配文档内图片(wp:docPr)的 id
+     */
+    int nextDrawingId() {
+        return drawingId.incrementAndGet();
+    }
+
+    /**
+     * 获取图片对应的部件, 同一文档内相同内容的图片只创建一次
+     *
+     * @param src                   图片地址
+     * @param staticResourceBaseUri 相对路径的基础路径
+     * @return 图片部件
+     */
+    BinaryPartAbstractImage getImagePart(String src, String staticResourceBaseUri) throws Exception {
+        ImageCache.Image image = prefetched.get(key(src, staticResourceBaseUri));
+        if (image == null) {
+            image = imageCache.load(src, staticResourceBaseUri);
+        }
+        return this.getImagePart(image);
+    }
+
+    /**
+     * 获取图片内容对应的部件, 用于复制其他文档中的图片
+     *
+     * @param bytes 图片字节
+     * @return 图片部件
+     */
+    BinaryPartAbstractImage getImagePart(byte[] bytes) throws Exception {
+        return this.getImagePart(imageCache.get(bytes));
+    }
+
+    private BinaryPartAbstractImage getImagePart(ImageCache.Image image) throws Exception {
+        BinaryPartAbstractImage imagePart = imageParts.get(image.hash);
+        if (imagePart == null) {
+            imagePart = image.isDecoded() && IMAGE_INFO != null ? this.newImagePart(image) : this.decodeImagePart(image);
+            imageParts.put(image.hash, imagePart);
+        }
+        return imagePart;
+    }
+
+    /**
+     * 并行预读图片, 之后 {@link #getImagePart(String, String)} 直接使用读取结果
+     *
+     * @param srcs                  图片地址
+     * @param staticResourceBaseUri 相对路径的基础路径
+     * @param parallelism           最大并发读取数, 小于2时不预读
+     * @param timeoutMillis         等待读取的最长时间
+     * @param executor              执行读取的 executor, 为null时使用内置的线程池
+     */
+    void prefetch(Set<String> srcs, String staticResourceBaseUri, int parallelism, long timeoutMillis, Executor executor) {
+        if (parallelism < 2) {
+            return;
+        }
+
+        srcs.removeIf(src -> src.startsWith("data:") || !prefetchRequested.add(key(src, staticResourceBaseUri)));
+        // 只有一张图片时没有并行的必要, 转换时直接读取
+        if (srcs.size() < 2) {
+            return;
+        }
+
+        final Map<String, ImageCache.Image> images = ImagePrefetcher.prefetch(imageCache, srcs, staticResourceBaseUri, parallelism, timeoutMillis, executor);
+        for (Map.Entry<String, ImageCache.Image> entry : images.entrySet()) {
+            prefetched.put(key(entry.getKey(), staticResourceBaseUri), entry.getValue());
+        }
+    }
+
+    int size() {
+        return imageParts.size();
+    }
+
+    private static String key(String src, String staticResourceBaseUri) {
+        return staticResourceBaseUri == null ? src : staticResourceBaseUri + '\n' + src;
+    }
+
+    private static Field imageInfoField() {
+        try {
+            final Field field = BinaryPartAbstractImage.class.getDeclaredField("imageInfo");
+            field.setAccessible(true);
+            return field;
+        }
+        catch (Exception e) {
+            log.info("image info of docx4j image parts is not accessible, images are decoded for every document: {}", e.toString());
+            return null;
+        }
+    }
+
+    private BinaryPartAbstractImage decodeImagePart(ImageCache.Image image) throws Exception {
+        final BinaryPartAbstractImage imagePart = BinaryPartAbstractImage.createImagePart(wordMLPackage, image.bytes);
+        if (IMAGE_INFO == null) {
+            return imagePart;
+        }
+
+        final ImageInfo imageInfo = (ImageInfo) IMAGE_INFO.get(imagePart);
+        // docx4j 不支持的格式会被转换, 转换后的内容与原图不同, 不能复用识别结果
+        if (imageInfo != null && imagePart.getBuffer()
+                                          .remaining() == image.bytes.length) {
+            image.decoded(imageInfo);
+        }
+        return imagePart;
+    }
+
+    /**
+     * 与 {@link BinaryPartAbstractImage#createImagePart(org.docx4j.openpackaging.packages.OpcPackage, Part, byte[])} 相同的部件命名和关系,
+     * 跳过临时文件和图片解码
+     */
+    private BinaryPartAbstractImage newImagePart(ImageCache.Image image) throws Exception {
+        final Part sourcePart = wordMLPackage.getMainDocumentPart();
+        if (sourcePart.getRelationshipsPart() == null) {
+            RelationshipsPart.createRelationshipsPartForPart(sourcePart);
+        }
+        final String proposedRelId = sourcePart.getRelationshipsPart()
+                                               .getNextId();
+        final String contentType = image.getImageInfo()
+                                         .getMimeType();
+        final String ext = contentType.substring(contentType.indexOf('/') + 1);
+
+        final ContentTypeManager contentTypeManager = wordMLPackage.getContentTypeManager();
+        final BinaryPartAbstractImage imagePart = (BinaryPartAbstractImage) contentTypeManager.newPartForContentType(contentType, BinaryPartAbstractImage.createImageName(wordMLPackage, sourcePart, proposedRelId, ext), null);
+        imagePart.setBinaryData(image.bytes);
+        imagePart.getRels()
+                 .add(sourcePart.addTargetPart(imagePart, proposedRelId));
+        IMAGE_INFO.set(imagePart, image.getImageInfo());
+        return imagePart;
+    }
+}
@@ -0,0 +1,351 @@
+package md2docx;
+
+import lombok.extern.slf4j.Slf4j;
+import org.docx4j.XmlUtils;
+import org.docx4j.dml.CTBlip;
+import org.docx4j.dml.CTNonVisualDrawingProps;
+import org.docx4j.dml.Graphic;
+import org.docx4j.dml.picture.Pic;
+import org.docx4j.dml.wordprocessingDrawing.Anchor;
+import org.docx4j.dml.wordprocessingDrawing.Inline;
+import org.docx4j.openpackaging.parts.Part;
+import org.docx4j.openpackaging.parts.WordprocessingML.BinaryPartAbstractImage;
+import org.docx4j.openpackaging.parts.WordprocessingML.MainDocumentPart;
+import org.docx4j.openpackaging.parts.relationships.Namespaces;
+import org.docx4j.openpackaging.parts.relationships.RelationshipsPart;
+import org.docx4j.relationships.Relationship;
+import org.docx4j.wml.CTFtnEdnRef;
+import org.docx4j.wml.CTObject;
+import org.docx4j.wml.ContentAccessor;
+import org.docx4j.wml.Drawing;
+import org.docx4j.wml.P;
+import org.docx4j.wml.Pict;
+import org.docx4j.wml.R;
+import org.docx4j.wml.SdtElement;
+import org.docx4j.wml.Tbl;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * html 片段缓存
+ * <p>
+ * 缓存 html 经 xhtml 导入后的 WordprocessingML, key 为 html 与影响导入结果的配置(css、格式化选项、字体映射、模板样式等)的 sha-256,
+ * 在多次转换之间共享。命中时深拷贝缓存的片段并绑定到目标文档: 外部超链接在目标文档中重新创建关系,
+ * 图片按内容在目标文档中创建(或复用)部件, 引用的样式在目标文档中激活。
+ * 含有编号、脚注、图表等依赖其他文档部件的片段不缓存。超出条目数时淘汰最久未使用的片段, 片段中的图片字节随片段一起缓存。
+ *
+ * @author ludangxin
+ * @since 2026/10/17
+ */
+@Slf4j
+public class FragmentCache {
+    private final int maxSize;
+
+    /**
+     * <key, 片段>
+     */
+    private final Map<String, Fragment> fragments;
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    /**
+     * @param maxSize 缓存的片段数量上限
+     */
+    public FragmentCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be greater than 0");
+        }
+        this.maxSize = maxSize;
+        this.fragments = new LinkedHashMap<String, Fragment>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Fragment> eldest) {
+                return size() > FragmentCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * 由 html 和转换配置生成 key
+     */
+    static String key(String... parts) {
+        final StringBuilder sb = new StringBuilder();
+        for (String part : parts) {
+            sb.append(part == null ? "" : part)
+              .append('\0');
+        }
+        return ImageCache.sha256(sb.toString()
+                                   .getBytes(StandardCharsets.UTF_8));
+    }
+
+    synchronized Fragment get(String key) {
+        final Fragment fragment = fragments.get(key);
+        if (fragment != null) {
+            hitCount.increment();
+        }
+        else {
+            missCount.increment();
+        }
+        return fragment;
+    }
+
+    synchronized void put(String key, Fragment fragment) {
+        fragments.put(key, fragment);
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public synchronized int size() {
+        return fragments.size();
+    }
+
+    public synchronized void clear() {
+        fragments.clear();
+    }
+
+    /**
+     * 缓存的片段, 内容与任何文档都没有关联
+     */
+    static final class Fragment {
+        private final List<Object> content;
+
+        /**
+         * <片段中的超链接关系 id, 链接地址>
+         */
+        private final Map<String, String> hyperlinks;
+
+        /**
+         * <片段中的图片关系 id, 图片字节>
+         */
+        private final Map<String, byte[]> images;
+
+        /**
+         * 片段引用的样式
+         */
+        private final Set<String> styles;
+
+        private Fragment(List<Object> content, Map<String, String> hyperlinks, Map<String, byte[]> images, Set<String> styles) {
+            this.content = content;
+            this.hyperlinks = hyperlinks;
+            this.images = images;
+            this.styles = styles;
+        }
+
+        /**
+         * 由刚导入到 mainDocumentPart 的内容创建片段
+         *
+         * @param wordML           导入结果
+         * @param mainDocumentPart 导入的目标文档
+         * @param relationshipIds  导入前已有的关系 id
+         * @return 片段, 内容依赖文档部件而不能缓存时返回null
+         */
+        static Fragment of(List<Object> wordML, MainDocumentPart mainDocumentPart, Set<String> relationshipIds) {
+            final RelationshipsPart relationshipsPart = mainDocumentPart.getRelationshipsPart();
+            // 导入过程中新建了超链接和图片以外的关系; 导入器初始化时会创建编号部件, 片段是否使用编号在下面判断
+            for (Relationship relationship : relationshipsPart.getRelationships()
+                                                              .getRelationship()) {
+                if (!relationshipIds.contains(relationship.getId()) && !Namespaces.HYPERLINK.equals(relationship.getType()) && !Namespaces.IMAGE.equals(relationship.getType()) && !Namespaces.NUMBERING.equals(relationship.getType())) {
+                    return null;
+                }
+            }
+
+            final boolean[] cacheable = {true};
+            final Map<String, String> hyperlinks = new HashMap<>();
+            final Map<String, byte[]> images = new HashMap<>();
+            final Set<String> styles = new LinkedHashSet<>();
+            walk(wordML, o -> {
+                if (o instanceof Pict || o instanceof CTObject || o instanceof CTFtnEdnRef) {
+                    cacheable[0] = false;
+                }
+                else if (o instanceof Drawing) {
+                    // 只缓存内嵌在文档中的普通图片
+                    for (Object graphic : ((Drawing) o).getAnchorOrInline()) {
+                        final CTBlip blip = blip(graphic);
+                        // 外部链接的图片(link)不缓存, 未设置时 link 为空字符串
+                        final boolean embedded = blip != null && blip.getEmbed() != null && (blip.getLink() == null || blip.getLink()
+                                                                                                                            .isEmpty());
+                        final Relationship relationship = embedded ? relationshipsPart.getRelationshipByID(blip.getEmbed()) : null;
+                        final Part part = relationship == null ? null : relationshipsPart.getPart(relationship);
+                        if (part instanceof BinaryPartAbstractImage) {
+                            images.put(relationship.getId(), ((BinaryPartAbstractImage) part).getBytes());
+                        }
+                        else {
+                            cacheable[0] = false;
+                        }
+                    }
+                }
+                else if (o instanceof P) {
+                    final P p = (P) o;
+                    if (p.getPPr() != null) {
+                        if (p.getPPr()
+                             .getNumPr() != null) {
+                            cacheable[0] = false;
+                        }
+                        if (p.getPPr()
+                             .getPStyle() != null) {
+                            styles.add(p.getPPr()
+                                        .getPStyle()
+                                        .getVal());
+                        }
+                    }
+                }
+                else if (o instanceof R) {
+                    final R r = (R) o;
+                    if (r.getRPr() != null && r.getRPr()
+                                               .getRStyle() != null) {
+                        styles.add(r.getRPr()
+                                    .getRStyle()
+                                    .getVal());
+                    }
+                }
+                else if (o instanceof Tbl) {
+                    final Tbl tbl = (Tbl) o;
+                    if (tbl.getTblPr() != null && tbl.getTblPr()
+                                                     .getTblStyle() != null) {
+                        styles.add(tbl.getTblPr()
+                                      .getTblStyle()
+                                      .getVal());
+                    }
+                }
+                else if (o instanceof P.Hyperlink && ((P.Hyperlink) o).getId() != null) {
+                    final Relationship relationship = relationshipsPart.getRelationshipByID(((P.Hyperlink) o).getId());
+                    if (relationship == null) {
+                        cacheable[0] = false;
+                    }
+                    else {
+                        hyperlinks.put(relationship.getId(), relationship.getTarget());
+                    }
+                }
+            });
+            if (!cacheable[0]) {
+                return null;
+            }
+
+            final List<Object> content = new ArrayList<>(wordML.size());
+            for (Object o : wordML) {
+                content.add(XmlUtils.deepCopy(o));
+            }
+            return new Fragment(content, hyperlinks, images, styles.isEmpty() ? Collections.emptySet() : styles);
+        }
+
+        /**
+         * 深拷贝片段并绑定到目标文档
+         *
+         * @param documentImages 目标文档的图片部件
+         * @return 可以直接加入目标文档的内容
+         */
+        List<Object> copyTo(DocumentImages documentImages) throws Exception {
+            final MainDocumentPart mainDocumentPart = documentImages.getPackage()
+                                                                    .getMainDocumentPart();
+            final List<Object> copies = new ArrayList<>(content.size());
+            for (Object o : content) {
+                copies.add(XmlUtils.deepCopy(o));
+            }
+
+            for (String style : styles) {
+                try {
+                    mainDocumentPart.getPropertyResolver()
+                                    .activateStyle(style);
+                }
+                catch (Exception e) {
+                    log.warn("failed to activate style: {}", style, e);
+                }
+            }
+
+            if (!hyperlinks.isEmpty()) {
+                // 每次命中在目标文档中新建关系, 片段中的 id 替换为新关系的 id
+                final Map<String, String> relationshipIds = new HashMap<>();
+                for (Map.Entry<String, String> hyperlink : hyperlinks.entrySet()) {
+                    final Relationship relationship = new org.docx4j.relationships.ObjectFactory().createRelationship();
+                    relationship.setType(Namespaces.HYPERLINK);
+                    relationship.setTarget(hyperlink.getValue());
+                    relationship.setTargetMode("External");
+                    mainDocumentPart.getRelationshipsPart()
+                                    .addRelationship(relationship);
+                    relationshipIds.put(hyperlink.getKey(), relationship.getId());
+                }
+                walk(copies, o -> {
+                    if (o instanceof P.Hyperlink && ((P.Hyperlink) o).getId() != null) {
+                        ((P.Hyperlink) o).setId(relationshipIds.get(((P.Hyperlink) o).getId()));
+                    }
+                });
+            }
+
+            if (!images.isEmpty()) {
+                // 相同内容的图片在目标文档中共享部件, 图片 id 重新分配, 避免同一片段多次插入后重复
+                final Map<String, String> relationshipIds = new HashMap<>();
+                for (Map.Entry<String, byte[]> image : images.entrySet()) {
+                    relationshipIds.put(image.getKey(), documentImages.getImagePart(image.getValue())
+                                                                      .getRelLast()
+                                                                      .getId());
+                }
+                walk(copies, o -> {
+                    if (o instanceof Drawing) {
+                        for (Object graphic : ((Drawing) o).getAnchorOrInline()) {
+                            final CTBlip blip = blip(graphic);
+                            blip.setEmbed(relationshipIds.get(blip.getEmbed()));
+
+                            final long id = documentImages.nextDrawingId();
+                            final CTNonVisualDrawingProps docPr = graphic instanceof Inline ? ((Inline) graphic).getDocPr() : ((Anchor) graphic).getDocPr();
+                            if (docPr != null) {
+                                docPr.setId(id);
+                            }
+                            final Pic pic = pic(graphic);
+                            if (pic.getNvPicPr() != null && pic.getNvPicPr()
+                                                                .getCNvPr() != null) {
+                                pic.getNvPicPr()
+                                   .getCNvPr()
+                                   .setId(id);
+                            }
+                        }
+                    }
+                });
+            }
+
+            return copies;
+        }
+
+        private static Pic pic(Object graphic) {
+            final Graphic g = graphic instanceof Inline ? ((Inline) graphic).getGraphic() : graphic instanceof Anchor ? ((Anchor) graphic).getGraphic() : null;
+            return g == null || g.getGraphicData() == null ? null : g.getGraphicData()
+                                                                      .getPic();
+        }
+
+        private static CTBlip blip(Object graphic) {
+            final Pic pic = pic(graphic);
+            return pic == null || pic.getBlipFill() == null ? null : pic.getBlipFill()
+                                                                         .getBlip();
+        }
+
+        private static void walk(List<Object> content, Consumer<Object> visitor) {
+            for (Object o : content) {
+                final Object unwrapped = XmlUtils.unwrap(o);
+                visitor.accept(unwrapped);
+                if (unwrapped instanceof ContentAccessor) {
+                    walk(((ContentAccessor) unwrapped).getContent(), visitor);
+                }
+                else if (unwrapped instanceof SdtElement && ((SdtElement) unwrapped).getSdtContent() != null) {
+                    walk(((SdtElement) unwrapped).getSdtContent()
+                                                 .getContent(), visitor);
+                }
+            }
+        }
+    }
+}
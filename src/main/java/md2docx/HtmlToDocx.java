@@ -1,13 +1,15 @@
 package md2docx;
 
 import lombok.SneakyThrows;
-import org.docx4j.Docx4J;
 import org.docx4j.convert.in.xhtml.XHTMLImporterImpl;
 import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
 import org.docx4j.openpackaging.parts.WordprocessingML.MainDocumentPart;
 import org.docx4j.wml.Body;
 
-import java.io.File;
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 
 /**
  * html 2 docx
@@ -16,8 +18,36 @@ import java.io.File;
  * @since 2025/10/14
  */
 public class HtmlToDocx {
-    @SneakyThrows
     public static void convertHtmlToDocx(String htmlContent, String outputFilePath) {
+        convertHtmlToDocx(htmlContent, outputFilePath, OutputCompression.DEFAULT);
+    }
+
+    /**
+     * html 转换为 docx 文件
+     *
+     * @param compression 输出文档的 zip 压缩配置
+     */
+    @SneakyThrows
+    public static void convertHtmlToDocx(String htmlContent, String outputFilePath, OutputCompression compression) {
+        try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(Paths.get(outputFilePath)), 64 * 1024)) {
+            convertHtmlToDocx(htmlContent, outputStream, compression);
+        }
+    }
+
+    /**
+     * html 转换为 docx 并直接写入输出流, 不关闭输出流
+     */
+    public static void convertHtmlToDocx(String htmlContent, OutputStream outputStream) {
+        convertHtmlToDocx(htmlContent, outputStream, OutputCompression.DEFAULT);
+    }
+
+    /**
+     * html 转换为 docx 并直接写入输出流, 不关闭输出流
+     *
+     * @param compression 输出文档的 zip 压缩配置
+     */
+    @SneakyThrows
+    public static void convertHtmlToDocx(String htmlContent, OutputStream outputStream, OutputCompression compression) {
         // 创建 Word 文档包
         WordprocessingMLPackage wordMLPackage = WordprocessingMLPackage.createPackage();
         MainDocumentPart mainDocumentPart = wordMLPackage.getMainDocumentPart();
@@ -27,7 +57,7 @@ public class HtmlToDocx {
         Body body = mainDocumentPart.getJaxbElement().getBody();
         body.getContent().addAll(XHTMLImporter.convert(htmlContent, null));
         // 保存 Word 文档
-        Docx4J.save(wordMLPackage, new File(outputFilePath), Docx4J.FLAG_NONE);
+        CompressingZipPartStore.save(wordMLPackage, DocUtils.nonClosing(outputStream), compression);
     }
 
     public static void main(String[] args) {
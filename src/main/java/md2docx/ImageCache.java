@@ -0,0 +1,277 @@
+package md2docx;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.xmlgraphics.image.loader.ImageInfo;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 图片缓存
+ * <p>
+ * 以图片内容的 sha-256 为 key 缓存图片字节和 docx4j 识别出的尺寸、类型, 在多次转换之间共享, 同一张图片只解码一次。
+ * 本地文件按 绝对路径 + 修改时间 + 大小 记录内容摘要, 文件未变化时不再读取;
+ * data uri 和远程图片每次都会读取, 再按内容命中缓存。
+ * 超出总字节数或条目数时淘汰最久未使用的图片。
+ *
+ * @author ludangxin
+ * @since 2026/10/17
+ */
+@Slf4j
+public class ImageCache {
+    private static final ImageCache DEFAULT = new ImageCache(32 * 1024 * 1024, 256);
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /**
+     * 读取远程图片的连接超时
+     */
+    private static final int CONNECT_TIMEOUT_MILLIS = 10_000;
+
+    /**
+     * 读取远程图片的读取超时, 防止一个无响应的服务器挂起整个转换
+     */
+    private static final int READ_TIMEOUT_MILLIS = 30_000;
+
+    private final long maxBytes;
+
+    private final int maxSize;
+
+    /**
+     * <内容摘要, 图片>
+     */
+    private final Map<String, Image> images = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * <文件绝对路径, 文件状态及内容摘要>
+     */
+    private final Map<String, FileStamp> files;
+
+    private long totalBytes;
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    /**
+     * @param maxBytes 缓存的图片字节总数上限
+     * @param maxSize  缓存的图片数量上限
+     */
+    public ImageCache(long maxBytes, int maxSize) {
+        if (maxBytes <= 0 || maxSize <= 0) {
+            throw new IllegalArgumentException("maxBytes and maxSize must be greater than 0");
+        }
+        this.maxBytes = maxBytes;
+        this.maxSize = maxSize;
+        this.files = new LinkedHashMap<String, FileStamp>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, FileStamp> eldest) {
+                return size() > ImageCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * 默认的全局图片缓存, 未指定缓存的 {@link Docs.DocBuilder} 使用
+     */
+    public static ImageCache getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * 读取图片, 优先使用缓存
+     *
+     * @param src                   图片地址: data uri、绝对 url、本地路径或相对 staticResourceBaseUri 的路径
+     * @param staticResourceBaseUri 相对路径的基础路径, 可以为null
+     * @return 图片
+     */
+    Image load(String src, String staticResourceBaseUri) throws IOException {
+        if (src.startsWith("data:")) {
+            return this.get(decodeDataUri(src));
+        }
+
+        final URI uri = resolve(src, staticResourceBaseUri);
+        final File file = !uri.isAbsolute() ? new File(src) : "file".equalsIgnoreCase(uri.getScheme()) ? new File(uri) : null;
+        if (file == null) {
+            final URLConnection connection = uri.toURL()
+                                                .openConnection();
+            connection.setConnectTimeout(CONNECT_TIMEOUT_MILLIS);
+            connection.setReadTimeout(READ_TIMEOUT_MILLIS);
+            try (InputStream inputStream = connection.getInputStream()) {
+                return this.get(DocUtils.readAllBytes(inputStream));
+            }
+        }
+
+        final String path = file.getAbsolutePath();
+        final long lastModified = file.lastModified();
+        final long length = file.length();
+        synchronized (this) {
+            final FileStamp stamp = files.get(path);
+            if (stamp != null && stamp.lastModified == lastModified && stamp.length == length) {
+                final Image image = images.get(stamp.hash);
+                if (image != null) {
+                    hitCount.increment();
+                    return image;
+                }
+            }
+        }
+
+        // 读取放在锁外, 避免大图片阻塞其他图片
+        final Image image = this.get(Files.readAllBytes(file.toPath()));
+        synchronized (this) {
+            files.put(path, new FileStamp(lastModified, length, image.hash));
+        }
+        return image;
+    }
+
+    /**
+     * 按内容获取图片, 相同内容返回同一个缓存对象
+     *
+     * @param bytes 图片字节
+     * @return 图片
+     */
+    Image get(byte[] bytes) {
+        final String hash = sha256(bytes);
+        synchronized (this) {
+            final Image cached = images.get(hash);
+            if (cached != null) {
+                hitCount.increment();
+                return cached;
+            }
+            missCount.increment();
+
+            final Image image = new Image(hash, bytes);
+            // 超过上限的图片不缓存
+            if (bytes.length <= maxBytes) {
+                images.put(hash, image);
+                totalBytes += bytes.length;
+                this.evict();
+            }
+            return image;
+        }
+    }
+
+    private void evict() {
+        final Iterator<Image> iterator = images.values()
+                                               .iterator();
+        while ((totalBytes > maxBytes || images.size() > maxSize) && iterator.hasNext()) {
+            totalBytes -= iterator.next().bytes.length;
+            iterator.remove();
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public synchronized int size() {
+        return images.size();
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public synchronized void clear() {
+        images.clear();
+        files.clear();
+        totalBytes = 0;
+    }
+
+    /**
+     * 解析图片地址, 相对路径按 staticResourceBaseUri 解析
+     */
+    static URI resolve(String src, String staticResourceBaseUri) {
+        URI uri = URI.create(src.replace(" ", "%20"));
+        if (!uri.isAbsolute() && staticResourceBaseUri != null && !staticResourceBaseUri.isEmpty()) {
+            uri = URI.create(staticResourceBaseUri.replace(" ", "%20"))
+                     .resolve(uri);
+        }
+        return uri;
+    }
+
+    static byte[] decodeDataUri(String src) {
+        final int comma = src.indexOf(',');
+        final String data = src.substring(comma + 1);
+        return src.substring(0, comma)
+                  .endsWith(";base64") ? Base64.getMimeDecoder()
+                                               .decode(data) : data.getBytes(StandardCharsets.UTF_8);
+    }
+
+    static String sha256(byte[] bytes) {
+        try {
+            final byte[] digest = MessageDigest.getInstance("SHA-256")
+                                               .digest(bytes);
+            final char[] chars = new char[digest.length * 2];
+            for (int i = 0; i < digest.length; i++) {
+                chars[i * 2] = HEX[(digest[i] >> 4) & 0xF];
+                chars[i * 2 + 1] = HEX[digest[i] & 0xF];
+            }
+            return new String(chars);
+        }
+        catch (NoSuchAlgorithmException e) {
+            log.error("failed to digest image", e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * 缓存的图片
+     * <p>
+     * 尺寸和类型({@link ImageInfo})在第一次写入文档时由 docx4j 识别, 之后直接复用。
+     */
+    static final class Image {
+        final String hash;
+
+        final byte[] bytes;
+
+        private volatile ImageInfo imageInfo;
+
+        private Image(String hash, byte[] bytes) {
+            this.hash = hash;
+            this.bytes = bytes;
+        }
+
+        boolean isDecoded() {
+            return imageInfo != null;
+        }
+
+        ImageInfo getImageInfo() {
+            return imageInfo;
+        }
+
+        void decoded(ImageInfo imageInfo) {
+            this.imageInfo = imageInfo;
+        }
+    }
+
+    private static final class FileStamp {
+        private final long lastModified;
+
+        private final long length;
+
+        private final String hash;
+
+        private FileStamp(long lastModified, long length, String hash) {
+            this.lastModified = lastModified;
+            this.length = length;
+            this.hash = hash;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package md2docx;
+
+import com.vladsch.flexmark.ast.HtmlBlock;
+import com.vladsch.flexmark.ast.HtmlInline;
+import com.vladsch.flexmark.ast.Image;
+import com.vladsch.flexmark.ast.ImageRef;
+import com.vladsch.flexmark.ast.Reference;
+import com.vladsch.flexmark.ast.util.ReferenceRepository;
+import com.vladsch.flexmark.parser.Parser;
+import com.vladsch.flexmark.util.ast.Document;
+import com.vladsch.flexmark.util.ast.Node;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 图片并行预读
+ * <p>
+ * 转换前收集 markdown 语法树或 html 中引用的图片, 以 parallelism 个并发读取到 {@link ImageCache},
+ * 之后的转换(包括 xhtml 导入)直接使用读取结果, 不再逐个串行读取。
+ * 超时或读取失败的图片在转换时按原方式读取。
+ *
+ * @author ludangxin
+ * @since 2026/10/17
+ */
+@Slf4j
+final class ImagePrefetcher {
+    private static final Pattern IMG_SRC = Pattern.compile("<img\\b[^>]*?\\ssrc\\s*=\\s*(?:\"([^\"]*)\"|'([^']*)'|([^\\s>]+))", Pattern.CASE_INSENSITIVE);
+
+    /**
+     * 内置线程池的线程数上限, 所有转换共享; 超出的读取任务排队等待
+     */
+    private static final int DEFAULT_MAX_THREADS = Math.max(8, Runtime.getRuntime()
+                                                                     .availableProcessors() * 2);
+
+    private static final ExecutorService DEFAULT_EXECUTOR = newDefaultExecutor();
+
+    private ImagePrefetcher() {
+    }
+
+    private static ExecutorService newDefaultExecutor() {
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(DEFAULT_MAX_THREADS, DEFAULT_MAX_THREADS, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), new PrefetchThreadFactory());
+        // 空闲时不保留线程
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * 收集 markdown 语法树中的图片地址, 包括引用式图片和内嵌 html 中的 img
+     */
+    static Set<String> collect(Node document) {
+        final ReferenceRepository references = document instanceof Document ? Parser.REFERENCES.get((Document) document) : null;
+        final Set<String> srcs = new LinkedHashSet<>();
+        collect(document, references, srcs);
+        return srcs;
+    }
+
+    private static void collect(Node parent, ReferenceRepository references, Set<String> srcs) {
+        for (Node node = parent.getFirstChild(); node != null; node = node.getNext()) {
+            if (node instanceof Image) {
+                srcs.add(((Image) node).getUrl()
+                                       .unescape());
+            }
+            else if (node instanceof ImageRef) {
+                final Reference reference = references == null ? null : references.get(references.normalizeKey(((ImageRef) node).getReference()
+                                                                                                                                 .unescape()));
+                if (reference != null) {
+                    srcs.add(reference.getUrl()
+                                      .unescape());
+                }
+            }
+            else if (node instanceof HtmlBlock || node instanceof HtmlInline) {
+                collect(node.getChars()
+                            .toString(), srcs);
+            }
+
+            if (node.hasChildren()) {
+                collect(node, references, srcs);
+            }
+        }
+    }
+
+    /**
+     * 收集 html 中 img 标签的图片地址
+     */
+    static Set<String> collect(String html) {
+        final Set<String> srcs = new LinkedHashSet<>();
+        collect(html, srcs);
+        return srcs;
+    }
+
+    private static void collect(String html, Set<String> srcs) {
+        if (html.indexOf('<') < 0) {
+            return;
+        }
+
+        final Matcher matcher = IMG_SRC.matcher(html);
+        while (matcher.find()) {
+            final String src = matcher.group(1) != null ? matcher.group(1) : matcher.group(2) != null ? matcher.group(2) : matcher.group(3);
+            if (!src.isEmpty()) {
+                srcs.add(src);
+            }
+        }
+    }
+
+    /**
+     * 并行读取图片, 阻塞直到全部读取完成或超时
+     *
+     * @param imageCache            图片缓存
+     * @param srcs                  图片地址, data uri 不需要读取, 会被忽略
+     * @param staticResourceBaseUri 相对路径的基础路径
+     * @param parallelism           最大并发读取数
+     * @param timeoutMillis         等待读取的最长时间
+     * @param executor              执行读取的 executor, 为null时使用内置的线程池
+     * @return <图片地址, 图片>, 只包含读取成功的图片
+     */
+    static Map<String, ImageCache.Image> prefetch(ImageCache imageCache, Collection<String> srcs, String staticResourceBaseUri, int parallelism, long timeoutMillis, Executor executor) {
+        final Queue<String> pending = new ConcurrentLinkedQueue<>();
+        for (String src : srcs) {
+            if (!src.startsWith("data:")) {
+                pending.add(src);
+            }
+        }
+
+        final Map<String, ImageCache.Image> images = new ConcurrentHashMap<>();
+        if (pending.isEmpty()) {
+            return images;
+        }
+
+        // 每个 worker 依次从队列中取图片, 同时读取的图片数不超过 parallelism
+        final int workers = Math.min(parallelism, pending.size());
+        final List<CompletableFuture<Void>> futures = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            try {
+                futures.add(CompletableFuture.runAsync(() -> {
+                    String src;
+                    while ((src = pending.poll()) != null) {
+                        try {
+                            images.put(src, imageCache.load(src, staticResourceBaseUri));
+                        }
+                        catch (Exception e) {
+                            log.debug("failed to prefetch image: {}", src, e);
+                        }
+                    }
+                }, executor == null ? DEFAULT_EXECUTOR : executor));
+            }
+            catch (RejectedExecutionException e) {
+                // 已提交的 worker 会读取剩余的图片
+                log.debug("image prefetch worker rejected", e);
+                break;
+            }
+        }
+
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+                             .get(timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+        catch (TimeoutException e) {
+            // 未开始读取的图片不再预读, 转换时按原方式读取
+            pending.clear();
+            log.warn("image prefetch timed out after {}ms, {} of {} images loaded", timeoutMillis, images.size(), srcs.size());
+        }
+        catch (InterruptedException e) {
+            pending.clear();
+            Thread.currentThread()
+                  .interrupt();
+        }
+        catch (ExecutionException e) {
+            log.warn("failed to prefetch images", e);
+        }
+
+        return images;
+    }
+
+    private static final class PrefetchThreadFactory implements ThreadFactory {
+        private final AtomicInteger threadNumber = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            final Thread thread = new Thread(r, "md2docx-image-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
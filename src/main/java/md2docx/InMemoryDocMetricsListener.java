@@ -0,0 +1,221 @@
+package md2docx;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 内存中的指标直方图
+ * <p>
+ * 按阶段统计次数、耗时分布(以 2 的幂微秒分桶)、输入输出大小、元素数量和内存分配, 线程安全,
+ * 适合定期通过 {@link #snapshot()} 导出到监控系统。
+ *
+ * @author ludangxin
+ * @since 2026/10/17
+ */
+public class InMemoryDocMetricsListener implements DocMetricsListener {
+    /**
+     * 耗时分桶数: 第 i 个桶的上限为 2^i 微秒, 最后一个桶约 36 分钟
+     */
+    private static final int BUCKETS = 32;
+
+    private final Map<DocStage, Histogram> stageHistograms = new EnumMap<>(DocStage.class);
+
+    private final Histogram conversionHistogram = new Histogram();
+
+    private final LongAdder failedConversions = new LongAdder();
+
+    public InMemoryDocMetricsListener() {
+        for (DocStage stage : DocStage.values()) {
+            stageHistograms.put(stage, new Histogram());
+        }
+    }
+
+    @Override
+    public void onStage(StageMetrics stageMetrics) {
+        stageHistograms.get(stageMetrics.getStage())
+                       .record(stageMetrics.getDurationNanos(), stageMetrics.getBytesIn(), stageMetrics.getBytesOut(), stageMetrics.getElements(), stageMetrics.getAllocatedBytes());
+    }
+
+    @Override
+    public void onConversion(ConversionMetrics conversionMetrics) {
+        conversionHistogram.record(conversionMetrics.getDurationNanos(), 0, 0, 0, conversionMetrics.getAllocatedBytes());
+        if (!conversionMetrics.isSuccess()) {
+            failedConversions.increment();
+        }
+    }
+
+    /**
+     * 各阶段统计快照, 只包含执行过的阶段
+     */
+    public Map<DocStage, Summary> snapshot() {
+        final Map<DocStage, Summary> snapshot = new EnumMap<>(DocStage.class);
+        for (Map.Entry<DocStage, Histogram> entry : stageHistograms.entrySet()) {
+            final Summary summary = entry.getValue()
+                                         .summary();
+            if (summary.getCount() > 0) {
+                snapshot.put(entry.getKey(), summary);
+            }
+        }
+        return snapshot;
+    }
+
+    public Summary getStageSummary(DocStage stage) {
+        return stageHistograms.get(stage)
+                              .summary();
+    }
+
+    /**
+     * 整个转换的统计
+     */
+    public Summary getConversionSummary() {
+        return conversionHistogram.summary();
+    }
+
+    public long getFailedConversions() {
+        return failedConversions.sum();
+    }
+
+    public void reset() {
+        for (Histogram histogram : stageHistograms.values()) {
+            histogram.reset();
+        }
+        conversionHistogram.reset();
+        failedConversions.reset();
+    }
+
+    private static final class Histogram {
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+        private final LongAdder count = new LongAdder();
+
+        private final LongAdder totalNanos = new LongAdder();
+
+        private final LongAdder bytesIn = new LongAdder();
+
+        private final LongAdder bytesOut = new LongAdder();
+
+        private final LongAdder elements = new LongAdder();
+
+        private final LongAdder allocatedBytes = new LongAdder();
+
+        private void record(long durationNanos, long bytesIn, long bytesOut, long elements, long allocatedBytes) {
+            final long micros = Math.max(1, TimeUnit.NANOSECONDS.toMicros(durationNanos));
+            final int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros - 1));
+            buckets.incrementAndGet(bucket);
+            this.count.increment();
+            this.totalNanos.add(durationNanos);
+            this.bytesIn.add(bytesIn);
+            this.bytesOut.add(bytesOut);
+            this.elements.add(elements);
+            if (allocatedBytes > 0) {
+                this.allocatedBytes.add(allocatedBytes);
+            }
+        }
+
+        private Summary summary() {
+            final long[] counts = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = buckets.get(i);
+            }
+            return new Summary(count.sum(), totalNanos.sum(), bytesIn.sum(), bytesOut.sum(), elements.sum(), allocatedBytes.sum(), counts);
+        }
+
+        private void reset() {
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets.set(i, 0);
+            }
+            count.reset();
+            totalNanos.reset();
+            bytesIn.reset();
+            bytesOut.reset();
+            elements.reset();
+            allocatedBytes.reset();
+        }
+    }
+
+    /**
+     * 统计快照
+     */
+    public static final class Summary {
+        private final long count;
+
+        private final long totalNanos;
+
+        private final long bytesIn;
+
+        private final long bytesOut;
+
+        private final long elements;
+
+        private final long allocatedBytes;
+
+        private final long[] buckets;
+
+        private Summary(long count, long totalNanos, long bytesIn, long bytesOut, long elements, long allocatedBytes, long[] buckets) {
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.bytesIn = bytesIn;
+            this.bytesOut = bytesOut;
+            this.elements = elements;
+            this.allocatedBytes = allocatedBytes;
+            this.buckets = buckets;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        public double getMeanMillis() {
+            return count == 0 ? 0 : totalNanos / 1_000_000D / count;
+        }
+
+        /**
+         * 耗时分位数的上界(毫秒), 精度为分桶的 2 倍
+         *
+         * @param quantile 分位数, 如 0.5、0.99
+         */
+        public double getPercentileMillis(double quantile) {
+            if (count == 0) {
+                return 0;
+            }
+
+            final long target = (long) Math.ceil(quantile * count);
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= Math.max(1, target)) {
+                    return (1L << i) / 1000D;
+                }
+            }
+            return (1L << (buckets.length - 1)) / 1000D;
+        }
+
+        public long getBytesIn() {
+            return bytesIn;
+        }
+
+        public long getBytesOut() {
+            return bytesOut;
+        }
+
+        public long getElements() {
+            return elements;
+        }
+
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("count=%d, mean=%.3fms, p50<=%.3fms, p99<=%.3fms, bytesIn=%d, bytesOut=%d, elements=%d, allocatedBytes=%d", count, this.getMeanMillis(), this.getPercentileMillis(0.5), this.getPercentileMillis(0.99), bytesIn, bytesOut, elements, allocatedBytes);
+        }
+    }
+}
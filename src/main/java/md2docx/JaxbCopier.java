@@ -0,0 +1,228 @@
+package md2docx;
+
+import lombok.extern.slf4j.Slf4j;
+import org.docx4j.XmlUtils;
+
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlType;
+import javax.xml.datatype.XMLGregorianCalendar;
+import javax.xml.namespace.QName;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * JAXB 对象深拷贝
+ * <p>
+ * {@link XmlUtils#deepCopy(Object)} 先序列化再反序列化, 拷贝样式这类大对象时耗时与重新解析 xml 相当。
+ * 这里按字段逐个复制 docx4j 生成的 JAXB 类, 并按反序列化的规则设置 parent;
+ * 遇到无法识别的类型时整体退回 {@link XmlUtils#deepCopy(Object)}。
+ * <p>
+ * 拷贝过程只读取源对象的字段, 源对象不被修改时可以在多个线程中同时拷贝。
+ *
+ * @author ludangxin
+ * @since 2026/10/17
+ */
+@Slf4j
+final class JaxbCopier {
+    private static final ConcurrentMap<Class<?>, BeanType> BEAN_TYPES = new ConcurrentHashMap<>();
+
+    /**
+     * 遇到无法按字段复制的类型时的返回值, 逐层向上传递
+     */
+    private static final Object UNSUPPORTED = new Object();
+
+    private JaxbCopier() {
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> T copy(T object) {
+        try {
+            final Object copy = copyValue(object, null);
+            if (copy != UNSUPPORTED) {
+                return (T) copy;
+            }
+            log.debug("fall back to jaxb deep copy: {}", object.getClass()
+                                                               .getName());
+        }
+        catch (ReflectiveOperationException e) {
+            log.debug("fall back to jaxb deep copy: {}", e.getMessage());
+        }
+        return XmlUtils.deepCopy(object);
+    }
+
+    /**
+     * @param value  待拷贝的值
+     * @param parent 拷贝结果所属的 JAXB 对象(与反序列化时的 parent 一致)
+     * @return 拷贝结果, 无法按字段复制时返回 {@link #UNSUPPORTED}
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object copyValue(Object value, Object parent) throws ReflectiveOperationException {
+        if (value == null || isImmutable(value)) {
+            return value;
+        }
+
+        if (value instanceof List) {
+            final List<Object> list = (List<Object>) value;
+            final List<Object> copy = newList(list, parent);
+            if (copy == null) {
+                return UNSUPPORTED;
+            }
+            for (Object o : list) {
+                final Object item = copyValue(o, parent);
+                if (item == UNSUPPORTED) {
+                    return UNSUPPORTED;
+                }
+                copy.add(item);
+            }
+            return copy;
+        }
+
+        if (value instanceof JAXBElement) {
+            final JAXBElement element = (JAXBElement) value;
+            final Object elementValue = copyValue(element.getValue(), parent);
+            if (elementValue == UNSUPPORTED) {
+                return UNSUPPORTED;
+            }
+            final JAXBElement copy = new JAXBElement(element.getName(), element.getDeclaredType(), element.getScope(), elementValue);
+            copy.setNil(element.isNil());
+            return copy;
+        }
+
+        if (value instanceof Map) {
+            // anyAttribute: <QName, String>
+            return new HashMap<>((Map<?, ?>) value);
+        }
+
+        if (value instanceof XMLGregorianCalendar) {
+            return ((XMLGregorianCalendar) value).clone();
+        }
+
+        if (value instanceof byte[]) {
+            return ((byte[]) value).clone();
+        }
+
+        if (value instanceof org.w3c.dom.Node) {
+            return ((org.w3c.dom.Node) value).cloneNode(true);
+        }
+
+        return copyBean(value, parent);
+    }
+
+    private static Object copyBean(Object bean, Object parent) throws ReflectiveOperationException {
+        final BeanType type = BEAN_TYPES.computeIfAbsent(bean.getClass(), BeanType::of);
+        if (type.constructor == null) {
+            return UNSUPPORTED;
+        }
+
+        final Object copy = type.constructor.newInstance();
+        for (Field field : type.fields) {
+            if (field == type.parent) {
+                field.set(copy, parent);
+            }
+            else {
+                final Object value = copyValue(field.get(bean), copy);
+                if (value == UNSUPPORTED) {
+                    return UNSUPPORTED;
+                }
+                field.set(copy, value);
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * docx4j 的内容列表(ArrayListWml 等)在添加元素时维护 parent, 拷贝时保持相同的列表类型
+     *
+     * @return 新列表, 列表类型不支持时返回 null
+     */
+    @SuppressWarnings("unchecked")
+    private static List<Object> newList(List<Object> list, Object parent) throws ReflectiveOperationException {
+        final Class<?> listClass = list.getClass();
+        if (listClass == ArrayList.class) {
+            return new ArrayList<>(list.size());
+        }
+
+        final Constructor<?> constructor;
+        try {
+            constructor = listClass.getConstructor(Object.class);
+        }
+        catch (NoSuchMethodException e) {
+            return null;
+        }
+        return (List<Object>) constructor.newInstance(parent);
+    }
+
+    private static boolean isImmutable(Object value) {
+        return value instanceof String
+               || value instanceof Boolean
+               || value instanceof Integer
+               || value instanceof Long
+               || value instanceof BigInteger
+               || value instanceof BigDecimal
+               || value instanceof Short
+               || value instanceof Byte
+               || value instanceof Double
+               || value instanceof Float
+               || value instanceof Character
+               || value instanceof Enum
+               || value instanceof QName;
+    }
+
+    /**
+     * JAXB 类的无参构造函数和实例字段, constructor 为 null 表示不是 JAXB 类
+     */
+    private static final class BeanType {
+        private final Constructor<?> constructor;
+
+        private final List<Field> fields;
+
+        private final Field parent;
+
+        private BeanType(Constructor<?> constructor, List<Field> fields, Field parent) {
+            this.constructor = constructor;
+            this.fields = fields;
+            this.parent = parent;
+        }
+
+        private static BeanType of(Class<?> beanClass) {
+            if (!beanClass.isAnnotationPresent(XmlType.class) && !beanClass.isAnnotationPresent(XmlAccessorType.class)) {
+                return new BeanType(null, null, null);
+            }
+
+            final List<Field> fields = new ArrayList<>();
+            Field parent = null;
+            try {
+                for (Class<?> c = beanClass; c != Object.class; c = c.getSuperclass()) {
+                    for (Field field : c.getDeclaredFields()) {
+                        if (Modifier.isStatic(field.getModifiers())) {
+                            continue;
+                        }
+                        field.setAccessible(true);
+                        fields.add(field);
+                        if ("parent".equals(field.getName()) && field.getType() == Object.class) {
+                            parent = field;
+                        }
+                    }
+                }
+
+                final Constructor<?> constructor = beanClass.getDeclaredConstructor();
+                constructor.setAccessible(true);
+                return new BeanType(constructor, fields, parent);
+            }
+            catch (NoSuchMethodException | RuntimeException e) {
+                log.debug("can not copy {} by fields", beanClass.getName(), e);
+                return new BeanType(null, null, null);
+            }
+        }
+    }
+}
@@ -0,0 +1,1221 @@
+package md2docx;
+
+import com.vladsch.flexmark.ast.AutoLink;
+import com.vladsch.flexmark.ast.BlockQuote;
+import com.vladsch.flexmark.ast.BulletList;
+import com.vladsch.flexmark.ast.Code;
+import com.vladsch.flexmark.ast.Emphasis;
+import com.vladsch.flexmark.ast.FencedCodeBlock;
+import com.vladsch.flexmark.ast.HardLineBreak;
+import com.vladsch.flexmark.ast.Heading;
+import com.vladsch.flexmark.ast.HtmlBlock;
+import com.vladsch.flexmark.ast.HtmlCommentBlock;
+import com.vladsch.flexmark.ast.HtmlInline;
+import com.vladsch.flexmark.ast.HtmlInlineComment;
+import com.vladsch.flexmark.ast.Image;
+import com.vladsch.flexmark.ast.ImageRef;
+import com.vladsch.flexmark.ast.IndentedCodeBlock;
+import com.vladsch.flexmark.ast.Link;
+import com.vladsch.flexmark.ast.LinkRef;
+import com.vladsch.flexmark.ast.ListItem;
+import com.vladsch.flexmark.ast.MailLink;
+import com.vladsch.flexmark.ast.OrderedList;
+import com.vladsch.flexmark.ast.Paragraph;
+import com.vladsch.flexmark.ast.Reference;
+import com.vladsch.flexmark.ast.SoftLineBreak;
+import com.vladsch.flexmark.ast.StrongEmphasis;
+import com.vladsch.flexmark.ast.ThematicBreak;
+import com.vladsch.flexmark.ast.util.ReferenceRepository;
+import com.vladsch.flexmark.ext.tables.TableBlock;
+import com.vladsch.flexmark.ext.tables.TableBody;
+import com.vladsch.flexmark.ext.tables.TableCaption;
+import com.vladsch.flexmark.ext.tables.TableCell;
+import com.vladsch.flexmark.ext.tables.TableHead;
+import com.vladsch.flexmark.ext.tables.TableRow;
+import com.vladsch.flexmark.parser.Parser;
+import com.vladsch.flexmark.util.ast.ContentNode;
+import com.vladsch.flexmark.util.ast.Document;
+import com.vladsch.flexmark.util.ast.Node;
+import com.vladsch.flexmark.util.ast.TextContainer;
+import lombok.extern.slf4j.Slf4j;
+import org.docx4j.XmlUtils;
+import org.docx4j.dml.wordprocessingDrawing.Inline;
+import org.docx4j.jaxb.Context;
+import org.docx4j.model.structure.SectionWrapper;
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.docx4j.openpackaging.parts.WordprocessingML.BinaryPartAbstractImage;
+import org.docx4j.openpackaging.parts.WordprocessingML.MainDocumentPart;
+import org.docx4j.openpackaging.parts.WordprocessingML.NumberingDefinitionsPart;
+import org.docx4j.openpackaging.parts.relationships.Namespaces;
+import org.docx4j.relationships.Relationship;
+import org.docx4j.wml.BooleanDefaultTrue;
+import org.docx4j.wml.Br;
+import org.docx4j.wml.CTBorder;
+import org.docx4j.wml.CTShd;
+import org.docx4j.wml.CTTblCellMar;
+import org.docx4j.wml.CTTblPrBase;
+import org.docx4j.wml.Color;
+import org.docx4j.wml.ContentAccessor;
+import org.docx4j.wml.Drawing;
+import org.docx4j.wml.Jc;
+import org.docx4j.wml.JcEnumeration;
+import org.docx4j.wml.Numbering;
+import org.docx4j.wml.ObjectFactory;
+import org.docx4j.wml.P;
+import org.docx4j.wml.PPr;
+import org.docx4j.wml.PPrBase;
+import org.docx4j.wml.R;
+import org.docx4j.wml.RFonts;
+import org.docx4j.wml.RPr;
+import org.docx4j.wml.RStyle;
+import org.docx4j.wml.STBorder;
+import org.docx4j.wml.STShd;
+import org.docx4j.wml.Tbl;
+import org.docx4j.wml.TblBorders;
+import org.docx4j.wml.TblGrid;
+import org.docx4j.wml.TblGridCol;
+import org.docx4j.wml.TblPr;
+import org.docx4j.wml.TblWidth;
+import org.docx4j.wml.Tc;
+import org.docx4j.wml.TcPr;
+import org.docx4j.wml.Text;
+import org.docx4j.wml.Tr;
+import org.docx4j.wml.TrPr;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * markdown 语法树直接转 WordprocessingML
+ * <p>
+ * 遍历 flexmark 解析出的 {@link Document}, 直接生成 docx4j 的段落、run、表格等对象并引用 Word 内置样式,
+ * 省去 markdown → html → jsoup → xhtml 导入的多次解析和 css 计算。
+ * markdown 中内嵌的 html 块仍交给 html 转换器处理; 顶层段落和标题中含有换行以外的内联 html 标签(如 &lt;b&gt;、&lt;span style&gt;)时,
+ * 整段渲染为 html 后交给 html 转换器, 与 html 转换路径的结果一致。列表和引用中的内联 html 标签(换行除外)被忽略, 只保留标签之间的文本。
+ * 渲染器对文档样式、编号、关系、图片等部件的修改都在文档对象上加锁,
+ * 超大文档可以按顶层块分段并行渲染({@link #render(Node, int, int, Executor)}), 其余情况下同一个文档不能被多个线程同时渲染。
+ *
+ * @author ludangxin
+ * @since 2026/10/17
+ */
+@Slf4j
+public class MarkdownDocxRenderer {
+    private static final String CODE_FONT = "Consolas";
+
+    private static final String CODE_SHADING = "F6F8FA";
+
+    private static final String QUOTE_COLOR = "6A737D";
+
+    private static final String BORDER_COLOR = "DDDDDD";
+
+    private static final String TABLE_HEADER_SHADING = "F7F7F7";
+
+    /**
+     * 默认可用页宽(A4 纵向, 左右边距 1 英寸)
+     */
+    private static final int DEFAULT_WRITABLE_WIDTH_TWIPS = 9026;
+
+    /**
+     * 列表/引用每一级的缩进
+     */
+    private static final int INDENT_TWIPS = 360;
+
+    private static final ObjectFactory FACTORY = Context.getWmlObjectFactory();
+
+    private final WordprocessingMLPackage wordMLPackage;
+
+    private final MainDocumentPart mainDocumentPart;
+
+    private final String staticResourceBaseUri;
+
+    private final Function<String, List<Object>> htmlConverter;
+
+    private final DocumentImages documentImages;
+
+    private final Set<String> activatedStyles = new HashSet<>();
+
+    private ReferenceRepository references;
+
+    private BigInteger bulletNumId;
+
+    private BigInteger orderedAbstractNumId;
+
+    private Cancellation cancellation = Cancellation.NONE;
+
+    /**
+     * 把含有内联 html 的段落渲染为 html, 应与解析语法树时使用的引擎一致
+     */
+    private MarkdownEngine markdownEngine = MarkdownEngine.getDefault();
+
+    /**
+     * 编译好的 globalCss 表格样式, 为 null 时使用内置的表格格式(与默认 globalCss 一致)
+     */
+    private CompiledCss tableCss;
+
+    /**
+     * @param wordMLPackage         目标文档, 生成的图片、超链接、编号等部件写入该文档
+     * @param staticResourceBaseUri 图片等相对路径资源的基础路径
+     * @param htmlConverter         markdown 中内嵌 html 的转换方式, 为null时按纯文本输出
+     */
+    public MarkdownDocxRenderer(WordprocessingMLPackage wordMLPackage, String staticResourceBaseUri, Function<String, List<Object>> htmlConverter) {
+        this(wordMLPackage, staticResourceBaseUri, new DocumentImages(wordMLPackage, ImageCache.getDefault()), htmlConverter);
+    }
+
+    /**
+     * @param documentImages 文档内的图片部件, 与同一文档的 html 转换共享
+     */
+    MarkdownDocxRenderer(WordprocessingMLPackage wordMLPackage, String staticResourceBaseUri, DocumentImages documentImages, Function<String, List<Object>> htmlConverter) {
+        this.wordMLPackage = wordMLPackage;
+        this.mainDocumentPart = wordMLPackage.getMainDocumentPart();
+        this.staticResourceBaseUri = staticResourceBaseUri;
+        this.documentImages = documentImages;
+        this.htmlConverter = htmlConverter;
+    }
+
+    /**
+     * 表格引用 globalCss 编译出的 Word 表格样式, 不再写入内置的边框、底色和边距
+     *
+     * @param tableCss 已写入文档的表格样式({@link CompiledCss#install}), 为 null 时使用内置的表格格式
+     */
+    MarkdownDocxRenderer tableCss(CompiledCss tableCss) {
+        this.tableCss = tableCss != null && tableCss.isCompiled() ? tableCss : null;
+        return this;
+    }
+
+    /**
+     * 解析语法树时使用的 markdown 引擎, 不设置时使用默认引擎
+     */
+    MarkdownDocxRenderer markdownEngine(MarkdownEngine markdownEngine) {
+        this.markdownEngine = markdownEngine;
+        return this;
+    }
+
+    /**
+     * 渲染时在顶层块和表格行之间检查取消
+     */
+    MarkdownDocxRenderer cancellation(Cancellation cancellation) {
+        this.cancellation = cancellation;
+        return this;
+    }
+
+    /**
+     * 渲染 markdown 语法树
+     *
+     * @param document flexmark 解析结果
+     * @return 正文内容(段落、表格等)
+     */
+    public List<Object> render(Node document) {
+        if (document instanceof Document) {
+            references = Parser.REFERENCES.get((Document) document);
+        }
+
+        final List<Object> content = new ArrayList<>();
+        this.renderBlocks(document, content, BlockContext.ROOT);
+        return content;
+    }
+
+    /**
+     * 分段并行渲染 markdown 语法树
+     * <p>
+     * 在顶层块(标题、段落、列表、表格等)之间切分, 每段约 chunkSize 个字符, 各段并行渲染后按原顺序拼接。
+     * 列表不会被切开, 编号定义、超链接关系和图片部件由各段共享。
+     * 结果与 {@link #render(Node)} 等价: 内容和格式相同, 但编号(numId)、关系 id 按各段完成的先后分配, 与串行渲染不一定相同。
+     *
+     * @param document    flexmark 解析结果
+     * @param chunkSize   每段的字符数, 文档不超过该长度时直接渲染
+     * @param parallelism 最大并发渲染数, 调用线程也参与渲染
+     * @param executor    执行渲染的 executor, 为null时使用 {@link ForkJoinPool#commonPool()}
+     * @return 正文内容(段落、表格等)
+     */
+    List<Object> render(Node document, int chunkSize, int parallelism, Executor executor) {
+        final List<Node[]> chunks = chunks(document, chunkSize);
+        if (parallelism < 2 || chunks.size() < 2) {
+            return this.render(document);
+        }
+
+        if (document instanceof Document) {
+            references = Parser.REFERENCES.get((Document) document);
+        }
+
+        // 每个 worker 依次领取分段, 结果按分段序号存放
+        final List<List<Object>> results = new ArrayList<>(chunks.size());
+        for (int i = 0; i < chunks.size(); i++) {
+            results.add(null);
+        }
+        final AtomicInteger nextChunk = new AtomicInteger();
+        final Runnable worker = () -> {
+            int index;
+            while ((index = nextChunk.getAndIncrement()) < chunks.size()) {
+                final List<Object> content = new ArrayList<>();
+                final Node[] chunk = chunks.get(index);
+                try {
+                    this.renderRange(chunk[0], chunk[1], content);
+                }
+                catch (RuntimeException e) {
+                    // 其他 worker 不再领取新的分段
+                    nextChunk.set(chunks.size());
+                    throw e;
+                }
+                results.set(index, content);
+            }
+        };
+
+        final int workers = Math.min(parallelism, chunks.size());
+        final List<CompletableFuture<Void>> futures = new ArrayList<>(workers - 1);
+        for (int i = 1; i < workers; i++) {
+            try {
+                futures.add(CompletableFuture.runAsync(worker, executor == null ? ForkJoinPool.commonPool() : executor));
+            }
+            catch (RejectedExecutionException e) {
+                // 调用线程会渲染剩余的分段
+                log.debug("markdown render worker rejected", e);
+                break;
+            }
+        }
+
+        try {
+            worker.run();
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+                             .join();
+        }
+        catch (CompletionException e) {
+            if (e.getCause() instanceof CancellationException) {
+                throw (CancellationException) e.getCause();
+            }
+            log.error("failed to render markdown chunks", e.getCause());
+            throw new RuntimeException(e.getCause());
+        }
+
+        final List<Object> content = new ArrayList<>();
+        for (List<Object> result : results) {
+            content.addAll(result);
+        }
+        return content;
+    }
+
+    /**
+     * 渲染一段顶层块, 用于逐段处理的场景(如流式写出)
+     *
+     * @param document flexmark 解析结果, 提供链接引用定义
+     * @param chunk    {@link #chunks(Node, int)} 切分出的一段
+     * @return 该段的正文内容
+     */
+    List<Object> render(Node document, Node[] chunk) {
+        if (document instanceof Document) {
+            references = Parser.REFERENCES.get((Document) document);
+        }
+
+        final List<Object> content = new ArrayList<>();
+        this.renderRange(chunk[0], chunk[1], content);
+        return content;
+    }
+
+    private void renderRange(Node first, Node end, List<Object> content) {
+        for (Node node = first; node != end; node = node.getNext()) {
+            cancellation.check();
+            this.renderBlock(node, content, BlockContext.ROOT);
+        }
+    }
+
+    /**
+     * 按顶层块切分, 每段约 chunkSize 个字符, 为 [起始节点, 结束节点)
+     */
+    static List<Node[]> chunks(Node document, int chunkSize) {
+        final List<Node[]> chunks = new ArrayList<>();
+        Node first = document.getFirstChild();
+        int length = 0;
+        for (Node node = first; node != null; node = node.getNext()) {
+            length += node.getTextLength();
+            if (length >= chunkSize && node.getNext() != null) {
+                chunks.add(new Node[]{first, node.getNext()});
+                first = node.getNext();
+                length = 0;
+            }
+        }
+        if (first != null) {
+            chunks.add(new Node[]{first, null});
+        }
+        return chunks;
+    }
+
+    private void renderBlocks(Node parent, List<Object> content, BlockContext context) {
+        for (Node node = parent.getFirstChild(); node != null; node = node.getNext()) {
+            if (context == BlockContext.ROOT) {
+                cancellation.check();
+            }
+            this.renderBlock(node, content, context);
+        }
+    }
+
+    private void renderBlock(Node node, List<Object> content, BlockContext context) {
+        if ((node instanceof Heading || node instanceof Paragraph) && context == BlockContext.ROOT && htmlConverter != null && hasInlineHtml(node)) {
+            this.renderHtmlBlock(markdownEngine.render(node), content, context);
+        }
+        else if (node instanceof Heading) {
+            final P p = this.newParagraph("Heading" + Math.min(((Heading) node).getLevel(), 6), context);
+            this.renderInlines(node, p, RunFormat.PLAIN);
+            content.add(p);
+        }
+        else if (node instanceof Paragraph) {
+            final P p = this.newParagraph(null, context);
+            this.renderInlines(node, p, context.quoteDepth > 0 ? RunFormat.QUOTE : RunFormat.PLAIN);
+            content.add(p);
+        }
+        else if (node instanceof BlockQuote) {
+            this.renderBlocks(node, content, context.quote());
+        }
+        else if (node instanceof BulletList) {
+            this.renderList(node, content, context, this.getBulletNumId());
+        }
+        else if (node instanceof OrderedList) {
+            // 每个有序列表单独编号, 从列表自身的起始序号开始
+            this.renderList(node, content, context, this.newOrderedNumId(context.listLevel + 1, ((OrderedList) node).getStartNumber()));
+        }
+        else if (node instanceof FencedCodeBlock || node instanceof IndentedCodeBlock) {
+            content.add(this.codeBlock(((ContentNode) node).getContentChars()
+                                                           .toString(), context));
+        }
+        else if (node instanceof ThematicBreak) {
+            content.add(this.thematicBreak());
+        }
+        else if (node instanceof TableBlock) {
+            this.renderTable((TableBlock) node, content);
+        }
+        else if (node instanceof HtmlCommentBlock || node instanceof Reference) {
+            // 注释和链接引用定义不输出
+        }
+        else if (node instanceof HtmlBlock) {
+            this.renderHtmlBlock(node.getChars()
+                                     .toString(), content, context);
+        }
+        else if (node.hasChildren()) {
+            this.renderBlocks(node, content, context);
+        }
+        else if (node instanceof TextContainer || node.getTextLength() > 0) {
+            final P p = this.newParagraph(null, context);
+            this.addText(p, node.getChars()
+                                .toString(), RunFormat.PLAIN);
+            content.add(p);
+        }
+    }
+
+    private void renderList(Node list, List<Object> content, BlockContext context, BigInteger numId) {
+        for (Node item = list.getFirstChild(); item != null; item = item.getNext()) {
+            if (item instanceof ListItem) {
+                final BlockContext itemContext = context.listItem(numId);
+                this.renderBlocks(item, content, itemContext);
+
+                // 空列表项也要输出编号
+                if (itemContext.numberPending) {
+                    content.add(this.newParagraph(null, itemContext));
+                }
+            }
+        }
+    }
+
+    private void renderHtmlBlock(String html, List<Object> content, BlockContext context) {
+        if (htmlConverter != null) {
+            try {
+                final List<Object> converted;
+                synchronized (wordMLPackage) {
+                    converted = htmlConverter.apply(html);
+                }
+                content.addAll(converted);
+                return;
+            }
+            catch (CancellationException e) {
+                throw e;
+            }
+            catch (Exception e) {
+                log.error("failed to convert markdown html block", e);
+                throw new RuntimeException(e);
+            }
+        }
+
+        final P p = this.newParagraph(null, context);
+        this.addText(p, html.trim(), RunFormat.PLAIN);
+        content.add(p);
+    }
+
+    /**
+     * 是否含有换行以外的内联 html 标签
+     */
+    private static boolean hasInlineHtml(Node node) {
+        for (Node descendant : node.getDescendants()) {
+            if (descendant instanceof HtmlInline && !isBreak(descendant)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isBreak(Node htmlInline) {
+        return htmlInline.getChars()
+                         .toString()
+                         .matches("(?i)<br\\s*/?>");
+    }
+
+    private void renderInlines(Node parent, ContentAccessor target, RunFormat format) {
+        for (Node node = parent.getFirstChild(); node != null; node = node.getNext()) {
+            if (node instanceof com.vladsch.flexmark.ast.Text) {
+                this.addText(target, node.getChars()
+                                         .unescape(), format);
+            }
+            else if (node instanceof SoftLineBreak) {
+                this.addText(target, " ", format);
+            }
+            else if (node instanceof HardLineBreak) {
+                this.addBreak(target, format);
+            }
+            else if (node instanceof StrongEmphasis) {
+                this.renderInlines(node, target, format.bold());
+            }
+            else if (node instanceof Emphasis) {
+                this.renderInlines(node, target, format.italic());
+            }
+            else if (node instanceof Code) {
+                this.addText(target, ((Code) node).getText()
+                                                  .toString(), format.code());
+            }
+            else if (node instanceof Image) {
+                this.addImage(target, ((Image) node).getUrl()
+                                                    .unescape(), ((Image) node).getText()
+                                                                               .unescape(), format);
+            }
+            else if (node instanceof ImageRef) {
+                final Reference reference = this.getReference(((ImageRef) node).getReference()
+                                                                               .unescape());
+                if (reference == null) {
+                    this.addText(target, node.getChars()
+                                             .unescape(), format);
+                }
+                else {
+                    this.addImage(target, reference.getUrl()
+                                                   .unescape(), ((ImageRef) node).getText()
+                                                                                 .unescape(), format);
+                }
+            }
+            else if (node instanceof Link) {
+                this.addHyperlink(target, ((Link) node).getUrl()
+                                                       .unescape(), node, null, format);
+            }
+            else if (node instanceof LinkRef) {
+                final LinkRef linkRef = (LinkRef) node;
+                final Reference reference = this.getReference(linkRef.getReference()
+                                                                      .unescape());
+                if (reference == null) {
+                    this.addText(target, node.getChars()
+                                             .unescape(), format);
+                }
+                else {
+                    this.addHyperlink(target, reference.getUrl()
+                                                       .unescape(), linkRef.isReferenceTextCombined() ? null : node, linkRef.getReference()
+                                                                                                                              .unescape(), format);
+                }
+            }
+            else if (node instanceof AutoLink) {
+                final String url = ((AutoLink) node).getText()
+                                                    .unescape();
+                this.addHyperlink(target, url, null, url, format);
+            }
+            else if (node instanceof MailLink) {
+                final String mail = ((MailLink) node).getText()
+                                                     .unescape();
+                this.addHyperlink(target, "mailto:" + mail, null, mail, format);
+            }
+            else if (node instanceof HtmlInline) {
+                // 只处理换行标签, 其余内联 html 标签忽略, 保留标签之间的文本(顶层段落已整段交给 html 转换器)
+                if (isBreak(node)) {
+                    this.addBreak(target, format);
+                }
+            }
+            else if (node instanceof HtmlInlineComment) {
+                // 注释不输出
+            }
+            else if (node.hasChildren()) {
+                this.renderInlines(node, target, format);
+            }
+            else {
+                this.addText(target, node.getChars()
+                                         .unescape(), format);
+            }
+        }
+    }
+
+    private P codeBlock(String code, BlockContext context) {
+        final P p = this.newParagraph(null, context);
+        final PPr pPr = this.getOrCreatePPr(p);
+        pPr.setShd(this.shading(CODE_SHADING));
+
+        final PPrBase.Spacing spacing = FACTORY.createPPrBaseSpacing();
+        spacing.setLine(BigInteger.valueOf(240));
+        pPr.setSpacing(spacing);
+
+        // 去掉结尾的换行, 其余换行在同一段落中用 w:br 表示
+        final String[] lines = code.replaceAll("\\r?\\n$", "")
+                                   .split("\\r?\\n", -1);
+        for (int i = 0; i < lines.length; i++) {
+            if (i > 0) {
+                this.addBreak(p, RunFormat.CODE_BLOCK);
+            }
+            this.addText(p, lines[i], RunFormat.CODE_BLOCK);
+        }
+        return p;
+    }
+
+    private P thematicBreak() {
+        final P p = FACTORY.createP();
+        final PPrBase.PBdr pBdr = FACTORY.createPPrBasePBdr();
+        pBdr.setBottom(this.border(6));
+        this.getOrCreatePPr(p)
+            .setPBdr(pBdr);
+        return p;
+    }
+
+    private void renderTable(TableBlock tableBlock, List<Object> content) {
+        final List<TableRow> rows = new ArrayList<>();
+        final List<Boolean> headerRows = new ArrayList<>();
+        TableCaption caption = null;
+        int columnCount = 0;
+
+        for (Node section = tableBlock.getFirstChild(); section != null; section = section.getNext()) {
+            if (section instanceof TableCaption) {
+                caption = (TableCaption) section;
+                continue;
+            }
+
+            // 跳过分隔行
+            if (!(section instanceof TableHead) && !(section instanceof TableBody)) {
+                continue;
+            }
+
+            for (Node row = section.getFirstChild(); row != null; row = row.getNext()) {
+                if (row instanceof TableRow) {
+                    rows.add((TableRow) row);
+                    headerRows.add(section instanceof TableHead);
+                    columnCount = Math.max(columnCount, this.countCells(row));
+                }
+            }
+        }
+
+        if (rows.isEmpty() || columnCount == 0) {
+            return;
+        }
+
+        final Tbl tbl = FACTORY.createTbl();
+        tbl.setTblPr(this.tableProperties());
+
+        final TblGrid tblGrid = FACTORY.createTblGrid();
+        final BigInteger columnWidth = BigInteger.valueOf(this.getWritableWidthTwips() / columnCount);
+        for (int i = 0; i < columnCount; i++) {
+            final TblGridCol gridCol = FACTORY.createTblGridCol();
+            gridCol.setW(columnWidth);
+            tblGrid.getGridCol()
+                   .add(gridCol);
+        }
+        tbl.setTblGrid(tblGrid);
+
+        for (int i = 0; i < rows.size(); i++) {
+            cancellation.check();
+            tbl.getContent()
+               .add(this.tableRow(rows.get(i), headerRows.get(i), columnCount, columnWidth));
+        }
+
+        if (tableCss != null) {
+            tableCss.apply(Collections.singletonList(tbl));
+        }
+        content.add(tbl);
+
+        if (caption != null) {
+            final P p = this.newParagraph("Caption", BlockContext.ROOT);
+            this.renderInlines(caption, p, RunFormat.PLAIN);
+            content.add(p);
+        }
+    }
+
+    private int countCells(Node row) {
+        int count = 0;
+        for (Node cell = row.getFirstChild(); cell != null; cell = cell.getNext()) {
+            if (cell instanceof TableCell) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private Tr tableRow(TableRow row, boolean header, int columnCount, BigInteger columnWidth) {
+        final Tr tr = FACTORY.createTr();
+
+        if (header) {
+            // 表头跨页重复
+            final TrPr trPr = FACTORY.createTrPr();
+            trPr.getCnfStyleOrDivIdOrGridBefore()
+                .add(FACTORY.createCTTrPrBaseTblHeader(new BooleanDefaultTrue()));
+            tr.setTrPr(trPr);
+        }
+
+        int cellCount = 0;
+        for (Node node = row.getFirstChild(); node != null && cellCount < columnCount; node = node.getNext()) {
+            if (node instanceof TableCell) {
+                tr.getContent()
+                  .add(this.tableCell((TableCell) node, header, columnWidth));
+                cellCount++;
+            }
+        }
+
+        // 补全缺失的单元格
+        for (; cellCount < columnCount; cellCount++) {
+            tr.getContent()
+              .add(this.tableCell(null, header, columnWidth));
+        }
+
+        return tr;
+    }
+
+    private Tc tableCell(TableCell cell, boolean header, BigInteger columnWidth) {
+        final Tc tc = FACTORY.createTc();
+        final TcPr tcPr = FACTORY.createTcPr();
+        final TblWidth tcW = FACTORY.createTblWidth();
+        tcW.setType(TblWidth.TYPE_DXA);
+        tcW.setW(columnWidth);
+        tcPr.setTcW(tcW);
+
+        if (header && tableCss == null) {
+            tcPr.setShd(this.shading(TABLE_HEADER_SHADING));
+        }
+        tc.setTcPr(tcPr);
+
+        final P p = FACTORY.createP();
+        final PPr pPr = this.getOrCreatePPr(p);
+        final PPrBase.Spacing spacing = FACTORY.createPPrBaseSpacing();
+        spacing.setBefore(BigInteger.ZERO);
+        spacing.setAfter(BigInteger.ZERO);
+        pPr.setSpacing(spacing);
+
+        if (cell != null) {
+            final JcEnumeration alignment = this.alignment(cell.getAlignment());
+            if (alignment != null) {
+                final Jc jc = FACTORY.createJc();
+                jc.setVal(alignment);
+                pPr.setJc(jc);
+            }
+            this.renderInlines(cell, p, header ? RunFormat.PLAIN.bold() : RunFormat.PLAIN);
+        }
+
+        tc.getContent()
+          .add(p);
+        return tc;
+    }
+
+    private JcEnumeration alignment(TableCell.Alignment alignment) {
+        if (alignment == null) {
+            return null;
+        }
+
+        switch (alignment) {
+            case CENTER:
+                return JcEnumeration.CENTER;
+            case RIGHT:
+                return JcEnumeration.RIGHT;
+            case LEFT:
+                return JcEnumeration.LEFT;
+            default:
+                return null;
+        }
+    }
+
+    private TblPr tableProperties() {
+        final TblPr tblPr = FACTORY.createTblPr();
+
+        if (this.activateStyle("TableGrid")) {
+            final CTTblPrBase.TblStyle tblStyle = FACTORY.createCTTblPrBaseTblStyle();
+            tblStyle.setVal("TableGrid");
+            tblPr.setTblStyle(tblStyle);
+        }
+
+        final TblWidth tblW = FACTORY.createTblWidth();
+        tblW.setType("pct");
+        tblW.setW(BigInteger.valueOf(5000));
+        tblPr.setTblW(tblW);
+
+        if (tableCss != null) {
+            // 边框、底色和边距由 globalCss 的表格样式提供
+            return tblPr;
+        }
+
+        final TblBorders borders = FACTORY.createTblBorders();
+        borders.setTop(this.border(4));
+        borders.setLeft(this.border(4));
+        borders.setBottom(this.border(4));
+        borders.setRight(this.border(4));
+        borders.setInsideH(this.border(4));
+        borders.setInsideV(this.border(4));
+        tblPr.setTblBorders(borders);
+
+        // 单元格边距 8px 12px
+        final CTTblCellMar cellMar = FACTORY.createCTTblCellMar();
+        cellMar.setTop(this.twipsWidth(120));
+        cellMar.setBottom(this.twipsWidth(120));
+        cellMar.setLeft(this.twipsWidth(180));
+        cellMar.setRight(this.twipsWidth(180));
+        tblPr.setTblCellMar(cellMar);
+
+        return tblPr;
+    }
+
+    private void addText(ContentAccessor target, String value, RunFormat format) {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+
+        final R r = this.newRun(format);
+        final Text text = FACTORY.createText();
+        text.setValue(value);
+        text.setSpace("preserve");
+        r.getContent()
+         .add(FACTORY.createRT(text));
+        target.getContent()
+              .add(r);
+    }
+
+    private void addBreak(ContentAccessor target, RunFormat format) {
+        final R r = this.newRun(format);
+        final Br br = FACTORY.createBr();
+        r.getContent()
+         .add(br);
+        target.getContent()
+              .add(r);
+    }
+
+    private void addHyperlink(ContentAccessor target, String url, Node textNode, String text, RunFormat format) {
+        final P.Hyperlink hyperlink = FACTORY.createPHyperlink();
+
+        if (url.startsWith("#")) {
+            // 文档内锚点
+            hyperlink.setAnchor(url.substring(1));
+        }
+        else {
+            final Relationship relationship = new org.docx4j.relationships.ObjectFactory().createRelationship();
+            relationship.setType(Namespaces.HYPERLINK);
+            relationship.setTarget(url);
+            relationship.setTargetMode("External");
+            synchronized (wordMLPackage) {
+                mainDocumentPart.getRelationshipsPart()
+                                .addRelationship(relationship);
+            }
+            hyperlink.setId(relationship.getId());
+        }
+
+        if (textNode != null && textNode.hasChildren()) {
+            this.renderInlines(textNode, hyperlink, format.link());
+        }
+        else {
+            this.addText(hyperlink, text == null ? url : text, format.link());
+        }
+
+        target.getContent()
+              .add(hyperlink);
+    }
+
+    private void addImage(ContentAccessor target, String url, String altText, RunFormat format) {
+        try {
+            final int id = documentImages.nextDrawingId();
+            final Inline inline;
+            synchronized (wordMLPackage) {
+                final BinaryPartAbstractImage imagePart = documentImages.getImagePart(url, staticResourceBaseUri);
+                inline = imagePart.createImageInline(this.fileName(url), altText, id, id, false);
+            }
+
+            final Drawing drawing = FACTORY.createDrawing();
+            drawing.getAnchorOrInline()
+                   .add(inline);
+            final R r = this.newRun(format);
+            r.getContent()
+             .add(drawing);
+            target.getContent()
+                  .add(r);
+        }
+        catch (Exception e) {
+            // 图片加载失败时输出替代文本
+            log.warn("failed to load markdown image: {}", url, e);
+            this.addText(target, altText == null || altText.isEmpty() ? url : altText, format);
+        }
+    }
+
+    private String fileName(String url) {
+        if (url.startsWith("data:")) {
+            return "image";
+        }
+
+        final int index = url.lastIndexOf('/');
+        return index >= 0 ? url.substring(index + 1) : url;
+    }
+
+    private R newRun(RunFormat format) {
+        final R r = FACTORY.createR();
+
+        if (format == RunFormat.PLAIN) {
+            return r;
+        }
+
+        final RPr rPr = FACTORY.createRPr();
+        if (format.bold) {
+            rPr.setB(new BooleanDefaultTrue());
+        }
+        if (format.italic) {
+            rPr.setI(new BooleanDefaultTrue());
+        }
+        if (format.code) {
+            final RFonts rFonts = FACTORY.createRFonts();
+            rFonts.setAscii(CODE_FONT);
+            rFonts.setHAnsi(CODE_FONT);
+            rFonts.setCs(CODE_FONT);
+            rPr.setRFonts(rFonts);
+            if (!format.block) {
+                rPr.setShd(this.shading(CODE_SHADING));
+            }
+        }
+        if (format.link && this.activateStyle("Hyperlink")) {
+            final RStyle rStyle = FACTORY.createRStyle();
+            rStyle.setVal("Hyperlink");
+            rPr.setRStyle(rStyle);
+        }
+        if (format.quote) {
+            final Color color = FACTORY.createColor();
+            color.setVal(QUOTE_COLOR);
+            rPr.setColor(color);
+        }
+
+        r.setRPr(rPr);
+        return r;
+    }
+
+    private P newParagraph(String styleId, BlockContext context) {
+        final P p = FACTORY.createP();
+
+        if (styleId != null && this.activateStyle(styleId)) {
+            final PPrBase.PStyle pStyle = FACTORY.createPPrBasePStyle();
+            pStyle.setVal(styleId);
+            this.getOrCreatePPr(p)
+                .setPStyle(pStyle);
+        }
+
+        if (context.listLevel >= 0) {
+            if (context.numberPending) {
+                // 列表项的第一个段落带编号, 缩进由编号定义控制
+                final PPrBase.NumPr numPr = FACTORY.createPPrBaseNumPr();
+                final PPrBase.NumPr.Ilvl ilvl = FACTORY.createPPrBaseNumPrIlvl();
+                ilvl.setVal(BigInteger.valueOf(Math.min(context.listLevel, 8)));
+                numPr.setIlvl(ilvl);
+                final PPrBase.NumPr.NumId numId = FACTORY.createPPrBaseNumPrNumId();
+                numId.setVal(context.numId);
+                numPr.setNumId(numId);
+
+                final PPr pPr = this.getOrCreatePPr(p);
+                if (pPr.getPStyle() == null && this.activateStyle("ListParagraph")) {
+                    final PPrBase.PStyle pStyle = FACTORY.createPPrBasePStyle();
+                    pStyle.setVal("ListParagraph");
+                    pPr.setPStyle(pStyle);
+                }
+                pPr.setNumPr(numPr);
+                context.numberPending = false;
+            }
+            else {
+                // 列表项中的后续段落与编号文本对齐
+                this.indent(p, (context.listLevel + 1) * 2 * INDENT_TWIPS + context.quoteDepth * INDENT_TWIPS);
+            }
+        }
+        else if (context.quoteDepth > 0) {
+            this.indent(p, context.quoteDepth * INDENT_TWIPS);
+        }
+
+        if (context.quoteDepth > 0) {
+            final PPrBase.PBdr pBdr = FACTORY.createPPrBasePBdr();
+            final CTBorder left = this.border(18);
+            left.setSpace(BigInteger.valueOf(8));
+            pBdr.setLeft(left);
+            this.getOrCreatePPr(p)
+                .setPBdr(pBdr);
+        }
+
+        return p;
+    }
+
+    private void indent(P p, int left) {
+        final PPrBase.Ind ind = FACTORY.createPPrBaseInd();
+        ind.setLeft(BigInteger.valueOf(left));
+        this.getOrCreatePPr(p)
+            .setInd(ind);
+    }
+
+    private PPr getOrCreatePPr(P p) {
+        if (p.getPPr() == null) {
+            p.setPPr(FACTORY.createPPr());
+        }
+        return p.getPPr();
+    }
+
+    private CTBorder border(int size) {
+        final CTBorder border = FACTORY.createCTBorder();
+        border.setVal(STBorder.SINGLE);
+        border.setSz(BigInteger.valueOf(size));
+        border.setSpace(BigInteger.ZERO);
+        border.setColor(BORDER_COLOR);
+        return border;
+    }
+
+    private CTShd shading(String fill) {
+        final CTShd shd = FACTORY.createCTShd();
+        shd.setVal(STShd.CLEAR);
+        shd.setColor("auto");
+        shd.setFill(fill);
+        return shd;
+    }
+
+    private TblWidth twipsWidth(int twips) {
+        final TblWidth width = FACTORY.createTblWidth();
+        width.setType(TblWidth.TYPE_DXA);
+        width.setW(BigInteger.valueOf(twips));
+        return width;
+    }
+
+    private int getWritableWidthTwips() {
+        synchronized (wordMLPackage) {
+            final List<SectionWrapper> sections = wordMLPackage.getDocumentModel()
+                                                               .getSections();
+            if (sections == null || sections.isEmpty()) {
+                return DEFAULT_WRITABLE_WIDTH_TWIPS;
+            }
+
+            final int width = sections.get(sections.size() - 1)
+                                      .getPageDimensions()
+                                      .getWritableWidthTwips();
+            return width > 0 ? width : DEFAULT_WRITABLE_WIDTH_TWIPS;
+        }
+    }
+
+    /**
+     * 激活 Word 内置样式, 模板中没有且不是内置样式时返回false
+     */
+    private boolean activateStyle(String styleId) {
+        synchronized (wordMLPackage) {
+            if (activatedStyles.contains(styleId)) {
+                return true;
+            }
+
+            try {
+                if (mainDocumentPart.getPropertyResolver()
+                                    .activateStyle(styleId)) {
+                    activatedStyles.add(styleId);
+                    return true;
+                }
+            }
+            catch (Exception e) {
+                log.warn("failed to activate style: {}", styleId, e);
+            }
+
+            return false;
+        }
+    }
+
+    private Reference getReference(String reference) {
+        return references == null ? null : references.get(references.normalizeKey(reference));
+    }
+
+    private BigInteger getBulletNumId() {
+        synchronized (wordMLPackage) {
+            if (bulletNumId == null) {
+                final Numbering numbering = this.getNumbering();
+                final BigInteger abstractNumId = this.addAbstractNum(numbering, false);
+                bulletNumId = this.addNum(numbering, abstractNumId, -1, 1);
+            }
+            return bulletNumId;
+        }
+    }
+
+    private BigInteger newOrderedNumId(int level, int start) {
+        synchronized (wordMLPackage) {
+            final Numbering numbering = this.getNumbering();
+            if (orderedAbstractNumId == null) {
+                orderedAbstractNumId = this.addAbstractNum(numbering, true);
+            }
+            return this.addNum(numbering, orderedAbstractNumId, Math.min(level, 8), start);
+        }
+    }
+
+    private Numbering getNumbering() {
+        try {
+            NumberingDefinitionsPart numberingPart = mainDocumentPart.getNumberingDefinitionsPart();
+            if (numberingPart == null) {
+                numberingPart = new NumberingDefinitionsPart();
+                numberingPart.setJaxbElement(FACTORY.createNumbering());
+                mainDocumentPart.addTargetPart(numberingPart);
+            }
+            return numberingPart.getContents();
+        }
+        catch (Exception e) {
+            log.error("failed to create numbering definitions", e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    private BigInteger addAbstractNum(Numbering numbering, boolean ordered) {
+        BigInteger abstractNumId = BigInteger.ZERO;
+        for (Numbering.AbstractNum abstractNum : numbering.getAbstractNum()) {
+            abstractNumId = abstractNumId.max(abstractNum.getAbstractNumId()
+                                                         .add(BigInteger.ONE));
+        }
+
+        final String[] bullets = {"•", "◦", "▪"};
+        final String[] formats = {"decimal", "lowerLetter", "lowerRoman"};
+        final StringBuilder xml = new StringBuilder();
+        xml.append("<w:abstractNum xmlns:w=\"")
+           .append(Namespaces.NS_WORD12)
+           .append("\" w:abstractNumId=\"")
+           .append(abstractNumId)
+           .append("\"><w:multiLevelType w:val=\"hybridMultilevel\"/>");
+        for (int i = 0; i < 9; i++) {
+            xml.append("<w:lvl w:ilvl=\"")
+               .append(i)
+               .append("\"><w:start w:val=\"1\"/><w:numFmt w:val=\"")
+               .append(ordered ? formats[i % 3] : "bullet")
+               .append("\"/><w:lvlText w:val=\"")
+               .append(ordered ? "%" + (i + 1) + "." : bullets[i % 3])
+               .append("\"/><w:lvlJc w:val=\"left\"/><w:pPr><w:ind w:left=\"")
+               .append((i + 1) * 2 * INDENT_TWIPS)
+               .append("\" w:hanging=\"")
+               .append(INDENT_TWIPS)
+               .append("\"/></w:pPr></w:lvl>");
+        }
+        xml.append("</w:abstractNum>");
+
+        try {
+            numbering.getAbstractNum()
+                     .add((Numbering.AbstractNum) XmlUtils.unmarshalString(xml.toString()));
+        }
+        catch (Exception e) {
+            log.error("failed to create list numbering definition", e);
+            throw new RuntimeException(e);
+        }
+
+        return abstractNumId;
+    }
+
+    private BigInteger addNum(Numbering numbering, BigInteger abstractNumId, int level, int start) {
+        BigInteger numId = BigInteger.ONE;
+        for (Numbering.Num num : numbering.getNum()) {
+            numId = numId.max(num.getNumId()
+                                 .add(BigInteger.ONE));
+        }
+
+        final Numbering.Num num = FACTORY.createNumberingNum();
+        num.setNumId(numId);
+        final Numbering.Num.AbstractNumId abstractNumIdRef = FACTORY.createNumberingNumAbstractNumId();
+        abstractNumIdRef.setVal(abstractNumId);
+        num.setAbstractNumId(abstractNumIdRef);
+
+        if (level >= 0) {
+            final Numbering.Num.LvlOverride lvlOverride = FACTORY.createNumberingNumLvlOverride();
+            lvlOverride.setIlvl(BigInteger.valueOf(level));
+            final Numbering.Num.LvlOverride.StartOverride startOverride = FACTORY.createNumberingNumLvlOverrideStartOverride();
+            startOverride.setVal(BigInteger.valueOf(start));
+            lvlOverride.setStartOverride(startOverride);
+            num.getLvlOverride()
+               .add(lvlOverride);
+        }
+
+        numbering.getNum()
+                 .add(num);
+        return numId;
+    }
+
+    /**
+     * 块级上下文: 列表层级、引用层级
+     */
+    private static final class BlockContext {
+        private static final BlockContext ROOT = new BlockContext(-1, null, 0, false);
+
+        private final int listLevel;
+
+        private final BigInteger numId;
+
+        private final int quoteDepth;
+
+        private boolean numberPending;
+
+        private BlockContext(int listLevel, BigInteger numId, int quoteDepth, boolean numberPending) {
+            this.listLevel = listLevel;
+            this.numId = numId;
+            this.quoteDepth = quoteDepth;
+            this.numberPending = numberPending;
+        }
+
+        private BlockContext listItem(BigInteger numId) {
+            return new BlockContext(listLevel + 1, numId, quoteDepth, true);
+        }
+
+        private BlockContext quote() {
+            return new BlockContext(listLevel, numId, quoteDepth + 1, false);
+        }
+    }
+
+    /**
+     * run 格式
+     */
+    private static final class RunFormat {
+        private static final RunFormat PLAIN = new RunFormat(false, false, false, false, false, false);
+
+        private static final RunFormat QUOTE = new RunFormat(false, false, false, false, false, true);
+
+        private static final RunFormat CODE_BLOCK = new RunFormat(false, false, true, true, false, false);
+
+        private final boolean bold;
+
+        private final boolean italic;
+
+        private final boolean code;
+
+        private final boolean block;
+
+        private final boolean link;
+
+        private final boolean quote;
+
+        private RunFormat(boolean bold, boolean italic, boolean code, boolean block, boolean link, boolean quote) {
+            this.bold = bold;
+            this.italic = italic;
+            this.code = code;
+            this.block = block;
+            this.link = link;
+            this.quote = quote;
+        }
+
+        private RunFormat bold() {
+            return new RunFormat(true, italic, code, block, link, quote);
+        }
+
+        private RunFormat italic() {
+            return new RunFormat(bold, true, code, block, link, quote);
+        }
+
+        private RunFormat code() {
+            return new RunFormat(bold, italic, true, block, link, quote);
+        }
+
+        private RunFormat link() {
+            return new RunFormat(bold, italic, code, block, true, quote);
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package md2docx;
+
+import com.vladsch.flexmark.ext.tables.TablesExtension;
+import com.vladsch.flexmark.html.AttributeProvider;
+import com.vladsch.flexmark.html.AttributeProviderFactory;
+import com.vladsch.flexmark.html.HtmlRenderer;
+import com.vladsch.flexmark.html.IndependentAttributeProviderFactory;
+import com.vladsch.flexmark.html.renderer.LinkResolverContext;
+import com.vladsch.flexmark.parser.Parser;
+import com.vladsch.flexmark.util.ast.Document;
+import com.vladsch.flexmark.util.ast.Node;
+import com.vladsch.flexmark.util.data.DataHolder;
+import com.vladsch.flexmark.util.data.DataSet;
+import com.vladsch.flexmark.util.data.MutableDataSet;
+import com.vladsch.flexmark.util.misc.Extension;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * markdown 解析/渲染引擎
+ * <p>
+ * 持有构建好的 flexmark {@link Parser} 和 {@link HtmlRenderer}, 不可变且线程安全,
+ * 可以预先构建一次后在多个 {@link Markdowns.MarkdownBuilder} 之间并发共享。
+ *
+ * @author ludangxin
+ * @since 2026/10/17
+ */
+public final class MarkdownEngine {
+    private static final int MAX_CACHED_ENGINES = 32;
+
+    private static final MarkdownEngine DEFAULT = new MarkdownEngine(defaultOptions(), null, null);
+
+    /**
+     * 按 options/attribute provider 缓存的引擎
+     */
+    private static final Map<EngineKey, MarkdownEngine> ENGINES = new LinkedHashMap<EngineKey, MarkdownEngine>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<EngineKey, MarkdownEngine> eldest) {
+            return size() > MAX_CACHED_ENGINES;
+        }
+    };
+
+    private final DataHolder options;
+
+    private final Parser parser;
+
+    private final HtmlRenderer htmlRenderer;
+
+    private MarkdownEngine(DataHolder options, AttributeProviderFactory attributeProviderFactory, AttributeProvider attributeProvider) {
+        this.options = new DataSet(options);
+        this.parser = Parser.builder(this.options)
+                            .build();
+
+        final HtmlRenderer.Builder builder = HtmlRenderer.builder(this.options);
+
+        if (attributeProviderFactory != null) {
+            builder.attributeProviderFactory(attributeProviderFactory);
+        }
+
+        if (attributeProviderFactory == null && attributeProvider != null) {
+            final IndependentAttributeProviderFactory independentAttributeProviderFactory = new IndependentAttributeProviderFactory() {
+                @Override
+                public @NotNull AttributeProvider apply(@NotNull LinkResolverContext linkResolverContext) {
+                    return attributeProvider;
+                }
+            };
+            builder.attributeProviderFactory(independentAttributeProviderFactory);
+        }
+
+        this.htmlRenderer = builder.build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 默认配置的引擎
+     */
+    public static MarkdownEngine getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * 获取指定配置的引擎, 相同配置的引擎只构建一次
+     * <p>
+     * 扩展按类型比较, 每次新建的扩展实例也能命中缓存; attribute provider 按实例比较(同一个类的不同实例行为可能不同),
+     * 需要复用同一个实例(如常量)才能命中缓存。每次都不同的 provider 应使用 {@link #builder()} 构建独立的引擎, 避免挤出缓存中的其他引擎。
+     *
+     * @param options                  flexmark 配置, 为null时使用默认配置
+     * @param attributeProviderFactory attribute provider factory
+     * @param attributeProvider        attribute provider(attributeProviderFactory 为null时生效)
+     * @return 引擎
+     */
+    public static MarkdownEngine of(DataHolder options, AttributeProviderFactory attributeProviderFactory, AttributeProvider attributeProvider) {
+        if (options == null && attributeProviderFactory == null && attributeProvider == null) {
+            return DEFAULT;
+        }
+
+        final DataSet optionsSnapshot = new DataSet(options == null ? DEFAULT.options : options);
+        final EngineKey key = new EngineKey(optionsSnapshot, attributeProviderFactory, attributeProvider);
+
+        synchronized (ENGINES) {
+            final MarkdownEngine engine = ENGINES.get(key);
+            if (engine != null) {
+                return engine;
+            }
+        }
+
+        // 在锁外构建, 并发构建同一配置时保留先放入的引擎
+        final MarkdownEngine engine = new MarkdownEngine(optionsSnapshot, attributeProviderFactory, attributeProvider);
+        synchronized (ENGINES) {
+            final MarkdownEngine existing = ENGINES.putIfAbsent(key, engine);
+            return existing == null ? engine : existing;
+        }
+    }
+
+    /**
+     * 默认配置: 启用表格扩展
+     */
+    public static MutableDataSet defaultOptions() {
+        MutableDataSet options = new MutableDataSet();
+        // 启用表格扩展，支持 Markdown 表格语法
+        options.set(Parser.EXTENSIONS, Collections.singletonList(TablesExtension.create()));
+        // 禁用跨列
+        options.set(TablesExtension.COLUMN_SPANS, false);
+        // 表头固定为 1 行
+        options.set(TablesExtension.MIN_HEADER_ROWS, 1);
+        options.set(TablesExtension.MAX_HEADER_ROWS, 1);
+        // 自动补全缺失列、丢弃多余列
+        options.set(TablesExtension.APPEND_MISSING_COLUMNS, true);
+        options.set(TablesExtension.DISCARD_EXTRA_COLUMNS, true);
+        return options;
+    }
+
+    public Document parse(String content) {
+        return parser.parse(content);
+    }
+
+    public String render(Node document) {
+        return htmlRenderer.render(document);
+    }
+
+    public DataHolder getOptions() {
+        return options;
+    }
+
+    public Parser getParser() {
+        return parser;
+    }
+
+    public HtmlRenderer getHtmlRenderer() {
+        return htmlRenderer;
+    }
+
+    public static class Builder {
+        private DataHolder options;
+
+        private AttributeProviderFactory attributeProviderFactory;
+
+        private AttributeProvider attributeProvider;
+
+        private Builder() {
+        }
+
+        public Builder options(DataHolder options) {
+            this.options = options;
+            return this;
+        }
+
+        public Builder attributeProviderFactory(AttributeProviderFactory attributeProviderFactory) {
+            this.attributeProviderFactory = attributeProviderFactory;
+            return this;
+        }
+
+        public Builder attributeProvider(AttributeProvider attributeProvider) {
+            this.attributeProvider = attributeProvider;
+            return this;
+        }
+
+        /**
+         * 构建一个独立(不进入缓存)的引擎
+         */
+        public MarkdownEngine build() {
+            return new MarkdownEngine(options == null ? defaultOptions() : options, attributeProviderFactory, attributeProvider);
+        }
+    }
+
+    /**
+     * 引擎缓存的 key: 扩展按类型比较, 其余配置按值比较, provider 按实例比较
+     */
+    private static final class EngineKey {
+        private final DataSet options;
+
+        private final List<Class<?>> extensions;
+
+        private final AttributeProviderFactory attributeProviderFactory;
+
+        private final AttributeProvider attributeProvider;
+
+        private EngineKey(DataSet options, AttributeProviderFactory attributeProviderFactory, AttributeProvider attributeProvider) {
+            this.extensions = new ArrayList<>();
+            for (Extension extension : Parser.EXTENSIONS.get(options)) {
+                extensions.add(extension.getClass());
+            }
+            this.options = new MutableDataSet(options).remove(Parser.EXTENSIONS)
+                                                      .toImmutable();
+            this.attributeProviderFactory = attributeProviderFactory;
+            this.attributeProvider = attributeProvider;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof EngineKey)) {
+                return false;
+            }
+            EngineKey that = (EngineKey) o;
+            // provider 按实例区分
+            return options.equals(that.options) && extensions.equals(that.extensions) && attributeProviderFactory == that.attributeProviderFactory && attributeProvider == that.attributeProvider;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = options.hashCode();
+            result = 31 * result + extensions.hashCode();
+            result = 31 * result + System.identityHashCode(attributeProviderFactory);
+            result = 31 * result + System.identityHashCode(attributeProvider);
+            return result;
+        }
+    }
+}
@@ -15,20 +15,12 @@ import com.vladsch.flexmark.ast.Paragraph;
 import com.vladsch.flexmark.ast.StrongEmphasis;
 import com.vladsch.flexmark.ast.ThematicBreak;
 import com.vladsch.flexmark.ext.tables.TableBlock;
-import com.vladsch.flexmark.ext.tables.TablesExtension;
 import com.vladsch.flexmark.html.AttributeProvider;
 import com.vladsch.flexmark.html.AttributeProviderFactory;
-import com.vladsch.flexmark.html.HtmlRenderer;
-import com.vladsch.flexmark.html.IndependentAttributeProviderFactory;
-import com.vladsch.flexmark.html.renderer.LinkResolverContext;
-import com.vladsch.flexmark.parser.Parser;
 import com.vladsch.flexmark.util.ast.Document;
 import com.vladsch.flexmark.util.ast.Node;
 import com.vladsch.flexmark.util.data.MutableDataSet;
 import lombok.extern.slf4j.Slf4j;
-import org.jetbrains.annotations.NotNull;
-import org.jsoup.Jsoup;
-import org.jsoup.nodes.Entities;
 
 import java.io.BufferedReader;
 import java.io.File;
@@ -36,7 +28,6 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.util.Collections;
 
 /**
  * markdown 工具类
@@ -133,6 +124,17 @@ public class Markdowns {
 
         private AttributeProvider attributeProvider;
 
+        private MarkdownEngine engine;
+
+        /**
+         * 解析结果, 只解析一次, 供检测、渲染等后续环节共享
+         */
+        private Document document;
+
+        private Boolean markdown;
+
+        private MetricsRecorder metrics = MetricsRecorder.NOOP;
+
         private MarkdownBuilder content(String content) {
             this.content = content;
             return this;
@@ -140,6 +142,7 @@ public class Markdowns {
 
         public MarkdownBuilder options(MutableDataSet options) {
             this.options = options;
+            this.resetDocument();
             return this;
         }
 
@@ -153,6 +156,23 @@ public class Markdowns {
             return this;
         }
 
+        /**
+         * 使用预先构建好的引擎, 设置后 options/attributeProvider 等配置不再生效
+         */
+        public MarkdownBuilder engine(MarkdownEngine engine) {
+            this.engine = engine;
+            this.resetDocument();
+            return this;
+        }
+
+        /**
+         * 转换指标监听器, 记录 markdown 解析、html 渲染、html 规范化各阶段的耗时
+         */
+        public MarkdownBuilder metricsListener(DocMetricsListener metricsListener) {
+            this.metrics = MetricsRecorder.of(metricsListener);
+            return this;
+        }
+
         public MarkdownBuilder printContent() {
             System.out.println(content);
             return this;
@@ -164,26 +184,81 @@ public class Markdowns {
                 return false;
             }
 
-            final Document document = this.buildDocument();
+            if (markdown == null) {
+                markdown = hasMarkdownNodes(this.buildDocument());
+            }
 
-            return hasMarkdownNodes(document);
+            return markdown;
         }
 
         public Document buildDocument() {
-            Parser parser = Parser.builder(this.getOptionsOrDefault())
-                                  .build();
+            if (document != null) {
+                return document;
+            }
 
-            return parser.parse(content);
+            metrics.enter("buildDocument");
+            try {
+                final MetricsRecorder.Span span = metrics.start(DocStage.MARKDOWN_PARSE);
+                document = this.getEngineOrDefault()
+                               .parse(content);
+                span.end(content == null ? 0 : content.length(), 0, countChildren(document));
+                return document;
+            }
+            catch (RuntimeException e) {
+                metrics.fail();
+                throw e;
+            }
+            finally {
+                metrics.exit();
+            }
         }
 
         public String buildHtmlContent() {
-            return this.wrapperHtml(this.getHtmlRenderer()
-                                        .render(this.buildDocument()));
+            metrics.enter("buildHtmlContent");
+            try {
+                final String htmlContent = this.render();
+                final MetricsRecorder.Span span = metrics.start(DocStage.HTML_NORMALIZE);
+                final String xhtml = this.wrapperHtml(htmlContent);
+                span.end(htmlContent.length(), xhtml.length(), 0);
+                return xhtml;
+            }
+            catch (RuntimeException e) {
+                metrics.fail();
+                throw e;
+            }
+            finally {
+                metrics.exit();
+            }
         }
 
         public String buildRawHtmlContent() {
-            return this.getHtmlRenderer()
-                       .render(this.buildDocument());
+            metrics.enter("buildRawHtmlContent");
+            try {
+                return this.render();
+            }
+            catch (RuntimeException e) {
+                metrics.fail();
+                throw e;
+            }
+            finally {
+                metrics.exit();
+            }
+        }
+
+        /**
+         * 是否已经解析过 markdown
+         */
+        boolean isDocumentParsed() {
+            return document != null;
+        }
+
+        private String render() {
+            final Document document = this.buildDocument();
+            final MetricsRecorder.Span span = metrics.start(DocStage.HTML_RENDER);
+            final String htmlContent = this.getEngineOrDefault()
+                                           .render(document);
+            span.end(content == null ? 0 : content.length(), htmlContent.length(), 0);
+            return htmlContent;
         }
 
         public String buildRawHtmlIfMarkdown() {
@@ -202,60 +277,33 @@ public class Markdowns {
             return content;
         }
 
-        private HtmlRenderer getHtmlRenderer() {
-            final HtmlRenderer.Builder builder = HtmlRenderer.builder(getOptionsOrDefault());
-
-            if (attributeProviderFactory != null) {
-                builder.attributeProviderFactory(attributeProviderFactory);
-            }
-
-            if (attributeProviderFactory == null && attributeProvider != null) {
-                final IndependentAttributeProviderFactory independentAttributeProviderFactory = new IndependentAttributeProviderFactory() {
-                    @Override
-                    public @NotNull AttributeProvider apply(@NotNull LinkResolverContext linkResolverContext) {
-                        return attributeProvider;
-                    }
-                };
-                builder.attributeProviderFactory(independentAttributeProviderFactory);
-            }
-
-            return builder.build();
+        private void resetDocument() {
+            this.document = null;
+            this.markdown = null;
         }
 
-        private MutableDataSet getOptionsOrDefault() {
-            if (options == null) {
-                return this.defaultOptions();
-            }
-            else {
-                return options;
+        MarkdownEngine getEngineOrDefault() {
+            if (engine != null) {
+                return engine;
             }
-        }
 
-        private MutableDataSet defaultOptions() {
-            MutableDataSet options = new MutableDataSet();
-            // 启用表格扩展，支持 Markdown 表格语法
-            options.set(Parser.EXTENSIONS, Collections.singletonList(TablesExtension.create()));
-            // 禁用跨列
-            options.set(TablesExtension.COLUMN_SPANS, false);
-            // 表头固定为 1 行
-            options.set(TablesExtension.MIN_HEADER_ROWS, 1);
-            options.set(TablesExtension.MAX_HEADER_ROWS, 1);
-            // 自动补全缺失列、丢弃多余列
-            options.set(TablesExtension.APPEND_MISSING_COLUMNS, true);
-            options.set(TablesExtension.DISCARD_EXTRA_COLUMNS, true);
-            return options;
+            // 相同配置的引擎全局只构建一次
+            return MarkdownEngine.of(options, attributeProviderFactory, attributeProvider);
         }
 
         private String wrapperHtml(String htmlContent) {
-            org.jsoup.nodes.Document jsoupDoc = Jsoup.parse(htmlContent);
-            jsoupDoc.outputSettings()
-                    // 内容输出时遵循XML语法规则
-                    .syntax(org.jsoup.nodes.Document.OutputSettings.Syntax.xml)
-                    // 内容转义时遵循xhtml规范
-                    .escapeMode(Entities.EscapeMode.xhtml)
-                    // 禁用格式化输出
-                    .prettyPrint(false);
-            return jsoupDoc.html();
+            return DocUtils.toXhtml(htmlContent);
+        }
+
+        /**
+         * 直接子节点数量(对文档而言即顶层块数量)
+         */
+        static int countChildren(Node node) {
+            int count = 0;
+            for (Node child = node.getFirstChild(); child != null; child = child.getNext()) {
+                count++;
+            }
+            return count;
         }
 
         /**
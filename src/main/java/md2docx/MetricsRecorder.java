@@ -0,0 +1,264 @@
+package md2docx;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 转换指标记录
+ * <p>
+ * 与 {@link Docs.DocBuilder}、{@link Markdowns.MarkdownBuilder} 一样只在单个线程中使用。
+ * 入口方法可能互相调用, 只有最外层的 {@link #enter(String)}/{@link #exit()} 构成一次转换。
+ * <p>
+ * 只记录进入转换的线程上的阶段: 其他线程(如大文档分段渲染的 worker)调用 {@link #start(DocStage)} 时不计时,
+ * 这些线程上的耗时计入调用线程上外层阶段的墙钟时间, 分配的内存不计入(分配量只统计调用线程)。
+ * 监听器为 {@link DocMetricsListener#NOOP} 时不做任何计时。
+ *
+ * @author ludangxin
+ * @since 2026/10/17
+ */
+@Slf4j
+final class MetricsRecorder {
+    static final MetricsRecorder NOOP = new MetricsRecorder(DocMetricsListener.NOOP);
+
+    private static final Span NOOP_SPAN = new Span(null, null, 0, 0);
+
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN = threadMXBean();
+
+    private final DocMetricsListener listener;
+
+    private final boolean enabled;
+
+    private final Map<DocStage, StageAccumulator> stages = new EnumMap<>(DocStage.class);
+
+    private final List<DocStage> stageOrder = new ArrayList<>();
+
+    private int depth;
+
+    /**
+     * 当前转换所在的线程, 不在转换中时为 null
+     */
+    private volatile Thread owner;
+
+    private String operation;
+
+    private boolean success;
+
+    private long startNanos;
+
+    private long startAllocatedBytes;
+
+    private MetricsRecorder(DocMetricsListener listener) {
+        this.listener = listener;
+        this.enabled = listener != DocMetricsListener.NOOP;
+    }
+
+    static MetricsRecorder of(DocMetricsListener listener) {
+        return listener == null || listener == DocMetricsListener.NOOP ? NOOP : new MetricsRecorder(listener);
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 进入转换入口
+     *
+     * @param operation 入口名称
+     */
+    void enter(String operation) {
+        if (!enabled || depth++ > 0) {
+            return;
+        }
+
+        this.owner = Thread.currentThread();
+        this.operation = operation;
+        this.success = true;
+        this.stages.clear();
+        this.stageOrder.clear();
+        this.startAllocatedBytes = allocatedBytes();
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * 标记本次转换失败
+     */
+    void fail() {
+        if (enabled) {
+            this.success = false;
+        }
+    }
+
+    /**
+     * 退出转换入口, 最外层退出时回调监听器
+     */
+    void exit() {
+        if (!enabled || --depth > 0) {
+            return;
+        }
+
+        this.owner = null;
+        final long durationNanos = System.nanoTime() - startNanos;
+        final long allocated = startAllocatedBytes < 0 ? -1 : allocatedBytes() - startAllocatedBytes;
+        final List<StageMetrics> stageMetrics = new ArrayList<>(stageOrder.size());
+        for (DocStage stage : stageOrder) {
+            stageMetrics.add(stages.get(stage)
+                                   .toMetrics(stage));
+        }
+
+        // 监听器异常不影响转换结果
+        try {
+            for (StageMetrics metrics : stageMetrics) {
+                listener.onStage(metrics);
+            }
+            listener.onConversion(new ConversionMetrics(operation, success, durationNanos, allocated, stageMetrics));
+        }
+        catch (Exception e) {
+            log.warn("doc metrics listener failed", e);
+        }
+    }
+
+    /**
+     * 开始记录一个阶段, 不在转换中或不是转换所在的线程时不记录
+     */
+    Span start(DocStage stage) {
+        if (!enabled || owner != Thread.currentThread()) {
+            return NOOP_SPAN;
+        }
+
+        return new Span(this, stage, System.nanoTime(), allocatedBytes());
+    }
+
+    /**
+     * 统计写入字节数的输出流, 未启用时直接返回原输出流
+     */
+    OutputStream counting(OutputStream outputStream) {
+        return enabled ? new CountingOutputStream(outputStream) : outputStream;
+    }
+
+    static long countOf(OutputStream outputStream) {
+        return outputStream instanceof CountingOutputStream ? ((CountingOutputStream) outputStream).count : 0;
+    }
+
+    private void record(DocStage stage, long durationNanos, long bytesIn, long bytesOut, long elements, long allocatedBytes) {
+        StageAccumulator accumulator = stages.get(stage);
+        if (accumulator == null) {
+            accumulator = new StageAccumulator();
+            stages.put(stage, accumulator);
+            stageOrder.add(stage);
+        }
+
+        accumulator.invocations++;
+        accumulator.durationNanos += durationNanos;
+        accumulator.bytesIn += bytesIn;
+        accumulator.bytesOut += bytesOut;
+        accumulator.elements += elements;
+        accumulator.allocatedBytes = allocatedBytes < 0 || accumulator.allocatedBytes < 0 ? -1 : accumulator.allocatedBytes + allocatedBytes;
+    }
+
+    private static long allocatedBytes() {
+        if (THREAD_MX_BEAN == null) {
+            return -1;
+        }
+
+        return THREAD_MX_BEAN.getThreadAllocatedBytes(Thread.currentThread()
+                                                            .getId());
+    }
+
+    private static com.sun.management.ThreadMXBean threadMXBean() {
+        try {
+            final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+            if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+                final com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) threadMXBean;
+                if (bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled()) {
+                    return bean;
+                }
+            }
+        }
+        catch (Throwable e) {
+            log.debug("thread allocated memory is not supported", e);
+        }
+
+        return null;
+    }
+
+    /**
+     * 阶段计时
+     */
+    static final class Span {
+        private final MetricsRecorder recorder;
+
+        private final DocStage stage;
+
+        private final long startNanos;
+
+        private final long startAllocatedBytes;
+
+        private Span(MetricsRecorder recorder, DocStage stage, long startNanos, long startAllocatedBytes) {
+            this.recorder = recorder;
+            this.stage = stage;
+            this.startNanos = startNanos;
+            this.startAllocatedBytes = startAllocatedBytes;
+        }
+
+        void end() {
+            this.end(0, 0, 0);
+        }
+
+        void end(long bytesIn, long bytesOut, long elements) {
+            if (recorder == null) {
+                return;
+            }
+
+            final long durationNanos = System.nanoTime() - startNanos;
+            final long allocated = startAllocatedBytes < 0 ? -1 : allocatedBytes() - startAllocatedBytes;
+            recorder.record(stage, durationNanos, bytesIn, bytesOut, elements, allocated);
+        }
+    }
+
+    private static final class StageAccumulator {
+        private int invocations;
+
+        private long durationNanos;
+
+        private long bytesIn;
+
+        private long bytesOut;
+
+        private long elements;
+
+        private long allocatedBytes;
+
+        private StageMetrics toMetrics(DocStage stage) {
+            return new StageMetrics(stage, invocations, durationNanos, bytesIn, bytesOut, elements, allocatedBytes);
+        }
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        private CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package md2docx;
+
+import org.docx4j.openpackaging.exceptions.Docx4JException;
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 输出文档的 zip 压缩配置
+ * <p>
+ * 预置 {@link #STORE}(不压缩)、{@link #FAST}、{@link #DEFAULT}、{@link #MAX} 四种级别,
+ * 可以按 part 的内容类型单独指定级别, 如已压缩过的图片直接存储:
+ * <pre>
+ * OutputCompression.builder(OutputCompression.Level.MAX)
+ *                  .storeCompressedMedia()
+ *                  .build();
+ * </pre>
+ * 从模板复制的未修改 part 在满足级别要求时直接复制压缩数据, 见 {@link Level#acceptsRaw(boolean)}。
+ *
+ * @author ludangxin
+ * @since 2026/10/17
+ */
+public final class OutputCompression {
+    /**
+     * 所有 part 不压缩: 保存最快, 文件最大, 适合立即被其他服务再处理的场景
+     */
+    public static final OutputCompression STORE = new OutputCompression(Level.STORE, Collections.emptyMap());
+
+    /**
+     * 最快的 deflate 压缩, 适合内部归档
+     */
+    public static final OutputCompression FAST = new OutputCompression(Level.FAST, Collections.emptyMap());
+
+    /**
+     * 与 docx4j 一致的默认压缩
+     */
+    public static final OutputCompression DEFAULT = new OutputCompression(Level.DEFAULT, Collections.emptyMap());
+
+    /**
+     * 最高压缩率, 适合邮件发送等对大小敏感的场景
+     */
+    public static final OutputCompression MAX = new OutputCompression(Level.MAX, Collections.emptyMap());
+
+    /**
+     * 本身已压缩的媒体类型, 再次 deflate 几乎不会变小
+     */
+    private static final String[] COMPRESSED_MEDIA_TYPES = {"image/jpeg", "image/png", "image/gif", "image/webp", "audio/*", "video/*"};
+
+    private final Level level;
+
+    /**
+     * 按内容类型指定的级别 <内容类型, 级别>, 内容类型支持 "image/*" 形式的通配
+     */
+    private final Map<String, Level> contentTypeLevels;
+
+    private OutputCompression(Level level, Map<String, Level> contentTypeLevels) {
+        this.level = level;
+        this.contentTypeLevels = contentTypeLevels;
+    }
+
+    public static Builder builder(Level level) {
+        return new Builder(level);
+    }
+
+    public Level getLevel() {
+        return level;
+    }
+
+    /**
+     * 按当前配置保存 docx4j 文档, 用于不经过 {@link Docs.DocBuilder} 创建的文档; 与 docx4j 一致, 保存结束时关闭输出流
+     *
+     * @param wordMLPackage 文档
+     * @param outputStream  输出流
+     */
+    public void save(WordprocessingMLPackage wordMLPackage, OutputStream outputStream) throws Docx4JException {
+        CompressingZipPartStore.save(wordMLPackage, outputStream, this);
+    }
+
+    /**
+     * 获取指定内容类型的 part 使用的级别
+     *
+     * @param contentType part 的内容类型, 为 null 时返回默认级别
+     * @return 级别
+     */
+    public Level levelOf(String contentType) {
+        final Level override = this.overrideOf(contentType);
+        return override == null ? level : override;
+    }
+
+    /**
+     * 为内容类型单独指定的级别, 没有指定时返回 null
+     */
+    Level overrideOf(String contentType) {
+        if (contentType == null || contentTypeLevels.isEmpty()) {
+            return null;
+        }
+
+        final Level result = contentTypeLevels.get(contentType);
+        final int slash = contentType.indexOf('/');
+        if (result == null && slash > 0) {
+            return contentTypeLevels.get(contentType.substring(0, slash) + "/*");
+        }
+        return result;
+    }
+
+    /**
+     * 压缩级别
+     */
+    public enum Level {
+        /**
+         * 不压缩(zip STORED)
+         */
+        STORE(0),
+
+        /**
+         * deflate 级别 1
+         */
+        FAST(1),
+
+        /**
+         * deflate 默认级别(6)
+         */
+        DEFAULT(-1),
+
+        /**
+         * deflate 级别 9
+         */
+        MAX(9);
+
+        private final int deflateLevel;
+
+        Level(int deflateLevel) {
+            this.deflateLevel = deflateLevel;
+        }
+
+        /**
+         * {@link java.util.zip.Deflater} 的压缩级别, 大小未知无法直接存储的条目以级别 0 deflate 代替 STORE
+         */
+        public int getDeflateLevel() {
+            return deflateLevel;
+        }
+
+        /**
+         * 模板中已有的压缩数据是否可以原样复制
+         * <p>
+         * STORE 只接受模板中同样未压缩的条目; FAST 和 DEFAULT 直接复制比重新压缩更快; MAX 总是重新压缩。
+         *
+         * @param stored 模板中的条目是否未压缩
+         */
+        public boolean acceptsRaw(boolean stored) {
+            switch (this) {
+                case STORE:
+                    return stored;
+                case MAX:
+                    return false;
+                default:
+                    return true;
+            }
+        }
+    }
+
+    public static class Builder {
+        private final Level level;
+
+        private final Map<String, Level> contentTypeLevels = new HashMap<>();
+
+        private Builder(Level level) {
+            if (level == null) {
+                throw new NullPointerException("compression level can not be null");
+            }
+            this.level = level;
+        }
+
+        /**
+         * 为指定内容类型的 part 单独指定级别
+         *
+         * @param contentType 内容类型, 如 "image/jpeg", 支持 "image/*" 形式的通配
+         * @param level       级别
+         */
+        public Builder contentType(String contentType, Level level) {
+            if (contentType == null || level == null) {
+                throw new NullPointerException("content type and compression level can not be null");
+            }
+            contentTypeLevels.put(contentType, level);
+            return this;
+        }
+
+        /**
+         * jpeg、png、gif、webp 图片和音视频直接存储, 不再压缩
+         */
+        public Builder storeCompressedMedia() {
+            for (String contentType : COMPRESSED_MEDIA_TYPES) {
+                contentTypeLevels.put(contentType, Level.STORE);
+            }
+            return this;
+        }
+
+        public OutputCompression build() {
+            return new OutputCompression(level, contentTypeLevels.isEmpty() ? Collections.emptyMap() : Collections.unmodifiableMap(new HashMap<>(contentTypeLevels)));
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package md2docx;
+
+import org.docx4j.XmlUtils;
+import org.docx4j.wml.P;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * 模板正文占位符索引
+ * <p>
+ * 一次扫描正文, 记录独占一个段落的占位符(如 "{{description}}")及其在正文中的位置,
+ * 替换时只需按占位符查找数据, 不再对每个段落逐个匹配数据中的所有 key。
+ *
+ * @author ludangxin
+ * @since 2026/10/17
+ */
+public final class PlaceHolderIndex {
+    private final int contentSize;
+
+    private final Pattern pattern;
+
+    /**
+     * 按正文顺序排列的占位符位置
+     */
+    private final List<Entry> entries;
+
+    private PlaceHolderIndex(int contentSize, Pattern pattern, List<Entry> entries) {
+        this.contentSize = contentSize;
+        this.pattern = pattern;
+        this.entries = entries;
+    }
+
+    /**
+     * 扫描正文内容
+     *
+     * @param content 正文内容
+     * @param pre     占位符前缀（如"{{"）
+     * @param suf     占位符后缀（如"}}"）
+     * @return 占位符索引
+     */
+    public static PlaceHolderIndex scan(List<Object> content, String pre, String suf) {
+        final Pattern pattern = DocUtils.placeHolderPattern(pre, suf);
+        final List<Entry> entries = new ArrayList<>();
+
+        for (int i = 0; i < content.size(); i++) {
+            // 只有段落可能是独占一行的占位符
+            Object o = XmlUtils.unwrap(content.get(i));
+            if (!(o instanceof P)) {
+                continue;
+            }
+
+            String key = DocUtils.extractPlaceHolderKey(DocUtils.extractText(o), pattern);
+            if (key != null) {
+                entries.add(new Entry(i, key));
+            }
+        }
+
+        return new PlaceHolderIndex(content.size(), pattern, Collections.unmodifiableList(entries));
+    }
+
+    /**
+     * 索引是否适用于当前正文(正文被修改过后索引失效): 正文段落数相同, 且索引中的每个位置仍是同名的占位符
+     */
+    public boolean isValidFor(List<Object> content) {
+        if (content.size() != contentSize) {
+            return false;
+        }
+
+        for (Entry entry : entries) {
+            final Object o = XmlUtils.unwrap(content.get(entry.getPosition()));
+            if (!(o instanceof P) || !entry.getKey()
+                                           .equals(DocUtils.extractPlaceHolderKey(DocUtils.extractText(o), pattern))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    public Set<String> getKeys() {
+        Set<String> keys = new LinkedHashSet<>();
+        for (Entry entry : entries) {
+            keys.add(entry.getKey());
+        }
+        return keys;
+    }
+
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    public static final class Entry {
+        private final int position;
+
+        private final String key;
+
+        private Entry(int position, String key) {
+            this.position = position;
+            this.key = key;
+        }
+
+        public int getPosition() {
+            return position;
+        }
+
+        public String getKey() {
+            return key;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package md2docx;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单个阶段的指标
+ *
+ * @author ludangxin
+ * @since 2026/10/17
+ */
+public final class StageMetrics {
+    private final DocStage stage;
+
+    private final int invocations;
+
+    private final long durationNanos;
+
+    private final long bytesIn;
+
+    private final long bytesOut;
+
+    private final long elements;
+
+    private final long allocatedBytes;
+
+    StageMetrics(DocStage stage, int invocations, long durationNanos, long bytesIn, long bytesOut, long elements, long allocatedBytes) {
+        this.stage = stage;
+        this.invocations = invocations;
+        this.durationNanos = durationNanos;
+        this.bytesIn = bytesIn;
+        this.bytesOut = bytesOut;
+        this.elements = elements;
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    public DocStage getStage() {
+        return stage;
+    }
+
+    /**
+     * 本次转换中该阶段执行的次数(如多个 html 占位符各导入一次)
+     */
+    public int getInvocations() {
+        return invocations;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    public long getDurationMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(durationNanos);
+    }
+
+    /**
+     * 输入大小, 文本按字符数计算
+     */
+    public long getBytesIn() {
+        return bytesIn;
+    }
+
+    /**
+     * 输出大小, 文本按字符数计算
+     */
+    public long getBytesOut() {
+        return bytesOut;
+    }
+
+    /**
+     * 产生或处理的元素数量(段落/表格、占位符等)
+     */
+    public long getElements() {
+        return elements;
+    }
+
+    /**
+     * 当前线程分配的内存, JVM 不支持时为 -1
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    @Override
+    public String toString() {
+        return stage + "{invocations=" + invocations + ", durationNanos=" + durationNanos + ", bytesIn=" + bytesIn + ", bytesOut=" + bytesOut + ", elements=" + elements + ", allocatedBytes=" + allocatedBytes + '}';
+    }
+}
@@ -0,0 +1,254 @@
+package md2docx;
+
+import lombok.extern.slf4j.Slf4j;
+import org.docx4j.jaxb.Context;
+import org.docx4j.jaxb.NamespacePrefixMapperUtils;
+import org.docx4j.openpackaging.exceptions.Docx4JException;
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.docx4j.openpackaging.parts.Part;
+import org.docx4j.openpackaging.parts.WordprocessingML.MainDocumentPart;
+import org.docx4j.wml.ObjectFactory;
+import org.docx4j.wml.P;
+import org.docx4j.wml.R;
+import org.docx4j.wml.Text;
+
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * 正文流式写出
+ * <p>
+ * {@code wordMLPackage.save} 需要完整的正文对象树, 再一次性序列化。流式写出时先写 word/document.xml:
+ * 文档中已有的正文写出后, 转换结果逐段序列化并直接写入 zip, 写出后即可丢弃;
+ * 样式、编号、关系、图片等部件在转换过程中才会补全, 因此在正文之后按 docx4j 的保存结果写出。
+ * <p>
+ * 使用方式: 创建后多次调用 {@link #write(List)}, 最后调用 {@link #finish()}; 不会关闭输出流。
+ *
+ * @author ludangxin
+ * @since 2026/10/17
+ */
+@Slf4j
+final class StreamingDocumentWriter {
+    private static final String DOCUMENT_ENTRY = "word/document.xml";
+
+    private static final Pattern XMLNS = Pattern.compile("\\sxmlns:(\\w+)=\"([^\"]*)\"");
+
+    private static final ObjectFactory FACTORY = Context.getWmlObjectFactory();
+
+    private final WordprocessingMLPackage wordMLPackage;
+
+    private final ZipOutputStream zipOutputStream;
+
+    private final OutputCompression compression;
+
+    private final Writer writer;
+
+    private final Marshaller marshaller;
+
+    /**
+     * 正文根节点已声明的命名空间 <前缀, uri>, 片段中相同的声明不再重复写出
+     */
+    private final Map<String, String> declaredNamespaces = new HashMap<>();
+
+    private final StringWriter fragment = new StringWriter(1024);
+
+    /**
+     * 正文之后的内容: sectPr 与结束标签
+     */
+    private final String tail;
+
+    private int elements;
+
+    /**
+     * 写出 word/document.xml 的开头和文档中已有的正文
+     *
+     * @param wordMLPackage 目标文档
+     * @param outputStream  输出流
+     * @param compression   压缩配置, 正文大小未知, STORE 以级别 0 的 deflate 代替
+     */
+    StreamingDocumentWriter(WordprocessingMLPackage wordMLPackage, OutputStream outputStream, OutputCompression compression) throws JAXBException, IOException {
+        this.wordMLPackage = wordMLPackage;
+        this.zipOutputStream = new ZipOutputStream(outputStream);
+        this.compression = compression;
+        this.marshaller = Context.jc.createMarshaller();
+        NamespacePrefixMapperUtils.setProperty(marshaller, NamespacePrefixMapperUtils.getPrefixMapper());
+        marshaller.setProperty(Marshaller.JAXB_FRAGMENT, true);
+
+        // 在正文末尾放一个标记段落, 按标记把 docx4j 的序列化结果切成正文前后两部分
+        final String token = "md2docx-body-" + UUID.randomUUID();
+        final String xml = this.marshalMainDocument(token);
+        final int tokenIndex = xml.indexOf(token);
+        final String head = xml.substring(0, xml.lastIndexOf("<w:p", tokenIndex));
+        this.tail = xml.substring(xml.indexOf("</w:p>", tokenIndex) + "</w:p>".length());
+
+        final int rootStart = head.indexOf("<w:document");
+        final Matcher matcher = XMLNS.matcher(head.substring(rootStart, head.indexOf('>', rootStart)));
+        while (matcher.find()) {
+            declaredNamespaces.put(matcher.group(1), matcher.group(2));
+        }
+
+        zipOutputStream.setLevel(compression.levelOf(wordMLPackage.getMainDocumentPart()
+                                                                  .getContentType())
+                                            .getDeflateLevel());
+        zipOutputStream.putNextEntry(new ZipEntry(DOCUMENT_ENTRY));
+        this.writer = new BufferedWriter(new OutputStreamWriter(zipOutputStream, StandardCharsets.UTF_8), 16 * 1024);
+        writer.write(head);
+    }
+
+    private String marshalMainDocument(String token) throws JAXBException {
+        final Text text = FACTORY.createText();
+        text.setValue(token);
+        final R r = FACTORY.createR();
+        r.getContent()
+         .add(text);
+        final P marker = FACTORY.createP();
+        marker.getContent()
+              .add(r);
+
+        final MainDocumentPart mainDocumentPart = wordMLPackage.getMainDocumentPart();
+        final List<Object> content = mainDocumentPart.getContent();
+        content.add(marker);
+        try {
+            final DocUtils.ByteArrayBuffer buffer = new DocUtils.ByteArrayBuffer();
+            mainDocumentPart.marshal(buffer);
+            return new String(buffer.toByteArray(), StandardCharsets.UTF_8);
+        }
+        finally {
+            content.remove(content.size() - 1);
+        }
+    }
+
+    /**
+     * 序列化并写出一段正文内容(段落、表格等), 写出后调用方不需要再持有这些对象
+     */
+    void write(List<Object> content) throws JAXBException, IOException {
+        for (Object o : content) {
+            fragment.getBuffer()
+                    .setLength(0);
+            marshaller.marshal(o, fragment);
+            this.writeFragment(fragment.getBuffer());
+            elements++;
+        }
+    }
+
+    /**
+     * 去掉片段根节点上与正文根节点重复的命名空间声明
+     */
+    private void writeFragment(StringBuffer xml) throws IOException {
+        int start = xml.indexOf("<");
+        if (start >= 0 && xml.charAt(start + 1) == '?') {
+            // 部分 JAXB 实现在片段模式下仍会输出 xml 声明
+            start = xml.indexOf("<", start + 1);
+        }
+        final int end = xml.indexOf(">", start);
+        if (start < 0 || end < 0) {
+            writer.append(xml);
+            return;
+        }
+
+        final String rootTag = xml.substring(start, end);
+        final Matcher matcher = XMLNS.matcher(rootTag);
+        int last = 0;
+        while (matcher.find()) {
+            if (matcher.group(2)
+                       .equals(declaredNamespaces.get(matcher.group(1)))) {
+                writer.write(rootTag, last, matcher.start() - last);
+                last = matcher.end();
+            }
+        }
+        writer.write(rootTag, last, rootTag.length() - last);
+        writer.append(xml, end, xml.length());
+    }
+
+    /**
+     * 写出正文结尾和其余部件, 结束 zip 但不关闭输出流
+     *
+     * @return 流式写出的正文元素数量
+     */
+    int finish() throws Docx4JException, IOException {
+        writer.write(tail);
+        writer.flush();
+        zipOutputStream.closeEntry();
+
+        // 其余部件按 docx4j 的保存结果写出, 其中的 document.xml 只有空正文, 直接跳过; 中间结果不压缩
+        final DocUtils.ByteArrayBuffer buffer = new DocUtils.ByteArrayBuffer();
+        final List<Object> content = wordMLPackage.getMainDocumentPart()
+                                                  .getContent();
+        final List<Object> existingContent = new ArrayList<>(content);
+        content.clear();
+        try {
+            CompressingZipPartStore.save(wordMLPackage, buffer, OutputCompression.STORE);
+        }
+        finally {
+            content.addAll(existingContent);
+        }
+
+        final Map<String, OutputCompression.Level> levels = new HashMap<>();
+        for (Part part : wordMLPackage.getParts()
+                                      .getParts()
+                                      .values()) {
+            levels.put(part.getPartName()
+                           .getName()
+                           .substring(1), CompressingZipPartStore.levelOf(compression, part));
+        }
+
+        try (ZipInputStream zipInputStream = new ZipInputStream(buffer.toInputStream())) {
+            final byte[] bytes = new byte[8192];
+            ZipEntry entry;
+            while ((entry = zipInputStream.getNextEntry()) != null) {
+                if (DOCUMENT_ENTRY.equals(entry.getName())) {
+                    continue;
+                }
+
+                zipOutputStream.putNextEntry(this.newEntry(entry, levels));
+                int read;
+                while ((read = zipInputStream.read(bytes)) > 0) {
+                    zipOutputStream.write(bytes, 0, read);
+                }
+                zipOutputStream.closeEntry();
+            }
+        }
+
+        zipOutputStream.finish();
+        zipOutputStream.flush();
+        log.debug("streamed {} body elements", elements);
+        return elements;
+    }
+
+    /**
+     * 中间结果中的条目都未压缩, 大小和 crc 已知, 按级别直接存储或重新压缩
+     *
+     * @param levels <条目名, 压缩级别>, 不在其中的条目(如 [Content_Types].xml)使用默认级别
+     */
+    private ZipEntry newEntry(ZipEntry source, Map<String, OutputCompression.Level> levels) {
+        final ZipEntry entry = new ZipEntry(source.getName());
+        final OutputCompression.Level level = levels.getOrDefault(source.getName(), compression.getLevel());
+        if (level == OutputCompression.Level.STORE && source.getMethod() == ZipEntry.STORED) {
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(source.getSize());
+            entry.setCompressedSize(source.getSize());
+            entry.setCrc(source.getCrc());
+        }
+        else {
+            zipOutputStream.setLevel(level.getDeflateLevel());
+        }
+        return entry;
+    }
+}
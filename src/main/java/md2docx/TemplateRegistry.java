@@ -0,0 +1,160 @@
+package md2docx;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 模板缓存
+ * <p>
+ * 以文件绝对路径为 key 缓存 {@link CompiledTemplate}, 超出模板数量或内存预算时淘汰最久未使用的模板,
+ * 模板文件的修改时间或大小发生变化时自动重新编译, 也可以通过 {@link #invalidate(File)}、{@link #invalidateAll()} 主动失效。
+ * <p>
+ * 每个模板常驻原始内容和解压后的全部 part, 内存预算按 {@link CompiledTemplate#retainedSize()} 计算;
+ * 单个模板超过预算时照常编译返回, 但不缓存。
+ *
+ * @author ludangxin
+ * @since 2026/10/17
+ */
+@Slf4j
+public class TemplateRegistry {
+    /**
+     * 默认缓存最多 64 个模板, 共 256MB
+     */
+    private static final TemplateRegistry DEFAULT = new TemplateRegistry(64, 256L * 1024 * 1024);
+
+    private final int maxSize;
+
+    private final long maxBytes;
+
+    /**
+     * 访问顺序的 map, 迭代时最久未使用的在前
+     */
+    private final Map<String, CompiledTemplate> templates = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * 已缓存模板的 {@link CompiledTemplate#retainedSize()} 之和
+     */
+    private long bytes;
+
+    /**
+     * 只限制模板数量, 不限制内存
+     */
+    public TemplateRegistry(int maxSize) {
+        this(maxSize, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param maxSize  最多缓存的模板数量
+     * @param maxBytes 缓存模板的内存预算(字节), 见 {@link CompiledTemplate#retainedSize()}
+     */
+    public TemplateRegistry(int maxSize, long maxBytes) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be greater than 0");
+        }
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes must be greater than 0");
+        }
+        this.maxSize = maxSize;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * 默认的全局模板缓存, {@link Docs#builder(File)} 等方法使用
+     */
+    public static TemplateRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    public CompiledTemplate get(String filePath) {
+        return this.get(new File(filePath));
+    }
+
+    public CompiledTemplate get(File file) {
+        final String key = file.getAbsolutePath();
+
+        synchronized (templates) {
+            final CompiledTemplate cached = templates.get(key);
+            if (cached != null && !cached.isModified(file)) {
+                return cached;
+            }
+        }
+
+        // 编译放在锁外, 避免大模板阻塞其他模板的读取
+        final CompiledTemplate compiled = CompiledTemplate.compile(file);
+        log.debug("compiled word template: {}", key);
+
+        if (compiled.retainedSize() > maxBytes) {
+            log.warn("word template {} needs {} bytes, more than the registry budget {}, not cached", key, compiled.retainedSize(), maxBytes);
+            this.invalidate(file);
+            return compiled;
+        }
+
+        synchronized (templates) {
+            this.remove(key);
+            templates.put(key, compiled);
+            bytes += compiled.retainedSize();
+            this.evict();
+        }
+
+        return compiled;
+    }
+
+    public void invalidate(File file) {
+        synchronized (templates) {
+            this.remove(file.getAbsolutePath());
+        }
+    }
+
+    public void invalidate(String filePath) {
+        this.invalidate(new File(filePath));
+    }
+
+    public void invalidateAll() {
+        synchronized (templates) {
+            templates.clear();
+            bytes = 0;
+        }
+    }
+
+    public int size() {
+        synchronized (templates) {
+            return templates.size();
+        }
+    }
+
+    /**
+     * 已缓存模板估算的常驻内存大小(字节)
+     */
+    public long bytes() {
+        synchronized (templates) {
+            return bytes;
+        }
+    }
+
+    /**
+     * 调用方持有 templates 锁
+     */
+    private void remove(String key) {
+        final CompiledTemplate removed = templates.remove(key);
+        if (removed != null) {
+            bytes -= removed.retainedSize();
+        }
+    }
+
+    /**
+     * 超出数量或内存预算时淘汰最久未使用的模板, 调用方持有 templates 锁
+     */
+    private void evict() {
+        final Iterator<CompiledTemplate> iterator = templates.values()
+                                                             .iterator();
+        while ((templates.size() > maxSize || bytes > maxBytes) && iterator.hasNext()) {
+            bytes -= iterator.next()
+                             .retainedSize();
+            iterator.remove();
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package md2docx;
+
+import org.docx4j.TraversalUtil;
+import org.docx4j.XmlUtils;
+import org.docx4j.finders.ClassFinder;
+import org.docx4j.jaxb.Context;
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.docx4j.openpackaging.parts.Part;
+import org.docx4j.openpackaging.parts.WordprocessingML.FooterPart;
+import org.docx4j.openpackaging.parts.WordprocessingML.HeaderPart;
+import org.docx4j.wml.ContentAccessor;
+import org.docx4j.wml.P;
+import org.docx4j.wml.R;
+import org.docx4j.wml.Text;
+
+import javax.xml.bind.JAXBElement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 普通文本占位符渲染
+ * <p>
+ * 直接在 docx4j 文档树中替换正文、页眉、页脚中的文本占位符, 支持占位符被拆分到多个 run 中的情况,
+ * 用于普通/html 混合数据的渲染, 避免再交给 poi-tl 重新解析一遍文档。
+ * poi-tl 的区块、图片、表格等特殊标签以及非文本数据不在支持范围内, 此时需回退到 poi-tl 渲染。
+ *
+ * @author ludangxin
+ * @since 2026/10/17
+ */
+public final class TextPlaceHolderRenderer {
+    /**
+     * poi-tl 特殊标签的前缀字符(区块、图片、表格、列表、嵌套等)
+     */
+    static final String POI_TL_TAG_SYMBOLS = "#@*?/+>=^";
+
+    /**
+     * poi-tl 默认的标签名语法({@code Configure.DEFAULT_GRAMER_REGEX}): 字母、数字、下划线和汉字, 点号分隔对象属性
+     */
+    static final String POI_TL_TAG_NAME_REGEX = "[\\w\\u4e00-\\u9fa5]+(?:\\.[\\w\\u4e00-\\u9fa5]+)*";
+
+    private static final ConcurrentMap<String, Pattern> TAG_PATTERNS = new ConcurrentHashMap<>();
+
+    private final List<ParagraphMatch> matches;
+
+    private final boolean templateSupported;
+
+    private TextPlaceHolderRenderer(List<ParagraphMatch> matches, boolean templateSupported) {
+        this.matches = matches;
+        this.templateSupported = templateSupported;
+    }
+
+    /**
+     * 扫描文档中的文本占位符
+     *
+     * @param wordMLPackage 文档
+     * @param pre           占位符前缀（如"{{"）
+     * @param suf           占位符后缀（如"}}"）
+     * @return 渲染器
+     */
+    public static TextPlaceHolderRenderer scan(WordprocessingMLPackage wordMLPackage, String pre, String suf) {
+        final Pattern pattern = tagPattern(pre, suf);
+        final List<ParagraphMatch> matches = new ArrayList<>();
+
+        scan(wordMLPackage.getMainDocumentPart()
+                          .getContent(), pattern, matches);
+
+        for (Part part : wordMLPackage.getParts()
+                                      .getParts()
+                                      .values()) {
+            if (part instanceof HeaderPart || part instanceof FooterPart) {
+                scan(((ContentAccessor) part).getContent(), pattern, matches);
+            }
+        }
+
+        boolean templateSupported = true;
+        for (ParagraphMatch match : matches) {
+            for (TagMatch tag : match.tags) {
+                if (tag.key.isEmpty() || POI_TL_TAG_SYMBOLS.indexOf(tag.key.charAt(0)) >= 0) {
+                    templateSupported = false;
+                }
+            }
+        }
+
+        return new TextPlaceHolderRenderer(matches, templateSupported);
+    }
+
+    /**
+     * poi-tl 标签的正则, 与 poi-tl 一致: 前缀 + 可选的特殊标签符号 + 标签名 + 后缀, 第1组为去掉前后缀的标签内容。
+     * 不符合语法的文本(如 "{{a-b}}"、"{{foo bar}}")不是标签, poi-tl 原样保留, 这里同样不匹配
+     *
+     * @param pre 占位符前缀（如"{{"）
+     * @param suf 占位符后缀（如"}}"）
+     */
+    static Pattern tagPattern(String pre, String suf) {
+        return TAG_PATTERNS.computeIfAbsent(pre + '\0' + suf, key -> {
+            final StringBuilder symbols = new StringBuilder();
+            for (char symbol : POI_TL_TAG_SYMBOLS.toCharArray()) {
+                symbols.append('\\')
+                       .append(symbol);
+            }
+            return Pattern.compile(Pattern.quote(pre) + "([" + symbols + "]?(?:" + POI_TL_TAG_NAME_REGEX + ")?)" + Pattern.quote(suf));
+        });
+    }
+
+    /**
+     * 是否能够处理当前模板和数据, 不支持时需要交给 poi-tl 渲染
+     *
+     * @param placeHolderData 占位符数据
+     * @return true: 支持
+     */
+    public boolean supports(Map<String, Object> placeHolderData) {
+        if (!templateSupported) {
+            return false;
+        }
+
+        for (Object value : placeHolderData.values()) {
+            if (!isTextValue(value)) {
+                return false;
+            }
+        }
+
+        // 点号分隔的 key 在 poi-tl 中按对象属性求值(数据中同名的 key 不参与), 交给 poi-tl 处理
+        for (ParagraphMatch match : matches) {
+            for (TagMatch tag : match.tags) {
+                if (tag.key.indexOf('.') >= 0) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * 替换文本占位符, 与 poi-tl 保持一致: 数据中不存在的占位符替换为空字符串, 换行符转为换行
+     *
+     * @param placeHolderData 占位符数据
+     */
+    public void render(Map<String, Object> placeHolderData) {
+        for (ParagraphMatch match : matches) {
+            // 从后往前替换, 保证前面占位符的偏移量不受影响
+            for (int i = match.tags.size() - 1; i >= 0; i--) {
+                final TagMatch tag = match.tags.get(i);
+                final Object value = placeHolderData.get(tag.key);
+                this.replace(match.texts, tag, value == null ? "" : String.valueOf(value));
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return matches.isEmpty();
+    }
+
+    private void replace(List<TextSlot> texts, TagMatch tag, String replacement) {
+        final TextSlot first = texts.get(tag.firstText);
+        final TextSlot last = texts.get(tag.lastText);
+        final String firstValue = first.value();
+        final String suffix = last.value()
+                                  .substring(tag.end - last.offset);
+        final String prefix = firstValue.substring(0, tag.start - first.offset);
+
+        for (int i = tag.firstText + 1; i <= tag.lastText; i++) {
+            texts.get(i).text.setValue("");
+        }
+
+        if (tag.firstText != tag.lastText) {
+            last.text.setValue(suffix);
+            last.text.setSpace("preserve");
+        }
+
+        final String[] lines = replacement.split("\r?\n", -1);
+        final String tail = tag.firstText == tag.lastText ? suffix : "";
+        first.text.setValue(prefix + lines[0] + (lines.length == 1 ? tail : ""));
+        first.text.setSpace("preserve");
+
+        if (lines.length > 1) {
+            // 多行文本: 在同一个 run 中插入换行
+            final List<Object> runContent = first.run.getContent();
+            int index = this.indexOf(runContent, first.text) + 1;
+            for (int i = 1; i < lines.length; i++) {
+                runContent.add(index++, Context.getWmlObjectFactory()
+                                               .createBr());
+                final Text text = Context.getWmlObjectFactory()
+                                         .createText();
+                text.setValue(i == lines.length - 1 ? lines[i] + tail : lines[i]);
+                text.setSpace("preserve");
+                runContent.add(index++, Context.getWmlObjectFactory()
+                                               .createRT(text));
+            }
+        }
+    }
+
+    private int indexOf(List<Object> runContent, Text text) {
+        for (int i = 0; i < runContent.size(); i++) {
+            if (XmlUtils.unwrap(runContent.get(i)) == text) {
+                return i;
+            }
+        }
+        return runContent.size() - 1;
+    }
+
+    private static void scan(List<Object> content, Pattern pattern, List<ParagraphMatch> matches) {
+        final ClassFinder finder = new ClassFinder(P.class);
+        new TraversalUtil(content, finder);
+
+        for (Object o : finder.results) {
+            final List<TextSlot> texts = new ArrayList<>();
+            collectTexts(((P) o).getContent(), texts);
+
+            final StringBuilder sb = new StringBuilder();
+            for (TextSlot slot : texts) {
+                slot.offset = sb.length();
+                sb.append(slot.value());
+            }
+
+            final Matcher matcher = pattern.matcher(sb);
+            final List<TagMatch> tags = new ArrayList<>();
+            while (matcher.find()) {
+                tags.add(new TagMatch(matcher.group(1), matcher.start(), matcher.end(), texts));
+            }
+
+            if (!tags.isEmpty()) {
+                matches.add(new ParagraphMatch(texts, tags));
+            }
+        }
+    }
+
+    private static void collectTexts(List<Object> content, List<TextSlot> texts) {
+        for (Object o : content) {
+            Object unwrapped = XmlUtils.unwrap(o);
+
+            if (unwrapped instanceof R) {
+                R run = (R) unwrapped;
+                for (Object runObj : run.getContent()) {
+                    // 只处理 w:t, 跳过 w:instrText、w:delText 等同类型节点
+                    if (runObj instanceof JAXBElement && !"t".equals(((JAXBElement<?>) runObj).getName()
+                                                                                              .getLocalPart())) {
+                        continue;
+                    }
+                    Object inner = XmlUtils.unwrap(runObj);
+                    if (inner instanceof Text) {
+                        texts.add(new TextSlot(run, (Text) inner));
+                    }
+                }
+            }
+            else if (unwrapped instanceof ContentAccessor && !(unwrapped instanceof P)) {
+                // 超链接、智能标签等 run 的容器
+                collectTexts(((ContentAccessor) unwrapped).getContent(), texts);
+            }
+        }
+    }
+
+    static boolean isTextValue(Object value) {
+        return value == null || value instanceof CharSequence || value instanceof Number || value instanceof Boolean || value instanceof Character;
+    }
+
+    private static final class ParagraphMatch {
+        private final List<TextSlot> texts;
+
+        private final List<TagMatch> tags;
+
+        private ParagraphMatch(List<TextSlot> texts, List<TagMatch> tags) {
+            this.texts = texts;
+            this.tags = tags;
+        }
+    }
+
+    private static final class TextSlot {
+        private final R run;
+
+        private final Text text;
+
+        private int offset;
+
+        private TextSlot(R run, Text text) {
+            this.run = run;
+            this.text = text;
+        }
+
+        private String value() {
+            return text.getValue() == null ? "" : text.getValue();
+        }
+    }
+
+    private static final class TagMatch {
+        private final String key;
+
+        private final int start;
+
+        private final int end;
+
+        private final int firstText;
+
+        private final int lastText;
+
+        private TagMatch(String key, int start, int end, List<TextSlot> texts) {
+            this.key = key;
+            this.start = start;
+            this.end = end;
+            this.firstText = indexOfText(texts, start);
+            this.lastText = indexOfText(texts, end - 1);
+        }
+
+        private static int indexOfText(List<TextSlot> texts, int position) {
+            for (int i = texts.size() - 1; i >= 0; i--) {
+                // 跳过空文本, 保证位置落在有内容的文本节点上
+                if (texts.get(i).offset <= position && position < texts.get(i).offset + texts.get(i)
+                                                                                               .value()
+                                                                                               .length()) {
+                    return i;
+                }
+            }
+            return 0;
+        }
+    }
+}
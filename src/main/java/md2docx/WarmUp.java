@@ -0,0 +1,133 @@
+package md2docx;
+
+import com.deepoove.poi.config.Configure;
+import lombok.extern.slf4j.Slf4j;
+import org.docx4j.convert.in.xhtml.XHTMLImporterImpl;
+import org.docx4j.jaxb.Context;
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.docx4j.openpackaging.parts.WordprocessingML.MainDocumentPart;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 启动预热与 AppCDS 训练入口
+ * <p>
+ * 新 JVM 中的第一次转换需要初始化 docx4j 的 JAXB 上下文、扫描本机字体(PhysicalFonts)、
+ * 解析 openhtmltopdf 的默认 css 以及加载 poi/poi-tl 的大量类, 耗时可达数秒。
+ * {@link Docs#warmUp()} 在启动时完成这些初始化: 依次执行 markdown 直接转换、html 导入(含表格和图片)、
+ * 普通占位符和 html 占位符的模板渲染(直接替换与 poi-tl 两条路径)以及文档保存, 结果全部丢弃, 不写入任何全局缓存。
+ * <p>
+ * {@link #main(String[])} 执行同样的转换后退出, 用于生成类数据共享(AppCDS)归档, 需要 JDK 13+:
+ * <pre>
+ * # 训练: 记录转换过程中加载的类
+ * java -XX:ArchiveClassesAtExit=md2docx.jsa -cp app.jar md2docx.WarmUp [markdown 文件...]
+ * # 使用归档启动
+ * java -XX:SharedArchiveFile=md2docx.jsa -cp app.jar ...
+ * </pre>
+ * 参数中的 markdown 文件会在内置样例之后一并转换, 可以用实际业务文档覆盖更多的类。
+ *
+ * @author ludangxin
+ * @since 2026/10/17
+ */
+@Slf4j
+public final class WarmUp {
+    private static final String MARKDOWN = "# 嘉文四世\n\n" + "> 德玛西亚\n\n" + "**给我找些更强的敌人！** *光盾家族* 的继承人, 详情见 [英雄联盟](https://lol.qq.com/) 与 `champion.jarvan`。\n\n" + "- 上单\n" + "  1. 龙枪破防\n\n" + "| 技能 | 冷却 |\n" + "| --- | :---: |\n" + "| 天崩地裂 | 120 |\n\n" + "```java\n" + "System.out.println(\"德玛西亚\");\n" + "```\n\n" + "![盾](%s)\n\n" + "<p style=\"color:#ff0000\">光盾<img src=\"%<s\"/></p>\n\n" + "---\n";
+
+    /**
+     * 1x1 png
+     */
+    private static final String IMAGE = "data:image/png;base64,iVBORw0KGgoAAAANSUhEUgAAAAEAAAABCAYAAAAfFcSJAAAADUlEQVR42mP8z8BQDwAEhQGAhKmMIQAAAABJRU5ErkJggg==";
+
+    private static volatile boolean warmedUp;
+
+    private WarmUp() {
+    }
+
+    /**
+     * 执行一次预热, 重复调用时直接返回
+     *
+     * @return 本次预热耗时(毫秒), 已经预热过时返回0
+     */
+    static synchronized long run() {
+        if (warmedUp) {
+            return 0;
+        }
+
+        final long start = System.nanoTime();
+        try {
+            // JAXB 上下文(docx4j-JAXB-Internal / MOXy 的选择在此完成)
+            log.debug("jaxb implementation: {}", Context.getJaxbImplementation());
+            // openhtmltopdf 的默认 css 在 XHTMLImporterImpl 初始化时解析
+            new XHTMLImporterImpl(WordprocessingMLPackage.createPackage());
+
+            final String markdown = String.format(MARKDOWN, IMAGE);
+            // markdown 直接转换, 字体扫描在第一次导入 html 时触发
+            Docs.builder()
+                .imageCache(null)
+                .buildWord(Markdowns.builder(markdown), new ByteArrayOutputStream());
+            // markdown → html → xhtml 导入
+            Docs.builder()
+                .imageCache(null)
+                .buildWord(Markdowns.builder(markdown)
+                                    .buildHtmlContent(), new ByteArrayOutputStream());
+            // 模板渲染: 普通占位符与 html 占位符, 默认配置下直接替换文本, 不经过 poi-tl
+            final byte[] template = template();
+            final Map<String, Object> data = new HashMap<>();
+            data.put("user", "嘉文四世");
+            Docs.builder(CompiledTemplate.compile(template))
+                .buildWord(data, new ByteArrayOutputStream());
+            final Map<String, Object> mixedData = new HashMap<>(data);
+            mixedData.put("description", "<table><tr><th>技能</th></tr><tr><td>龙枪破防</td></tr></table>");
+            Docs.builder(CompiledTemplate.compile(template))
+                .buildWord(mixedData, new ByteArrayOutputStream());
+            // 指定 poi-tl 配置时(以及含 poi-tl 特殊标签时)由 poi-tl 渲染, 加载 poi-tl 与 poi 的类
+            final Configure configure = Configure.builder()
+                                                 .build();
+            Docs.builder(CompiledTemplate.compile(template))
+                .templateEngineConfigure(configure)
+                .buildWord(data, new ByteArrayOutputStream());
+            Docs.builder(CompiledTemplate.compile(template))
+                .templateEngineConfigure(configure)
+                .buildWord(mixedData, new ByteArrayOutputStream());
+        }
+        catch (Exception e) {
+            log.error("failed to warm up", e);
+            throw new RuntimeException(e);
+        }
+
+        warmedUp = true;
+        final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        log.info("md2docx warmed up in {}ms", elapsedMillis);
+        return elapsedMillis;
+    }
+
+    private static byte[] template() throws Exception {
+        final WordprocessingMLPackage wordMLPackage = WordprocessingMLPackage.createPackage();
+        final MainDocumentPart mainDocumentPart = wordMLPackage.getMainDocumentPart();
+        mainDocumentPart.addParagraphOfText("英雄名称: {{user}}");
+        mainDocumentPart.addParagraphOfText("{{description}}");
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        wordMLPackage.save(outputStream);
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * AppCDS 训练入口: 预热后依次转换参数中的 markdown 文件(结果丢弃), 然后退出
+     *
+     * @param args markdown 文件路径, 可以为空
+     */
+    public static void main(String[] args) {
+        run();
+
+        for (String arg : args) {
+            final long start = System.nanoTime();
+            Docs.builder()
+                .buildWord(Markdowns.builder(new File(arg)), new ByteArrayOutputStream());
+            log.info("converted {} in {}ms", arg, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+    }
+}
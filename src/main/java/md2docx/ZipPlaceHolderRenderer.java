@@ -0,0 +1,601 @@
+package md2docx;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 按 zip 条目直接改写的普通文本占位符渲染
+ * <p>
+ * 数据只包含普通文本时, 不再经过 poi-tl 解析和重新序列化整个文档:
+ * 模板中的其他条目(样式、图片、主题等)按原始压缩数据直接复制, 不解压也不重新压缩;
+ * 只有正文、页眉、页脚按 StAX 事件流逐个改写, 替换其中的占位符。
+ * 占位符的识别和替换规则与 {@link TextPlaceHolderRenderer} 一致, 支持占位符被拆分到多个 run 中的情况。
+ * <p>
+ * 模板只分析一次, 分析结果只读, 可以在多个线程中同时渲染。
+ * 模板包含特殊标签、点号分隔的标签或加密条目时不支持, 此时需回退到 poi-tl 渲染。
+ *
+ * @author ludangxin
+ * @since 2026/10/17
+ */
+@Slf4j
+final class ZipPlaceHolderRenderer {
+    private static final String W_NAMESPACE = "http://schemas.openxmlformats.org/wordprocessingml/2006/main";
+
+    private static final String XML_NAMESPACE = "http://www.w3.org/XML/1998/namespace";
+
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+
+    private static final XMLInputFactory INPUT_FACTORY = newInputFactory();
+
+    private static final ZipPlaceHolderRenderer UNSUPPORTED = new ZipPlaceHolderRenderer(null, null, null, false);
+
+    /**
+     * 模板的原始 zip, 见 {@link CompiledTemplate#getRawZip()}
+     */
+    private final ZipFile zip;
+
+    /**
+     * 按在模板中的位置排序的 zip 条目
+     */
+    private final List<ZipArchiveEntry> entries;
+
+    /**
+     * 需要改写的条目 <条目名, 包含占位符的段落>
+     */
+    private final Map<String, List<ParagraphMatch>> parts;
+
+    private final boolean templateSupported;
+
+    private ZipPlaceHolderRenderer(ZipFile zip, List<ZipArchiveEntry> entries, Map<String, List<ParagraphMatch>> parts, boolean templateSupported) {
+        this.zip = zip;
+        this.entries = entries;
+        this.parts = parts;
+        this.templateSupported = templateSupported;
+    }
+
+    /**
+     * 分析模板中的文本占位符
+     *
+     * @param template  模板
+     * @param textParts 正文、页眉、页脚的条目名
+     * @param pre       占位符前缀（如"{{"）
+     * @param suf       占位符后缀（如"}}"）
+     * @return 渲染器, 模板不支持时 {@link #supports(Map)} 始终返回 false
+     */
+    static ZipPlaceHolderRenderer prepare(CompiledTemplate template, Set<String> textParts, String pre, String suf) {
+        final Pattern pattern = TextPlaceHolderRenderer.tagPattern(pre, suf);
+        try {
+            final ZipFile zip = template.getRawZip();
+            final List<ZipArchiveEntry> entries = Collections.unmodifiableList(Collections.list(zip.getEntriesInPhysicalOrder()));
+            final Map<String, List<ParagraphMatch>> parts = new HashMap<>();
+            for (ZipArchiveEntry entry : entries) {
+                if (entry.getGeneralPurposeBit()
+                         .usesEncryption()) {
+                    throw new IOException("encrypted zip entry is not supported: " + entry.getName());
+                }
+                if (!textParts.contains(entry.getName())) {
+                    continue;
+                }
+
+                final List<ParagraphMatch> matches;
+                try (InputStream in = zip.getInputStream(entry)) {
+                    matches = scan(in, pattern);
+                }
+                // 特殊标签和点号分隔的标签(poi-tl 按对象属性求值)交给 poi-tl 处理
+                for (ParagraphMatch match : matches) {
+                    for (TagMatch tag : match.tags) {
+                        if (tag.key.isEmpty() || TextPlaceHolderRenderer.POI_TL_TAG_SYMBOLS.indexOf(tag.key.charAt(0)) >= 0 || tag.key.indexOf('.') >= 0) {
+                            return UNSUPPORTED;
+                        }
+                    }
+                }
+                if (!matches.isEmpty()) {
+                    parts.put(entry.getName(), matches);
+                }
+            }
+            return new ZipPlaceHolderRenderer(zip, entries, parts, true);
+        }
+        catch (IOException | XMLStreamException e) {
+            log.debug("word template can not be rendered as zip entries: {}", template.getName(), e);
+            return UNSUPPORTED;
+        }
+    }
+
+    /**
+     * 是否能够处理当前模板和数据, 不支持时需要交给 poi-tl 渲染
+     *
+     * @param placeHolderData 占位符数据
+     * @return true: 支持
+     */
+    boolean supports(Map<String, Object> placeHolderData) {
+        if (!templateSupported) {
+            return false;
+        }
+
+        for (Object value : placeHolderData.values()) {
+            if (!TextPlaceHolderRenderer.isTextValue(value)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * 渲染并写出文档, 不关闭输出流
+     *
+     * @param placeHolderData 占位符数据
+     * @param outputStream    输出流
+     * @param level           改写条目的压缩级别, STORE 以级别 0 的 deflate 代替(改写后大小未知); 其余条目保持模板原样
+     */
+    void render(Map<String, Object> placeHolderData, OutputStream outputStream, OutputCompression.Level level) throws IOException {
+        try (ZipArchiveOutputStream zos = new ZipArchiveOutputStream(new BufferedOutputStream(DocUtils.nonClosing(outputStream), OUTPUT_BUFFER_SIZE))) {
+            for (ZipArchiveEntry entry : entries) {
+                final List<ParagraphMatch> matches = parts.get(entry.getName());
+                if (matches == null) {
+                    // 原始压缩数据直接复制
+                    try (InputStream in = zip.getRawInputStream(entry)) {
+                        zos.addRawArchiveEntry(entry, in);
+                    }
+                }
+                else {
+                    this.rewrite(entry, replacements(matches, placeHolderData), level, zos);
+                }
+            }
+        }
+    }
+
+    private void rewrite(ZipArchiveEntry entry, Map<Integer, Replacement> replacements, OutputCompression.Level level, ZipArchiveOutputStream zos) throws IOException {
+        final ZipArchiveEntry rewritten = new ZipArchiveEntry(entry.getName());
+        rewritten.setMethod(ZipArchiveEntry.DEFLATED);
+        rewritten.setTime(entry.getTime());
+        zos.setLevel(level.getDeflateLevel());
+        zos.putArchiveEntry(rewritten);
+        try (InputStream in = zip.getInputStream(entry)) {
+            write(in, replacements, zos);
+        }
+        catch (XMLStreamException e) {
+            throw new IOException("failed to rewrite " + entry.getName(), e);
+        }
+        zos.closeArchiveEntry();
+    }
+
+    /**
+     * 按数据计算各个文本节点替换后的内容, 替换规则与 {@link TextPlaceHolderRenderer} 一致
+     *
+     * @return <文本节点序号, 替换结果>
+     */
+    private static Map<Integer, Replacement> replacements(List<ParagraphMatch> matches, Map<String, Object> placeHolderData) {
+        final Map<Integer, Replacement> replacements = new HashMap<>();
+        for (ParagraphMatch match : matches) {
+            final Replacement[] texts = new Replacement[match.texts.size()];
+            for (int i = match.tags.size() - 1; i >= 0; i--) {
+                // 从后往前替换, 保证前面占位符的偏移量不受影响
+                final TagMatch tag = match.tags.get(i);
+                final Object value = placeHolderData.get(tag.key);
+                replace(match, texts, tag, value == null ? "" : String.valueOf(value));
+            }
+
+            for (int i = 0; i < texts.length; i++) {
+                if (texts[i] != null) {
+                    replacements.put(match.texts.get(i).index, texts[i]);
+                }
+            }
+        }
+        return replacements;
+    }
+
+    private static void replace(ParagraphMatch match, Replacement[] texts, TagMatch tag, String replacement) {
+        final Replacement first = replacement(match, texts, tag.firstText);
+        final Replacement last = replacement(match, texts, tag.lastText);
+        final String suffix = last.value.substring(tag.end - match.texts.get(tag.lastText).offset);
+        final String prefix = first.value.substring(0, tag.start - match.texts.get(tag.firstText).offset);
+
+        for (int i = tag.firstText + 1; i <= tag.lastText; i++) {
+            replacement(match, texts, i).value = "";
+        }
+
+        if (tag.firstText != tag.lastText) {
+            last.value = suffix;
+            last.preserve = true;
+        }
+
+        final String[] lines = replacement.split("\r?\n", -1);
+        final String tail = tag.firstText == tag.lastText ? suffix : "";
+        first.value = prefix + lines[0] + (lines.length == 1 ? tail : "");
+        first.preserve = true;
+
+        // 多行文本: 在同一个 run 中插入换行, 位于之前插入的行之前
+        for (int i = lines.length - 1; i >= 1; i--) {
+            first.lines.addFirst(i == lines.length - 1 ? lines[i] + tail : lines[i]);
+        }
+    }
+
+    private static Replacement replacement(ParagraphMatch match, Replacement[] texts, int i) {
+        if (texts[i] == null) {
+            texts[i] = new Replacement(match.texts.get(i).value);
+        }
+        return texts[i];
+    }
+
+    /**
+     * 扫描文本占位符, 文本节点按在文档中出现的顺序编号(只统计 run 下的 w:t)
+     */
+    private static List<ParagraphMatch> scan(InputStream in, Pattern pattern) throws XMLStreamException {
+        final List<ParagraphMatch> matches = new ArrayList<>();
+        final XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(in);
+        try {
+            final Deque<String> elements = new ArrayDeque<>();
+            final Deque<List<TextSlot>> paragraphs = new ArrayDeque<>();
+            StringBuilder text = null;
+            int textIndex = 0;
+
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        final String localName = localName(reader);
+                        if ("p".equals(localName)) {
+                            paragraphs.push(new ArrayList<>());
+                        }
+                        else if ("t".equals(localName) && "r".equals(elements.peek())) {
+                            text = new StringBuilder();
+                            textIndex++;
+                        }
+                        elements.push(localName);
+                        break;
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.CDATA:
+                    case XMLStreamConstants.SPACE:
+                        if (text != null) {
+                            text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                        }
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        final String endName = elements.pop();
+                        if ("t".equals(endName) && text != null) {
+                            if (!paragraphs.isEmpty()) {
+                                paragraphs.peek()
+                                          .add(new TextSlot(textIndex - 1, text.toString()));
+                            }
+                            text = null;
+                        }
+                        else if ("p".equals(endName)) {
+                            final ParagraphMatch match = ParagraphMatch.of(paragraphs.pop(), pattern);
+                            if (match != null) {
+                                matches.add(match);
+                            }
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        finally {
+            reader.close();
+        }
+        return matches;
+    }
+
+    /**
+     * 按 StAX 事件流复制 xml, 替换其中的文本节点
+     */
+    private static void write(InputStream in, Map<Integer, Replacement> replacements, OutputStream outputStream) throws IOException, XMLStreamException {
+        final XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(in);
+        try {
+            final Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), 8192);
+            writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"");
+            if (reader.standaloneSet()) {
+                writer.write(reader.isStandalone() ? " standalone=\"yes\"" : " standalone=\"no\"");
+            }
+            writer.write("?>\n");
+
+            final Deque<String> elements = new ArrayDeque<>();
+            // 开始标签尚未写出 '>', 紧跟结束标签时写成空元素
+            boolean startTagOpen = false;
+            Replacement replacing = null;
+            String replacingPrefix = null;
+            int textIndex = 0;
+
+            while (reader.hasNext()) {
+                final int event = reader.next();
+                if (startTagOpen && event != XMLStreamConstants.END_ELEMENT) {
+                    writer.write('>');
+                    startTagOpen = false;
+                }
+
+                switch (event) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        final String localName = localName(reader);
+                        Replacement replacement = null;
+                        if ("t".equals(localName) && "r".equals(elements.peek())) {
+                            replacement = replacements.get(textIndex++);
+                        }
+                        elements.push(localName);
+
+                        writeStartTag(reader, writer, replacement != null && replacement.preserve);
+                        if (replacement != null) {
+                            writer.write('>');
+                            escape(writer, replacement.value, false);
+                            replacing = replacement;
+                            replacingPrefix = reader.getPrefix();
+                        }
+                        else {
+                            startTagOpen = true;
+                        }
+                        break;
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.SPACE:
+                        if (replacing == null) {
+                            escape(writer, reader.getText(), false);
+                        }
+                        break;
+                    case XMLStreamConstants.CDATA:
+                        if (replacing == null) {
+                            writer.write("<![CDATA[");
+                            writer.write(reader.getText());
+                            writer.write("]]>");
+                        }
+                        break;
+                    case XMLStreamConstants.COMMENT:
+                        writer.write("<!--");
+                        writer.write(reader.getText());
+                        writer.write("-->");
+                        break;
+                    case XMLStreamConstants.PROCESSING_INSTRUCTION:
+                        writer.write("<?");
+                        writer.write(reader.getPITarget());
+                        if (reader.getPIData() != null && !reader.getPIData()
+                                                                 .isEmpty()) {
+                            writer.write(' ');
+                            writer.write(reader.getPIData());
+                        }
+                        writer.write("?>");
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        final String endName = elements.pop();
+                        if (startTagOpen) {
+                            writer.write("/>");
+                            startTagOpen = false;
+                        }
+                        else {
+                            writer.write("</");
+                            writeName(writer, reader.getPrefix(), reader.getLocalName());
+                            writer.write('>');
+                        }
+
+                        if (replacing != null && "t".equals(endName)) {
+                            for (String line : replacing.lines) {
+                                writer.write('<');
+                                writeName(writer, replacingPrefix, "br");
+                                writer.write("/><");
+                                writeName(writer, replacingPrefix, "t");
+                                writer.write(" xml:space=\"preserve\">");
+                                escape(writer, line, false);
+                                writer.write("</");
+                                writeName(writer, replacingPrefix, "t");
+                                writer.write('>');
+                            }
+                            replacing = null;
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+            writer.flush();
+        }
+        finally {
+            reader.close();
+        }
+    }
+
+    private static void writeStartTag(XMLStreamReader reader, Writer writer, boolean preserve) throws IOException {
+        writer.write('<');
+        writeName(writer, reader.getPrefix(), reader.getLocalName());
+
+        for (int i = 0; i < reader.getNamespaceCount(); i++) {
+            final String prefix = reader.getNamespacePrefix(i);
+            if (prefix == null || prefix.isEmpty()) {
+                writer.write(" xmlns=\"");
+            }
+            else {
+                writer.write(" xmlns:");
+                writer.write(prefix);
+                writer.write("=\"");
+            }
+            escape(writer, reader.getNamespaceURI(i), true);
+            writer.write('"');
+        }
+
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            if (preserve && XML_NAMESPACE.equals(reader.getAttributeNamespace(i)) && "space".equals(reader.getAttributeLocalName(i))) {
+                continue;
+            }
+            writer.write(' ');
+            writeName(writer, reader.getAttributePrefix(i), reader.getAttributeLocalName(i));
+            writer.write("=\"");
+            escape(writer, reader.getAttributeValue(i), true);
+            writer.write('"');
+        }
+
+        if (preserve) {
+            writer.write(" xml:space=\"preserve\"");
+        }
+    }
+
+    private static void writeName(Writer writer, String prefix, String localName) throws IOException {
+        if (prefix != null && !prefix.isEmpty()) {
+            writer.write(prefix);
+            writer.write(':');
+        }
+        writer.write(localName);
+    }
+
+    private static void escape(Writer writer, String value, boolean attribute) throws IOException {
+        int last = 0;
+        for (int i = 0; i < value.length(); i++) {
+            final String escaped;
+            switch (value.charAt(i)) {
+                case '&':
+                    escaped = "&amp;";
+                    break;
+                case '<':
+                    escaped = "&lt;";
+                    break;
+                case '>':
+                    escaped = "&gt;";
+                    break;
+                case '"':
+                    escaped = attribute ? "&quot;" : null;
+                    break;
+                case '\r':
+                    escaped = "&#13;";
+                    break;
+                case '\n':
+                    escaped = attribute ? "&#10;" : null;
+                    break;
+                case '\t':
+                    escaped = attribute ? "&#9;" : null;
+                    break;
+                default:
+                    escaped = null;
+                    break;
+            }
+            if (escaped != null) {
+                writer.write(value, last, i - last);
+                writer.write(escaped);
+                last = i + 1;
+            }
+        }
+        writer.write(value, last, value.length() - last);
+    }
+
+    /**
+     * w 命名空间下的元素返回本地名, 其他命名空间返回空字符串
+     */
+    private static String localName(XMLStreamReader reader) {
+        return W_NAMESPACE.equals(reader.getNamespaceURI()) ? reader.getLocalName() : "";
+    }
+
+    private static XMLInputFactory newInputFactory() {
+        final XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    }
+
+    private static final class ParagraphMatch {
+        private final List<TextSlot> texts;
+
+        private final List<TagMatch> tags;
+
+        private ParagraphMatch(List<TextSlot> texts, List<TagMatch> tags) {
+            this.texts = texts;
+            this.tags = tags;
+        }
+
+        private static ParagraphMatch of(List<TextSlot> texts, Pattern pattern) {
+            final StringBuilder sb = new StringBuilder();
+            for (TextSlot slot : texts) {
+                slot.offset = sb.length();
+                sb.append(slot.value);
+            }
+
+            final Matcher matcher = pattern.matcher(sb);
+            final List<TagMatch> tags = new ArrayList<>();
+            while (matcher.find()) {
+                tags.add(new TagMatch(matcher.group(1), matcher.start(), matcher.end(), texts));
+            }
+            return tags.isEmpty() ? null : new ParagraphMatch(texts, tags);
+        }
+    }
+
+    private static final class TextSlot {
+        /**
+         * 文本节点在条目中的序号
+         */
+        private final int index;
+
+        private final String value;
+
+        private int offset;
+
+        private TextSlot(int index, String value) {
+            this.index = index;
+            this.value = value;
+        }
+    }
+
+    private static final class TagMatch {
+        private final String key;
+
+        private final int start;
+
+        private final int end;
+
+        private final int firstText;
+
+        private final int lastText;
+
+        private TagMatch(String key, int start, int end, List<TextSlot> texts) {
+            this.key = key;
+            this.start = start;
+            this.end = end;
+            this.firstText = indexOfText(texts, start);
+            this.lastText = indexOfText(texts, end - 1);
+        }
+
+        private static int indexOfText(List<TextSlot> texts, int position) {
+            for (int i = texts.size() - 1; i >= 0; i--) {
+                // 跳过空文本, 保证位置落在有内容的文本节点上
+                if (texts.get(i).offset <= position && position < texts.get(i).offset + texts.get(i).value.length()) {
+                    return i;
+                }
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * 文本节点替换后的内容, lines 为在同一个 run 中换行后追加的文本
+     */
+    private static final class Replacement {
+        private String value;
+
+        private boolean preserve;
+
+        private final LinkedList<String> lines = new LinkedList<>();
+
+        private Replacement(String value) {
+            this.value = value;
+        }
+    }
+}
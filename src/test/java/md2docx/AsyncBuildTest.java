@@ -0,0 +1,144 @@
+package md2docx;
+
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * async build test
+ *
+ * @author ludangxin
+ * @since 2026/10/17
+ */
+@Slf4j
+public class AsyncBuildTest {
+    @Test
+    @SneakyThrows
+    public void given_executor_when_build_word_async_then_write_docx() {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try {
+            Docs.builder()
+                .deadline(30, TimeUnit.SECONDS)
+                .buildWordAsync(Markdowns.builder("# 嘉文四世\n\n德玛西亚"), outputStream, executor)
+                .get(30, TimeUnit.SECONDS);
+        }
+        finally {
+            executor.shutdown();
+        }
+
+        Assertions.assertEquals("嘉文四世", DocUtils.extractText(WordprocessingMLPackage.load(new ByteArrayInputStream(outputStream.toByteArray()))
+                                                                                       .getMainDocumentPart()
+                                                                                       .getContent()
+                                                                                       .get(0)));
+    }
+
+    @Test
+    @SneakyThrows
+    public void given_short_deadline_when_build_large_markdown_async_then_deadline_exceeded() {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        final CompletableFuture<Void> future = Docs.builder()
+                                                   .deadline(10, TimeUnit.MILLISECONDS)
+                                                   .buildWordAsync(Markdowns.builder(largeTables(500)), outputStream, executor);
+
+        final DeadlineExceededException e = Assertions.assertThrows(DeadlineExceededException.class, () -> future.get(30, TimeUnit.SECONDS));
+        log.info("deadline exceeded: {}", e.getMessage());
+
+        // 转换在下一个检查点停止, 不会写出文档
+        executor.shutdown();
+        Assertions.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        Assertions.assertEquals(0, outputStream.size());
+    }
+
+    @Test
+    @SneakyThrows
+    public void given_engine_deadline_when_build_session_async_then_deadline_exceeded() {
+        final DocEngine engine = DocEngine.builder()
+                                          .deadline(10, TimeUnit.MILLISECONDS)
+                                          .build();
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        final CompletableFuture<Void> future = engine.newSession()
+                                                     .buildWordAsync(engine.markdown(largeTables(500)), outputStream, executor);
+
+        Assertions.assertThrows(DeadlineExceededException.class, () -> future.get(30, TimeUnit.SECONDS));
+
+        executor.shutdown();
+        Assertions.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        Assertions.assertEquals(0, outputStream.size());
+    }
+
+    @Test
+    @SneakyThrows
+    public void given_running_conversion_when_cancel_then_stop_at_checkpoint() {
+        final CountDownLatch started = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        final CompletableFuture<Void> future = Docs.builder()
+                                                   .buildWordAsync(Markdowns.builder(largeTables(500)), outputStream, command -> executor.execute(() -> {
+                                                       started.countDown();
+                                                       command.run();
+                                                   }));
+
+        Assertions.assertTrue(started.await(10, TimeUnit.SECONDS));
+        Assertions.assertTrue(future.cancel(true));
+        Assertions.assertThrows(CancellationException.class, future::join);
+
+        executor.shutdown();
+        Assertions.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        Assertions.assertEquals(0, outputStream.size());
+    }
+
+    @Test
+    @SneakyThrows
+    public void given_queued_conversion_when_cancel_then_skip() {
+        final CountDownLatch release = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        executor.execute(() -> {
+            try {
+                release.await();
+            }
+            catch (InterruptedException ignored) {
+            }
+        });
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        final CompletableFuture<Void> future = Docs.builder()
+                                                   .buildWordAsync(Markdowns.builder("# 嘉文四世"), outputStream, executor);
+        future.cancel(false);
+        release.countDown();
+
+        executor.shutdown();
+        Assertions.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        Assertions.assertTrue(future.isCancelled());
+        Assertions.assertEquals(0, outputStream.size());
+    }
+
+    private static String largeTables(int tables) {
+        final StringBuilder markdown = new StringBuilder();
+        for (int i = 0; i < tables; i++) {
+            markdown.append("## 英雄")
+                    .append(i)
+                    .append("\n\n| 英雄 | 技能 | 冷却 |\n| --- | --- | --- |\n");
+            for (int j = 0; j < 50; j++) {
+                markdown.append("| 嘉文四世 | 天崩地裂 | ")
+                        .append(j)
+                        .append(" |\n");
+            }
+            markdown.append('\n');
+        }
+        return markdown.toString();
+    }
+}
@@ -0,0 +1,133 @@
+package md2docx;
+
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.docx4j.wml.Style;
+import org.docx4j.wml.Tbl;
+import org.docx4j.wml.TblWidth;
+import org.docx4j.wml.Tc;
+import org.docx4j.wml.Tr;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * compiled css test
+ *
+ * @author ludangxin
+ * @since 2026/10/17
+ */
+@Slf4j
+public class CompiledCssTest {
+    private static final String TABLE_HTML = "<table><tr><th>技能</th><th>冷却</th></tr><tr><td>龙枪破防</td><td>10</td></tr></table>";
+
+    @Test
+    @SneakyThrows
+    public void given_default_global_css_when_build_word_then_tables_reference_style() {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        final Docs.DocBuilder builder = Docs.builder();
+        final List<Object> first = builder.buildWordML(TABLE_HTML);
+        final List<Object> second = builder.buildWordML(TABLE_HTML);
+
+        for (List<Object> content : Arrays.asList(first, second)) {
+            final Tbl tbl = (Tbl) content.get(0);
+            Assertions.assertEquals(CompiledCss.TABLE_STYLE_ID, tbl.getTblPr()
+                                                                   .getTblStyle()
+                                                                   .getVal());
+            Assertions.assertNull(tbl.getTblPr()
+                                     .getTblBorders());
+            final Tc tc = (Tc) ((Tr) tbl.getContent()
+                                        .get(0)).getContent()
+                                                .get(0);
+            Assertions.assertNull(tc.getTcPr()
+                                    .getTcBorders());
+            Assertions.assertNull(tc.getTcPr()
+                                    .getShd());
+        }
+
+        Docs.builder()
+            .buildWord(TABLE_HTML, outputStream);
+        final WordprocessingMLPackage wordMLPackage = WordprocessingMLPackage.load(new ByteArrayInputStream(outputStream.toByteArray()));
+        int count = 0;
+        for (Style style : wordMLPackage.getMainDocumentPart()
+                                        .getStyleDefinitionsPart()
+                                        .getJaxbElement()
+                                        .getStyle()) {
+            if (CompiledCss.TABLE_STYLE_ID.equals(style.getStyleId())) {
+                count++;
+                Assertions.assertEquals("F7F7F7", style.getTblStylePr()
+                                                       .get(0)
+                                                       .getTcPr()
+                                                       .getShd()
+                                                       .getFill());
+            }
+        }
+        Assertions.assertEquals(1, count);
+    }
+
+    @Test
+    public void given_unsupported_global_css_when_build_word_then_inject_css() {
+        Assertions.assertFalse(CompiledCss.compile("p{color:red}")
+                                          .isCompiled());
+        Assertions.assertFalse(CompiledCss.compile("table td{border:1px solid #ddd;font-weight:bold}")
+                                          .isCompiled());
+        Assertions.assertTrue(CompiledCss.compile("/* 表格 */ table, thead th {border: 1px solid #ddd !important}")
+                                         .isCompiled());
+
+        final List<Object> content = Docs.builder()
+                                         .globalCss("td{border:1px solid #ddd;color:#ff0000}")
+                                         .buildWordML(TABLE_HTML);
+        final Tbl tbl = (Tbl) content.get(0);
+        Assertions.assertNull(tbl.getTblPr()
+                                 .getTblStyle());
+        final Tc tc = (Tc) ((Tr) tbl.getContent()
+                                    .get(1)).getContent()
+                                            .get(0);
+        Assertions.assertNotNull(tc.getTcPr()
+                                   .getTcBorders()
+                                   .getTop());
+    }
+
+    @Test
+    public void given_author_column_width_when_build_word_then_keep_cell_width() {
+        final List<Object> content = Docs.builder()
+                                         .buildWordML("<table><tr><td width=\"200\">嘉文四世</td><td>德玛西亚</td></tr></table>"
+                                                          + "<table><tr><td style=\"width:3cm\">赵信</td><td>德玛西亚</td></tr></table>"
+                                                          + TABLE_HTML);
+
+        // 作者指定的列宽保留, 没有指定列宽的表格交给 Word 按表格宽度分配
+        Assertions.assertEquals(TblWidth.TYPE_DXA, firstCellWidth((Tbl) content.get(0)).getType());
+        Assertions.assertEquals(TblWidth.TYPE_DXA, firstCellWidth((Tbl) content.get(1)).getType());
+        Assertions.assertEquals(TblWidth.TYPE_AUTO, firstCellWidth((Tbl) content.get(2)).getType());
+        for (int i = 0; i < content.size(); i++) {
+            Assertions.assertEquals("pct", ((Tbl) content.get(i)).getTblPr()
+                                                                 .getTblW()
+                                                                 .getType());
+        }
+    }
+
+    @Test
+    public void given_full_cache_when_compile_then_keep_recently_used_css() {
+        final CompiledCss hot = CompiledCss.compile(Docs.DEFAULT_GLOBAL_CSS);
+        final CompiledCss cold = CompiledCss.compile("table td{padding:1px}");
+        for (int i = 0; i < 100; i++) {
+            CompiledCss.compile("table td{padding:" + (i + 2) + "px}");
+            // 常用的 css 一直留在缓存中
+            Assertions.assertSame(hot, CompiledCss.compile(Docs.DEFAULT_GLOBAL_CSS));
+        }
+
+        Assertions.assertNotSame(cold, CompiledCss.compile("table td{padding:1px}"));
+    }
+
+    private static TblWidth firstCellWidth(Tbl tbl) {
+        return ((Tc) ((Tr) tbl.getContent()
+                              .get(0)).getContent()
+                                      .get(0)).getTcPr()
+                                              .getTcW();
+    }
+}
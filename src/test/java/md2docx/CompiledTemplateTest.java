@@ -0,0 +1,276 @@
+package md2docx;
+
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.docx4j.XmlUtils;
+import org.docx4j.openpackaging.contenttype.ContentTypes;
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.docx4j.openpackaging.parts.PartName;
+import org.docx4j.openpackaging.parts.WordprocessingML.BinaryPartAbstractImage;
+import org.docx4j.openpackaging.parts.WordprocessingML.FontTablePart;
+import org.docx4j.wml.Style;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.ZipEntry;
+
+/**
+ * compiled template test
+ *
+ * @author ludangxin
+ * @since 2026/10/17
+ */
+@Slf4j
+public class CompiledTemplateTest {
+    private static final File TEMPLATE_FILE = new File("demo.docx");
+
+    /**
+     * 转换时会修改(或被 docx4j 读取而反序列化)的 part, 保存时重新生成
+     */
+    private static final Set<String> REWRITTEN_PARTS = new HashSet<>(Arrays.asList("[Content_Types].xml", "word/document.xml", "word/styles.xml", "word/settings.xml"));
+
+    @Test
+    public void given_compiled_template_when_new_package_then_return_private_copy() {
+        final CompiledTemplate template = CompiledTemplate.compile(TEMPLATE_FILE);
+        final WordprocessingMLPackage first = template.newPackage();
+        final WordprocessingMLPackage second = template.newPackage();
+
+        first.getMainDocumentPart()
+             .getContent()
+             .clear();
+
+        Assertions.assertNotSame(first, second);
+        Assertions.assertFalse(second.getMainDocumentPart()
+                                     .getContent()
+                                     .isEmpty());
+    }
+
+    @Test
+    @SneakyThrows
+    public void given_registry_when_template_modified_then_recompile() {
+        final File copy = Files.createTempFile("template-", ".docx")
+                               .toFile();
+        Files.copy(TEMPLATE_FILE.toPath(), copy.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+        try {
+            final TemplateRegistry registry = new TemplateRegistry(2);
+            final CompiledTemplate first = registry.get(copy);
+            Assertions.assertSame(first, registry.get(copy));
+
+            Assertions.assertTrue(copy.setLastModified(copy.lastModified() - 60_000));
+            Assertions.assertNotSame(first, registry.get(copy));
+
+            registry.invalidate(copy);
+            Assertions.assertEquals(0, registry.size());
+        }
+        finally {
+            Files.deleteIfExists(copy.toPath());
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    public void given_byte_budget_when_register_templates_then_evict_least_recently_used() {
+        final File copy = Files.createTempFile("template-", ".docx")
+                               .toFile();
+        Files.copy(TEMPLATE_FILE.toPath(), copy.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+        try {
+            final long retainedSize = CompiledTemplate.compile(TEMPLATE_FILE)
+                                                      .retainedSize();
+            Assertions.assertTrue(retainedSize > TEMPLATE_FILE.length());
+
+            // 预算只够一个模板
+            final TemplateRegistry registry = new TemplateRegistry(64, retainedSize + retainedSize / 2);
+            registry.get(TEMPLATE_FILE);
+            final CompiledTemplate latest = registry.get(copy);
+            Assertions.assertEquals(1, registry.size());
+            Assertions.assertEquals(retainedSize, registry.bytes());
+            Assertions.assertSame(latest, registry.get(copy));
+
+            // 超过预算的模板不缓存
+            final TemplateRegistry small = new TemplateRegistry(64, 1024);
+            Assertions.assertNotNull(small.get(copy));
+            Assertions.assertEquals(0, small.size());
+            Assertions.assertEquals(0, small.bytes());
+
+            registry.invalidateAll();
+            Assertions.assertEquals(0, registry.size());
+            Assertions.assertEquals(0, registry.bytes());
+        }
+        finally {
+            Files.deleteIfExists(copy.toPath());
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    public void given_compiled_template_when_render_twice_then_complete() {
+        final CompiledTemplate template = CompiledTemplate.compile(TEMPLATE_FILE);
+        final Map<String, Object> data = new HashMap<>();
+        data.put("user", "嘉文四世");
+        data.put("summoner", "张铁牛");
+
+        for (int i = 0; i < 2; i++) {
+            final File output = Files.createTempFile("output-", ".docx")
+                                     .toFile();
+            try (OutputStream outputStream = Files.newOutputStream(output.toPath())) {
+                Docs.builder(template)
+                    .buildWord(data, outputStream);
+            }
+            Assertions.assertTrue(output.length() > 0);
+            Files.deleteIfExists(output.toPath());
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    public void given_compiled_template_when_new_package_then_same_as_load() {
+        final WordprocessingMLPackage loaded = WordprocessingMLPackage.load(TEMPLATE_FILE);
+        final WordprocessingMLPackage copy = CompiledTemplate.compile(TEMPLATE_FILE)
+                                                             .newPackage();
+
+        Assertions.assertEquals(XmlUtils.marshaltoString(loaded.getMainDocumentPart()
+                                                               .getJaxbElement()), XmlUtils.marshaltoString(copy.getMainDocumentPart()
+                                                                                                                .getJaxbElement()));
+        Assertions.assertEquals(XmlUtils.marshaltoString(loaded.getMainDocumentPart()
+                                                               .getStyleDefinitionsPart()
+                                                               .getJaxbElement()), XmlUtils.marshaltoString(copy.getMainDocumentPart()
+                                                                                                                .getStyleDefinitionsPart()
+                                                                                                                .getJaxbElement()));
+    }
+
+    @Test
+    @SneakyThrows
+    public void given_base_template_when_builder_then_keep_styles_without_body() {
+        final Set<String> templateStyles = styleIds(WordprocessingMLPackage.load(TEMPLATE_FILE));
+        DocsGlobalConfig.registerBaseTemplate(TEMPLATE_FILE);
+        try {
+            final WordprocessingMLPackage output = buildMarkdown("# 德玛西亚");
+
+            Assertions.assertTrue(styleIds(output).containsAll(templateStyles));
+            Assertions.assertEquals(1, output.getMainDocumentPart()
+                                             .getContent()
+                                             .size());
+        }
+        finally {
+            DocsGlobalConfig.registerBaseTemplate((CompiledTemplate) null);
+        }
+
+        Assertions.assertFalse(styleIds(buildMarkdown("# 德玛西亚")).containsAll(templateStyles));
+    }
+
+    @Test
+    @SneakyThrows
+    public void given_compiled_template_when_build_word_then_copy_untouched_parts_raw() {
+        final WordprocessingMLPackage wordMLPackage = WordprocessingMLPackage.load(TEMPLATE_FILE);
+        final BufferedImage image = new BufferedImage(64, 64, BufferedImage.TYPE_INT_RGB);
+        final ByteArrayOutputStream imageOutputStream = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", imageOutputStream);
+        BinaryPartAbstractImage.createImagePart(wordMLPackage, imageOutputStream.toByteArray());
+        final ByteArrayOutputStream templateOutputStream = new ByteArrayOutputStream();
+        wordMLPackage.save(templateOutputStream);
+        final byte[] templateContent = templateOutputStream.toByteArray();
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        Docs.builder(CompiledTemplate.compile(templateContent))
+            .buildWord(Markdowns.builder("# 德玛西亚"), outputStream);
+
+        final Map<String, ZipEntry> source = TestDocs.zipEntries(templateContent);
+        final Map<String, ZipEntry> target = TestDocs.zipEntries(outputStream.toByteArray());
+        Assertions.assertTrue(source.keySet()
+                                    .stream()
+                                    .anyMatch(name -> name.startsWith("word/media/")));
+        for (ZipEntry entry : source.values()) {
+            final ZipEntry copy = target.get(entry.getName());
+            Assertions.assertNotNull(copy, entry.getName());
+            if (REWRITTEN_PARTS.contains(entry.getName()) || entry.getName()
+                                                                  .endsWith(".rels")) {
+                continue;
+            }
+            Assertions.assertEquals(entry.getMethod(), copy.getMethod(), entry.getName());
+            Assertions.assertEquals(entry.getCrc(), copy.getCrc(), entry.getName());
+            Assertions.assertEquals(entry.getCompressedSize(), copy.getCompressedSize(), entry.getName());
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    public void given_input_stream_when_compile_then_leave_stream_open() {
+        final AtomicBoolean closed = new AtomicBoolean();
+        final InputStream inputStream = new ByteArrayInputStream(Files.readAllBytes(TEMPLATE_FILE.toPath())) {
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        };
+
+        Assertions.assertNotNull(CompiledTemplate.compile(inputStream)
+                                                 .newPackage());
+        Assertions.assertFalse(closed.get());
+    }
+
+    @Test
+    @SneakyThrows
+    public void given_untouched_part_when_rename_then_save_under_new_name() {
+        final CompiledTemplate template = CompiledTemplate.compile(TEMPLATE_FILE);
+        final WordprocessingMLPackage wordMLPackage = template.newPackage();
+        wordMLPackage.getParts()
+                     .get(new PartName("/word/fontTable.xml"))
+                     .rename(new PartName("/word/fonts.xml"));
+        // docx4j 改名时不更新内容类型
+        wordMLPackage.getContentTypeManager()
+                     .addOverrideContentType(new URI("/word/fonts.xml"), ContentTypes.WORDPROCESSINGML_FONTTABLE);
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        wordMLPackage.save(outputStream);
+        final Map<String, ZipEntry> entries = TestDocs.zipEntries(outputStream.toByteArray());
+        Assertions.assertTrue(entries.containsKey("word/fonts.xml"));
+        Assertions.assertFalse(entries.containsKey("word/fontTable.xml"));
+        Assertions.assertFalse(((FontTablePart) WordprocessingMLPackage.load(new ByteArrayInputStream(outputStream.toByteArray()))
+                                                                       .getParts()
+                                                                       .get(new PartName("/word/fonts.xml"))).getContents()
+                                                                                                            .getFont()
+                                                                                                            .isEmpty());
+
+        // 改名只影响当前文档, 模板的其他副本不变
+        Assertions.assertNotNull(template.newPackage()
+                                         .getParts()
+                                         .get(new PartName("/word/fontTable.xml")));
+    }
+
+    @SneakyThrows
+    private static WordprocessingMLPackage buildMarkdown(String markdown) {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        Docs.builder()
+            .buildWord(Markdowns.builder(markdown), outputStream);
+        return WordprocessingMLPackage.load(new ByteArrayInputStream(outputStream.toByteArray()));
+    }
+
+    private static Set<String> styleIds(WordprocessingMLPackage wordMLPackage) {
+        final Set<String> styleIds = new HashSet<>();
+        for (Style style : wordMLPackage.getMainDocumentPart()
+                                        .getStyleDefinitionsPart()
+                                        .getJaxbElement()
+                                        .getStyle()) {
+            styleIds.add(style.getStyleId());
+        }
+        return styleIds;
+    }
+}
@@ -0,0 +1,89 @@
+package md2docx;
+
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * batch converter test
+ *
+ * @author ludangxin
+ * @since 2026/10/17
+ */
+@Slf4j
+public class DocBatchConverterTest {
+    @Test
+    @SneakyThrows
+    public void given_jobs_with_one_failure_when_convert_then_isolate_failure() {
+        final File outputDir = Files.createTempDirectory("md2docx-batch")
+                                    .toFile();
+        final List<DocBatchConverter.Job> jobs = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            jobs.add(DocBatchConverter.job("report-" + i, "## 报告 " + i + "\n\n- 德玛西亚\n- 诺克萨斯\n", new File(outputDir, "report-" + i + ".docx")));
+        }
+        // 输出目录不存在
+        jobs.add(DocBatchConverter.job("broken", "## 报告", new File(outputDir, "missing/broken.docx")));
+
+        final DocBatchConverter.BatchResult result = DocBatchConverter.builder()
+                                                                      .parallelism(3)
+                                                                      .build()
+                                                                      .convert(jobs);
+        log.info("{}", result);
+
+        Assertions.assertEquals(9, result.getTotal());
+        Assertions.assertEquals(8, result.getSucceeded());
+        Assertions.assertEquals("broken", result.getFailures()
+                                                .get(0)
+                                                .getName());
+        Assertions.assertEquals("报告 5", DocUtils.extractText(WordprocessingMLPackage.load(new File(outputDir, "report-5.docx"))
+                                                                                     .getMainDocumentPart()
+                                                                                     .getContent()
+                                                                                     .get(0)));
+    }
+
+    @Test
+    @SneakyThrows
+    public void given_missing_input_and_error_when_convert_then_report_failures() {
+        final File outputDir = Files.createTempDirectory("md2docx-batch")
+                                    .toFile();
+        final AtomicInteger builds = new AtomicInteger();
+        final List<DocBatchConverter.Job> jobs = new ArrayList<>();
+        jobs.add(DocBatchConverter.job(new File(outputDir, "missing.md"), new File(outputDir, "missing.docx")));
+        jobs.add(DocBatchConverter.job("error", "## 报告", new File(outputDir, "error.docx")));
+        jobs.add(DocBatchConverter.job("report", "## 报告", new File(outputDir, "report.docx")));
+
+        final DocBatchConverter.BatchResult result = DocBatchConverter.builder()
+                                                                      .parallelism(1)
+                                                                      .docBuilder(() -> {
+                                                                          // 第一个读到内容的任务(error)抛出 Error
+                                                                          if (builds.incrementAndGet() == 1) {
+                                                                              throw new StackOverflowError();
+                                                                          }
+                                                                          return Docs.builder();
+                                                                      })
+                                                                      .build()
+                                                                      .convert(jobs);
+        log.info("{}", result);
+
+        Assertions.assertEquals(1, result.getSucceeded());
+        Assertions.assertInstanceOf(UncheckedIOException.class, result.getResults()
+                                                                      .get(0)
+                                                                      .getError());
+        Assertions.assertFalse(new File(outputDir, "missing.docx").exists());
+        Assertions.assertInstanceOf(StackOverflowError.class, result.getResults()
+                                                                    .get(1)
+                                                                    .getError());
+        Assertions.assertTrue(result.getResults()
+                                    .get(2)
+                                    .isSuccess());
+    }
+}
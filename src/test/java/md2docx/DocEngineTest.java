@@ -0,0 +1,71 @@
+package md2docx;
+
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.docx4j.openpackaging.parts.WordprocessingML.MainDocumentPart;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * doc engine test
+ *
+ * @author ludangxin
+ * @since 2026/10/17
+ */
+@Slf4j
+public class DocEngineTest {
+    @Test
+    @SneakyThrows
+    public void given_shared_engine_when_render_concurrently_then_each_render_has_own_document() {
+        final WordprocessingMLPackage wordMLPackage = WordprocessingMLPackage.createPackage();
+        final MainDocumentPart mainDocumentPart = wordMLPackage.getMainDocumentPart();
+        mainDocumentPart.addParagraphOfText("英雄名称: ${user}");
+        mainDocumentPart.addParagraphOfText("${description}");
+        final ByteArrayOutputStream templateOutputStream = new ByteArrayOutputStream();
+        wordMLPackage.save(templateOutputStream);
+        final CompiledTemplate template = CompiledTemplate.compile(templateOutputStream.toByteArray());
+
+        final DocEngine engine = DocEngine.builder()
+                                          .placeHolderPreSuffix("${", "}")
+                                          .build();
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try {
+            final List<Future<byte[]>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                final int index = i;
+                futures.add(executor.submit(() -> {
+                    final Map<String, Object> data = new HashMap<>();
+                    data.put("user", "英雄" + index);
+                    data.put("description", "<p>德玛西亚</p>");
+                    final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+                    engine.render(template, data, outputStream);
+                    return outputStream.toByteArray();
+                }));
+            }
+
+            for (int i = 0; i < futures.size(); i++) {
+                final List<Object> content = WordprocessingMLPackage.load(new ByteArrayInputStream(futures.get(i)
+                                                                                                          .get()))
+                                                                    .getMainDocumentPart()
+                                                                    .getContent();
+                Assertions.assertEquals("英雄名称: 英雄" + i, DocUtils.extractText(content.get(0)));
+                Assertions.assertEquals("德玛西亚", DocUtils.extractText(content.get(1)));
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+}
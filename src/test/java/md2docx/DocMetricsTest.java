@@ -0,0 +1,166 @@
+package md2docx;
+
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.docx4j.openpackaging.parts.WordprocessingML.MainDocumentPart;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * doc metrics test
+ *
+ * @author ludangxin
+ * @since 2026/10/17
+ */
+@Slf4j
+public class DocMetricsTest {
+    @Test
+    public void given_markdown_when_build_word_then_report_each_stage_once() {
+        final List<ConversionMetrics> conversions = new ArrayList<>();
+        final InMemoryDocMetricsListener histogram = new InMemoryDocMetricsListener();
+        final DocMetricsListener listener = new DocMetricsListener() {
+            @Override
+            public void onStage(StageMetrics stageMetrics) {
+                histogram.onStage(stageMetrics);
+            }
+
+            @Override
+            public void onConversion(ConversionMetrics conversionMetrics) {
+                conversions.add(conversionMetrics);
+                histogram.onConversion(conversionMetrics);
+            }
+        };
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        Docs.builder()
+            .metricsListener(listener)
+            .buildWord(Markdowns.builder("# 嘉文四世\n\n**德玛西亚**\n\n<p>光盾</p>\n"), outputStream);
+
+        Assertions.assertEquals(1, conversions.size());
+        final ConversionMetrics conversion = conversions.get(0);
+        log.info("{}", conversion);
+        Assertions.assertTrue(conversion.isSuccess());
+        Assertions.assertEquals("buildWord", conversion.getOperation());
+        Assertions.assertEquals(3, conversion.getStage(DocStage.MARKDOWN_PARSE)
+                                             .getElements());
+        Assertions.assertNotNull(conversion.getStage(DocStage.MARKDOWN_TO_WORDML));
+        Assertions.assertNotNull(conversion.getStage(DocStage.XHTML_IMPORT));
+        Assertions.assertEquals(outputStream.size(), conversion.getStage(DocStage.PACKAGE_SAVE)
+                                                               .getBytesOut());
+
+        Assertions.assertEquals(1, histogram.getConversionSummary()
+                                            .getCount());
+        Assertions.assertEquals(outputStream.size(), histogram.snapshot()
+                                                              .get(DocStage.PACKAGE_SAVE)
+                                                              .getBytesOut());
+        Assertions.assertFalse(histogram.snapshot()
+                                        .containsKey(DocStage.TEMPLATE_RENDER));
+    }
+
+    @Test
+    @SneakyThrows
+    public void given_mixed_placeholder_when_build_word_then_record_placeholder_and_save() {
+        final WordprocessingMLPackage wordMLPackage = WordprocessingMLPackage.createPackage();
+        final MainDocumentPart mainDocumentPart = wordMLPackage.getMainDocumentPart();
+        mainDocumentPart.addParagraphOfText("英雄名称: {{user}}");
+        mainDocumentPart.addParagraphOfText("{{description}}");
+        final ByteArrayOutputStream templateOutputStream = new ByteArrayOutputStream();
+        wordMLPackage.save(templateOutputStream);
+        final InMemoryDocMetricsListener listener = new InMemoryDocMetricsListener();
+
+        for (int i = 0; i < 3; i++) {
+            final Map<String, Object> data = new HashMap<>();
+            data.put("user", "嘉文四世");
+            data.put("description", "<p>德玛西亚</p>");
+            Docs.builder(CompiledTemplate.compile(templateOutputStream.toByteArray()))
+                .metricsListener(listener)
+                .buildWord(data, new ByteArrayOutputStream());
+        }
+
+        log.info("{}", listener.snapshot());
+        Assertions.assertEquals(3, listener.getConversionSummary()
+                                           .getCount());
+        Assertions.assertEquals(0, listener.getFailedConversions());
+        Assertions.assertEquals(3, listener.getStageSummary(DocStage.XHTML_IMPORT)
+                                           .getCount());
+        Assertions.assertEquals(3, listener.getStageSummary(DocStage.PLACEHOLDER_REPLACE)
+                                           .getCount());
+        Assertions.assertTrue(listener.getStageSummary(DocStage.PACKAGE_SAVE)
+                                      .getBytesOut() > 0);
+        Assertions.assertTrue(listener.getConversionSummary()
+                                      .getPercentileMillis(0.99) >= listener.getConversionSummary()
+                                                                            .getPercentileMillis(0.5));
+    }
+
+    @Test
+    @SneakyThrows
+    public void given_unwritable_output_when_build_word_then_record_failure_for_every_overload() {
+        final File outputFile = new File(Files.createTempDirectory("md2docx-metrics")
+                                              .toFile(), "missing/output.docx");
+        final Map<String, Object> data = new HashMap<>();
+        data.put("user", "嘉文四世");
+        final InMemoryDocMetricsListener listener = new InMemoryDocMetricsListener();
+
+        Assertions.assertThrows(RuntimeException.class, () -> Docs.builder()
+                                                                  .metricsListener(listener)
+                                                                  .buildWord("<p>德玛西亚</p>", outputFile));
+        Assertions.assertThrows(RuntimeException.class, () -> Docs.builder()
+                                                                  .metricsListener(listener)
+                                                                  .buildWord(Markdowns.builder("德玛西亚"), outputFile));
+        Assertions.assertThrows(RuntimeException.class, () -> Docs.builder()
+                                                                  .metricsListener(listener)
+                                                                  .buildWord(data, outputFile));
+
+        Assertions.assertEquals(3, listener.getConversionSummary()
+                                           .getCount());
+        Assertions.assertEquals(3, listener.getFailedConversions());
+    }
+
+    @Test
+    public void given_large_document_when_build_word_ml_then_record_calling_thread_only() {
+        final StringBuilder markdown = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            markdown.append("## 英雄")
+                    .append(i)
+                    .append("\n\n<p>德玛西亚</p>\n\n");
+        }
+        final List<ConversionMetrics> conversions = new ArrayList<>();
+        final DocMetricsListener listener = new DocMetricsListener() {
+            @Override
+            public void onConversion(ConversionMetrics conversionMetrics) {
+                conversions.add(conversionMetrics);
+            }
+        };
+
+        // 每个 worker 在新线程中运行完才返回, 所有分段都在 worker 线程上渲染
+        final List<Object> wordML = Docs.builder()
+                                        .metricsListener(listener)
+                                        .largeDocument(50, 2)
+                                        .largeDocumentExecutor(DocMetricsTest::runOnNewThread)
+                                        .buildWordML(Markdowns.builder(markdown.toString()));
+
+        Assertions.assertEquals(40, wordML.size());
+        Assertions.assertEquals(1, conversions.size());
+        final ConversionMetrics conversion = conversions.get(0);
+        Assertions.assertTrue(conversion.isSuccess());
+        Assertions.assertEquals(1, conversion.getStage(DocStage.MARKDOWN_TO_WORDML)
+                                             .getInvocations());
+        Assertions.assertNull(conversion.getStage(DocStage.XHTML_IMPORT));
+    }
+
+    @SneakyThrows
+    private static void runOnNewThread(Runnable command) {
+        final Thread thread = new Thread(command);
+        thread.start();
+        thread.join();
+    }
+}
@@ -0,0 +1,51 @@
+package md2docx;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * doc utils test
+ *
+ * @author ludangxin
+ * @since 2026/10/17
+ */
+@Slf4j
+public class DocUtilsTest {
+    @Test
+    public void given_values_when_is_html_then_same_as_regex() {
+        final List<String> values = Arrays.asList("", "   ", "德玛西亚", "<p>德玛西亚</p>", "<br/>", "< >", "<>", "<<>", "a < b", "a > b", "a <> b < c", "1 < 2 > 0", "<\n>", "<\nbr\n/>", "<HTML>", "x<", ">x<", "<<<<", "a<b>", "<>x>", "<>>", "><>");
+
+        for (String value : values) {
+            Assertions.assertEquals(isHtmlByRegex(value), DocUtils.isHtml(value), value);
+        }
+        Assertions.assertFalse(DocUtils.isHtml(null));
+        Assertions.assertFalse(DocUtils.isHtml(1));
+    }
+
+    @Test
+    public void given_many_unclosed_tags_when_is_html_then_linear_time() {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 200_000; i++) {
+            sb.append("< a");
+        }
+        final String value = sb.toString();
+
+        final long start = System.nanoTime();
+        Assertions.assertFalse(DocUtils.isHtml(value));
+        final long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        log.info("is html 600KB unclosed tags: {}ms", elapsedMillis);
+        Assertions.assertTrue(elapsedMillis < 1000);
+    }
+
+    private static boolean isHtmlByRegex(String value) {
+        final String trimmed = value.trim();
+        if (trimmed.isEmpty()) {
+            return false;
+        }
+        return trimmed.matches("(?s).*<\\s*[^>]+\\s*[/]?\\s*>.*") || trimmed.matches("(?si).*(<html>|<body>|<head>|<p>|<div>|<h\\d+>).*");
+    }
+}
@@ -0,0 +1,146 @@
+package md2docx;
+
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.docx4j.openpackaging.parts.WordprocessingML.MainDocumentPart;
+import org.docx4j.openpackaging.parts.relationships.Namespaces;
+import org.docx4j.relationships.Relationship;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * fragment cache test
+ *
+ * @author ludangxin
+ * @since 2026/10/17
+ */
+@Slf4j
+public class FragmentCacheTest {
+    private static final String IMAGE = "data:image/png;base64,iVBORw0KGgoAAAANSUhEUgAAAAEAAAABCAYAAAAfFcSJAAAADUlEQVR42mP8z8BQDwAEhQGAhKmMIQAAAABJRU5ErkJggg==";
+
+    @Test
+    @SneakyThrows
+    public void given_html_blocks_when_build_twice_then_copy_cached_fragments() {
+        final String markdown = "# 嘉文四世\n\n" + "<p>详情见 <a href=\"https://lol.qq.com/\">英雄联盟</a></p>\n\n" + "<table><tr><th>技能</th><th>冷却</th></tr><tr><td>天崩地裂</td><td>120</td></tr></table>\n\n" + "<p>德玛西亚<img src=\"" + IMAGE + "\"/></p>\n";
+        final FragmentCache fragmentCache = new FragmentCache(16);
+
+        final MainDocumentPart expected = TestDocs.build(Docs.builder(), markdown);
+        Assertions.assertEquals(0, fragmentCache.getHitCount());
+        TestDocs.build(Docs.builder()
+                           .fragmentCache(fragmentCache), markdown);
+        Assertions.assertEquals(3, fragmentCache.getMissCount());
+        Assertions.assertEquals(3, fragmentCache.size());
+
+        final MainDocumentPart actual = TestDocs.build(Docs.builder()
+                                                           .fragmentCache(fragmentCache), markdown);
+        Assertions.assertEquals(3, fragmentCache.getHitCount());
+        Assertions.assertEquals(3, fragmentCache.getMissCount());
+        Assertions.assertEquals(TestDocs.normalize(expected.getXML()), TestDocs.normalize(actual.getXML()));
+
+        // 命中的图片在新文档中有自己的图片部件
+        final String embed = actual.getXML()
+                                   .replaceAll("(?s).*r:embed=\"(rId\\d+)\".*", "$1");
+        Assertions.assertEquals(Namespaces.IMAGE, actual.getRelationshipsPart()
+                                                        .getRelationshipByID(embed)
+                                                        .getType());
+
+        // 命中的超链接在新文档中有自己的关系
+        final String id = actual.getXML()
+                                .replaceAll("(?s).*<w:hyperlink r:id=\"(rId\\d+)\".*", "$1");
+        final Relationship relationship = actual.getRelationshipsPart()
+                                                .getRelationshipByID(id);
+        Assertions.assertEquals(Namespaces.HYPERLINK, relationship.getType());
+        Assertions.assertEquals("https://lol.qq.com/", relationship.getTarget());
+    }
+
+    @Test
+    @SneakyThrows
+    public void given_same_html_placeholder_when_render_twice_then_skip_import() {
+        final WordprocessingMLPackage wordMLPackage = WordprocessingMLPackage.createPackage();
+        wordMLPackage.getMainDocumentPart()
+                     .addParagraphOfText("{{footer}}");
+        wordMLPackage.getMainDocumentPart()
+                     .addParagraphOfText("{{disclaimer}}");
+        final ByteArrayOutputStream templateOutputStream = new ByteArrayOutputStream();
+        wordMLPackage.save(templateOutputStream);
+        final CompiledTemplate template = CompiledTemplate.compile(templateOutputStream.toByteArray());
+
+        final String html = "<table><tr><th>声明</th></tr><tr><td>详见 <a href=\"https://lol.qq.com/\">英雄联盟</a><img src=\"" + IMAGE + "\"/></td></tr></table>";
+        final Map<String, Object> data = new HashMap<>();
+        data.put("footer", html);
+        data.put("disclaimer", html);
+        final FragmentCache fragmentCache = new FragmentCache(16);
+
+        final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        Docs.builder(template)
+            .buildWord(data, expected);
+        for (int i = 0; i < 2; i++) {
+            final ByteArrayOutputStream actual = new ByteArrayOutputStream();
+            Docs.builder(template)
+                .fragmentCache(fragmentCache)
+                .buildWord(data, actual);
+            Assertions.assertEquals(TestDocs.normalize(this.load(expected).getXML()), TestDocs.normalize(this.load(actual).getXML()));
+        }
+
+        // 不同占位符中相同的 html 共享缓存
+        Assertions.assertEquals(1, fragmentCache.getMissCount());
+        Assertions.assertEquals(3, fragmentCache.getHitCount());
+    }
+
+    @Test
+    public void given_different_config_when_build_then_not_share_fragments() {
+        final String markdown = "<p>德玛西亚</p>\n";
+        final FragmentCache fragmentCache = new FragmentCache(16);
+
+        Docs.builder()
+            .fragmentCache(fragmentCache)
+            .buildWordML(Markdowns.builder(markdown));
+        Docs.builder()
+            .fragmentCache(fragmentCache)
+            .globalCss("table td{border:1px solid #000}")
+            .buildWordML(Markdowns.builder(markdown));
+        Docs.builder()
+            .fragmentCache(fragmentCache)
+            .buildWordML(Markdowns.builder(markdown));
+
+        Assertions.assertEquals(2, fragmentCache.size());
+        Assertions.assertEquals(1, fragmentCache.getHitCount());
+    }
+
+    @Test
+    public void given_html_content_processor_when_build_then_cache_only_with_processor_id() {
+        final String markdown = "<p>德玛西亚</p>\n";
+        final FragmentCache fragmentCache = new FragmentCache(16);
+
+        // 没有标识的处理器每次都重新导入
+        for (int i = 0; i < 2; i++) {
+            Docs.builder()
+                .fragmentCache(fragmentCache)
+                .htmlContentProcessor((html, key) -> html)
+                .buildWordML(Markdowns.builder(markdown));
+        }
+        Assertions.assertEquals(0, fragmentCache.size());
+
+        // 标识相同的处理器(每次新建的 lambda)共享缓存, 标识不同的不共享
+        for (String processorId : new String[]{"upper", "upper", "lower"}) {
+            Docs.builder()
+                .fragmentCache(fragmentCache)
+                .htmlContentProcessor(processorId, (html, key) -> html)
+                .buildWordML(Markdowns.builder(markdown));
+        }
+        Assertions.assertEquals(2, fragmentCache.size());
+        Assertions.assertEquals(1, fragmentCache.getHitCount());
+    }
+
+    @SneakyThrows
+    private MainDocumentPart load(ByteArrayOutputStream outputStream) {
+        return WordprocessingMLPackage.load(new ByteArrayInputStream(outputStream.toByteArray()))
+                                      .getMainDocumentPart();
+    }
+}
@@ -0,0 +1,92 @@
+package md2docx;
+
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.docx4j.openpackaging.parts.Part;
+import org.docx4j.openpackaging.parts.WordprocessingML.BinaryPartAbstractImage;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+
+/**
+ * image cache test
+ *
+ * @author ludangxin
+ * @since 2026/10/17
+ */
+@Slf4j
+public class ImageCacheTest {
+    @Test
+    @SneakyThrows
+    public void given_same_image_many_times_when_build_word_then_share_one_image_part() {
+        final Path dir = Files.createTempDirectory("md2docx-image");
+        final File logo = dir.resolve("logo.png")
+                             .toFile();
+        final ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(40, 20, BufferedImage.TYPE_INT_RGB), "png", png);
+        Files.write(logo.toPath(), png.toByteArray());
+        final String dataUri = "data:image/png;base64," + Base64.getEncoder()
+                                                                .encodeToString(png.toByteArray());
+        final String markdown = "![德玛西亚](logo.png)\n\n![德玛西亚](logo.png)\n\n<p><img src=\"logo.png\"/><img src=\"" + dataUri + "\"/></p>\n";
+        final ImageCache imageCache = new ImageCache(1024 * 1024, 16);
+
+        try {
+            for (int i = 0; i < 2; i++) {
+                final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+                Docs.builder()
+                    .staticResourceBaseUri(dir.toUri()
+                                              .toString())
+                    .imageCache(imageCache)
+                    .buildWord(Markdowns.builder(markdown), outputStream);
+
+                final WordprocessingMLPackage wordMLPackage = WordprocessingMLPackage.load(new ByteArrayInputStream(outputStream.toByteArray()));
+                int imageParts = 0;
+                for (Part part : wordMLPackage.getParts()
+                                              .getParts()
+                                              .values()) {
+                    if (part instanceof BinaryPartAbstractImage) {
+                        imageParts++;
+                    }
+                }
+                Assertions.assertEquals(1, imageParts);
+                Assertions.assertEquals(4, wordMLPackage.getMainDocumentPart()
+                                                        .getXML()
+                                                        .split("r:embed=").length - 1);
+            }
+
+            log.info("image cache hit: {}, miss: {}", imageCache.getHitCount(), imageCache.getMissCount());
+            Assertions.assertEquals(1, imageCache.getMissCount());
+            Assertions.assertEquals(1, imageCache.size());
+            Assertions.assertEquals(png.size(), imageCache.getTotalBytes());
+            // 第二次转换复用第一次的识别结果, 不再解码
+            Assertions.assertTrue(imageCache.get(png.toByteArray())
+                                            .isDecoded());
+        }
+        finally {
+            Files.delete(logo.toPath());
+            Files.delete(dir);
+        }
+    }
+
+    @Test
+    public void given_many_images_when_exceed_max_bytes_then_evict_eldest() {
+        final ImageCache imageCache = new ImageCache(10, 16);
+        final ImageCache.Image first = imageCache.get(new byte[]{1, 2, 3, 4, 5, 6});
+        Assertions.assertSame(first, imageCache.get(new byte[]{1, 2, 3, 4, 5, 6}));
+        imageCache.get(new byte[]{7, 8, 9, 10, 11, 12});
+        Assertions.assertEquals(1, imageCache.size());
+        Assertions.assertEquals(6, imageCache.getTotalBytes());
+        Assertions.assertNotSame(first, imageCache.get(new byte[]{1, 2, 3, 4, 5, 6}));
+        Assertions.assertEquals(1, imageCache.getHitCount());
+        Assertions.assertEquals(3, imageCache.getMissCount());
+    }
+}
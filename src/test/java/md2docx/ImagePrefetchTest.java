@@ -0,0 +1,86 @@
+package md2docx;
+
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * image prefetch test
+ *
+ * @author ludangxin
+ * @since 2026/10/17
+ */
+@Slf4j
+public class ImagePrefetchTest {
+    @Test
+    public void given_markdown_when_collect_then_return_all_image_sources() {
+        final String markdown = "![a](a.png) ![b][logo]\n\n<div><img alt='c' src='c.png'></div>\n\n段落 <img src=\"d.png\"/> ![a](a.png)\n\n[logo]: b.png\n";
+        final Set<String> srcs = ImagePrefetcher.collect(Markdowns.builder(markdown)
+                                                                  .buildDocument());
+        Assertions.assertEquals(Arrays.asList("a.png", "b.png", "c.png", "d.png"), Arrays.asList(srcs.toArray()));
+    }
+
+    @Test
+    @SneakyThrows
+    public void given_many_images_when_build_word_then_prefetch_in_parallel() {
+        final Path dir = Files.createTempDirectory("md2docx-prefetch");
+        final StringBuilder markdown = new StringBuilder();
+        for (int i = 0; i < 6; i++) {
+            final ByteArrayOutputStream png = new ByteArrayOutputStream();
+            ImageIO.write(new BufferedImage(10 + i, 10, BufferedImage.TYPE_INT_RGB), "png", png);
+            Files.write(dir.resolve(i + ".png"), png.toByteArray());
+            markdown.append("![英雄")
+                    .append(i)
+                    .append("](")
+                    .append(i)
+                    .append(".png)\n\n");
+        }
+
+        final ImageCache imageCache = new ImageCache(1024 * 1024, 16);
+        final AtomicInteger workers = new AtomicInteger();
+        final ExecutorService executor = Executors.newFixedThreadPool(3);
+        final InMemoryDocMetricsListener listener = new InMemoryDocMetricsListener();
+        try {
+            Docs.builder()
+                .staticResourceBaseUri(dir.toUri()
+                                          .toString())
+                .imageCache(imageCache)
+                .imagePrefetch(3, 10, TimeUnit.SECONDS)
+                .imagePrefetchExecutor(command -> {
+                    workers.incrementAndGet();
+                    executor.execute(command);
+                })
+                .metricsListener(listener)
+                .buildWord(Markdowns.builder(markdown.toString()), new ByteArrayOutputStream());
+
+            log.info("image prefetch: {}", listener.getStageSummary(DocStage.IMAGE_PREFETCH));
+            Assertions.assertEquals(3, workers.get());
+            Assertions.assertEquals(6, imageCache.getMissCount());
+            Assertions.assertEquals(0, imageCache.getHitCount());
+            Assertions.assertEquals(6, listener.getStageSummary(DocStage.IMAGE_PREFETCH)
+                                               .getElements());
+        }
+        finally {
+            executor.shutdown();
+            for (File file : dir.toFile()
+                                .listFiles()) {
+                Files.delete(file.toPath());
+            }
+            Files.delete(dir);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package md2docx;
+
+import lombok.SneakyThrows;
+import org.docx4j.XmlUtils;
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.docx4j.wml.Document;
+import org.docx4j.wml.P;
+import org.docx4j.wml.R;
+import org.docx4j.wml.Style;
+import org.docx4j.wml.Styles;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.LinkedList;
+
+/**
+ * jaxb copier test
+ *
+ * @author ludangxin
+ * @since 2026/10/17
+ */
+public class JaxbCopierTest {
+    @Test
+    @SneakyThrows
+    public void given_styles_when_copy_then_equal_xml_and_new_objects() {
+        final Styles styles = WordprocessingMLPackage.createPackage()
+                                                     .getMainDocumentPart()
+                                                     .getStyleDefinitionsPart()
+                                                     .getJaxbElement();
+        final Styles copy = JaxbCopier.copy(styles);
+
+        Assertions.assertNotSame(styles, copy);
+        Assertions.assertEquals(XmlUtils.marshaltoString(styles), XmlUtils.marshaltoString(copy));
+        for (int i = 0; i < styles.getStyle()
+                                  .size(); i++) {
+            Assertions.assertNotSame(styles.getStyle()
+                                           .get(i), copy.getStyle()
+                                                        .get(i));
+        }
+
+        // 修改拷贝不影响源对象
+        copy.getStyle()
+            .get(0)
+            .getName()
+            .setVal("嘉文四世");
+        Assertions.assertNotEquals("嘉文四世", styles.getStyle()
+                                                   .get(0)
+                                                   .getName()
+                                                   .getVal());
+    }
+
+    @Test
+    @SneakyThrows
+    public void given_document_when_copy_then_keep_parent_and_content_list_type() {
+        final WordprocessingMLPackage wordMLPackage = WordprocessingMLPackage.createPackage();
+        wordMLPackage.getMainDocumentPart()
+                     .addParagraphOfText("德玛西亚");
+        final Document document = wordMLPackage.getMainDocumentPart()
+                                               .getJaxbElement();
+        final Document copy = JaxbCopier.copy(document);
+
+        Assertions.assertEquals(XmlUtils.marshaltoString(document), XmlUtils.marshaltoString(copy));
+        Assertions.assertSame(copy, copy.getBody()
+                                        .getParent());
+
+        final P source = (P) document.getContent()
+                                     .get(0);
+        final P p = (P) copy.getContent()
+                            .get(0);
+        Assertions.assertSame(copy.getBody(), p.getParent());
+        Assertions.assertSame(source.getContent()
+                                    .getClass(), p.getContent()
+                                                  .getClass());
+        Assertions.assertSame(p, ((R) p.getContent()
+                                       .get(0)).getParent());
+    }
+
+    @Test
+    @SneakyThrows
+    public void given_unsupported_list_when_copy_then_fall_back_to_deep_copy() {
+        final Styles styles = WordprocessingMLPackage.createPackage()
+                                                     .getMainDocumentPart()
+                                                     .getStyleDefinitionsPart()
+                                                     .getJaxbElement();
+        // 没有 (Object parent) 构造函数的列表类型无法按字段复制
+        final Field field = Styles.class.getDeclaredField("style");
+        field.setAccessible(true);
+        field.set(styles, new LinkedList<Style>(styles.getStyle()));
+
+        final Styles copy = JaxbCopier.copy(styles);
+
+        Assertions.assertNotSame(styles, copy);
+        Assertions.assertFalse(copy.getStyle() instanceof LinkedList);
+        Assertions.assertEquals(XmlUtils.marshaltoString(styles), XmlUtils.marshaltoString(copy));
+    }
+}
@@ -0,0 +1,72 @@
+package md2docx;
+
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.docx4j.openpackaging.parts.WordprocessingML.MainDocumentPart;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * large document test
+ *
+ * @author ludangxin
+ * @since 2026/10/17
+ */
+@Slf4j
+public class LargeDocumentTest {
+    @Test
+    @SneakyThrows
+    public void given_large_markdown_when_render_in_chunks_then_same_as_serial() {
+        final StringBuilder markdown = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            markdown.append("## 英雄")
+                    .append(i)
+                    .append("\n\n**嘉文四世** 详情见 [英雄联盟](https://lol.qq.com/")
+                    .append(i)
+                    .append(")\n\n- 上单\n- 打野\n\n3. 龙枪破防\n4. 天崩地裂\n\n| 技能 | 冷却 |\n| --- | --- |\n| 天崩地裂 | ")
+                    .append(i)
+                    .append(" |\n\n<p>德玛西亚")
+                    .append(i)
+                    .append("</p>\n\n");
+        }
+
+        final MainDocumentPart serial = TestDocs.build(Docs.builder(), markdown.toString());
+
+        final AtomicInteger workers = new AtomicInteger();
+        final ExecutorService executor = Executors.newFixedThreadPool(3);
+        final MainDocumentPart chunked;
+        try {
+            chunked = TestDocs.build(Docs.builder()
+                                         .largeDocument(500, 4)
+                                         .largeDocumentExecutor(command -> {
+                                             workers.incrementAndGet();
+                                             executor.execute(command);
+                                         }), markdown.toString());
+        }
+        finally {
+            executor.shutdown();
+        }
+
+        Assertions.assertEquals(3, workers.get());
+        // 并行时编号和关系的分配顺序不同, 比较时忽略具体 id
+        Assertions.assertEquals(TestDocs.normalize(serial.getXML()), TestDocs.normalize(chunked.getXML()));
+        Assertions.assertEquals(serial.getNumberingDefinitionsPart()
+                                      .getContents()
+                                      .getNum()
+                                      .size(), chunked.getNumberingDefinitionsPart()
+                                                      .getContents()
+                                                      .getNum()
+                                                      .size());
+        Assertions.assertEquals(serial.getRelationshipsPart()
+                                      .getRelationships()
+                                      .getRelationship()
+                                      .size(), chunked.getRelationshipsPart()
+                                                      .getRelationships()
+                                                      .getRelationship()
+                                                      .size());
+    }
+}
@@ -0,0 +1,175 @@
+package md2docx;
+
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.docx4j.XmlUtils;
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.docx4j.wml.P;
+import org.docx4j.wml.Tbl;
+import org.docx4j.wml.Tr;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+
+/**
+ * markdown docx renderer test
+ *
+ * @author ludangxin
+ * @since 2026/10/17
+ */
+@Slf4j
+public class MarkdownDocxRendererTest {
+    private static final String MARKDOWN_CONTENT = "## 嘉文四世\n\n" + "> 德玛西亚\n\n" + "**给我找些更强的敌人！** [官网](https://lol.qq.com)\n\n" + "1. 上单\n" + "2. 打野\n\n" + "- 盖伦\n" + "- 赵信\n\n" + "```java\n" + "int a = 1;\n" + "int b = 2;\n" + "```\n\n" + "| 列1 | 列2 |\n" + "| --- | :---: |\n" + "| 数据1 | 数据2 |\n";
+
+    @Test
+    @SneakyThrows
+    public void given_markdown_when_render_then_map_nodes_to_word_styles() {
+        final WordprocessingMLPackage wordMLPackage = WordprocessingMLPackage.createPackage();
+        final List<Object> content = new MarkdownDocxRenderer(wordMLPackage, null, null).render(Markdowns.builder(MARKDOWN_CONTENT)
+                                                                                                          .buildDocument());
+
+        Assertions.assertEquals(9, content.size());
+
+        final P heading = (P) content.get(0);
+        Assertions.assertEquals("Heading2", heading.getPPr()
+                                                   .getPStyle()
+                                                   .getVal());
+        Assertions.assertEquals("嘉文四世", DocUtils.extractText(heading));
+
+        final P quote = (P) content.get(1);
+        Assertions.assertNotNull(quote.getPPr()
+                                      .getPBdr()
+                                      .getLeft());
+
+        final String paragraph = XmlUtils.marshaltoString(content.get(2), true, false);
+        Assertions.assertTrue(paragraph.contains("<w:b/>"));
+        Assertions.assertTrue(paragraph.contains("w:hyperlink"));
+
+        final P ordered = (P) content.get(3);
+        final P bullet = (P) content.get(5);
+        Assertions.assertNotNull(ordered.getPPr()
+                                        .getNumPr());
+        Assertions.assertEquals(ordered.getPPr()
+                                       .getNumPr()
+                                       .getNumId()
+                                       .getVal(), ((P) content.get(4)).getPPr()
+                                                                      .getNumPr()
+                                                                      .getNumId()
+                                                                      .getVal());
+        Assertions.assertNotEquals(ordered.getPPr()
+                                          .getNumPr()
+                                          .getNumId()
+                                          .getVal(), bullet.getPPr()
+                                                           .getNumPr()
+                                                           .getNumId()
+                                                           .getVal());
+
+        Assertions.assertEquals("int a = 1;int b = 2;", DocUtils.extractText(content.get(7)));
+
+        final Tbl tbl = (Tbl) content.get(8);
+        Assertions.assertEquals(2, tbl.getContent()
+                                      .size());
+        Assertions.assertTrue(XmlUtils.marshaltoString(((Tr) tbl.getContent()
+                                                                .get(1)), true, false)
+                                      .contains("w:val=\"center\""));
+    }
+
+    @Test
+    @SneakyThrows
+    public void given_markdown_builder_when_build_word_then_write_docx() {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        Docs.builder()
+            .buildWord(Markdowns.builder(MARKDOWN_CONTENT + "\n<p>内嵌 <b>html</b></p>\n"), outputStream);
+
+        final List<Object> content = WordprocessingMLPackage.load(new ByteArrayInputStream(outputStream.toByteArray()))
+                                                            .getMainDocumentPart()
+                                                            .getContent();
+        Assertions.assertEquals("嘉文四世", DocUtils.extractText(content.get(0)));
+        Assertions.assertEquals("内嵌 html", DocUtils.extractText(content.get(content.size() - 1)));
+    }
+
+    @Test
+    public void given_custom_global_css_when_build_word_ml_then_table_use_css_style() {
+        final List<Object> content = Docs.builder()
+                                         .globalCss("table{border-collapse:collapse;width:100%}table th{background-color:#eeeeee;border:1px solid #000;padding:4px}table td{border:1px solid #000;padding:4px}")
+                                         .buildWordML(Markdowns.builder("| 列1 | 列2 |\n| --- | --- |\n| 数据1 | 数据2 |\n"));
+
+        final Tbl tbl = (Tbl) XmlUtils.unwrap(content.get(0));
+        Assertions.assertEquals(CompiledCss.TABLE_STYLE_ID, tbl.getTblPr()
+                                                               .getTblStyle()
+                                                               .getVal());
+        Assertions.assertNull(tbl.getTblPr()
+                                 .getTblBorders());
+        Assertions.assertFalse(XmlUtils.marshaltoString(tbl, true, false)
+                                       .contains("F7F7F7"));
+    }
+
+    @Test
+    public void given_uncompilable_global_css_when_build_word_ml_then_import_html() {
+        final List<Object> content = Docs.builder()
+                                         .globalCss("p{color:#ff0000}")
+                                         .buildWordML(Markdowns.builder("德玛西亚"));
+
+        Assertions.assertEquals("德玛西亚", DocUtils.extractText(content.get(0)));
+        // css 注入 html 后由 xhtml 导入器生效
+        Assertions.assertTrue(XmlUtils.marshaltoString(content.get(0), true, false)
+                                      .contains("w:color w:val=\"ff0000\""));
+    }
+
+    @Test
+    @SneakyThrows
+    public void given_two_documents_when_allocate_drawing_ids_then_count_per_document() {
+        final WordprocessingMLPackage first = WordprocessingMLPackage.createPackage();
+        final WordprocessingMLPackage second = WordprocessingMLPackage.createPackage();
+        final DocumentImages firstImages = new DocumentImages(first, ImageCache.getDefault());
+        final DocumentImages secondImages = new DocumentImages(second, ImageCache.getDefault());
+
+        Assertions.assertEquals(firstImages.nextDrawingId(), secondImages.nextDrawingId());
+        Assertions.assertNotEquals(firstImages.nextDrawingId(), firstImages.nextDrawingId());
+    }
+
+    @Test
+    @SneakyThrows
+    public void given_cancelled_html_conversion_when_render_then_stop() {
+        final WordprocessingMLPackage wordMLPackage = WordprocessingMLPackage.createPackage();
+        final MarkdownDocxRenderer renderer = new MarkdownDocxRenderer(wordMLPackage, null, html -> {
+            throw new DeadlineExceededException("deadline exceeded");
+        });
+
+        Assertions.assertThrows(DeadlineExceededException.class, () -> renderer.render(Markdowns.builder("# 嘉文四世\n\n<p>德玛西亚</p>\n")
+                                                                                               .buildDocument()));
+    }
+
+    @Test
+    @SneakyThrows
+    public void given_failed_html_conversion_when_render_then_throw() {
+        final WordprocessingMLPackage wordMLPackage = WordprocessingMLPackage.createPackage();
+        final MarkdownDocxRenderer renderer = new MarkdownDocxRenderer(wordMLPackage, null, html -> {
+            throw new IllegalStateException("invalid xhtml");
+        });
+
+        final RuntimeException e = Assertions.assertThrows(RuntimeException.class, () -> renderer.render(Markdowns.builder("<p>德玛西亚</p>\n")
+                                                                                                                .buildDocument()));
+        Assertions.assertTrue(e.getCause() instanceof IllegalStateException);
+    }
+
+    @Test
+    public void given_inline_html_when_build_word_ml_then_convert_like_html_path() {
+        final List<Object> content = Docs.builder()
+                                         .buildWordML(Markdowns.builder("德玛西亚 <b>之力</b>\n\n<span style=\"color:#ff0000\">红色</span> 文字\n\n- 盖伦 <b>德邦</b>\n"));
+
+        Assertions.assertEquals(3, content.size());
+        Assertions.assertEquals("德玛西亚 之力", DocUtils.extractText(content.get(0)));
+        final String bold = XmlUtils.marshaltoString(content.get(0));
+        Assertions.assertTrue(bold.contains("<w:b/>") || bold.contains("<w:b "), bold);
+        Assertions.assertTrue(XmlUtils.marshaltoString(content.get(1))
+                                      .contains("w:color w:val=\"ff0000\""));
+        // 列表中的内联标签忽略, 保留文本和编号
+        Assertions.assertEquals("盖伦 德邦", DocUtils.extractText(content.get(2)));
+        Assertions.assertNotNull(((P) content.get(2)).getPPr()
+                                                     .getNumPr());
+    }
+}
@@ -0,0 +1,87 @@
+package md2docx;
+
+import com.vladsch.flexmark.ext.tables.TablesExtension;
+import com.vladsch.flexmark.util.ast.Document;
+import com.vladsch.flexmark.util.data.MutableDataSet;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * markdown test
+ *
+ * @author ludangxin
+ * @since 2026/10/17
+ */
+@Slf4j
+public class MarkdownsTest {
+    private static final String MARKDOWN_CONTENT = "## 嘉文四世\n\n> 德玛西亚\n\n**给我找些更强的敌人！**\n\n| 列1 | 列2 |\n| --- | --- |\n| 数据1 | 数据2 |\n";
+
+    @Test
+    public void given_same_options_when_get_engine_then_return_cached_engine() {
+        final MutableDataSet options = MarkdownEngine.defaultOptions();
+
+        Assertions.assertSame(MarkdownEngine.getDefault(), MarkdownEngine.of(null, null, null));
+        Assertions.assertSame(MarkdownEngine.of(options, null, null), MarkdownEngine.of(options, null, null));
+    }
+
+    @Test
+    public void given_new_extension_instances_when_get_engine_then_return_cached_engine() {
+        final MutableDataSet options = MarkdownEngine.defaultOptions();
+        options.set(TablesExtension.COLUMN_SPANS, true);
+        final MutableDataSet sameOptions = MarkdownEngine.defaultOptions();
+        sameOptions.set(TablesExtension.COLUMN_SPANS, true);
+
+        // 每次 defaultOptions() 都新建 TablesExtension 实例
+        Assertions.assertSame(MarkdownEngine.of(options, null, null), MarkdownEngine.of(sameOptions, null, null));
+        Assertions.assertNotSame(MarkdownEngine.of(options, null, null), MarkdownEngine.of(MarkdownEngine.defaultOptions(), null, null));
+    }
+
+    @Test
+    public void given_markdown_builder_when_detect_and_render_then_parse_once() {
+        final Markdowns.MarkdownBuilder builder = Markdowns.builder(MARKDOWN_CONTENT);
+        final Document document = builder.buildDocument();
+
+        Assertions.assertTrue(builder.isMarkdown());
+        Assertions.assertTrue(builder.buildHtmlIfMarkdown()
+                                     .contains("<blockquote>"));
+        Assertions.assertSame(document, builder.buildDocument());
+        Assertions.assertFalse(Markdowns.builder("纯文本内容")
+                                        .isMarkdown());
+    }
+
+    @Test
+    @SneakyThrows
+    public void given_shared_engine_when_render_concurrently_then_return_same_html() {
+        final MarkdownEngine engine = MarkdownEngine.builder()
+                                                    .build();
+        final String expected = Markdowns.builder(MARKDOWN_CONTENT)
+                                         .buildHtmlContent();
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try {
+            final List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                futures.add(executor.submit(() -> Markdowns.builder(MARKDOWN_CONTENT)
+                                                           .engine(engine)
+                                                           .buildHtmlContent()));
+            }
+
+            for (Future<String> future : futures) {
+                Assertions.assertEquals(expected, future.get());
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+
+        Assertions.assertTrue(expected.contains("<table>"));
+    }
+}
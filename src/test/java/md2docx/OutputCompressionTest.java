@@ -0,0 +1,153 @@
+package md2docx;
+
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.docx4j.openpackaging.parts.WordprocessingML.BinaryPartAbstractImage;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+
+/**
+ * output compression test
+ *
+ * @author ludangxin
+ * @since 2026/10/17
+ */
+@Slf4j
+public class OutputCompressionTest {
+    private static final String MARKDOWN = "# 嘉文四世\n\n> 德玛西亚\n\n**给我找些更强的敌人！**\n\n| 技能 | 冷却 |\n| --- | --- |\n| 龙枪破防 | 10 |\n";
+
+    @Test
+    @SneakyThrows
+    public void given_store_profile_when_build_word_then_all_entries_stored() {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        Docs.builder()
+            .outputCompression(OutputCompression.STORE)
+            .buildWord(Markdowns.builder(MARKDOWN), outputStream);
+
+        for (ZipEntry entry : TestDocs.zipEntries(outputStream.toByteArray()).values()) {
+            Assertions.assertEquals(ZipEntry.STORED, entry.getMethod(), entry.getName());
+        }
+        Assertions.assertEquals("嘉文四世", DocUtils.extractText(load(outputStream.toByteArray()).getMainDocumentPart()
+                                                                                                   .getContent()
+                                                                                                   .get(0)));
+    }
+
+    @Test
+    @SneakyThrows
+    public void given_engine_store_profile_when_render_then_all_entries_stored() {
+        final DocEngine engine = DocEngine.builder()
+                                          .outputCompression(OutputCompression.STORE)
+                                          .build();
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        engine.renderMarkdown(MARKDOWN, outputStream);
+
+        for (ZipEntry entry : TestDocs.zipEntries(outputStream.toByteArray()).values()) {
+            Assertions.assertEquals(ZipEntry.STORED, entry.getMethod(), entry.getName());
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    public void given_profiles_when_build_word_then_size_follow_level() {
+        final Map<OutputCompression, Integer> sizes = new HashMap<>();
+        for (OutputCompression compression : new OutputCompression[]{OutputCompression.STORE, OutputCompression.FAST, OutputCompression.DEFAULT, OutputCompression.MAX}) {
+            final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            Docs.builder()
+                .outputCompression(compression)
+                .buildWord(Markdowns.builder(MARKDOWN), outputStream);
+            sizes.put(compression, outputStream.size());
+            log.info("{}: {} bytes", compression.getLevel(), outputStream.size());
+        }
+
+        Assertions.assertTrue(sizes.get(OutputCompression.STORE) > sizes.get(OutputCompression.FAST));
+        Assertions.assertTrue(sizes.get(OutputCompression.FAST) >= sizes.get(OutputCompression.MAX));
+        Assertions.assertTrue(sizes.get(OutputCompression.DEFAULT) >= sizes.get(OutputCompression.MAX));
+    }
+
+    @Test
+    @SneakyThrows
+    public void given_content_type_override_when_build_word_then_store_images_only() {
+        final CompiledTemplate template = CompiledTemplate.compile(templateWithJpeg());
+        final OutputCompression compression = OutputCompression.builder(OutputCompression.Level.MAX)
+                                                               .storeCompressedMedia()
+                                                               .build();
+        Assertions.assertEquals(OutputCompression.Level.STORE, compression.levelOf("image/jpeg"));
+        Assertions.assertEquals(OutputCompression.Level.STORE, compression.levelOf("video/mp4"));
+        Assertions.assertEquals(OutputCompression.Level.MAX, compression.levelOf("application/xml"));
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        Docs.builder(template)
+            .outputCompression(compression)
+            .buildWord(Markdowns.builder(MARKDOWN), outputStream);
+
+        for (ZipEntry entry : TestDocs.zipEntries(outputStream.toByteArray()).values()) {
+            final int method = entry.getName()
+                                    .endsWith(".jpeg") ? ZipEntry.STORED : ZipEntry.DEFLATED;
+            Assertions.assertEquals(method, entry.getMethod(), entry.getName());
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    public void given_streaming_output_when_store_profile_then_readable() {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        Docs.builder()
+            .streamingOutput(true)
+            .outputCompression(OutputCompression.STORE)
+            .buildWord(Markdowns.builder(MARKDOWN), outputStream);
+
+        for (ZipEntry entry : TestDocs.zipEntries(outputStream.toByteArray()).values()) {
+            // 流式写出的正文大小未知, 以不压缩的 deflate 写出
+            final int method = entry.getName()
+                                    .equals("word/document.xml") ? ZipEntry.DEFLATED : ZipEntry.STORED;
+            Assertions.assertEquals(method, entry.getMethod(), entry.getName());
+        }
+        Assertions.assertEquals("嘉文四世", DocUtils.extractText(load(outputStream.toByteArray()).getMainDocumentPart()
+                                                                                                   .getContent()
+                                                                                                   .get(0)));
+    }
+
+    @Test
+    @SneakyThrows
+    public void given_html_when_convert_with_store_profile_then_entries_stored() {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        HtmlToDocx.convertHtmlToDocx("<html><body><h2>嘉文四世</h2><p>德玛西亚</p></body></html>", outputStream, OutputCompression.STORE);
+
+        for (ZipEntry entry : TestDocs.zipEntries(outputStream.toByteArray()).values()) {
+            Assertions.assertEquals(ZipEntry.STORED, entry.getMethod(), entry.getName());
+        }
+        Assertions.assertNotNull(load(outputStream.toByteArray()).getMainDocumentPart());
+    }
+
+    private static byte[] templateWithJpeg() throws Exception {
+        final BufferedImage image = new BufferedImage(64, 64, BufferedImage.TYPE_INT_RGB);
+        final Random random = new Random(42);
+        for (int x = 0; x < image.getWidth(); x++) {
+            for (int y = 0; y < image.getHeight(); y++) {
+                image.setRGB(x, y, random.nextInt(0xFFFFFF));
+            }
+        }
+        final ByteArrayOutputStream imageOutputStream = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpeg", imageOutputStream);
+
+        final WordprocessingMLPackage wordMLPackage = WordprocessingMLPackage.createPackage();
+        BinaryPartAbstractImage.createImagePart(wordMLPackage, imageOutputStream.toByteArray());
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        wordMLPackage.save(outputStream);
+        return outputStream.toByteArray();
+    }
+
+    private static WordprocessingMLPackage load(byte[] docx) throws Exception {
+        return WordprocessingMLPackage.load(new ByteArrayInputStream(docx));
+    }
+}
@@ -0,0 +1,111 @@
+package md2docx;
+
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.docx4j.openpackaging.parts.WordprocessingML.MainDocumentPart;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * placeholder index test
+ *
+ * @author ludangxin
+ * @since 2026/10/17
+ */
+@Slf4j
+public class PlaceHolderIndexTest {
+    @Test
+    @SneakyThrows
+    public void given_template_body_when_scan_then_return_placeholder_positions() {
+        final WordprocessingMLPackage wordMLPackage = WordprocessingMLPackage.createPackage();
+        final MainDocumentPart mainDocumentPart = wordMLPackage.getMainDocumentPart();
+        mainDocumentPart.addParagraphOfText("标题");
+        mainDocumentPart.addParagraphOfText("{{ description }}");
+        mainDocumentPart.addParagraphOfText("前缀 {{user}}");
+        mainDocumentPart.addParagraphOfText("{{footer}}");
+
+        final PlaceHolderIndex index = PlaceHolderIndex.scan(mainDocumentPart.getContent(), "{{", "}}");
+        final List<PlaceHolderIndex.Entry> entries = index.getEntries();
+
+        Assertions.assertEquals(2, entries.size());
+        Assertions.assertEquals("description", entries.get(0)
+                                                      .getKey());
+        Assertions.assertEquals(1, entries.get(0)
+                                          .getPosition());
+        Assertions.assertEquals("footer", entries.get(1)
+                                                 .getKey());
+        Assertions.assertEquals(3, entries.get(1)
+                                          .getPosition());
+    }
+
+    @Test
+    @SneakyThrows
+    public void given_template_and_html_data_when_render_then_replace_html_placeholder() {
+        final WordprocessingMLPackage wordMLPackage = WordprocessingMLPackage.createPackage();
+        final MainDocumentPart mainDocumentPart = wordMLPackage.getMainDocumentPart();
+        mainDocumentPart.addParagraphOfText("标题");
+        mainDocumentPart.addParagraphOfText("${description}");
+        final ByteArrayOutputStream templateOutputStream = new ByteArrayOutputStream();
+        wordMLPackage.save(templateOutputStream);
+        final CompiledTemplate template = CompiledTemplate.compile(templateOutputStream.toByteArray());
+
+        final Map<String, Object> data = new HashMap<>();
+        data.put("description", "<p>嘉文四世</p><p>德玛西亚</p>");
+
+        for (int i = 0; i < 2; i++) {
+            final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            Docs.builder(template)
+                .placeHolderPreSuffix("${", "}")
+                .buildWord(data, outputStream);
+
+            final List<Object> content = WordprocessingMLPackage.load(new ByteArrayInputStream(outputStream.toByteArray()))
+                                                                .getMainDocumentPart()
+                                                                .getContent();
+            Assertions.assertEquals(3, content.size());
+            Assertions.assertEquals("德玛西亚", DocUtils.extractText(content.get(2)));
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    public void given_padded_data_key_when_render_then_match_trimmed_key() {
+        final WordprocessingMLPackage wordMLPackage = WordprocessingMLPackage.createPackage();
+        wordMLPackage.getMainDocumentPart()
+                     .addParagraphOfText("{{content}}");
+        final ByteArrayOutputStream templateOutputStream = new ByteArrayOutputStream();
+        wordMLPackage.save(templateOutputStream);
+
+        final Map<String, Object> data = new HashMap<>();
+        data.put(" content ", "<p>嘉文四世</p>");
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        Docs.builder(CompiledTemplate.compile(templateOutputStream.toByteArray()))
+            .buildWord(data, outputStream);
+
+        final List<Object> content = WordprocessingMLPackage.load(new ByteArrayInputStream(outputStream.toByteArray()))
+                                                            .getMainDocumentPart()
+                                                            .getContent();
+        Assertions.assertEquals("嘉文四世", DocUtils.extractText(content.get(0)));
+    }
+
+    @Test
+    @SneakyThrows
+    public void given_renamed_placeholder_with_same_size_when_validate_then_invalid() {
+        final WordprocessingMLPackage wordMLPackage = WordprocessingMLPackage.createPackage();
+        final MainDocumentPart mainDocumentPart = wordMLPackage.getMainDocumentPart();
+        mainDocumentPart.addParagraphOfText("标题");
+        mainDocumentPart.addParagraphOfText("{{description}}");
+        final PlaceHolderIndex index = PlaceHolderIndex.scan(mainDocumentPart.getContent(), "{{", "}}");
+        Assertions.assertTrue(index.isValidFor(mainDocumentPart.getContent()));
+
+        mainDocumentPart.getContent()
+                        .set(1, mainDocumentPart.createParagraphOfText("{{summary}}"));
+        Assertions.assertFalse(index.isValidFor(mainDocumentPart.getContent()));
+    }
+}
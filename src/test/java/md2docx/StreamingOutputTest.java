@@ -0,0 +1,153 @@
+package md2docx;
+
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * streaming output test
+ *
+ * @author ludangxin
+ * @since 2026/10/17
+ */
+@Slf4j
+public class StreamingOutputTest {
+    @Test
+    @SneakyThrows
+    public void given_channel_when_build_word_then_close_only_if_auto_close() {
+        for (boolean autoCloseStream : new boolean[]{true, false}) {
+            final AtomicBoolean closed = new AtomicBoolean();
+            final ByteArrayOutputStream outputStream = new ByteArrayOutputStream() {
+                @Override
+                public void close() {
+                    closed.set(true);
+                }
+            };
+            final WritableByteChannel channel = Channels.newChannel(outputStream);
+
+            Docs.builder()
+                .autoCloseStream(autoCloseStream)
+                .buildWord(Markdowns.builder("# 嘉文四世\n\n<p>德玛西亚</p>\n"), channel);
+
+            Assertions.assertEquals(autoCloseStream, closed.get());
+            Assertions.assertEquals(autoCloseStream, !channel.isOpen());
+            final WordprocessingMLPackage wordMLPackage = WordprocessingMLPackage.load(new ByteArrayInputStream(outputStream.toByteArray()));
+            Assertions.assertTrue(wordMLPackage.getMainDocumentPart()
+                                               .getXML()
+                                               .contains("德玛西亚"));
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    public void given_placeholder_data_when_build_word_with_auto_close_then_close_once() {
+        final WordprocessingMLPackage wordMLPackage = WordprocessingMLPackage.createPackage();
+        wordMLPackage.getMainDocumentPart()
+                     .addParagraphOfText("{{user}}");
+        wordMLPackage.getMainDocumentPart()
+                     .addParagraphOfText("{{description}}");
+        final ByteArrayOutputStream templateOutputStream = new ByteArrayOutputStream();
+        wordMLPackage.save(templateOutputStream);
+        final CompiledTemplate template = CompiledTemplate.compile(templateOutputStream.toByteArray());
+
+        // 普通、html、混合三种占位符数据
+        final List<Map<String, Object>> dataList = new ArrayList<>();
+        dataList.add(Collections.singletonMap("user", "嘉文四世"));
+        dataList.add(Collections.singletonMap("description", "<p>德玛西亚</p>"));
+        final Map<String, Object> mixed = new HashMap<>();
+        mixed.put("user", "嘉文四世");
+        mixed.put("description", "<p>德玛西亚</p>");
+        dataList.add(mixed);
+
+        for (Map<String, Object> data : dataList) {
+            final AtomicInteger closed = new AtomicInteger();
+            final ByteArrayOutputStream outputStream = new ByteArrayOutputStream() {
+                @Override
+                public void close() {
+                    closed.incrementAndGet();
+                }
+            };
+
+            Docs.builder(template)
+                .autoCloseStream(true)
+                .buildWord(data, outputStream);
+
+            Assertions.assertEquals(1, closed.get(), data.keySet()
+                                                         .toString());
+            Assertions.assertTrue(outputStream.size() > 0);
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    public void given_streaming_output_when_build_markdown_then_same_as_save() {
+        final StringBuilder markdown = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            markdown.append("## 英雄")
+                    .append(i)
+                    .append("\n\n详情见 [英雄联盟](https://lol.qq.com/")
+                    .append(i)
+                    .append(") ![盾](data:image/png;base64,iVBORw0KGgoAAAANSUhEUgAAAAEAAAABCAYAAAAfFcSJAAAADUlEQVR42mP8z8BQDwAEhQGAhKmMIQAAAABJRU5ErkJggg==)\n\n")
+                    .append("1. 龙枪破防\n2. 天崩地裂\n\n| 技能 | 冷却 |\n| --- | --- |\n| 天崩地裂 | 120 |\n\n<p>德玛西亚</p>\n\n");
+        }
+
+        final ByteArrayOutputStream saved = new ByteArrayOutputStream();
+        Docs.builder()
+            .buildWord(Markdowns.builder(markdown.toString()), saved);
+        final ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+        final InMemoryDocMetricsListener listener = new InMemoryDocMetricsListener();
+        Docs.builder()
+            .largeDocument(256, 1)
+            .streamingOutput(true)
+            .metricsListener(listener)
+            .buildWord(Markdowns.builder(markdown.toString()), streamed);
+
+        final WordprocessingMLPackage expected = WordprocessingMLPackage.load(new ByteArrayInputStream(saved.toByteArray()));
+        final WordprocessingMLPackage actual = WordprocessingMLPackage.load(new ByteArrayInputStream(streamed.toByteArray()));
+        // 图片的 drawing id 全局递增, 比较时忽略
+        Assertions.assertEquals(expected.getMainDocumentPart()
+                                        .getXML()
+                                        .replaceAll(" id=\"\\d+\"", ""), actual.getMainDocumentPart()
+                                                                                 .getXML()
+                                                                                 .replaceAll(" id=\"\\d+\"", ""));
+        Assertions.assertEquals(expected.getParts()
+                                        .getParts()
+                                        .keySet(), actual.getParts()
+                                                         .getParts()
+                                                         .keySet());
+        Assertions.assertEquals(expected.getMainDocumentPart()
+                                        .getContent()
+                                        .size(), listener.getStageSummary(DocStage.MARKDOWN_TO_WORDML)
+                                                         .getElements());
+    }
+
+    @Test
+    @SneakyThrows
+    public void given_temp_file_when_write_and_delete_then_copy_and_delete() {
+        final File tempFile = DocUtils.createTempDocFile();
+        HtmlToDocx.convertHtmlToDocx("<p>德玛西亚</p>", tempFile.getPath());
+        final byte[] content = Files.readAllBytes(tempFile.toPath());
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        DocUtils.writeAndDeleteFile(tempFile, outputStream);
+
+        Assertions.assertFalse(tempFile.exists());
+        Assertions.assertArrayEquals(content, outputStream.toByteArray());
+    }
+}
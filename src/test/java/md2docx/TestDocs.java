@@ -0,0 +1,84 @@
+package md2docx;
+
+import lombok.SneakyThrows;
+import org.docx4j.jaxb.Context;
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.docx4j.openpackaging.parts.WordprocessingML.MainDocumentPart;
+import org.docx4j.wml.ObjectFactory;
+import org.docx4j.wml.P;
+import org.docx4j.wml.R;
+import org.docx4j.wml.Text;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * 测试共用的文档构建和比较方法
+ *
+ * @author ludangxin
+ * @since 2026/10/17
+ */
+final class TestDocs {
+    private TestDocs() {
+    }
+
+    /**
+     * 转换 markdown 并重新加载正文
+     */
+    @SneakyThrows
+    static MainDocumentPart build(Docs.DocBuilder builder, String markdown) {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        builder.buildWord(Markdowns.builder(markdown), outputStream);
+        return WordprocessingMLPackage.load(new ByteArrayInputStream(outputStream.toByteArray()))
+                                      .getMainDocumentPart();
+    }
+
+    /**
+     * 去掉按文档分配的编号(关系 id、图片 id、列表编号), 用于比较不同方式生成的正文
+     */
+    static String normalize(String xml) {
+        return xml.replaceAll("r:(id|embed)=\"rId\\d+\"", "r:$1")
+                  .replaceAll(" id=\"\\d+\"", "")
+                  .replaceAll("w:numId w:val=\"\\d+\"", "w:numId");
+    }
+
+    /**
+     * 每段文本一个 run 的段落, 用于模拟占位符被拆分到多个 run 中
+     */
+    static P paragraph(String... texts) {
+        final ObjectFactory factory = Context.getWmlObjectFactory();
+        final P p = factory.createP();
+        for (String value : texts) {
+            final R r = factory.createR();
+            final Text text = factory.createText();
+            text.setValue(value);
+            r.getContent()
+             .add(factory.createRT(text));
+            p.getContent()
+             .add(r);
+        }
+        return p;
+    }
+
+    /**
+     * docx 中的 zip 条目 <条目名, 条目>
+     */
+    static Map<String, ZipEntry> zipEntries(byte[] docx) throws IOException {
+        final Map<String, ZipEntry> entries = new HashMap<>();
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(docx))) {
+            ZipEntry entry;
+            while ((entry = in.getNextEntry()) != null) {
+                // 读完条目后才能拿到数据描述符中的 crc 和大小
+                while (in.read() != -1) {
+                }
+                entries.put(entry.getName(), entry);
+            }
+        }
+        return entries;
+    }
+}
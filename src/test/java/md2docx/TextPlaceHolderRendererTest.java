@@ -0,0 +1,143 @@
+package md2docx;
+
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.docx4j.openpackaging.parts.WordprocessingML.MainDocumentPart;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * text placeholder renderer test
+ *
+ * @author ludangxin
+ * @since 2026/10/17
+ */
+@Slf4j
+public class TextPlaceHolderRendererTest {
+    @Test
+    @SneakyThrows
+    public void given_placeholder_split_into_runs_when_render_then_replace() {
+        final WordprocessingMLPackage wordMLPackage = WordprocessingMLPackage.createPackage();
+        final MainDocumentPart mainDocumentPart = wordMLPackage.getMainDocumentPart();
+        mainDocumentPart.getContent()
+                        .add(TestDocs.paragraph("召唤师: {", "{summ", "oner}} / {{position}}"));
+        mainDocumentPart.addParagraphOfText("{{dialogue}}!");
+
+        final Map<String, Object> data = new HashMap<>();
+        data.put("summoner", "张铁牛");
+        data.put("dialogue", "给我找些\n更强的敌人");
+
+        final TextPlaceHolderRenderer renderer = TextPlaceHolderRenderer.scan(wordMLPackage, "{{", "}}");
+        Assertions.assertTrue(renderer.supports(data));
+        renderer.render(data);
+
+        final List<Object> content = mainDocumentPart.getContent();
+        Assertions.assertEquals("召唤师: 张铁牛 / ", DocUtils.extractText(content.get(0)));
+        Assertions.assertEquals("给我找些更强的敌人!", DocUtils.extractText(content.get(1)));
+    }
+
+    @Test
+    @SneakyThrows
+    public void given_poi_tl_special_tag_when_check_then_not_supported() {
+        final WordprocessingMLPackage wordMLPackage = WordprocessingMLPackage.createPackage();
+        wordMLPackage.getMainDocumentPart()
+                     .addParagraphOfText("{{@avatar}}");
+
+        final TextPlaceHolderRenderer renderer = TextPlaceHolderRenderer.scan(wordMLPackage, "{{", "}}");
+        Assertions.assertFalse(renderer.supports(new HashMap<>()));
+    }
+
+    @Test
+    @SneakyThrows
+    public void given_mixed_data_when_build_word_then_replace_all_placeholders() {
+        final WordprocessingMLPackage wordMLPackage = WordprocessingMLPackage.createPackage();
+        final MainDocumentPart mainDocumentPart = wordMLPackage.getMainDocumentPart();
+        mainDocumentPart.addParagraphOfText("英雄名称: {{user}}");
+        mainDocumentPart.addParagraphOfText("{{description}}");
+        final ByteArrayOutputStream templateOutputStream = new ByteArrayOutputStream();
+        wordMLPackage.save(templateOutputStream);
+
+        final Map<String, Object> data = new HashMap<>();
+        data.put("user", "嘉文四世");
+        data.put("description", "<p>德玛西亚</p>");
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        Docs.builder(new ByteArrayInputStream(templateOutputStream.toByteArray()))
+            .buildWord(data, outputStream);
+
+        final List<Object> content = WordprocessingMLPackage.load(new ByteArrayInputStream(outputStream.toByteArray()))
+                                                            .getMainDocumentPart()
+                                                            .getContent();
+        Assertions.assertEquals("英雄名称: 嘉文四世", DocUtils.extractText(content.get(0)));
+        Assertions.assertEquals("德玛西亚", DocUtils.extractText(content.get(1)));
+    }
+
+    @Test
+    @SneakyThrows
+    public void given_non_tag_braces_next_to_tags_when_render_then_keep_non_tag_text() {
+        final WordprocessingMLPackage wordMLPackage = WordprocessingMLPackage.createPackage();
+        final MainDocumentPart mainDocumentPart = wordMLPackage.getMainDocumentPart();
+        mainDocumentPart.getContent()
+                        .add(TestDocs.paragraph("A {{a-b}} B {{foo", " bar}} C {{o", "k}}"));
+        mainDocumentPart.addParagraphOfText("{{ ok }} {{英雄}}");
+
+        final Map<String, Object> data = new HashMap<>();
+        data.put("ok", "X");
+        data.put("英雄", "嘉文四世");
+
+        final TextPlaceHolderRenderer renderer = TextPlaceHolderRenderer.scan(wordMLPackage, "{{", "}}");
+        Assertions.assertTrue(renderer.supports(data));
+        renderer.render(data);
+
+        // 与 poi-tl 一致: 不符合标签语法的文本原样保留
+        final List<Object> content = mainDocumentPart.getContent();
+        Assertions.assertEquals("A {{a-b}} B {{foo bar}} C X", DocUtils.extractText(content.get(0)));
+        Assertions.assertEquals("{{ ok }} 嘉文四世", DocUtils.extractText(content.get(1)));
+    }
+
+    @Test
+    @SneakyThrows
+    public void given_dotted_tag_when_check_then_not_supported() {
+        final WordprocessingMLPackage wordMLPackage = WordprocessingMLPackage.createPackage();
+        wordMLPackage.getMainDocumentPart()
+                     .addParagraphOfText("{{英雄.名称}}");
+
+        // poi-tl 按对象属性求值, 数据中同名的 key 不参与
+        final Map<String, Object> data = new HashMap<>();
+        data.put("英雄.名称", "嘉文四世");
+        Assertions.assertFalse(TextPlaceHolderRenderer.scan(wordMLPackage, "{{", "}}")
+                                                      .supports(data));
+    }
+
+    @Test
+    @SneakyThrows
+    public void given_mixed_data_and_non_tag_braces_when_build_word_then_keep_non_tag_text() {
+        final WordprocessingMLPackage wordMLPackage = WordprocessingMLPackage.createPackage();
+        final MainDocumentPart mainDocumentPart = wordMLPackage.getMainDocumentPart();
+        mainDocumentPart.addParagraphOfText("A {{a-b}} B {{foo bar}} C {{ok}}");
+        mainDocumentPart.addParagraphOfText("{{description}}");
+        final ByteArrayOutputStream templateOutputStream = new ByteArrayOutputStream();
+        wordMLPackage.save(templateOutputStream);
+
+        final Map<String, Object> data = new HashMap<>();
+        data.put("ok", "X");
+        data.put("description", "<p>德玛西亚</p>");
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        Docs.builder(new ByteArrayInputStream(templateOutputStream.toByteArray()))
+            .buildWord(data, outputStream);
+
+        final List<Object> content = WordprocessingMLPackage.load(new ByteArrayInputStream(outputStream.toByteArray()))
+                                                            .getMainDocumentPart()
+                                                            .getContent();
+        Assertions.assertEquals("A {{a-b}} B {{foo bar}} C X", DocUtils.extractText(content.get(0)));
+        Assertions.assertEquals("德玛西亚", DocUtils.extractText(content.get(1)));
+    }
+}
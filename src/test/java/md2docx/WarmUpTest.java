@@ -0,0 +1,71 @@
+package md2docx;
+
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * warm up test
+ *
+ * @author ludangxin
+ * @since 2026/10/17
+ */
+@Slf4j
+public class WarmUpTest {
+    @Test
+    public void given_warmed_up_when_warm_up_again_then_return_immediately() {
+        Docs.warmUp();
+
+        Assertions.assertEquals(0, WarmUp.run());
+    }
+
+    @Test
+    @SneakyThrows
+    public void given_new_jvm_when_warm_up_then_load_poi_tl_and_poi_classes() {
+        final String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        final Process process = new ProcessBuilder(java, "-verbose:class", "-cp", classPath(), WarmUp.class.getName()).redirectErrorStream(true)
+                                                                                                                       .start();
+        boolean poiTl = false;
+        boolean poi = false;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                poiTl |= line.contains("com.deepoove.poi.XWPFTemplate");
+                poi |= line.contains("org.apache.poi.xwpf.usermodel.XWPFDocument");
+            }
+        }
+
+        Assertions.assertTrue(process.waitFor(2, TimeUnit.MINUTES));
+        Assertions.assertEquals(0, process.exitValue());
+        Assertions.assertTrue(poiTl, "poi-tl classes are not loaded by warm up");
+        Assertions.assertTrue(poi, "poi xwpf classes are not loaded by warm up");
+    }
+
+    /**
+     * 当前测试的类路径, 测试框架使用自定义类加载器时一并加入其中的路径
+     */
+    @SneakyThrows
+    private static String classPath() {
+        final Set<String> paths = new LinkedHashSet<>();
+        for (ClassLoader loader = WarmUpTest.class.getClassLoader(); loader != null; loader = loader.getParent()) {
+            if (loader instanceof URLClassLoader) {
+                for (URL url : ((URLClassLoader) loader).getURLs()) {
+                    paths.add(new File(url.toURI()).getPath());
+                }
+            }
+        }
+        paths.add(System.getProperty("java.class.path"));
+        return String.join(File.pathSeparator, paths);
+    }
+}
@@ -0,0 +1,213 @@
+package md2docx;
+
+import com.deepoove.poi.config.Configure;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.docx4j.jaxb.Context;
+import org.docx4j.model.structure.SectionWrapper;
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.docx4j.openpackaging.parts.PartName;
+import org.docx4j.openpackaging.parts.WordprocessingML.HeaderPart;
+import org.docx4j.openpackaging.parts.WordprocessingML.MainDocumentPart;
+import org.docx4j.relationships.Relationship;
+import org.docx4j.wml.HdrFtrRef;
+import org.docx4j.wml.HeaderReference;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * zip placeholder renderer test
+ *
+ * @author ludangxin
+ * @since 2026/10/17
+ */
+@Slf4j
+public class ZipPlaceHolderRendererTest {
+    @Test
+    @SneakyThrows
+    public void given_plain_placeholders_when_build_word_then_same_text_as_poi_tl() {
+        final CompiledTemplate template = CompiledTemplate.compile(template());
+        final Map<String, Object> data = new HashMap<>();
+        data.put("summoner", "张铁牛");
+        data.put("dialogue", "给我找些\n更强的敌人 & <德玛西亚>");
+        data.put("region", "德玛西亚");
+
+        Assertions.assertTrue(template.getZipPlaceHolderRenderer("{{", "}}")
+                                      .supports(data));
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        Docs.builder(template)
+            .buildWord(data, outputStream);
+        final ByteArrayOutputStream poiTlOutputStream = new ByteArrayOutputStream();
+        Docs.builder(template)
+            .templateEngineConfigure(Configure.createDefault())
+            .buildWord(data, poiTlOutputStream);
+
+        final List<String> texts = texts(outputStream.toByteArray());
+        Assertions.assertEquals(texts(poiTlOutputStream.toByteArray()), texts);
+        Assertions.assertEquals("召唤师: 张铁牛 / ", texts.get(0));
+        Assertions.assertEquals("给我找些更强的敌人 & <德玛西亚>!", texts.get(1));
+        Assertions.assertEquals("德玛西亚 header", texts.get(texts.size() - 1));
+    }
+
+    @Test
+    @SneakyThrows
+    public void given_plain_placeholders_when_build_word_then_copy_other_entries_raw() {
+        final byte[] templateContent = template();
+        final Map<String, Object> data = new HashMap<>();
+        data.put("summoner", "张铁牛");
+
+        final File templateFile = Files.createTempFile("template-", ".docx")
+                                       .toFile();
+        final File output = Files.createTempFile("output-", ".docx")
+                                 .toFile();
+        try {
+            Files.write(templateFile.toPath(), templateContent);
+            Docs.builder(CompiledTemplate.compile(templateContent))
+                .buildWord(data, output);
+
+            try (ZipFile source = new ZipFile(templateFile); ZipFile target = new ZipFile(output)) {
+                final Enumeration<? extends ZipEntry> entries = source.entries();
+                while (entries.hasMoreElements()) {
+                    final ZipEntry entry = entries.nextElement();
+                    final ZipEntry copy = target.getEntry(entry.getName());
+                    Assertions.assertNotNull(copy, entry.getName());
+                    if (entry.getName()
+                             .startsWith("word/document") || entry.getName()
+                                                                 .startsWith("word/header")) {
+                        continue;
+                    }
+                    Assertions.assertEquals(entry.getCrc(), copy.getCrc(), entry.getName());
+                    Assertions.assertEquals(entry.getCompressedSize(), copy.getCompressedSize(), entry.getName());
+                }
+            }
+        }
+        finally {
+            Files.deleteIfExists(templateFile.toPath());
+            Files.deleteIfExists(output.toPath());
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    public void given_poi_tl_special_tag_when_check_then_not_supported() {
+        final WordprocessingMLPackage wordMLPackage = WordprocessingMLPackage.createPackage();
+        wordMLPackage.getMainDocumentPart()
+                     .addParagraphOfText("{{@avatar}}");
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        wordMLPackage.save(outputStream);
+
+        final CompiledTemplate template = CompiledTemplate.compile(outputStream.toByteArray());
+        Assertions.assertFalse(template.getZipPlaceHolderRenderer("{{", "}}")
+                                       .supports(new HashMap<>()));
+    }
+
+    @Test
+    @SneakyThrows
+    public void given_non_tag_text_when_build_word_then_keep_it_like_poi_tl() {
+        final WordprocessingMLPackage wordMLPackage = WordprocessingMLPackage.createPackage();
+        wordMLPackage.getMainDocumentPart()
+                     .addParagraphOfText("{{a-b}} {{summoner}} {{foo bar}}");
+        final ByteArrayOutputStream templateOutputStream = new ByteArrayOutputStream();
+        wordMLPackage.save(templateOutputStream);
+        final CompiledTemplate template = CompiledTemplate.compile(templateOutputStream.toByteArray());
+        final Map<String, Object> data = new HashMap<>();
+        data.put("summoner", "张铁牛");
+        data.put("a-b", "德玛西亚");
+
+        Assertions.assertTrue(template.getZipPlaceHolderRenderer("{{", "}}")
+                                      .supports(data));
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        Docs.builder(template)
+            .buildWord(data, outputStream);
+        final ByteArrayOutputStream poiTlOutputStream = new ByteArrayOutputStream();
+        Docs.builder(template)
+            .templateEngineConfigure(Configure.createDefault())
+            .buildWord(data, poiTlOutputStream);
+
+        final String text = DocUtils.extractText(WordprocessingMLPackage.load(new ByteArrayInputStream(outputStream.toByteArray()))
+                                                                        .getMainDocumentPart()
+                                                                        .getContent()
+                                                                        .get(0));
+        Assertions.assertEquals("{{a-b}} 张铁牛 {{foo bar}}", text);
+        Assertions.assertEquals(DocUtils.extractText(WordprocessingMLPackage.load(new ByteArrayInputStream(poiTlOutputStream.toByteArray()))
+                                                                            .getMainDocumentPart()
+                                                                            .getContent()
+                                                                            .get(0)), text);
+    }
+
+    @Test
+    @SneakyThrows
+    public void given_dotted_tag_when_check_then_not_supported() {
+        final WordprocessingMLPackage wordMLPackage = WordprocessingMLPackage.createPackage();
+        wordMLPackage.getMainDocumentPart()
+                     .addParagraphOfText("{{hero.name}}");
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        wordMLPackage.save(outputStream);
+
+        final Map<String, Object> data = new HashMap<>();
+        data.put("hero.name", "嘉文四世");
+        final CompiledTemplate template = CompiledTemplate.compile(outputStream.toByteArray());
+        Assertions.assertFalse(template.getZipPlaceHolderRenderer("{{", "}}")
+                                       .supports(data));
+    }
+
+    private static byte[] template() throws Exception {
+        final WordprocessingMLPackage wordMLPackage = WordprocessingMLPackage.createPackage();
+        final MainDocumentPart mainDocumentPart = wordMLPackage.getMainDocumentPart();
+        mainDocumentPart.getContent()
+                        .add(TestDocs.paragraph("召唤师: {", "{summ", "oner}} / {{position}}"));
+        mainDocumentPart.addParagraphOfText("{{dialogue}}!");
+
+        final HeaderPart headerPart = new HeaderPart(new PartName("/word/header1.xml"));
+        headerPart.setJaxbElement(Context.getWmlObjectFactory()
+                                         .createHdr());
+        headerPart.getContent()
+                  .add(TestDocs.paragraph("{{region}} header"));
+        final Relationship relationship = mainDocumentPart.addTargetPart(headerPart);
+        final HeaderReference headerReference = Context.getWmlObjectFactory()
+                                                       .createHeaderReference();
+        headerReference.setId(relationship.getId());
+        headerReference.setType(HdrFtrRef.DEFAULT);
+        final List<SectionWrapper> sections = wordMLPackage.getDocumentModel()
+                                                           .getSections();
+        sections.get(sections.size() - 1)
+                .getSectPr()
+                .getEGHdrFtrReferences()
+                .add(headerReference);
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        wordMLPackage.save(outputStream);
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * 正文各段落的文本, 最后是页眉的文本
+     */
+    private static List<String> texts(byte[] docx) throws Exception {
+        final WordprocessingMLPackage wordMLPackage = WordprocessingMLPackage.load(new ByteArrayInputStream(docx));
+        final List<String> texts = new ArrayList<>();
+        for (Object o : wordMLPackage.getMainDocumentPart()
+                                     .getContent()) {
+            texts.add(DocUtils.extractText(o));
+        }
+        final HeaderPart headerPart = (HeaderPart) wordMLPackage.getParts()
+                                                                .get(new PartName("/word/header1.xml"));
+        texts.add(DocUtils.extractText(headerPart.getContent()
+                                                 .get(0)));
+        return texts;
+    }
+}